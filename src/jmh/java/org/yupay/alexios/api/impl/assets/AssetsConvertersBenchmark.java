@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.assets;
+
+import com.google.api.services.sheets.v4.model.CellData;
+import org.openjdk.jmh.annotations.*;
+import org.yupay.alexios.tools.WorkbookGenerator;
+import org.yupay.alexios.vault.ExchangeRates;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the LE070000 converters, one row per operation.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AssetsConvertersBenchmark {
+    private LE0701Converter le0701;
+    private LE0703Converter le0703;
+    private LE0704Converter le0704;
+
+    private List<CellData> row0701;
+    private List<CellData> row0703;
+    private List<CellData> row0704;
+
+    /**
+     * Creates the converters and one sample row per converter.
+     */
+    @Setup
+    public void setUp() {
+        var generator = new WorkbookGenerator().withSeed(700).withRows(1);
+        var params = new LE0700Params("20100070970", "2024", "1");
+        le0701 = new LE0701Converter(params);
+        le0703 = new LE0703Converter(params, ExchangeRates.EMPTY);
+        le0704 = new LE0704Converter(params);
+
+        row0701 = generator.generateRows("u" + "t".repeat(15) + "n".repeat(9) + "ddttt" + "n".repeat(9)).getFirst();
+        row0703 = generator.generateRows("td" + "n".repeat(8)).getFirst();
+        row0704 = generator.generateRows("tdttdin").getFirst();
+    }
+
+    @Benchmark
+    public String le0701() {
+        return le0701.apply(row0701);
+    }
+
+    @Benchmark
+    public String le0703() {
+        return le0703.apply(row0703);
+    }
+
+    @Benchmark
+    public String le0704() {
+        return le0704.apply(row0704);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.balances;
+
+import com.google.api.services.sheets.v4.model.CellData;
+import org.openjdk.jmh.annotations.*;
+import org.yupay.alexios.tools.WorkbookGenerator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the LE030000 converters, one row per operation.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BalancesConvertersBenchmark {
+    private final Params03 params = new Params03("20100070970", "2024", "12", "31", "01", "1");
+
+    private LE0302Converter le0302;
+    private ReceivableConverter receivable;
+    private LE0306Converter le0306;
+    private LE0307Converter le0307;
+    private LE0308Converter le0308;
+    private LE0309Converter le0309;
+    private LE0311Converter le0311;
+    private LE0312Converter le0312;
+    private LE0313Converter le0313;
+    private LE0315Converter le0315;
+    private LE031602Converter le031602;
+    private LE031700Converter le031700;
+    private LE031900Converter le031900;
+    private FinancialConverter financial;
+
+    private List<CellData> row0302;
+    private List<CellData> rowReceivable;
+    private List<CellData> row0306;
+    private List<CellData> row0307;
+    private List<CellData> row0308;
+    private List<CellData> row0309;
+    private List<CellData> row0311;
+    private List<CellData> row0312;
+    private List<CellData> row0313;
+    private List<CellData> row0315;
+    private List<CellData> row031602;
+    private List<CellData> row031700;
+    private List<CellData> row031900;
+    private List<CellData> rowFinancial;
+
+    /**
+     * Creates the converters and one sample row for each of them.
+     */
+    @Setup
+    public void setUp() {
+        var generator = new WorkbookGenerator().withSeed(710).withRows(1);
+        le0302 = new LE0302Converter(params);
+        receivable = new ReceivableConverter(params);
+        le0306 = new LE0306Converter(params);
+        le0307 = new LE0307Converter(params);
+        le0308 = new LE0308Converter(params);
+        le0309 = new LE0309Converter(params);
+        le0311 = new LE0311Converter(params);
+        le0312 = new LE0312Converter(params);
+        le0313 = new LE0313Converter(params);
+        le0315 = new LE0315Converter(params);
+        le031602 = new LE031602Converter(params);
+        le031700 = new LE031700Converter(params);
+        le031900 = new LE031900Converter(params);
+        financial = new FinancialConverter(params, null);
+
+        row0302 = generator.generateRows("ottttntt").getFirst();
+        rowReceivable = generator.generateRows("ktotdntf", "12", "13").getFirst();
+        row0306 = generator.generateRows("ktotttttdn").getFirst();
+        row0307 = generator.generateRows("tttttttttttnnn").getFirst();
+        row0308 = generator.generateRows("ktotttninnt").getFirst();
+        row0309 = generator.generateRows("dotnn").getFirst();
+        row0311 = generator.generateRows("oktottnt").getFirst();
+        row0312 = generator.generateRows("ktodtntf", "12", "13").getFirst();
+        row0313 = generator.generateRows("ktodtontf", "12", "13").getFirst();
+        row0315 = generator.generateRows("ttttotnnn").getFirst();
+        row031602 = generator.generateRows("ktocttin").getFirst();
+        row031700 = generator.generateRows("it" + "n".repeat(16)).getFirst();
+        row031900 = generator.generateRows("ttt" + "n".repeat(12)).getFirst();
+        rowFinancial = generator.generateRows("tttn").getFirst();
+    }
+
+    @Benchmark
+    public String le0302() {
+        return le0302.apply(row0302);
+    }
+
+    @Benchmark
+    public String receivable() {
+        return receivable.apply(rowReceivable);
+    }
+
+    @Benchmark
+    public String le0306() {
+        return le0306.apply(row0306);
+    }
+
+    @Benchmark
+    public String le0307() {
+        return le0307.apply(row0307);
+    }
+
+    @Benchmark
+    public String le0308() {
+        return le0308.apply(row0308);
+    }
+
+    @Benchmark
+    public String le0309() {
+        return le0309.apply(row0309);
+    }
+
+    @Benchmark
+    public String le0311() {
+        return le0311.apply(row0311);
+    }
+
+    @Benchmark
+    public String le0312() {
+        return le0312.apply(row0312);
+    }
+
+    @Benchmark
+    public String le0313() {
+        return le0313.apply(row0313);
+    }
+
+    @Benchmark
+    public String le0315() {
+        return le0315.apply(row0315);
+    }
+
+    @Benchmark
+    public String le031602() {
+        return le031602.apply(row031602);
+    }
+
+    @Benchmark
+    public String le031700() {
+        return le031700.apply(row031700);
+    }
+
+    @Benchmark
+    public String le031900() {
+        return le031900.apply(row031900);
+    }
+
+    @Benchmark
+    public String financial() {
+        return financial.apply(rowFinancial);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.costs;
+
+import com.google.api.services.sheets.v4.model.CellData;
+import org.openjdk.jmh.annotations.*;
+import org.yupay.alexios.tools.WorkbookGenerator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the LE100000 converters, one row per operation.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CostsConvertersBenchmark {
+    private LE1001Converter le1001;
+    private LE1002Converter le1002;
+    private LE1003Converter le1003;
+    private LE1004Converter le1004;
+
+    private List<CellData> row1001;
+    private List<CellData> row1002;
+    private List<CellData> row1003;
+    private List<CellData> row1004;
+
+    /**
+     * Creates the converters and one sample row for each of them.
+     */
+    @Setup
+    public void setUp() {
+        var generator = new WorkbookGenerator().withSeed(1000).withRows(1);
+        le1001 = new LE1001Converter("2024");
+        le1002 = new LE1002Converter("2024");
+        le1003 = new LE1003Converter("2024");
+        le1004 = new LE1004Converter("2024");
+
+        row1001 = generator.generateRows("nnnn").getFirst();
+        row1002 = generator.generateRows("itnnnnnn").getFirst();
+        row1003 = generator.generateRows("tt" + "n".repeat(8) + "t").getFirst();
+        row1004 = generator.generateRows("tttt").getFirst();
+    }
+
+    @Benchmark
+    public String le1001() {
+        return le1001.apply(row1001);
+    }
+
+    @Benchmark
+    public String le1002() {
+        return le1002.apply(row1002);
+    }
+
+    @Benchmark
+    public String le1003() {
+        return le1003.apply(row1003);
+    }
+
+    @Benchmark
+    public String le1004() {
+        return le1004.apply(row1004);
+    }
+}
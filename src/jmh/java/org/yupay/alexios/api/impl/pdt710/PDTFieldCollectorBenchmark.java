@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.pdt710;
+
+import com.google.api.services.sheets.v4.model.CellData;
+import org.openjdk.jmh.annotations.*;
+import org.yupay.alexios.api.Money;
+import org.yupay.alexios.tools.WorkbookGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregation of a whole 030300 worksheet into PDT710 fields, the way
+ * {@link PDTProcessor} does it: filter by flag, map into {@link PDTField}
+ * and collect with {@link PDTFieldCollector}. One operation is one sheet.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class PDTFieldCollectorBenchmark {
+    /**
+     * Row count of the worksheet.
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+    /**
+     * How many different counterparties (doi numbers) appear in the worksheet.
+     */
+    @Param({"100", "10000"})
+    public int counterparties;
+
+    private final Money limit = Money.ofCents(1_070_000);
+    private List<List<CellData>> sheet;
+
+    /**
+     * Creates the worksheet rows. Counterparty cells are shared among rows,
+     * amounts are one cell per row.
+     */
+    @Setup
+    public void setUp() {
+        var random = new Random(30300);
+        var generator = new WorkbookGenerator().withSeed(30300).withCounterparties(counterparties);
+        //The DOI type, DOI number and name of each counterparty.
+        var parties = generator.withRows(counterparties).generateRows("kop");
+        var amounts = generator.withRows(rows).generateRows("n");
+        var date = generator.withRows(1).generateRows("d").getFirst().getFirst();
+        var flags = List.of(WorkbookGenerator.text("12"), WorkbookGenerator.text("13"));
+        var empty = WorkbookGenerator.text("");
+        sheet = new ArrayList<>(rows);
+        for (var i = 0; i < rows; i++) {
+            var who = parties.get(random.nextInt(counterparties));
+            sheet.add(List.of(
+                    who.get(0),
+                    empty,
+                    who.get(1),
+                    who.get(2),
+                    date,
+                    amounts.get(i).getFirst(),
+                    empty,
+                    flags.get(random.nextInt(2))));
+        }
+    }
+
+    @Benchmark
+    public List<?> collect() {
+        return sheet.stream()
+                .filter(new FlagFilter(7, "12"))
+                .map(PDTFieldProcessor.receivable())
+                .collect(new PDTFieldCollector(limit, false));
+    }
+
+    @Benchmark
+    public List<?> collectParallel() {
+        return sheet.parallelStream()
+                .filter(new FlagFilter(7, "12"))
+                .map(PDTFieldProcessor.receivable())
+                .collect(new PDTFieldCollector(limit, false));
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.pdt710;
+
+import org.openjdk.jmh.annotations.*;
+import org.yupay.alexios.api.Money;
+import org.yupay.alexios.api.pcge.TrialColumn;
+import org.yupay.alexios.tools.WorkbookGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.yupay.alexios.google.GoogleUtils.doubleFromCell;
+
+/**
+ * Throughput of the PDT710 trial balance converter, one row per operation.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TrialConverterBenchmark {
+    private final TrialConverter converter = new TrialConverter();
+    private final Money[] totals = new Money[TrialColumn.values().length];
+
+    /**
+     * Creates a sample 031700 account rollup.
+     */
+    @Setup
+    public void setUp() {
+        var row = new WorkbookGenerator().withSeed(31700).withRows(1).generateRows("n".repeat(totals.length)).getFirst();
+        for (var i = 0; i < totals.length; i++) totals[i] = Money.of(doubleFromCell(row.get(i)));
+    }
+
+    @Benchmark
+    public String trial() {
+        return converter.apply("10", totals);
+    }
+}
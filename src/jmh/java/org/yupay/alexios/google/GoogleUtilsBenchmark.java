@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.google;
+
+import com.google.api.services.sheets.v4.model.CellData;
+import org.openjdk.jmh.annotations.*;
+import org.yupay.alexios.tools.WorkbookGenerator;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the per cell helpers in {@link GoogleUtils} that every converter relies upon.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GoogleUtilsBenchmark {
+    private CellData amount;
+    private CellData rate;
+    private CellData date;
+    private CellData account;
+    private List<CellData> row;
+
+    /**
+     * Creates sample cells.
+     */
+    @Setup
+    public void setUp() {
+        amount = WorkbookGenerator.number(1234567.891);
+        rate = WorkbookGenerator.number(0.12345678);
+        date = WorkbookGenerator.date(LocalDate.of(2024, 12, 31));
+        account = WorkbookGenerator.text("12-1.2");
+        row = List.of(WorkbookGenerator.text("01"), WorkbookGenerator.text("F001/0000123"));
+    }
+
+    @Benchmark
+    public String decimalText() {
+        return GoogleUtils.decimalText(amount);
+    }
+
+    @Benchmark
+    public String decimalText1602() {
+        return GoogleUtils.decimalText1602(rate);
+    }
+
+    @Benchmark
+    public String fromDateCell() {
+        return GoogleUtils.fromDateCell(date);
+    }
+
+    @Benchmark
+    public String numericText() {
+        return GoogleUtils.numericText(account);
+    }
+
+    @Benchmark
+    public String safeText() {
+        return GoogleUtils.safeText(row, 1);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.ple;
+
+import org.openjdk.jmh.annotations.*;
+import org.yupay.alexios.api.BookValidationException;
+import org.yupay.alexios.api.impl.journal.DiarioProcessor;
+import org.yupay.alexios.tools.WorkbookGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Reading and checking a generated LE050100 journal TXT with {@link PleReader} and
+ * {@link PleValidator}. One operation is one file, divide by its size for bandwidth.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class PleValidatorBenchmark {
+    /**
+     * Row count of the journal.
+     */
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    private Path folder;
+    private Path file;
+
+    /**
+     * Writes the journal TXT into a temporary folder.
+     *
+     * @throws Exception if unable to write.
+     */
+    @Setup
+    public void setUp() throws Exception {
+        folder = Files.createTempDirectory("ple");
+        new DiarioProcessor().processSheet(new WorkbookGenerator().withRows(rows).generateLE0500(), folder);
+        try (Stream<Path> ls = Files.list(folder)) {
+            file = ls.findFirst().orElseThrow();
+        }
+    }
+
+    /**
+     * Deletes the temporary folder.
+     *
+     * @throws IOException if unable to delete.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> ls = Files.walk(folder)) {
+            for (var p : ls.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    @Benchmark
+    public long read() throws IOException {
+        var fields = 0L;
+        try (var reader = PleReader.open(file)) {
+            while (reader.next()) fields += reader.fieldCount();
+        }
+        return fields;
+    }
+
+    @Benchmark
+    public long validate() throws IOException, BookValidationException {
+        return PleValidator.validate(file);
+    }
+}
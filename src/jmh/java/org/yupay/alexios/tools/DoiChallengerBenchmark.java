@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.tools;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Throughput of DOI number validation over a batch of challenges. One operation
+ * is the whole batch, as {@link DoiNumberCheck} does for a worksheet.
+ * The legacy benchmark keeps the former regex/stream rules as baseline of {@link PleDoiValidator}.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DoiChallengerBenchmark {
+    /**
+     * How many DOI numbers to challenge per operation.
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private DoiChallenger[] challengers;
+
+    /**
+     * Creates a mix of DOI types with around 5% of invalid numbers.
+     */
+    @Setup
+    public void setUp() {
+        var doi = new WorkbookGenerator()
+                .withSeed(31)
+                .withRows(rows)
+                .withCounterparties(rows)
+                .withDoiErrorRate(0.05)
+                .generateRows("ko");
+        challengers = new DoiChallenger[rows];
+        for (var i = 0; i < rows; i++) {
+            var cells = doi.get(i);
+            challengers[i] = new DoiChallenger(cells.get(0).getFormattedValue(), cells.get(1).getFormattedValue(), i);
+        }
+    }
+
+    @Benchmark
+    public int challenge() {
+        var failed = 0;
+        for (var c : challengers) {
+            if (c.challengeFailed()) failed++;
+        }
+        return failed;
+    }
+
+    @Benchmark
+    public int legacy() {
+        var failed = 0;
+        for (var c : challengers) {
+            if (!legacyChallenge(c.doiType(), c.doiNumber())) failed++;
+        }
+        return failed;
+    }
+
+    /**
+     * The former implementation of {@link DoiChallenger#challenge()}.
+     *
+     * @param doiType   the DOI type.
+     * @param doiNumber the DOI number.
+     * @return true if valid.
+     */
+    private static boolean legacyChallenge(String doiType, String doiNumber) {
+        return switch (doiType) {
+            case "0" -> doiNumber.matches("\\p{Alnum}{1,15}");
+            case "1" -> doiNumber.matches("\\d{8}");
+            case "4", "7" -> doiNumber.matches("\\p{Alnum}{1,12}");
+            case "6" -> legacyRuc(doiNumber);
+            case "A" -> doiNumber.matches("\\d{15}");
+            case null, default -> false;
+        };
+    }
+
+    /**
+     * The former implementation of {@link DoiChallenger#challengeRUC(String)}.
+     *
+     * @param ruc the RUC number.
+     * @return true if valid.
+     */
+    private static boolean legacyRuc(String ruc) {
+        if (ruc == null || ruc.isBlank() || !ruc.matches("\\d{11}")) {
+            return false;
+        }
+        var factors = new int[]{5, 4, 3, 2, 7, 6, 5, 4, 3, 2, 0};
+        var cd = 11 - (ruc.chars()
+                .map(Character::getNumericValue)
+                .map(new IntUnaryOperator() {
+                    int i = 0;
+
+                    @Override
+                    public int applyAsInt(int operand) {
+                        return operand * factors[i++];
+                    }
+                })
+                .sum() % 11);
+        cd %= 10;
+        return ruc.charAt(10) == Character.forDigit(cd, 10);
+    }
+}
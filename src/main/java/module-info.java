@@ -14,6 +14,7 @@ module alexios.main {
     requires org.jetbrains.annotations;
     requires com.google.api.services.sheets;
     requires com.google.api.services.drive;
+    requires jdk.httpserver;
 
     requires javafx.base;
     requires javafx.controls;
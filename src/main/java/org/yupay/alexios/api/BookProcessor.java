@@ -20,8 +20,10 @@ package org.yupay.alexios.api;
 import com.google.api.services.sheets.v4.model.Sheet;
 import com.google.api.services.sheets.v4.model.Spreadsheet;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.nio.file.Path;
+import java.util.List;
 
 /**
  * The book processor is the responsible for creating the output TXT
@@ -42,6 +44,16 @@ public interface BookProcessor {
      */
     void processSheet(Spreadsheet spreadsheet, Path target) throws Exception;
 
+    /**
+     * The worksheets this processor reads, so only those are fetched from google sheets
+     * (see {@link org.yupay.alexios.google.GoogleUtils#getSpreadsheet(String, List)}).
+     *
+     * @return the worksheet names, or null to fetch the whole workbook.
+     */
+    default @Nullable List<String> worksheets() {
+        return null;
+    }
+
     /**
      * Convenient method to read the boolean value of A1.
      * This is useful to read information flag.
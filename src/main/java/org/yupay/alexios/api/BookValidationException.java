@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Thrown by a {@link BookProcessor} when the book was written, but its data
+ * breaks a rule that SUNAT-PLE will reject (ie: unbalanced journal entries).
+ * Only the first issues are kept, {@link #getCount()} tells how many were found.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public class BookValidationException extends Exception {
+    @Serial
+    private static final long serialVersionUID = 1L;
+    /**
+     * The issues kept, an array since a List isn't known to be serializable.
+     */
+    private final Issue[] issues;
+    /**
+     * The count of issues found.
+     */
+    private final long count;
+
+    /**
+     * Creates the exception.
+     *
+     * @param book   the PLE book ID, ie: 050100.
+     * @param issues the first issues found.
+     * @param count  the count of issues found, at least the size of issues.
+     */
+    public BookValidationException(String book, @NotNull List<Issue> issues, long count) {
+        super("Book %s has %d issue(s), first: %s".formatted(book, count, issues.isEmpty() ? "-" : issues.getFirst()));
+        this.issues = List.copyOf(issues).toArray(Issue[]::new);
+        this.count = count;
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return the first issues found.
+     */
+    public List<Issue> getIssues() {
+        return List.of(issues);
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return the count of issues found.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * A single issue of the book.
+     *
+     * @param row     the row of the worksheet (1 based) where the issue starts,
+     *                or the line of the file when checking a PLE file.
+     * @param key     the key of the offending record, ie: the CUO.
+     * @param message the description of the issue.
+     */
+    public record Issue(long row, String key, String message) implements Serializable {
+        @Override
+        public String toString() {
+            return "row %d [%s]: %s".formatted(row, key, message);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed point monetary amount, kept as cents in a long. Aggregation paths sum
+ * thousands of amounts per worksheet, and a long avoids a BigDecimal per row.
+ * <p>
+ * Amounts are always exact: a value with more than 2 decimals (ie: a spreadsheet
+ * formula result like 0.30000000000000004) or a sum that overflows is kept as
+ * a BigDecimal instead, so results are the same as working with
+ * {@link BigDecimal#valueOf(double)} all along.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public final class Money implements Comparable<Money> {
+    /**
+     * Zero amount.
+     */
+    public static final Money ZERO = new Money(0, null);
+    /**
+     * Doubles below this magnitude are 1 cent apart at least 5 times their ulp,
+     * so a double matching a cents value is exactly that decimal.
+     */
+    private static final double CENTS_SAFE = 1e13;
+    /**
+     * The amount in cents, meaningful only if {@link #exact} is null.
+     */
+    private final long cents;
+    /**
+     * The exact amount, without trailing zeros; null if the amount fits in {@link #cents}.
+     */
+    private final BigDecimal exact;
+
+    /**
+     * Private constructor, use static factories.
+     *
+     * @param cents the amount in cents.
+     * @param exact the exact amount, or null if it fits in cents.
+     */
+    private Money(long cents, BigDecimal exact) {
+        this.cents = cents;
+        this.exact = exact;
+    }
+
+    /**
+     * Static factory from cents.
+     *
+     * @param cents the amount in cents.
+     * @return the money object.
+     */
+    @Contract(pure = true)
+    public static @NotNull Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents, null);
+    }
+
+    /**
+     * Static factory from a double, the same value of {@link BigDecimal#valueOf(double)}.
+     * Doubles with 2 decimals or less don't create any BigDecimal.
+     *
+     * @param value the double value.
+     * @return the money object.
+     * @throws NumberFormatException if value is NaN or infinite.
+     */
+    @Contract(pure = true)
+    public static @NotNull Money of(double value) {
+        if (Math.abs(value) < CENTS_SAFE) {
+            var c = Math.round(value * 100);
+            if (c / 100.0 == value) return ofCents(c);
+        }
+        return of(BigDecimal.valueOf(value));
+    }
+
+    /**
+     * Static factory from a BigDecimal.
+     *
+     * @param value the decimal value.
+     * @return the money object.
+     */
+    @Contract(pure = true)
+    public static @NotNull Money of(@NotNull BigDecimal value) {
+        //Trailing zeros may hide cents, ie: 0.010
+        if (value.scale() > 2) value = value.stripTrailingZeros();
+        if (value.scale() <= 2) {
+            try {
+                return ofCents(value.movePointRight(2).longValueExact());
+            } catch (ArithmeticException e) {
+                //Doesn't fit in a long, keep it as BigDecimal.
+            }
+        }
+        return new Money(0, value.stripTrailingZeros());
+    }
+
+    /**
+     * Checks if this amount is kept as cents.
+     *
+     * @return true if {@link #cents()} is available.
+     */
+    public boolean isCents() {
+        return exact == null;
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return the amount in cents.
+     * @throws ArithmeticException if the amount isn't kept as cents, see {@link #isCents()}.
+     */
+    public long cents() {
+        if (exact != null) throw new ArithmeticException("Amount is not a whole number of cents: " + exact);
+        return cents;
+    }
+
+    /**
+     * Sums an amount to this one.
+     *
+     * @param another the other amount.
+     * @return the sum.
+     */
+    @Contract(pure = true)
+    public @NotNull Money plus(@NotNull Money another) {
+        if (exact == null && another.exact == null) {
+            try {
+                return ofCents(Math.addExact(cents, another.cents));
+            } catch (ArithmeticException e) {
+                //Overflow, fall back to BigDecimal.
+            }
+        }
+        return of(toBigDecimal().add(another.toBigDecimal()));
+    }
+
+    /**
+     * Subtracts an amount from this one.
+     *
+     * @param another the other amount.
+     * @return the difference.
+     */
+    @Contract(pure = true)
+    public @NotNull Money minus(@NotNull Money another) {
+        if (exact == null && another.exact == null) {
+            try {
+                return ofCents(Math.subtractExact(cents, another.cents));
+            } catch (ArithmeticException e) {
+                //Overflow, fall back to BigDecimal.
+            }
+        }
+        return of(toBigDecimal().subtract(another.toBigDecimal()));
+    }
+
+    /**
+     * Absolute value.
+     *
+     * @return this amount without sign.
+     */
+    @Contract(pure = true)
+    public @NotNull Money abs() {
+        if (signum() >= 0) return this;
+        if (exact == null && cents != Long.MIN_VALUE) return ofCents(-cents);
+        return of(toBigDecimal().abs());
+    }
+
+    /**
+     * Sign of this amount.
+     *
+     * @return -1, 0 or 1 as this amount is negative, zero or positive.
+     */
+    public int signum() {
+        return exact == null ? Long.signum(cents) : exact.signum();
+    }
+
+    /**
+     * Converts to BigDecimal.
+     *
+     * @return the exact value, with scale 2 if kept as cents.
+     */
+    @Contract(pure = true)
+    public @NotNull BigDecimal toBigDecimal() {
+        return exact == null ? BigDecimal.valueOf(cents, 2) : exact;
+    }
+
+    /**
+     * Rounds to units with {@link RoundingMode#HALF_UP}, same text as "%.0f" of the BigDecimal value
+     * (negative amounts that round to zero are "-0").
+     *
+     * @return the rounded amount text.
+     */
+    public @NotNull String toWholeText() {
+        if (exact != null) return "%.0f".formatted(exact);
+        var q = cents / 100;
+        var r = cents % 100;
+        if (r >= 50) q++;
+        else if (r <= -50) q--;
+        //Negative amounts that round to zero keep their sign, as "%.0f" does.
+        return q == 0 && cents < 0 ? "-0" : Long.toString(q);
+    }
+
+    /**
+     * Text with 2 decimals, rounded with {@link RoundingMode#HALF_EVEN}; same text as
+     * PLE format (###0.00). Negative amounts that round to zero are "-0.00", as PLE format does.
+     *
+     * @return the amount text.
+     */
+    public @NotNull String toPleText() {
+        return appendPleText(new StringBuilder(24)).toString();
+    }
+
+    /**
+     * Appends the same text of {@link #toPleText()}, without creating any String
+     * if the amount is kept as cents.
+     *
+     * @param sb the target.
+     * @return the same target.
+     */
+    public @NotNull StringBuilder appendPleText(@NotNull StringBuilder sb) {
+        if (exact != null || cents == Long.MIN_VALUE) {
+            var value = toBigDecimal();
+            var r = value.setScale(2, RoundingMode.HALF_EVEN).toPlainString();
+            if (value.signum() < 0 && r.charAt(0) != '-') sb.append('-');
+            return sb.append(r);
+        }
+        var abs = Math.abs(cents);
+        if (cents < 0) sb.append('-');
+        sb.append(abs / 100).append('.');
+        var c = abs % 100;
+        if (c < 10) sb.append('0');
+        return sb.append(c);
+    }
+
+    @Override
+    public int compareTo(@NotNull Money o) {
+        if (exact == null && o.exact == null) return Long.compare(cents, o.cents);
+        return toBigDecimal().compareTo(o.toBigDecimal());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Money m && compareTo(m) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return exact == null ? Long.hashCode(cents) : exact.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api;
+
+import com.google.api.services.sheets.v4.model.Spreadsheet;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import static org.yupay.alexios.google.GoogleUtils.firstGridAs;
+import static org.yupay.alexios.google.GoogleUtils.noSheet;
+import static org.yupay.alexios.google.GoogleUtils.stringAt;
+
+/**
+ * Parameters of monthly books (ie: LE050100 journal), read once per exportation
+ * from the parameters worksheet of the book.
+ *
+ * @param ruc     the taxpayer id (RUC number). (B5 cell).
+ * @param year    the year of the tax period. (B6 cell).
+ * @param opsFlag the operations flag. (B7 cell).
+ * @param month   the month of the tax period, as 01 to 12. (B8 cell).
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public record MonthlyParams(String ruc, String year, String opsFlag, String month) {
+    /**
+     * Extracts book parameters from the first sheet with the given name.
+     * The month may be written without leading zero (ie: 3).
+     *
+     * @param spreadsheet the spreadsheet object.
+     * @param paramsSheet the name of the parameters worksheet, ie: 050000.
+     * @return the parameters.
+     * @throws IllegalArgumentException if there's no such sheet, or the month isn't 1 to 12.
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull MonthlyParams fromSpreadsheet(@NotNull Spreadsheet spreadsheet,
+                                                         @NotNull String paramsSheet) {
+        var data = firstGridAs(paramsSheet, spreadsheet)
+                .orElseThrow(() -> noSheet(paramsSheet));
+        var month = stringAt(data, 7, 1).strip();
+        if (!month.matches("(0?[1-9])|(1[0-2])")) {
+            throw new IllegalArgumentException("Invalid month in " + paramsSheet + "!B8: " + month);
+        }
+        return new MonthlyParams(
+                stringAt(data, 4, 1),
+                stringAt(data, 5, 1),
+                stringAt(data, 6, 1),
+                month.length() == 1 ? "0" + month : month);
+    }
+
+    /**
+     * The period field of every line.
+     *
+     * @return the period as yyyyMM00.
+     */
+    @Contract(pure = true)
+    public @NotNull String period() {
+        return year + month + "00";
+    }
+
+    /**
+     * Convenient method to generate output filenames.
+     *
+     * @param bookID   the PLE book ID, ie: 050100.
+     * @param infoFlag the flag of information (true= with information, false= empty).
+     * @return an output file name.
+     */
+    public @NotNull String compileFile(String bookID, boolean infoFlag) {
+        return new PLEBookNameBuilder()
+                .withBookID(bookID)
+                .withEmpty(infoFlag)
+                .withMonth(month)
+                .withOpsFlag(opsFlag)
+                .withRuc(ruc)
+                .withYear(year)
+                .build();
+    }
+}
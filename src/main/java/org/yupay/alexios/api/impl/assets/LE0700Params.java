@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.assets;
+
+import com.google.api.services.sheets.v4.model.Spreadsheet;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.yupay.alexios.api.PLEBookNameBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.yupay.alexios.google.GoogleUtils.firstGridAs;
+import static org.yupay.alexios.google.GoogleUtils.stringAt;
+
+/**
+ * Parameters to process LE0700 books, read once per exportation.
+ *
+ * @param ruc     the taxpayer id (RUC number). (B5 cell).
+ * @param year    the year of the tax period. (B6 cell).
+ * @param opsFlag the operations flag. (B7 cell).
+ * @version 1.0
+ */
+record LE0700Params(String ruc, String year, String opsFlag) {
+    /**
+     * Extracts book parameters. In the first sheet named 070000 of the workbook
+     * shall be ruc, year and opsFlag parameters.
+     *
+     * @param spreadsheet the spreadsheet object.
+     * @return the parameters.
+     * @throws IllegalArgumentException if there's no "070000" sheet.
+     */
+    @Contract("_ -> new")
+    static @NotNull LE0700Params fromSpreadsheet(@NotNull Spreadsheet spreadsheet) {
+        var data = firstGridAs("070000", spreadsheet)
+                .orElseThrow(() -> new IllegalArgumentException("Cannot find worksheet 070000."));
+        return new LE0700Params(
+                stringAt(data, 4, 1),
+                stringAt(data, 5, 1),
+                stringAt(data, 6, 1));
+    }
+
+    /**
+     * The period field of every line.
+     *
+     * @return the period as yyyy0000.
+     */
+    @Contract(pure = true)
+    @NotNull String period() {
+        return year + "0000";
+    }
+
+    /**
+     * Convenient method to generate output filenames.
+     *
+     * @param bookID   the PLE book ID.
+     * @param infoFlag the flag of information (true= with information, false= empty).
+     * @return an output file name.
+     */
+    @NotNull String compileFile(String bookID, boolean infoFlag) {
+        return new PLEBookNameBuilder()
+                .withBookID(bookID)
+                .withEmpty(infoFlag)
+                .withMonth("00")
+                .withOpsFlag(opsFlag)
+                .withRuc(ruc)
+                .withYear(year)
+                .build();
+    }
+
+    /**
+     * Fills primary keys values. According to PLE specs, the first 3 fields are
+     * primary key fields, composed by:
+     * <ul>
+     *     <li><b>0 - Period:</b> taxation period.</li>
+     *     <li><b>1 - ID:</b> ID for the op. Since we are not generating from database, a random UUID is set.</li>
+     *     <li><b>2 - Correlative:</b> Correlative number in format M000000000</li>
+     * </ul>
+     *
+     * @param line        Strings array for each part of the line.
+     * @param correlative the thread-safe correlative container.
+     */
+    void fillPrimaryKey(String @NotNull [] line, @NotNull AtomicLong correlative) {
+        line[0] = period();
+        line[1] = UUID.randomUUID().toString();
+        line[2] = "M%09d".formatted(correlative.incrementAndGet());
+    }
+}
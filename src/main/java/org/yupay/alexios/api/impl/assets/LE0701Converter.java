@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.assets;
+
+import com.google.api.services.sheets.v4.model.CellData;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.yupay.alexios.google.GoogleUtils.*;
+
+/**
+ * Function to format the CellData of a row into a String
+ * as specified by PLE - 0701 - Fixed assets. It'll contain windows
+ * end of line (\r\n) since PLE system only accepts said end of line.
+ * Each instance keeps its own correlative, so create one per exportation.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+final class LE0701Converter implements Function<List<CellData>, String> {
+    /**
+     * Parameters of the book.
+     */
+    private final LE0700Params params;
+    /**
+     * The correlative of each line.
+     */
+    private final AtomicLong correlative = new AtomicLong(0L);
+
+    /**
+     * Creates the converter.
+     *
+     * @param params parameters of the book.
+     */
+    LE0701Converter(@NotNull LE0700Params params) {
+        this.params = params;
+    }
+
+    @Override
+    public @NotNull String apply(@NotNull List<CellData> cellData) {
+        var line = new String[38];
+        params.fillPrimaryKey(line, correlative);
+        line[3] = cellData.get(0).getFormattedValue();
+        line[4] = cellData.get(2).getFormattedValue();
+        line[5] = cellData.get(4).getFormattedValue();
+        line[6] = cellData.get(6).getFormattedValue();
+        line[7] = cellData.get(8).getFormattedValue();
+        line[8] = cellData.get(10).getFormattedValue();
+        line[9] = cellData.get(11).getFormattedValue();
+        line[10] = "%.40s".formatted(cellData.get(3).getFormattedValue());
+        line[11] = "%.20s".formatted(Objects.requireNonNullElse(cellData.get(13).getFormattedValue(), "-"));
+        line[12] = "%.20s".formatted(Objects.requireNonNullElse(cellData.get(14).getFormattedValue(), "-"));
+        line[13] = "%.30s".formatted(Objects.requireNonNullElse(cellData.get(15).getFormattedValue(), "-"));
+        line[14] = "%.2f".formatted(doubleFromCell(cellData.get(16)));
+        line[15] = "%.2f".formatted(doubleFromCell(cellData.get(17)));
+        line[16] = "%.2f".formatted(doubleFromCell(cellData.get(18)));
+        line[17] = "%.2f".formatted(doubleFromCell(cellData.get(19)));
+        line[18] = "%.2f".formatted(doubleFromCell(cellData.get(20)));
+        line[19] = "%.2f".formatted(doubleFromCell(cellData.get(21)));
+        line[20] = "%.2f".formatted(doubleFromCell(cellData.get(22)));
+        line[21] = "%.2f".formatted(doubleFromCell(cellData.get(23)));
+        line[22] = "%.2f".formatted(doubleFromCell(cellData.get(24)));
+        line[23] = fromDateCell(cellData.get(25));
+        line[24] = fromDateCell(cellData.get(26));
+        line[25] = cellData.get(27).getFormattedValue();
+        line[26] = cellData.get(29).getFormattedValue();
+        line[27] = "%.2f".formatted(doubleFromCell(cellData.get(30)));
+        line[28] = "%.2f".formatted(doubleFromCell(cellData.get(31)));
+        line[29] = "%.2f".formatted(doubleFromCell(cellData.get(32)));
+        line[30] = "%.2f".formatted(doubleFromCell(cellData.get(33)));
+        line[31] = "%.2f".formatted(doubleFromCell(cellData.get(34)));
+        line[32] = "%.2f".formatted(doubleFromCell(cellData.get(35)));
+        line[33] = "%.2f".formatted(doubleFromCell(cellData.get(36)));
+        line[34] = "%.2f".formatted(doubleFromCell(cellData.get(37)));
+        line[35] = "%.2f".formatted(doubleFromCell(cellData.get(38)));
+        line[36] = "1";
+        line[37] = "\r\n";
+
+        return String.join("|", line);
+    }
+}
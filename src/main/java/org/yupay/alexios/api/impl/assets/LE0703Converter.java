@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.assets;
+
+import com.google.api.services.sheets.v4.model.CellData;
+import org.jetbrains.annotations.NotNull;
+import org.yupay.alexios.vault.ExchangeRates;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.yupay.alexios.google.GoogleUtils.*;
+
+/**
+ * Function to format the CellData of a row into a String
+ * as specified by PLE - 0703 - Exchange rate difference. It'll contain windows
+ * end of line (\r\n) since PLE system only accepts said end of line.
+ * Blank exchange rates take the SUNAT sell rate of the acquisition date (field 7)
+ * and of the end of the year (field 9), if imported.
+ * Each instance keeps its own correlative, so create one per exportation.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+final class LE0703Converter implements Function<List<CellData>, String> {
+    /**
+     * Parameters of the book.
+     */
+    private final LE0700Params params;
+    /**
+     * The correlative of each line.
+     */
+    private final AtomicLong correlative = new AtomicLong(0L);
+    /**
+     * The SUNAT exchange rates.
+     */
+    private final ExchangeRates rates;
+    /**
+     * Epoch day of the end of the year.
+     */
+    private final long closing;
+
+    /**
+     * Creates the converter.
+     *
+     * @param params parameters of the book.
+     * @param rates  the SUNAT exchange rates, {@link ExchangeRates#EMPTY} if not imported.
+     */
+    LE0703Converter(@NotNull LE0700Params params, @NotNull ExchangeRates rates) {
+        this.params = params;
+        this.rates = rates;
+        this.closing = ExchangeRates.epochDay(parseYear(params.year()) * 10000 + 1231);
+    }
+
+    @Override
+    public String apply(List<CellData> cellData) {
+        var line = new String[16];
+        params.fillPrimaryKey(line, correlative);
+        line[3] = "9";
+        line[4] = cellData.get(0).getFormattedValue();
+        line[5] = fromDateCell(cellData.get(1));
+        line[6] = "%.2f".formatted(doubleFromCell(cellData.get(2)));
+        line[7] = rateText(cellData.get(3), ExchangeRates.epochDay(dateKey(cellData.get(1))));
+        line[8] = "%.2f".formatted(doubleFromCell(cellData.get(4)));
+        line[9] = rateText(cellData.get(5), closing);
+        line[10] = "%.2f".formatted(doubleFromCell(cellData.get(6)));
+        line[11] = "%.2f".formatted(doubleFromCell(cellData.get(7)));
+        line[12] = "%.2f".formatted(doubleFromCell(cellData.get(8)));
+        line[13] = "%.2f".formatted(doubleFromCell(cellData.get(9)));
+        line[14] = "1";
+        line[15] = "\r\n";
+
+        return String.join("|", line);
+    }
+
+    /**
+     * Formats an exchange rate cell, looking up the SUNAT rate if blank.
+     *
+     * @param cell     the rate cell.
+     * @param epochDay the day of the rate.
+     * @return the rate with 3 decimals.
+     */
+    private @NotNull String rateText(@NotNull CellData cell, long epochDay) {
+        if (cell.getEffectiveValue() == null || cell.getEffectiveValue().getNumberValue() == null) {
+            var rate = rates.sell(epochDay);
+            if (rate > 0) return ExchangeRates.appendRate(new StringBuilder(8), rate).toString();
+        }
+        return "%.3f".formatted(doubleFromCell(cell));
+    }
+
+    /**
+     * Parses the year parameter.
+     *
+     * @param year the year text.
+     * @return the year, or 0 if it isn't a number, so no rate is found.
+     */
+    private static int parseYear(String year) {
+        try {
+            return Integer.parseInt(year.strip());
+        } catch (NumberFormatException | NullPointerException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.assets;
+
+import com.google.api.services.sheets.v4.model.CellData;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.yupay.alexios.google.GoogleUtils.*;
+
+/**
+ * Function to format the CellData of a row into a String
+ * as specified by PLE - 0704 - Leased assets. It'll contain windows
+ * end of line (\r\n) since PLE system only accepts said end of line.
+ * Each instance keeps its own correlative, so create one per exportation.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+final class LE0704Converter implements Function<List<CellData>, String> {
+    /**
+     * Parameters of the book.
+     */
+    private final LE0700Params params;
+    /**
+     * The correlative of each line.
+     */
+    private final AtomicLong correlative = new AtomicLong(0L);
+
+    /**
+     * Creates the converter.
+     *
+     * @param params parameters of the book.
+     */
+    LE0704Converter(@NotNull LE0700Params params) {
+        this.params = params;
+    }
+
+    @Override
+    public @NotNull String apply(@NotNull List<CellData> cellData) {
+        var line = new String[12];
+        params.fillPrimaryKey(line, correlative);
+        line[3] = "9";
+        line[4] = cellData.get(0).getFormattedValue();
+        line[5] = fromDateCell(cellData.get(1));
+        line[6] = cellData.get(2).getFormattedValue();
+        line[7] = fromDateCell(cellData.get(4));
+        line[8] = "%d".formatted(intFromCell(cellData.get(5)));
+        line[9] = "%.2f".formatted(doubleFromCell(cellData.get(6)));
+        line[10] = "1";
+        line[11] = "\r\n";
+
+        return String.join("|", line);
+    }
+}
@@ -21,11 +21,17 @@ import com.google.api.services.sheets.v4.model.CellData;
 import com.google.api.services.sheets.v4.model.Sheet;
 import com.google.api.services.sheets.v4.model.Spreadsheet;
 import org.yupay.alexios.api.BookProcessor;
+import org.yupay.alexios.api.BookValidationException;
+import org.yupay.alexios.api.pcge.AccountTrie;
+import org.yupay.alexios.api.tables.CodeCheck;
+import org.yupay.alexios.api.tables.SunatTable;
 import org.yupay.alexios.google.GoogleUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
@@ -36,38 +42,90 @@ import static org.yupay.alexios.google.GoogleUtils.recreateFile;
 /**
  * Implementation for LE030000 - Balances book.
  * See PLE specification 030000.
+ * In trial mode, only the financial statements are exported, computed from the
+ * trial balance (031700) and the mapping worksheet (see {@link TrialStatementsProcessor}),
+ * so the other worksheets are not even fetched.
+ * <br/>
+ * Coded fields (DOI types, voucher types and currencies) are checked against the SUNAT
+ * tables while exporting; every worksheet is written before the issues are reported.
  *
  * @author InfoYupay SACS
  * @version 1.0
  */
 public class BalanceProcessor implements BookProcessor {
+    /**
+     * Flag to compute financial statements from the trial balance only.
+     */
+    private final boolean trialMode;
 
     /**
-     * Creates an empty balance sheet processor.
+     * Creates an empty balance sheet processor, exporting every worksheet.
      */
     public BalanceProcessor() {
+        this(false);
+    }
+
+    /**
+     * Creates a balance sheet processor.
+     *
+     * @param trialMode true to export only the trial balance and the financial statements
+     *                  computed from it, false to export every worksheet.
+     */
+    public BalanceProcessor(boolean trialMode) {
+        this.trialMode = trialMode;
     }
 
+    @Override
+    public @Nullable List<String> worksheets() {
+        return trialMode ? List.of("030000", "031700", TrialStatementsProcessor.MAPPING) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws BookValidationException if some coded fields are not in their SUNAT tables,
+     *                                 or some subtotal rows of the trial balance don't match
+     *                                 their sub accounts; after every TXT is written.
+     */
     @Override
     public void processSheet(Spreadsheet spreadsheet, Path target) throws Exception {
         //Extract parameters from first worksheet.
         var params = new Params03(GoogleUtils.firstGridByName("030000", spreadsheet));
+        if (trialMode) {
+            var trialSheet = GoogleUtils.firstSheetByName("031700", spreadsheet);
+            writeGenericFile(trialSheet, params, new LE031700Converter(params), 3, "031700", target);
+            var trial = AccountTrie.ofTrialBalance(trialSheet);
+            new TrialStatementsProcessor(params,
+                    target,
+                    trial,
+                    GoogleUtils.firstSheetByName(TrialStatementsProcessor.MAPPING, spreadsheet)).call();
+            var mismatch = mismatches(trial);
+            if (mismatch != null) throw mismatch;
+            return;
+        }
+        //Financial statements may sum accounts straight from the trial balance.
+        var trial = GoogleUtils.firstSheetAs("031700", spreadsheet)
+                .map(AccountTrie::ofTrialBalance)
+                .orElse(null);
+        var checks = new ArrayList<CodeCheck>();
         //Iterate through sheets.
         for (var s : spreadsheet.getSheets()) {
             switch (s.getProperties().getTitle()) {
-                case "030100" -> writeFinancial(s, params, "030100", target);
+                case "030100" -> writeFinancial(s, params, trial, "030100", target);
                 case "030200" -> writeGenericFile(s,
                         params,
-                        new LE0302Converter(params),
+                        checked(checks, new CodeCheck("030200").withColumn(4, SunatTable.CURRENCY),
+                                new LE0302Converter(params), s),
                         4,
                         "030200",
                         target);
-                case "030300" -> writeReceivable(s, params, "030300", target);
-                case "030400" -> writeReceivable(s, params, "030400", target);
-                case "030500" -> writeReceivable(s, params, "030500", target);
+                case "030300" -> writeReceivable(s, params, "030300", target, checks);
+                case "030400" -> writeReceivable(s, params, "030400", target, checks);
+                case "030500" -> writeReceivable(s, params, "030500", target, checks);
                 case "030600" -> writeGenericFile(s,
                         params,
-                        new LE0306Converter(params),
+                        checked(checks, new CodeCheck("030600").withColumn(0, SunatTable.DOI_TYPE).withColumn(4, SunatTable.VOUCHER_TYPE),
+                                new LE0306Converter(params), s),
                         5,
                         "030600",
                         target);
@@ -79,7 +137,8 @@ public class BalanceProcessor implements BookProcessor {
                         target);
                 case "030800" -> writeGenericFile(s,
                         params,
-                        new LE0308Converter(params),
+                        checked(checks, new CodeCheck("030800").withColumn(0, SunatTable.DOI_TYPE),
+                                new LE0308Converter(params), s),
                         5,
                         "030800",
                         target);
@@ -91,19 +150,22 @@ public class BalanceProcessor implements BookProcessor {
                         target);
                 case "031100" -> writeGenericFile(s,
                         params,
-                        new LE0311Converter(params),
+                        checked(checks, new CodeCheck("031100").withColumn(1, SunatTable.DOI_TYPE),
+                                new LE0311Converter(params), s),
                         5,
                         "031100",
                         target);
                 case "031200" -> writeGenericFile(s,
                         params,
-                        new LE0312Converter(params),
+                        checked(checks, new CodeCheck("031200").withColumn(0, SunatTable.DOI_TYPE),
+                                new LE0312Converter(params), s),
                         5,
                         "031200",
                         target);
                 case "031300" -> writeGenericFile(s,
                         params,
-                        new LE0313Converter(params),
+                        checked(checks, new CodeCheck("031300").withColumn(0, SunatTable.DOI_TYPE),
+                                new LE0313Converter(params), s),
                         5,
                         "031300",
                         target);
@@ -117,7 +179,8 @@ public class BalanceProcessor implements BookProcessor {
                 case "031601" -> new LE031601Processor(params, target, s).call();
                 case "031602" -> writeGenericFile(s,
                         params,
-                        new LE031602Converter(params),
+                        checked(checks, new CodeCheck("031602").withColumn(0, SunatTable.DOI_TYPE),
+                                new LE031602Converter(params), s),
                         5,
                         "031602",
                         target);
@@ -127,14 +190,53 @@ public class BalanceProcessor implements BookProcessor {
                         3,
                         "031700",
                         target);
-                case "031800" -> writeFinancial(s, params, "031800", target);
+                case "031800" -> writeFinancial(s, params, trial, "031800", target);
                 case "031900" -> writeFinancial(s, params, new LE031900Converter(params), "031900", target);
-                case "032000" -> writeFinancial(s, params, "032000", target);
+                case "032000" -> writeFinancial(s, params, trial, "032000", target);
                 case "032300" -> new LE0323Processor(params, target, s).call();
-                case "032400" -> writeFinancial(s, params, "032400", target);
-                case "032500" -> writeFinancial(s, params, "032500", target);
+                case "032400" -> writeFinancial(s, params, trial, "032400", target);
+                case "032500" -> writeFinancial(s, params, trial, "032500", target);
             }
         }
+        //Unknown codes come first, in book order; the trial balance subtotals last.
+        var mismatch = mismatches(trial);
+        try {
+            CodeCheck.throwIfInvalid(checks);
+        } catch (BookValidationException e) {
+            if (mismatch != null) e.addSuppressed(mismatch);
+            throw e;
+        }
+        if (mismatch != null) throw mismatch;
+    }
+
+    /**
+     * Checks the subtotal rows of the trial balance against their sub accounts,
+     * see {@link AccountTrie#mismatches()}.
+     *
+     * @param trial the trial balance rollups, or null if there's no 031700 worksheet.
+     * @return the failure to report, or null if every subtotal matches.
+     */
+    private static @Nullable BookValidationException mismatches(@Nullable AccountTrie trial) {
+        if (trial == null) return null;
+        var issues = trial.mismatches();
+        return issues.isEmpty() ? null : new BookValidationException("031700", issues, issues.size());
+    }
+
+    /**
+     * Registers a code check and wraps a converter with it.
+     *
+     * @param checks    the checks of the book.
+     * @param check     the check of the worksheet.
+     * @param converter the converter.
+     * @param worksheet the worksheet being exported, so issues tell its rows.
+     * @return the checking converter.
+     */
+    private static @NotNull Function<List<CellData>, String> checked(@NotNull List<CodeCheck> checks,
+                                                                     @NotNull CodeCheck check,
+                                                                     @NotNull Function<List<CellData>, String> converter,
+                                                                     @NotNull Sheet worksheet) {
+        checks.add(check);
+        return check.wrap(converter, worksheet);
     }
 
     /**
@@ -150,20 +252,22 @@ public class BalanceProcessor implements BookProcessor {
      *
      * @param aSheet worksheet object.
      * @param params parameters to perform exportation.
+     * @param trial  the trial balance rollups for account formulas, null if there's no 031700 worksheet.
      * @param bookID the ID of the book.
      * @param target the target path (folder).
      * @throws IOException if unable to write file.
      */
     private void writeFinancial(Sheet aSheet,
                                 Params03 params,
+                                @Nullable AccountTrie trial,
                                 String bookID,
                                 Path target) throws IOException {
         //With default converter.
-        writeFinancial(aSheet, params, new FinancialConverter(params), bookID, target);
+        writeFinancial(aSheet, params, new FinancialConverter(params, trial), bookID, target);
     }
 
     /**
-     * The {@link #writeFinancial(Sheet, Params03, String, Path)} relies upon this implementation
+     * The {@link #writeFinancial(Sheet, Params03, AccountTrie, String, Path)} relies upon this implementation
      * to perform its duties. It's necessary because the financial report LE031900 (Equity changes)
      * requires further customization which is achieved by {@link LE031900Converter}. So, in order
      * to be able to use said customization, this method becomes necessary. All other use cases
@@ -204,19 +308,22 @@ public class BalanceProcessor implements BookProcessor {
      * @param params parameters for the exportation process.
      * @param bookID PLE book ID.
      * @param target the target output directory.
+     * @param checks the code checks of the book, the DOI type check is added.
      * @throws IOException if unable to write to target.
      */
     private void writeReceivable(Sheet aSheet,
                                  @NotNull Params03 params,
                                  String bookID,
-                                 Path target) throws IOException {
+                                 Path target,
+                                 @NotNull List<CodeCheck> checks) throws IOException {
         var info = GoogleUtils.infoFlag(aSheet);
         exportFile(
                 aSheet,
                 5,
                 params.compileFile(bookID, info),
                 target,
-                new ReceivableConverter(params));
+                checked(checks, new CodeCheck(bookID).withColumn(0, SunatTable.DOI_TYPE),
+                        new ReceivableConverter(params), aSheet));
     }
 
     /**
@@ -19,28 +19,63 @@ package org.yupay.alexios.api.impl.balances;
 
 import com.google.api.services.sheets.v4.model.CellData;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yupay.alexios.api.pcge.AccountFormula;
+import org.yupay.alexios.api.pcge.AccountTrie;
+import org.yupay.alexios.api.pcge.TrialColumn;
 
 import java.util.List;
 import java.util.StringJoiner;
 import java.util.function.Function;
 
 import static org.yupay.alexios.google.GoogleUtils.decimalText;
+import static org.yupay.alexios.google.GoogleUtils.noSheet;
 
 /**
  * Function to convert financial status reports (except equity changes report).
+ * If a row has an account formula in its E column (ie: "10+12-19"), the amount is
+ * the net balance (debit - credit) of those accounts in the trial balance, see {@link AccountFormula};
+ * otherwise it's taken from the D column.
  *
  * @param params parameters data for LE030000 report (first worksheet).
+ * @param trial  the trial balance (031700) rollups, null if there's no such worksheet.
  */
-record FinancialConverter(Params03 params) implements Function<List<CellData>, String> {
+record FinancialConverter(Params03 params, @Nullable AccountTrie trial) implements Function<List<CellData>, String> {
     @Override
     public String apply(@NotNull List<CellData> cellData) {
+        return format(cellData.get(2).getFormattedValue(), amountText(cellData));
+    }
+
+    /**
+     * Formats a line of a financial statement.
+     *
+     * @param lineCode the SUNAT code of the statement line (ie: 1D0101).
+     * @param amount   the amount text.
+     * @return the PLE line.
+     */
+    @NotNull String format(String lineCode, @NotNull String amount) {
         return new StringJoiner("|")
                 .add(params.periodID())//1
                 .add("01")//2
-                .add(cellData.get(2).getFormattedValue())//3
-                .add(decimalText(cellData.get(3)))//4
+                .add(lineCode)//3
+                .add(amount)//4
                 .add("1")//5
                 .add("\r\n")
                 .toString();
     }
+
+    /**
+     * Formats the amount of a row, from its account formula if any.
+     *
+     * @param cellData the row.
+     * @return the amount text.
+     */
+    private @NotNull String amountText(@NotNull List<CellData> cellData) {
+        var formula = cellData.size() > 4 ? cellData.get(4).getFormattedValue() : null;
+        if (formula == null || formula.isBlank()) return decimalText(cellData.get(3));
+        if (trial == null) throw noSheet("031700");
+        return AccountFormula.parse(formula)
+                .evaluate(trial, TrialColumn.BALANCE_DEBIT.ordinal(), TrialColumn.BALANCE_CREDIT.ordinal())
+                .toPleText();
+    }
 }
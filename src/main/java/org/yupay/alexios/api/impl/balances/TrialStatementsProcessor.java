@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.balances;
+
+import com.google.api.services.sheets.v4.model.CellData;
+import com.google.api.services.sheets.v4.model.Sheet;
+import org.jetbrains.annotations.NotNull;
+import org.yupay.alexios.api.pcge.AccountFormula;
+import org.yupay.alexios.api.pcge.AccountTrie;
+import org.yupay.alexios.api.pcge.TrialColumn;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import static org.yupay.alexios.google.GoogleUtils.recreateFile;
+
+/**
+ * This is a processor to obtain the SUNAT-PLE files of the financial statements
+ * straight from the trial balance, with a mapping worksheet instead of formulas:
+ * one row per statement line with the book (ie: 030100), the line code (ie: 1D0101)
+ * and an {@link AccountFormula} (ie: 10+12-19). Lines keep the order of the mapping,
+ * and the amount is the net closing balance (debit - credit) of the formula accounts.
+ *
+ * @param params  parameters to perform conversion.
+ * @param target  the target output folder path.
+ * @param trial   the trial balance rollups.
+ * @param mapping the mapping worksheet object.
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+record TrialStatementsProcessor(Params03 params,
+                                Path target,
+                                AccountTrie trial,
+                                Sheet mapping) implements Callable<List<Path>> {
+    /**
+     * The name of the mapping worksheet.
+     */
+    static final String MAPPING = "MAPEO";
+    /**
+     * The header rows of the mapping worksheet.
+     */
+    private static final int HEADER = 1;
+    /**
+     * The financial statements with {@link FinancialConverter} layout.
+     */
+    private static final Set<String> BOOKS = Set.of("030100", "031800", "032000", "032400", "032500");
+
+    @Override
+    public @NotNull List<Path> call() throws IOException {
+        //1. Read the mapping, grouped by book in order of appearance.
+        var books = new LinkedHashMap<String, List<Line>>();
+        var rows = mapping.getData().getFirst().getRowData();
+        for (var i = HEADER; rows != null && i < rows.size(); i++) {
+            var cells = rows.get(i).getValues();
+            var book = text(cells, 0);
+            if (book.isEmpty()) continue;
+            if (!BOOKS.contains(book)) {
+                throw new IllegalArgumentException("Row %d of %s: %s is not a financial statement."
+                        .formatted(i + 1, MAPPING, book));
+            }
+            AccountFormula formula;
+            try {
+                formula = AccountFormula.parse(text(cells, 2));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row %d of %s: %s".formatted(i + 1, MAPPING, e.getMessage()), e);
+            }
+            books.computeIfAbsent(book, _ -> new ArrayList<>()).add(new Line(text(cells, 1), formula));
+        }
+        //2. Compute each line and write a file per book.
+        var converter = new FinancialConverter(params, trial);
+        var r = new ArrayList<Path>(books.size());
+        for (var book : books.entrySet()) {
+            var output = target.resolve(params.compileFile(book.getKey(), true));
+            recreateFile(output);
+            try (var fos = Files.newOutputStream(output);
+                 var ps = new PrintStream(fos, false, StandardCharsets.UTF_8)) {
+                for (var line : book.getValue()) {
+                    var amount = line.formula().evaluate(trial,
+                            TrialColumn.BALANCE_DEBIT.ordinal(),
+                            TrialColumn.BALANCE_CREDIT.ordinal());
+                    ps.print(converter.format(line.code(), amount.toPleText()));
+                }
+                if (ps.checkError()) throw new IOException("Unable to write " + output);
+            }
+            r.add(output);
+        }
+        return r;
+    }
+
+    /**
+     * Reads the text of a cell.
+     *
+     * @param cells  the row.
+     * @param column the column index.
+     * @return the stripped text, or empty if there's none.
+     */
+    private static @NotNull String text(List<CellData> cells, int column) {
+        if (cells == null || column >= cells.size() || cells.get(column) == null) return "";
+        var v = cells.get(column).getFormattedValue();
+        return v == null ? "" : v.strip();
+    }
+
+    /**
+     * A line of a financial statement, as mapped.
+     *
+     * @param code    the SUNAT code of the line.
+     * @param formula the accounts to sum.
+     * @author InfoYupay SACS
+     * @version 1.0
+     */
+    private record Line(String code, AccountFormula formula) {
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.costs;
+
+import com.google.api.services.sheets.v4.model.RowData;
+import com.google.api.services.sheets.v4.model.Spreadsheet;
+import org.jetbrains.annotations.NotNull;
+import org.yupay.alexios.api.BookProcessor;
+import org.yupay.alexios.api.BookValidationException;
+import org.yupay.alexios.api.MonthlyParams;
+import org.yupay.alexios.api.tables.CodeCheck;
+import org.yupay.alexios.api.tables.SunatTable;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.yupay.alexios.google.GoogleUtils.cellAt;
+import static org.yupay.alexios.google.GoogleUtils.dateKey;
+import static org.yupay.alexios.google.GoogleUtils.exportParts;
+import static org.yupay.alexios.google.GoogleUtils.firstSheetByName;
+import static org.yupay.alexios.google.GoogleUtils.ignoreBlank;
+import static org.yupay.alexios.google.GoogleUtils.textAt;
+
+/**
+ * Implementation for LE130100 - Permanent valued inventory (kardex), valued by weighted average.
+ * See PLE specification 130100.
+ * Worksheet 130100 holds the raw movements of the year: quantity and total cost of entries,
+ * and quantity of exits. Movements are grouped by product (establishment and own code),
+ * and each product is valued on its own, many products at once: running quantity, unit cost
+ * and balance from the first movement of the year, writing only the movements of the month.
+ * Catalogs, stock types and document types are checked against the SUNAT tables while grouping.
+ * This processor holds no state, so a single instance may be shared among concurrent jobs.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public class KardexProcessor implements BookProcessor {
+
+    /**
+     * Creates an empty kardex processor.
+     */
+    public KardexProcessor() {
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws BookValidationException if some products run out of stock, or some codes are not in
+     *                                 their SUNAT tables, after the TXT is written.
+     */
+    @Override
+    public void processSheet(Spreadsheet spreadsheet, Path target) throws Exception {
+        //Retrieve parameters from the 130000 worksheet.
+        var params = MonthlyParams.fromSpreadsheet(spreadsheet, "130000");
+        var worksheet = firstSheetByName("130100", spreadsheet);
+        var fileName = params.compileFile("130100", readInfoFlag(worksheet));
+        var month = Integer.parseInt(params.year() + params.month());
+        var issues = new ConcurrentLinkedQueue<BookValidationException.Issue>();
+        var codes = new CodeCheck("130100")
+                .withColumn(3, SunatTable.CATALOG)
+                .withColumn(4, SunatTable.STOCK_TYPE)
+                .withColumn(9, SunatTable.VOUCHER_TYPE);
+        var products = new ArrayList<Callable<String>>();
+        //Empty books are just the file.
+        if (fileName.charAt(30) != '0') {
+            var rows = worksheet.getData().getFirst().getRowData();
+            for (var product : partition(rows, 3, month, codes).values()) {
+                products.add(() -> product.value(params, rows, month, issues));
+            }
+        }
+        exportParts(target.resolve(fileName), products);
+        if (!issues.isEmpty() || codes.getCount() > 0) {
+            issues.addAll(codes.getIssues());
+            var sorted = issues.stream()
+                    .sorted(Comparator.comparingLong(BookValidationException.Issue::row))
+                    .limit(KardexProduct.MAX_ISSUES)
+                    .toList();
+            throw new BookValidationException("130100", sorted,
+                    issues.size() - codes.getIssues().size() + codes.getCount());
+        }
+    }
+
+    /**
+     * Groups the non blank rows of the worksheet by product, in product order.
+     * Movements after the month are left out, but their codes are checked anyway.
+     * Issues tell the worksheet row, the non blank row count only numbers correlatives.
+     *
+     * @param rows       the worksheet rows.
+     * @param headerSize the header rows count.
+     * @param month      the month of the book as uuuuMM.
+     * @param codes      the check of coded fields.
+     * @return the products by key.
+     */
+    private static @NotNull Map<String, KardexProduct> partition(@NotNull List<RowData> rows,
+                                                                int headerSize,
+                                                                int month,
+                                                                @NotNull CodeCheck codes) {
+        var notBlank = ignoreBlank();
+        var r = new TreeMap<String, KardexProduct>();
+        long count = headerSize;
+        for (var i = headerSize; i < rows.size(); i++) {
+            var cells = rows.get(i).getValues();
+            if (!notBlank.test(cells)) continue;
+            count++;
+            codes.accept(cells, i + 1);
+            var date = dateKey(cellAt(cells, 8));
+            if (date / 100 > month) continue;
+            var key = textAt(cells, 2) + "|" + textAt(cells, 5);
+            r.computeIfAbsent(key, KardexProduct::new).add(date, i, count);
+        }
+        return r;
+    }
+}
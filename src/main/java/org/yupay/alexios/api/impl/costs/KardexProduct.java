@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.costs;
+
+import com.google.api.services.sheets.v4.model.CellData;
+import com.google.api.services.sheets.v4.model.ExtendedValue;
+import com.google.api.services.sheets.v4.model.RowData;
+import org.jetbrains.annotations.NotNull;
+import org.yupay.alexios.api.BookValidationException;
+import org.yupay.alexios.api.Money;
+import org.yupay.alexios.api.MonthlyParams;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+
+import static org.yupay.alexios.google.GoogleUtils.cellAt;
+import static org.yupay.alexios.google.GoogleUtils.fromDateCell;
+import static org.yupay.alexios.google.GoogleUtils.textAt;
+
+/**
+ * The movements of a single product of the kardex, and its weighted average valuation.
+ * Filled by a single thread, then valued by another.
+ * <br/>
+ * Source columns: 0 CUO, 1 correlative, 2 establishment, 3 catalog, 4 stock type, 5 own code,
+ * 6 OSCE catalog, 7 OSCE code, 8 date, 9 document type, 10 series, 11 number, 12 operation type,
+ * 13 description, 14 measure unit, 15 quantity in, 16 total cost in, 17 quantity out, 18 state.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+final class KardexProduct {
+    /**
+     * Maximum count of issues kept to report.
+     */
+    static final int MAX_ISSUES = 100;
+    /**
+     * Scale of unit costs while valuing, they're rounded to 2 decimals only when written.
+     */
+    private static final int UNIT_SCALE = 8;
+    /**
+     * The product key, establishment and own code.
+     */
+    private final String key;
+    /**
+     * The movements of the product.
+     */
+    private final List<Movement> movements = new ArrayList<>();
+
+    /**
+     * Creates an empty product.
+     *
+     * @param key the product key.
+     */
+    KardexProduct(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Adds a movement.
+     *
+     * @param date  the date of the movement as uuuuMMdd.
+     * @param index the index of the row in the worksheet.
+     * @param row   the row count, to generate missing correlatives.
+     */
+    void add(int date, int index, long row) {
+        movements.add(new Movement(date, index, row));
+    }
+
+    /**
+     * Values the movements in date order (same date in worksheet order), entries before exits
+     * in the same movement. Exits are valued at the average unit cost; the exit that leaves no
+     * stock takes the whole remaining cost, so no cents are left behind.
+     *
+     * @param params parameters of the book.
+     * @param rows   the worksheet rows.
+     * @param month  the month of the book as uuuuMM, only its movements are written.
+     * @param issues where to report products running out of stock, once per product.
+     * @return the PLE text of the product movements of the month.
+     */
+    @NotNull String value(@NotNull MonthlyParams params,
+                          @NotNull List<RowData> rows,
+                          int month,
+                          @NotNull Queue<BookValidationException.Issue> issues) {
+        movements.sort(Movement.ORDER);
+        var qty = BigDecimal.ZERO;
+        var total = BigDecimal.ZERO;
+        var unit = BigDecimal.ZERO;
+        var reported = false;
+        var sb = new StringBuilder();
+        for (var m : movements) {
+            var cells = rows.get(m.index()).getValues();
+            var qtyIn = number(cells, 15);
+            var costIn = number(cells, 16).setScale(2, RoundingMode.HALF_EVEN);
+            var qtyOut = number(cells, 17);
+            var unitIn = BigDecimal.ZERO;
+            var unitOut = BigDecimal.ZERO;
+            var costOut = BigDecimal.ZERO;
+            //Entries, costs without quantity are adjustments.
+            if (qtyIn.signum() != 0) unitIn = costIn.divide(qtyIn, UNIT_SCALE, RoundingMode.HALF_EVEN);
+            qty = qty.add(qtyIn);
+            total = total.add(costIn);
+            if (qty.signum() > 0) unit = total.divide(qty, UNIT_SCALE, RoundingMode.HALF_EVEN);
+            //Exits, at average unit cost.
+            if (qtyOut.signum() != 0) {
+                unitOut = unit;
+                costOut = qtyOut.compareTo(qty) == 0
+                        ? total
+                        : qtyOut.multiply(unit).setScale(2, RoundingMode.HALF_EVEN);
+                qty = qty.subtract(qtyOut);
+                total = total.subtract(costOut);
+                if (qty.signum() < 0 && !reported) {
+                    reported = true;
+                    issues.add(new BookValidationException.Issue(m.index() + 1, key, "Negative stock " + qty.stripTrailingZeros().toPlainString()));
+                }
+                if (qty.signum() > 0) unit = total.divide(qty, UNIT_SCALE, RoundingMode.HALF_EVEN);
+            }
+            if (m.date() / 100 == month) {
+                sb.append(line(params, cells, m.row(),
+                        qtyIn, unitIn, costIn,
+                        qtyOut, unitOut, costOut,
+                        qty, qty.signum() == 0 ? BigDecimal.ZERO : unit, total));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Formats a movement as a PLE 130100 line.
+     *
+     * @param params   parameters of the book.
+     * @param cells    the row.
+     * @param row      the row count, to generate missing correlatives.
+     * @param amounts  quantity, unit cost and total cost of entry, exit and balance, in that order.
+     * @return the PLE line.
+     */
+    private static @NotNull String line(@NotNull MonthlyParams params,
+                                        @NotNull List<CellData> cells,
+                                        long row,
+                                        BigDecimal @NotNull ... amounts) {
+        var line = new String[28];
+        line[0] = params.period();
+        line[1] = textAt(cells, 0);
+        line[2] = textAt(cells, 1);
+        if (line[2].isEmpty()) line[2] = "M%09d".formatted(row);
+        for (var i = 3; i < 9; i++) {
+            line[i] = textAt(cells, i - 1);
+        }
+        line[9] = fromDateCell(cellAt(cells, 8));
+        for (var i = 10; i < 16; i++) {
+            line[i] = textAt(cells, i - 1);
+        }
+        //Valuation method: weighted average.
+        line[16] = "1";
+        for (var i = 0; i < amounts.length; i++) {
+            line[17 + i] = Money.of(amounts[i]).toPleText();
+        }
+        line[26] = textAt(cells, 18);
+        if (line[26].isEmpty()) line[26] = "1";
+        line[27] = "\r\n";
+        return String.join("|", line);
+    }
+
+    /**
+     * Reads the number value of a cell.
+     *
+     * @param cells  the row.
+     * @param column the column index.
+     * @return the number, or zero if none.
+     */
+    private static @NotNull BigDecimal number(@NotNull List<CellData> cells, int column) {
+        ExtendedValue value = cellAt(cells, column).getEffectiveValue();
+        return value == null || value.getNumberValue() == null
+                ? BigDecimal.ZERO
+                : BigDecimal.valueOf(value.getNumberValue());
+    }
+
+    /**
+     * A movement of the product, yet to be valued.
+     *
+     * @param date  the date as uuuuMMdd.
+     * @param index the index of the row in the worksheet.
+     * @param row   the row count, to generate missing correlatives.
+     */
+    private record Movement(int date, int index, long row) {
+        /**
+         * Valuation order: date, then worksheet order.
+         */
+        static final Comparator<Movement> ORDER = Comparator.comparingInt(Movement::date)
+                .thenComparingInt(Movement::index);
+    }
+}
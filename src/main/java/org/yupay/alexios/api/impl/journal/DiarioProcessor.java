@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.journal;
+
+import com.google.api.services.sheets.v4.model.Spreadsheet;
+import org.yupay.alexios.api.BookProcessor;
+import org.yupay.alexios.api.BookValidationException;
+import org.yupay.alexios.api.MonthlyParams;
+
+import java.nio.file.Path;
+
+import static org.yupay.alexios.google.GoogleUtils.exportFile;
+import static org.yupay.alexios.google.GoogleUtils.firstSheetByName;
+
+/**
+ * Implementation for LE050100 - Journal book.
+ * See PLE specification 050100.
+ * Rows are written to the TXT as they are read, and each entry (CUO) is
+ * checked to balance debits and credits in the same pass, so a journal
+ * of any size takes the same memory as a short one.
+ * This processor holds no state, so a single instance may be shared among concurrent jobs.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public class DiarioProcessor implements BookProcessor {
+
+    /**
+     * Creates an empty journal book processor.
+     */
+    public DiarioProcessor() {
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws BookValidationException if some entries don't balance, after the TXT is written.
+     */
+    @Override
+    public void processSheet(Spreadsheet spreadsheet, Path target) throws Exception {
+        //Retrieve parameters from the 050000 worksheet.
+        var params = MonthlyParams.fromSpreadsheet(spreadsheet, "050000");
+        var worksheet = firstSheetByName("050100", spreadsheet);
+        var check = new EntryBalanceCheck();
+        exportFile(worksheet, 3,
+                params.compileFile("050100", readInfoFlag(worksheet)),
+                target,
+                new LE0501Converter(params, check, worksheet, 3));
+        //The file is complete, now tell about the entries SUNAT will reject.
+        check.throwIfUnbalanced("050100");
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.journal;
+
+import org.jetbrains.annotations.NotNull;
+import org.yupay.alexios.api.BookValidationException;
+import org.yupay.alexios.api.Money;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Checks in a single pass that debits equal credits for each entry (CUO) of a journal.
+ * Lines of an entry are usually together, so only the running balance of the current
+ * entry is kept; an entry is remembered after it ends only if it doesn't balance yet,
+ * in case it continues further down. Not thread safe, lines must arrive in row order.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+final class EntryBalanceCheck {
+    /**
+     * Maximum count of issues kept to report.
+     */
+    static final int MAX_ISSUES = 100;
+    /**
+     * Entries that ended without balance, by CUO.
+     */
+    private final Map<String, Open> open = new LinkedHashMap<>();
+    /**
+     * The CUO of the current entry, null before the first line.
+     */
+    private String cuo;
+    /**
+     * The row of the first line of the current entry.
+     */
+    private long firstRow;
+    /**
+     * Debits minus credits of the current entry.
+     */
+    private Money balance = Money.ZERO;
+
+    /**
+     * Creates an empty check.
+     */
+    EntryBalanceCheck() {
+    }
+
+    /**
+     * Adds a line to the check.
+     *
+     * @param cuo    the CUO of the entry.
+     * @param row    the worksheet row of the line.
+     * @param debit  the debit amount.
+     * @param credit the credit amount.
+     */
+    void accept(@NotNull String cuo, long row, @NotNull Money debit, @NotNull Money credit) {
+        if (!cuo.equals(this.cuo)) {
+            endEntry();
+            this.cuo = cuo;
+            firstRow = row;
+        }
+        balance = balance.plus(debit).minus(credit);
+    }
+
+    /**
+     * Ends the current entry, remembering it if it doesn't balance.
+     * A split entry is balanced as a whole once its parts meet.
+     */
+    private void endEntry() {
+        if (cuo == null) return;
+        var prev = open.remove(cuo);
+        var total = prev == null ? balance : prev.balance().plus(balance);
+        if (total.signum() != 0) {
+            open.put(cuo, new Open(prev == null ? firstRow : prev.row(), total));
+        }
+        cuo = null;
+        balance = Money.ZERO;
+    }
+
+    /**
+     * Ends the check, throwing if some entries didn't balance.
+     *
+     * @param book the PLE book ID, to report.
+     * @throws BookValidationException with the first {@value #MAX_ISSUES} unbalanced entries.
+     */
+    void throwIfUnbalanced(String book) throws BookValidationException {
+        endEntry();
+        if (open.isEmpty()) return;
+        var issues = new ArrayList<BookValidationException.Issue>(Math.min(open.size(), MAX_ISSUES));
+        for (var e : open.entrySet()) {
+            if (issues.size() == MAX_ISSUES) break;
+            issues.add(new BookValidationException.Issue(e.getValue().row(), e.getKey(),
+                    "debits - credits = " + e.getValue().balance().toPleText()));
+        }
+        throw new BookValidationException(book, issues, open.size());
+    }
+
+    /**
+     * An entry without balance.
+     *
+     * @param row     the row of its first line.
+     * @param balance debits minus credits.
+     */
+    private record Open(long row, Money balance) {
+    }
+}
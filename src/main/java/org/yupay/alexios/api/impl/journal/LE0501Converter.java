@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.journal;
+
+import com.google.api.services.sheets.v4.model.CellData;
+import com.google.api.services.sheets.v4.model.ExtendedValue;
+import com.google.api.services.sheets.v4.model.Sheet;
+import org.jetbrains.annotations.NotNull;
+import org.yupay.alexios.api.Money;
+import org.yupay.alexios.api.MonthlyParams;
+
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import static org.yupay.alexios.google.GoogleUtils.cellAt;
+import static org.yupay.alexios.google.GoogleUtils.decimalText;
+import static org.yupay.alexios.google.GoogleUtils.fromDateCell;
+import static org.yupay.alexios.google.GoogleUtils.sheetRows;
+import static org.yupay.alexios.google.GoogleUtils.textAt;
+
+/**
+ * Function to format the CellData of a row into a String
+ * as specified by PLE - 050100 - Journal. It'll contain windows
+ * end of line (\r\n) since PLE system only accepts said end of line.
+ * Every converted row is also fed to the balance check of its entry,
+ * so create one per exportation and apply it in row order.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+final class LE0501Converter implements Function<List<CellData>, String> {
+    /**
+     * Parameters of the book.
+     */
+    private final MonthlyParams params;
+    /**
+     * The balance check of entries.
+     */
+    private final EntryBalanceCheck check;
+    /**
+     * The worksheet row of each converted row, to report issues.
+     */
+    private final ToIntFunction<List<CellData>> rows;
+    /**
+     * The non blank row count, starting after the header, to generate correlatives.
+     */
+    private long row;
+
+    /**
+     * Creates the converter.
+     *
+     * @param params     parameters of the book.
+     * @param check      the balance check of entries.
+     * @param worksheet  the worksheet being exported, so issues tell its rows.
+     * @param headerSize the header rows count.
+     */
+    LE0501Converter(@NotNull MonthlyParams params,
+                    @NotNull EntryBalanceCheck check,
+                    @NotNull Sheet worksheet,
+                    int headerSize) {
+        this.params = params;
+        this.check = check;
+        this.rows = sheetRows(worksheet);
+        this.row = headerSize;
+    }
+
+    @Override
+    public @NotNull String apply(@NotNull List<CellData> cellData) {
+        row++;
+        check.accept(textAt(cellData, 0), rows.applyAsInt(cellData), amount(cellAt(cellData, 16)), amount(cellAt(cellData, 17)));
+        return format(params, cellData, row);
+    }
+
+    /**
+     * Formats a journal row. The ledger (060100) shares the same fields,
+     * so it formats the very same lines in another order.
+     *
+     * @param params   parameters of the book.
+     * @param cellData the row.
+     * @param row      the row count, counting non blank rows only, to generate missing correlatives.
+     * @return the PLE line.
+     */
+    static @NotNull String format(@NotNull MonthlyParams params, @NotNull List<CellData> cellData, long row) {
+        var line = new String[22];
+        line[0] = params.period();
+        line[1] = textAt(cellData, 0);
+        line[2] = textAt(cellData, 1);
+        //Correlative is unique within the book, so a generated one is always valid.
+        if (line[2].isBlank()) line[2] = "M%09d".formatted(row);
+        for (var i = 3; i < 11; i++) {
+            line[i] = textAt(cellData, i - 1);
+        }
+        if (line[6].isBlank()) line[6] = "PEN";
+        line[11] = textAt(cellData, 10);
+        line[12] = fromDateCell(cellAt(cellData, 11));
+        line[13] = fromDateCell(cellAt(cellData, 12));
+        line[14] = fromDateCell(cellAt(cellData, 13));
+        line[15] = clip(textAt(cellData, 14));
+        line[16] = clip(textAt(cellData, 15));
+        line[17] = decimalText(cellAt(cellData, 16));
+        line[18] = decimalText(cellAt(cellData, 17));
+        line[19] = textAt(cellData, 18);
+        line[20] = textAt(cellData, 19);
+        if (line[20].isBlank()) line[20] = "1";
+        line[21] = "\r\n";
+        return String.join("|", line);
+    }
+
+    /**
+     * Cuts a gloss to the 200 chars allowed by PLE.
+     *
+     * @param text the gloss.
+     * @return the first 200 chars of text.
+     */
+    private static @NotNull String clip(@NotNull String text) {
+        return text.length() <= 200 ? text : text.substring(0, 200);
+    }
+
+    /**
+     * Reads an amount rounded to cents, the same value written by {@link org.yupay.alexios.google.GoogleUtils#decimalText(CellData)}.
+     *
+     * @param cell the cell object.
+     * @return the amount, zero if no number value.
+     */
+    private static @NotNull Money amount(@NotNull CellData cell) {
+        var money = Optional.ofNullable(cell.getEffectiveValue())
+                .map(ExtendedValue::getNumberValue)
+                .map(Money::of)
+                .orElse(Money.ZERO);
+        return money.isCents()
+                ? money
+                : Money.of(money.toBigDecimal().setScale(2, RoundingMode.HALF_EVEN));
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.journal;
+
+import com.google.api.services.sheets.v4.model.RowData;
+import com.google.api.services.sheets.v4.model.Spreadsheet;
+import org.jetbrains.annotations.NotNull;
+import org.yupay.alexios.api.BookProcessor;
+import org.yupay.alexios.api.MonthlyParams;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+
+import static org.yupay.alexios.google.GoogleUtils.cellAt;
+import static org.yupay.alexios.google.GoogleUtils.dateKey;
+import static org.yupay.alexios.google.GoogleUtils.exportParts;
+import static org.yupay.alexios.google.GoogleUtils.firstSheetByName;
+import static org.yupay.alexios.google.GoogleUtils.ignoreBlank;
+import static org.yupay.alexios.google.GoogleUtils.textAt;
+
+/**
+ * Implementation for LE060100 - General ledger, derived from the journal.
+ * See PLE specification 060100.
+ * There's no ledger worksheet: the lines of worksheet 050100 are grouped by account,
+ * and each account is sorted by accounting date and CUO on its own, many accounts at once.
+ * Accounts are written in order as soon as they're ready, so only a few of them
+ * are formatted in memory at any time. Lines are the same of the journal, with the
+ * same generated correlatives.
+ * This processor holds no state, so a single instance may be shared among concurrent jobs.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public class MayorProcessor implements BookProcessor {
+    /**
+     * Creates an empty ledger processor.
+     */
+    public MayorProcessor() {
+    }
+
+    @Override
+    public void processSheet(Spreadsheet spreadsheet, Path target) throws Exception {
+        //Retrieve parameters from the 050000 worksheet, the ledger shares them with the journal.
+        var params = MonthlyParams.fromSpreadsheet(spreadsheet, "050000");
+        var journal = firstSheetByName("050100", spreadsheet);
+        var fileName = params.compileFile("060100", readInfoFlag(journal));
+        var accounts = new ArrayList<Callable<String>>();
+        //Empty books are just the file.
+        if (fileName.charAt(30) != '0') {
+            var rows = journal.getData().getFirst().getRowData();
+            for (var account : partition(rows, 3).values()) {
+                accounts.add(() -> account.format(params, rows));
+            }
+        }
+        exportParts(target.resolve(fileName), accounts);
+    }
+
+    /**
+     * Groups the non blank rows of the journal by account code, in account order.
+     * Only the sort keys and the index of each row are kept, rows are formatted later.
+     *
+     * @param rows       the journal rows.
+     * @param headerSize the header rows count.
+     * @return the accounts by code.
+     */
+    private static @NotNull Map<String, Account> partition(@NotNull List<RowData> rows, int headerSize) {
+        var notBlank = ignoreBlank();
+        var r = new TreeMap<String, Account>();
+        //Row count is the same of the journal, for generated correlatives to match.
+        long count = headerSize;
+        for (var i = headerSize; i < rows.size(); i++) {
+            var cells = rows.get(i).getValues();
+            if (!notBlank.test(cells)) continue;
+            count++;
+            r.computeIfAbsent(textAt(cells, 2), _ -> new Account())
+                    .add(new Line(dateKey(cellAt(cells, 11)), textAt(cells, 0), i, count));
+        }
+        return r;
+    }
+
+    /**
+     * A line of the ledger, yet to be formatted.
+     *
+     * @param date  the accounting date as uuuuMMdd.
+     * @param cuo   the CUO of the entry.
+     * @param index the index of the row in the journal worksheet.
+     * @param row   the row count of the journal, see {@link LE0501Converter#format(MonthlyParams, List, long)}.
+     */
+    private record Line(int date, String cuo, int index, long row) {
+        /**
+         * Ledger order within an account: date, then CUO, then journal order.
+         */
+        static final Comparator<Line> ORDER = Comparator.comparingInt(Line::date)
+                .thenComparing(Line::cuo)
+                .thenComparingInt(Line::index);
+    }
+
+    /**
+     * The lines of a single account. Filled by a single thread, then formatted by another.
+     */
+    private static final class Account {
+        /**
+         * The lines of the account.
+         */
+        private final List<Line> lines = new ArrayList<>();
+
+        /**
+         * Adds a line.
+         *
+         * @param line the line.
+         */
+        void add(Line line) {
+            lines.add(line);
+        }
+
+        /**
+         * Sorts and formats the lines of this account.
+         *
+         * @param params parameters of the book.
+         * @param rows   the journal rows.
+         * @return the PLE text of the account.
+         */
+        @NotNull String format(MonthlyParams params, List<RowData> rows) {
+            lines.sort(Line.ORDER);
+            var sb = new StringBuilder(lines.size() * 160);
+            for (var line : lines) {
+                sb.append(LE0501Converter.format(params, rows.get(line.index()).getValues(), line.row()));
+            }
+            return sb.toString();
+        }
+    }
+}
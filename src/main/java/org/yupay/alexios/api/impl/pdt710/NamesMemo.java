@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.pdt710;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per run memo of parsed names, keyed by DOI number. The same counterparty appears
+ * in many rows and worksheets, so its name is split only once. An entry is reused only
+ * if the DOI type and the name text are the same, so results never depend on the memo.
+ * It's safe to share among worksheets processed at the same time.
+ *
+ * @version 1.0
+ */
+final class NamesMemo {
+    /**
+     * Parsed names by DOI number.
+     */
+    private final ConcurrentHashMap<String, Names> names = new ConcurrentHashMap<>();
+    /**
+     * Lookups that reused a parsed name.
+     */
+    private final LongAdder hits = new LongAdder();
+    /**
+     * Lookups that had to parse the name.
+     */
+    private final LongAdder misses = new LongAdder();
+    /**
+     * Time spent resolving names, in nanoseconds.
+     */
+    private final LongAdder nanos = new LongAdder();
+
+    /**
+     * Finds parsed names.
+     *
+     * @param doiType the DOI type (PDT710 code).
+     * @param doiNum  the DOI number.
+     * @param source  the name text in the worksheet, null if the cell is empty.
+     * @return the names, or null if not parsed yet.
+     */
+    @Nullable Names get(@Nullable String doiType, @NotNull String doiNum, @Nullable String source) {
+        var r = names.get(doiNum);
+        if (r != null && Objects.equals(r.doiType(), doiType) && Objects.equals(r.source(), source)) {
+            hits.increment();
+            return r;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Stores parsed names.
+     *
+     * @param doiNum the DOI number.
+     * @param parsed the names.
+     */
+    void put(@NotNull String doiNum, @NotNull Names parsed) {
+        names.put(doiNum, parsed);
+    }
+
+    /**
+     * Adds time spent resolving a name.
+     *
+     * @param elapsed the elapsed nanoseconds.
+     */
+    void addNanos(long elapsed) {
+        nanos.add(elapsed);
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return lookups that reused a parsed name.
+     */
+    long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return lookups that had to parse the name.
+     */
+    long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return time spent resolving names, in nanoseconds.
+     */
+    long nanos() {
+        return nanos.sum();
+    }
+
+    /**
+     * Computes the hit rate.
+     *
+     * @return hits over lookups, 0 if no lookup was done.
+     */
+    double hitRate() {
+        var h = hits();
+        var total = h + misses();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * The names of a counterparty, as set into a {@link PDTField}.
+     *
+     * @param doiType   the DOI type, part of the reuse check.
+     * @param source    the name text in the worksheet, part of the reuse check.
+     * @param inputFlag PDT710 column 2.
+     * @param lastName1 PDT710 column 3.
+     * @param lastName2 PDT710 column 4.
+     * @param name      PDT710 column 5.
+     * @param legalName PDT710 column 6.
+     * @version 1.0
+     */
+    record Names(String doiType,
+                 String source,
+                 String inputFlag,
+                 String lastName1,
+                 String lastName2,
+                 String name,
+                 String legalName) {
+        /**
+         * Copies the names of a field.
+         *
+         * @param source the name text in the worksheet.
+         * @param field  the field with names already set.
+         * @return the names.
+         */
+        static @NotNull Names of(String source, @NotNull PDTField field) {
+            return new Names(field.doiType, source, field.inputFlag,
+                    field.lastName1, field.lastName2, field.name, field.legalName);
+        }
+
+        /**
+         * Sets these names into a field.
+         *
+         * @param field the field.
+         */
+        void applyTo(@NotNull PDTField field) {
+            field.inputFlag = inputFlag;
+            field.lastName1 = lastName1;
+            field.lastName2 = lastName2;
+            field.name = name;
+            field.legalName = legalName;
+        }
+    }
+}
@@ -19,6 +19,8 @@ package org.yupay.alexios.api.impl.pdt710;
 
 import com.google.api.services.sheets.v4.model.CellData;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yupay.alexios.vault.PadronIndex;
 
 import java.util.List;
 import java.util.function.BiConsumer;
@@ -30,40 +32,107 @@ import java.util.function.BiConsumer;
  * as a full name (lastnames, firstname middlename) or a legal entity
  * name (A business name). Finally, sets the PDTField name properties
  * in consequence.
+ * If a padrón index is available, legal entities take the legal name registered at SUNAT.
+ * If a names memo is available, each counterparty name is split only once per run.
  *
- * @param index column index where to find names.
+ * @param index  column index where to find names.
+ * @param padron the SUNAT padrón index, or null if not available.
+ * @param memo   the names memo of the run, or null to split every name.
  * @version 1.0
  */
-record NamesProcessor(int index) implements BiConsumer<List<CellData>, PDTField> {
+record NamesProcessor(int index,
+                      @Nullable PadronIndex padron,
+                      @Nullable NamesMemo memo) implements BiConsumer<List<CellData>, PDTField> {
+    /**
+     * Creates a names processor without padrón nor memo.
+     *
+     * @param index column index where to find names.
+     */
+    NamesProcessor(int index) {
+        this(index, null, null);
+    }
+
     @Override
     public void accept(List<CellData> cellData, @NotNull PDTField pdtField) {
+        var source = cellData.get(index).getFormattedValue();
+        if (memo == null || pdtField.doiNum == null) {
+            resolve(source, pdtField);
+            return;
+        }
+        var start = System.nanoTime();
+        var cached = memo.get(pdtField.doiType, pdtField.doiNum, source);
+        if (cached != null) {
+            cached.applyTo(pdtField);
+        } else {
+            resolve(source, pdtField);
+            memo.put(pdtField.doiNum, NamesMemo.Names.of(source, pdtField));
+        }
+        memo.addNanos(System.nanoTime() - start);
+    }
+
+    /**
+     * Sets the names of a field from the name text.
+     *
+     * @param source   the name text in the worksheet.
+     * @param pdtField the field with DOI data.
+     */
+    private void resolve(String source, @NotNull PDTField pdtField) {
         if ((pdtField.doiType.equals("06") && pdtField.doiNum.startsWith("20"))
                 || pdtField.doiType.equals("00")) {
             pdtField.inputFlag = "0";
-            pdtField.legalName = cellData.get(index).getFormattedValue();
+            pdtField.legalName = legalName(source, pdtField);
         } else {
             pdtField.inputFlag = "1";
-            var nameFull = cellData.get(index).getFormattedValue();
-            if (nameFull.contains(",")) {
-                var nameParts = nameFull.split(",");
-                pdtField.name = nameParts[1];
-                var lastParts = nameParts[0].split(" ", 2);
-                pdtField.lastName1 = lastParts[0];
-                if (lastParts.length == 2) pdtField.lastName2 = lastParts[1];
+            splitFullName(source == null ? "" : source, pdtField);
+        }
+    }
+
+    /**
+     * Splits a full name, without regex nor arrays. Either "LAST1 LAST2,NAME"
+     * (only the text up to a second comma is the name, missing parts are empty)
+     * or "LAST1 LAST2 NAME..." (with 2 words: "LAST1 NAME", a single word sets nothing).
+     *
+     * @param nameFull the full name.
+     * @param pdtField the field where names are set.
+     */
+    static void splitFullName(@NotNull String nameFull, @NotNull PDTField pdtField) {
+        var comma = nameFull.indexOf(',');
+        if (comma >= 0) {
+            var nameEnd = nameFull.indexOf(',', comma + 1);
+            pdtField.name = nameFull.substring(comma + 1, nameEnd < 0 ? nameFull.length() : nameEnd);
+            var space = nameFull.indexOf(' ');
+            if (space >= 0 && space < comma) {
+                pdtField.lastName1 = nameFull.substring(0, space);
+                pdtField.lastName2 = nameFull.substring(space + 1, comma);
+            } else {
+                pdtField.lastName1 = nameFull.substring(0, comma);
+            }
+        } else {
+            var space1 = nameFull.indexOf(' ');
+            if (space1 < 0) return;
+            var space2 = nameFull.indexOf(' ', space1 + 1);
+            pdtField.lastName1 = nameFull.substring(0, space1);
+            if (space2 < 0) {
+                pdtField.name = nameFull.substring(space1 + 1);
             } else {
-                var spacedParts = nameFull.split(" ", 3);
-                switch (spacedParts.length) {
-                    case 3 -> {
-                        pdtField.lastName1 = spacedParts[0];
-                        pdtField.lastName2 = spacedParts[1];
-                        pdtField.name = spacedParts[2];
-                    }
-                    case 2 -> {
-                        pdtField.lastName1 = spacedParts[0];
-                        pdtField.name = spacedParts[1];
-                    }
-                }
+                pdtField.lastName2 = nameFull.substring(space1 + 1, space2);
+                pdtField.name = nameFull.substring(space2 + 1);
             }
         }
     }
+
+    /**
+     * Finds the legal name of a legal entity, from the padrón if possible.
+     *
+     * @param source   the name text in the worksheet.
+     * @param pdtField the field with DOI data.
+     * @return the legal name.
+     */
+    private String legalName(String source, @NotNull PDTField pdtField) {
+        if (padron != null && pdtField.doiType.equals("06")) {
+            var ix = padron.indexOf(pdtField.doiNum);
+            if (ix >= 0) return padron.legalNameAt(ix);
+        }
+        return source;
+    }
 }
@@ -19,8 +19,8 @@ package org.yupay.alexios.api.impl.pdt710;
 
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.yupay.alexios.api.Money;
 
-import java.math.BigDecimal;
 import java.util.Objects;
 import java.util.StringJoiner;
 
@@ -62,7 +62,12 @@ final class PDTField {
     /**
      * PDT710, Column 7.
      */
-    BigDecimal amount = BigDecimal.ZERO;
+    Money amount = Money.ZERO;
+    /**
+     * Ordinal of the worksheet row this element was read from, so the first
+     * occurrence order can be restored after spilling to disk.
+     */
+    long row;
 
     /**
      * Sums the given amount to the amount of this instance.
@@ -70,8 +75,8 @@ final class PDTField {
      * @param amount the given amount.
      * @return this instance.
      */
-    public PDTField sumAmount(BigDecimal amount) {
-        this.amount = this.amount.add(amount);
+    public PDTField sumAmount(Money amount) {
+        this.amount = this.amount.plus(amount);
         return this;
     }
 
@@ -109,7 +114,7 @@ final class PDTField {
                 .add("%.20S".formatted(lastName2))
                 .add("%.20S".formatted(name))
                 .add("%.40S".formatted(legalName))
-                .add("%.0f".formatted(amount))
+                .add(amount.toWholeText())
                 .toString();
     }
 
@@ -118,7 +123,7 @@ final class PDTField {
      *
      * @return the amount.
      */
-    BigDecimal toAmount() {
+    Money toAmount() {
         return amount;
     }
 
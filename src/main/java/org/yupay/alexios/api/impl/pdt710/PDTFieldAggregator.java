@@ -0,0 +1,351 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.pdt710;
+
+import org.jetbrains.annotations.NotNull;
+import org.yupay.alexios.api.Money;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Aggregates the elements of a single PDT field (casilla) like {@link PDTFieldCollector} does,
+ * but within a memory budget: when more than {@code budget} counterparties are held, they're
+ * spilled to temporary files, partitioned by hash of (doiType, doiNum). At the end each
+ * partition is merged on its own, and partitions are merged back in first occurrence order,
+ * so the result is the same as the collector's, UIT threshold fold included.
+ * <p>
+ * While the budget isn't exceeded, nothing touches the disk.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+final class PDTFieldAggregator implements Closeable {
+    /**
+     * How many partitions are used when spilling, so each merged partition holds
+     * about 1/PARTITIONS of the counterparties. A power of 2, see {@link #partition(PDTField)}.
+     */
+    static final int PARTITIONS = 64;
+    /**
+     * Odd multiplier spreading hashes over partitions (the golden ratio).
+     */
+    private static final int GOLDEN = 0x9E3779B9;
+    /**
+     * The collector with the UIT threshold rules.
+     */
+    private final PDTFieldCollector collector;
+    /**
+     * Max counterparties held in memory.
+     */
+    private final int budget;
+    /**
+     * In memory accumulation, same as the collector's.
+     */
+    private LinkedHashMap<PDTField, Money> current;
+    /**
+     * The spill directory, null until the first spill.
+     */
+    private Path spillDir;
+    /**
+     * Spill files by partition, null until the first spill.
+     */
+    private DataOutputStream[] partitions;
+    /**
+     * True if at least one element was added.
+     */
+    private boolean added;
+
+    /**
+     * Creates an empty aggregator.
+     *
+     * @param collector the collector with the UIT threshold rules.
+     * @param budget    max counterparties held in memory before spilling.
+     */
+    PDTFieldAggregator(@NotNull PDTFieldCollector collector, int budget) {
+        this.collector = collector;
+        this.budget = Math.max(1, budget);
+        this.current = collector.supplier().get();
+    }
+
+    /**
+     * A budget of counterparties derived from the max heap: an aggregated element
+     * takes less than 1KB, and 1/8 of the heap is left for a field aggregation.
+     *
+     * @return the default budget.
+     */
+    static int defaultBudget() {
+        return (int) Math.clamp(Runtime.getRuntime().maxMemory() / 8 / 1024, 10_000L, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Adds an element, elements must come in row order.
+     *
+     * @param item the element.
+     * @throws IOException if unable to spill.
+     */
+    void add(@NotNull PDTField item) throws IOException {
+        added = true;
+        collector.accumulator().accept(current, item);
+        if (current.size() > budget) spill();
+    }
+
+    /**
+     * Checks if nothing was added.
+     *
+     * @return true if no element was added.
+     */
+    boolean isEmpty() {
+        return !added;
+    }
+
+    /**
+     * Feeds the aggregated elements, in the same order and with the same data as
+     * the {@link PDTFieldCollector#finisher()} result. Must be called only once.
+     *
+     * @param consumer the consumer of elements.
+     * @throws IOException if unable to read spilled data.
+     */
+    void forEach(@NotNull Consumer<PDTField> consumer) throws IOException {
+        if (partitions == null) {
+            collector.finisher().apply(current).forEach(consumer);
+            return;
+        }
+        //step 1: every counterparty goes to disk, so partitions hold all of them.
+        spill();
+        for (var out : partitions) out.close();
+        //step 2: merge each partition, sorted by row, and fold those below UIT.
+        var fold = PDTFieldCollector.identity();
+        var count = 0;
+        var runs = new Path[PARTITIONS];
+        for (var p = 0; p < PARTITIONS; p++) {
+            var merged = collector.supplier().get();
+            try (var in = input(partitionFile(p))) {
+                for (var item = read(in); item != null; item = read(in)) {
+                    collector.accumulator().accept(merged, item);
+                }
+            }
+            var ls = new ArrayList<PDTField>(merged.size());
+            merged.forEach((k, v) -> {
+                k.amount = v;
+                ls.add(k);
+            });
+            ls.sort(Comparator.comparingLong(f -> f.row));
+            for (var item : ls) {
+                if (collector.lessThanUIT(item)) {
+                    fold.reduceAmount(item);
+                    count++;
+                }
+            }
+            runs[p] = spillDir.resolve("run-%02d.bin".formatted(p));
+            try (var out = output(runs[p])) {
+                for (var item : ls) write(out, item);
+            }
+        }
+        //step 3: merge sorted runs by row.
+        var folded = count > 1;
+        var readers = new DataInputStream[PARTITIONS];
+        var heads = new PriorityQueue<Head>(PARTITIONS, Comparator.comparingLong(h -> h.item.row));
+        try {
+            for (var p = 0; p < PARTITIONS; p++) {
+                readers[p] = input(runs[p]);
+                var item = read(readers[p]);
+                if (item != null) heads.add(new Head(item, p));
+            }
+            while (!heads.isEmpty()) {
+                var head = heads.poll();
+                var item = head.item;
+                if (!folded || !collector.lessThanUIT(item)) {
+                    item.amount = item.amount.abs();
+                    consumer.accept(item);
+                }
+                var next = read(readers[head.partition]);
+                if (next != null) heads.add(new Head(next, head.partition));
+            }
+        } finally {
+            for (var in : readers) if (in != null) in.close();
+        }
+        if (folded) {
+            fold.amount = fold.amount.abs();
+            consumer.accept(fold);
+        }
+    }
+
+    /**
+     * Writes the in memory elements to their partitions, and clears memory.
+     *
+     * @throws IOException if unable to write.
+     */
+    private void spill() throws IOException {
+        if (partitions == null) {
+            spillDir = Files.createTempDirectory("alexios-pdt710-");
+            partitions = new DataOutputStream[PARTITIONS];
+            for (var p = 0; p < PARTITIONS; p++) partitions[p] = output(partitionFile(p));
+        }
+        for (var e : current.entrySet()) {
+            var item = e.getKey();
+            item.amount = e.getValue();
+            write(partitions[partition(item)], item);
+        }
+        current = collector.supplier().get();
+    }
+
+    /**
+     * The partition of a counterparty. Consecutive DOIs differ in their last chars only, so their
+     * hashes are spread before taking the high bits, lest some partitions get none of them.
+     *
+     * @param item the element.
+     * @return the partition number, from 0 to {@link #PARTITIONS} - 1.
+     */
+    static int partition(@NotNull PDTField item) {
+        return (item.hashCode() * GOLDEN) >>> (Integer.SIZE - Integer.numberOfTrailingZeros(PARTITIONS));
+    }
+
+    /**
+     * Path of a partition file.
+     *
+     * @param partition the partition number.
+     * @return the path.
+     */
+    private @NotNull Path partitionFile(int partition) {
+        return spillDir.resolve("part-%02d.bin".formatted(partition));
+    }
+
+    /**
+     * Opens a buffered binary output.
+     *
+     * @param file the file.
+     * @return the output.
+     * @throws IOException if unable to open.
+     */
+    private static @NotNull DataOutputStream output(@NotNull Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+    }
+
+    /**
+     * Opens a buffered binary input.
+     *
+     * @param file the file.
+     * @return the input.
+     * @throws IOException if unable to open.
+     */
+    private static @NotNull DataInputStream input(@NotNull Path file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+    }
+
+    /**
+     * Writes an element.
+     *
+     * @param out  the output.
+     * @param item the element.
+     * @throws IOException if unable to write.
+     */
+    private static void write(@NotNull DataOutputStream out, @NotNull PDTField item) throws IOException {
+        out.writeLong(item.row);
+        writeText(out, item.doiType);
+        writeText(out, item.doiNum);
+        writeText(out, item.inputFlag);
+        writeText(out, item.lastName1);
+        writeText(out, item.lastName2);
+        writeText(out, item.name);
+        writeText(out, item.legalName);
+        out.writeUTF(item.amount.toString());
+    }
+
+    /**
+     * Reads an element.
+     *
+     * @param in the input.
+     * @return the element, or null at end of file.
+     * @throws IOException if unable to read.
+     */
+    private static PDTField read(@NotNull DataInputStream in) throws IOException {
+        long row;
+        try {
+            row = in.readLong();
+        } catch (EOFException e) {
+            return null;
+        }
+        var r = new PDTField();
+        r.row = row;
+        r.doiType = readText(in);
+        r.doiNum = readText(in);
+        r.inputFlag = readText(in);
+        r.lastName1 = readText(in);
+        r.lastName2 = readText(in);
+        r.name = readText(in);
+        r.legalName = readText(in);
+        r.amount = Money.of(new BigDecimal(in.readUTF()));
+        return r;
+    }
+
+    /**
+     * Writes a nullable text.
+     *
+     * @param out   the output.
+     * @param value the text, may be null.
+     * @throws IOException if unable to write.
+     */
+    private static void writeText(@NotNull DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    /**
+     * Reads a nullable text.
+     *
+     * @param in the input.
+     * @return the text, may be null.
+     * @throws IOException if unable to read.
+     */
+    private static String readText(@NotNull DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Deletes the spill files, if any.
+     *
+     * @throws IOException if unable to delete.
+     */
+    @Override
+    public void close() throws IOException {
+        if (partitions != null) {
+            for (var out : partitions) out.close();
+            partitions = null;
+        }
+        if (spillDir != null) {
+            try (var files = Files.list(spillDir)) {
+                for (var f : files.toList()) Files.deleteIfExists(f);
+            }
+            Files.deleteIfExists(spillDir);
+            spillDir = null;
+        }
+    }
+
+    /**
+     * Head of a sorted run, while merging.
+     *
+     * @param item      the element.
+     * @param partition the partition it was read from.
+     */
+    private record Head(PDTField item, int partition) {
+    }
+}
@@ -20,9 +20,10 @@ package org.yupay.alexios.api.impl.pdt710;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Unmodifiable;
+import org.yupay.alexios.api.Money;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Set;
 import java.util.function.BiConsumer;
@@ -36,15 +37,18 @@ import java.util.stream.Collector;
  * whose amounts are less than a uitLimit threshold, will be sumarized inside
  * a "99" identity object. If only one object is within that threshold, the
  * original data will prevail.
+ * Elements are grouped by (doiType, doiNum) in a hash map that keeps the first
+ * occurrence order and data; amounts are summed as {@link Money}, so parallel
+ * streams can be combined.
  *
  * @param uitLimit the uit limit threshold.
  * @param checkAbs the check abs flag. If set to true, sumarizing amounts below uitLimit
  *                 will be done comparing field.amount.abs(); if false, abs() wont be invoked.
  * @version 1.0
  */
-record PDTFieldCollector(BigDecimal uitLimit,
+record PDTFieldCollector(Money uitLimit,
                          boolean checkAbs)
-        implements Collector<PDTField, ArrayList<PDTField>, List<PDTField>> {
+        implements Collector<PDTField, LinkedHashMap<PDTField, Money>, List<PDTField>> {
 
     /**
      * Supplies an empty element with doiType 99 for accumulation.
@@ -59,55 +63,60 @@ record PDTFieldCollector(BigDecimal uitLimit,
 
     @Contract(pure = true)
     @Override
-    public @NotNull Supplier<ArrayList<PDTField>> supplier() {
-        return ArrayList::new;
+    public @NotNull Supplier<LinkedHashMap<PDTField, Money>> supplier() {
+        return LinkedHashMap::new;
     }
 
     @Contract(pure = true)
     @Override
-    public @NotNull BiConsumer<ArrayList<PDTField>, PDTField> accumulator() {
+    public @NotNull BiConsumer<LinkedHashMap<PDTField, Money>, PDTField> accumulator() {
         return this::accumulate;
     }
 
     /**
      * Convenient and delegated to accumulate. If
-     * item exists in list, will sum amounts; else
-     * will add to list.
+     * item exists in map, will sum amounts; else
+     * will add to map.
      *
-     * @param list the list where result should be put.
-     * @param item the item to add into list.
+     * @param map  the map where result should be put.
+     * @param item the item to add into map.
      */
-    private void accumulate(@NotNull ArrayList<PDTField> list, PDTField item) {
-        var ix = list.indexOf(item);
-        if (ix < 0) list.add(item);
-        else list.get(ix).sumAmount(item.toAmount());
+    private void accumulate(@NotNull LinkedHashMap<PDTField, Money> map, @NotNull PDTField item) {
+        map.merge(item, item.toAmount(), Money::plus);
     }
 
     @Contract(pure = true)
     @Override
-    public @NotNull BinaryOperator<ArrayList<PDTField>> combiner() {
+    public @NotNull BinaryOperator<LinkedHashMap<PDTField, Money>> combiner() {
         return (a, b) -> {
-            //Use the accumulation function on each element of b.
-            b.forEach(i -> accumulate(a, i));
+            //Elements of b keep their data only if they're not in a.
+            b.forEach((k, v) -> a.merge(k, v, Money::plus));
             return a;
         };
     }
 
     @Contract(pure = true)
     @Override
-    public @NotNull Function<ArrayList<PDTField>, List<PDTField>> finisher() {
-        return ls -> {
-            //This counter will increment with each item less than UIT threshold.
-            var count = new Counter();
+    public @NotNull Function<LinkedHashMap<PDTField, Money>, List<PDTField>> finisher() {
+        return map -> {
+            //Set the summed amounts into the first occurrence of each element.
+            var ls = new ArrayList<PDTField>(map.size() + 1);
+            map.forEach((k, v) -> {
+                k.amount = v;
+                ls.add(k);
+            });
             //Will reduce all elements with less than UIT threshold amounts.
-            var fold = ls
-                    .stream()
-                    .filter(this::lessThanUIT)
-                    .peek(count::increment)
-                    .reduce(identity(), PDTField::reduceAmount);
+            var fold = identity();
+            var count = 0;
+            for (var item : ls) {
+                if (lessThanUIT(item)) {
+                    fold.reduceAmount(item);
+                    count++;
+                }
+            }
             //If more than one element was folded, should remove
             //folded elements and add the result of reduce.
-            if (count.value > 1) {
+            if (count > 1) {
                 ls.removeIf(this::lessThanUIT);
                 ls.add(fold);
             }
@@ -124,7 +133,7 @@ record PDTFieldCollector(BigDecimal uitLimit,
      * @param item the item to check.
      * @return true if item amount is less than UIT limit threshold.
      */
-    private boolean lessThanUIT(PDTField item) {
+    boolean lessThanUIT(PDTField item) {
         if (checkAbs) return item.amount.abs().compareTo(uitLimit) < 0;
         else return item.amount.compareTo(uitLimit) < 0;
     }
@@ -132,29 +141,6 @@ record PDTFieldCollector(BigDecimal uitLimit,
     @Contract(value = " -> new", pure = true)
     @Override
     public @NotNull @Unmodifiable Set<Characteristics> characteristics() {
-        return Set.of(Characteristics.UNORDERED);
-    }
-
-    /**
-     * Convenient private class to allow counting.
-     *
-     * @version 1.0
-     */
-    private static class Counter {
-        /**
-         * The counted value.
-         */
-        int value = 0;
-
-        /**
-         * Convenient method to increment
-         * the value from a lambda consumer.
-         *
-         * @param element ignored item from consumer.
-         * @param <T>     type erasure of consumer.
-         */
-        <T> void increment(T element) {
-            value++;
-        }
+        return Set.of();
     }
 }
@@ -20,8 +20,10 @@ package org.yupay.alexios.api.impl.pdt710;
 import com.google.api.services.sheets.v4.model.CellData;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yupay.alexios.api.Money;
+import org.yupay.alexios.vault.PadronIndex;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.function.Function;
 
@@ -88,13 +90,26 @@ record PDTFieldProcessor(NamesProcessor onName, int amountIx) implements Functio
         return new PDTFieldProcessor(4, 6);
     }
 
+    /**
+     * Creates a copy of this processor whose names processor looks up legal names in the padrón,
+     * and reuses names split before in the same run.
+     *
+     * @param padron the SUNAT padrón index, or null to keep names from the worksheet.
+     * @param memo   the names memo of the run, or null to split every name.
+     * @return the new processor.
+     */
+    @Contract("_, _ -> new")
+    @NotNull PDTFieldProcessor withNames(@Nullable PadronIndex padron, @Nullable NamesMemo memo) {
+        return new PDTFieldProcessor(new NamesProcessor(onName.index(), padron, memo), amountIx);
+    }
+
     @Override
     public @NotNull PDTField apply(@NotNull List<CellData> cellData) {
         var r = new PDTField();
         r.parseDoiType(cellData.get(0).getFormattedValue());
         r.doiNum = cellData.get(2).getFormattedValue();
         onName.accept(cellData, r);
-        r.amount = BigDecimal.valueOf(cellData.get(amountIx).getEffectiveValue().getNumberValue());
+        r.amount = Money.of(cellData.get(amountIx).getEffectiveValue().getNumberValue());
         return r;
     }
 }
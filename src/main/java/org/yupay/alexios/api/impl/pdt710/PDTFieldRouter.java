@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.pdt710;
+
+import com.google.api.services.sheets.v4.model.CellData;
+import com.google.api.services.sheets.v4.model.Sheet;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scans a worksheet once, routing each row by its flag to the PDT field (casilla) it belongs to.
+ * Each field has its own {@link PDTFieldAggregator}, so a worksheet with flags
+ * "12" and "13" gives fields 361 and 362 without reading the rows twice.
+ *
+ * @version 1.0
+ */
+final class PDTFieldRouter {
+    /**
+     * The header rows to skip.
+     */
+    private static final int HEADER_SIZE = 5;
+    /**
+     * Column index where flag is located, less than zero to send every row to the first field.
+     */
+    private final int flagIndex;
+    /**
+     * The field processor to convert rows.
+     */
+    private final PDTFieldProcessor fieldProcessor;
+    /**
+     * The collector to sum each field.
+     */
+    private final PDTFieldCollector collector;
+    /**
+     * Max counterparties held in memory by each field aggregator.
+     */
+    private final int spillBudget;
+    /**
+     * Flags of the fields, in the same order as {@link #fieldNums}.
+     */
+    private final List<String> flags = new ArrayList<>(2);
+    /**
+     * The field numbers.
+     */
+    private final List<Integer> fieldNums = new ArrayList<>(2);
+
+    /**
+     * Creates a router without fields.
+     *
+     * @param flagIndex      column index where flag is located, less than zero if
+     *                       no flag column is present.
+     * @param fieldProcessor the field processor to use (look for static factories).
+     * @param collector      the collector to sum each field.
+     * @param spillBudget    max counterparties held in memory by each field, before spilling to disk.
+     */
+    PDTFieldRouter(int flagIndex,
+                   @NotNull PDTFieldProcessor fieldProcessor,
+                   @NotNull PDTFieldCollector collector,
+                   int spillBudget) {
+        this.flagIndex = flagIndex;
+        this.fieldProcessor = fieldProcessor;
+        this.collector = collector;
+        this.spillBudget = spillBudget;
+    }
+
+    /**
+     * Adds a field to route rows to.
+     *
+     * @param flag     the flag of rows for this field, ignored if there's no flag column.
+     * @param fieldNum the field (casilla) number.
+     * @return this router.
+     */
+    @Contract(value = "_, _ -> this", mutates = "this")
+    PDTFieldRouter withField(String flag, int fieldNum) {
+        flags.add(flag);
+        fieldNums.add(fieldNum);
+        return this;
+    }
+
+    /**
+     * Reads every row of the worksheet once, and aggregates each field.
+     * Aggregators must be closed by the caller, even if this method fails.
+     *
+     * @param sheet the worksheet.
+     * @param stats the run statistics, to count routed rows.
+     * @return the aggregators by field number, in the order fields were added.
+     * @throws IOException if an aggregator can't spill to disk.
+     */
+    @NotNull Map<Integer, PDTFieldAggregator> scan(@NotNull Sheet sheet,
+                                                  @NotNull PDTRunStats stats) throws IOException {
+        var r = new LinkedHashMap<Integer, PDTFieldAggregator>();
+        var acc = new ArrayList<PDTFieldAggregator>(flags.size());
+        for (var fieldNum : fieldNums) {
+            var aggregator = new PDTFieldAggregator(collector, spillBudget);
+            acc.add(aggregator);
+            r.put(fieldNum, aggregator);
+        }
+        //Route each row into its field aggregator.
+        var routed = 0L;
+        try {
+            var rows = sheet.getData().getFirst().getRowData();
+            for (var i = HEADER_SIZE; i < rows.size(); i++) {
+                var values = rows.get(i).getValues();
+                var target = targetOf(values);
+                if (target < 0) continue;
+                var item = fieldProcessor.apply(values);
+                item.row = i;
+                acc.get(target).add(item);
+                routed++;
+            }
+            stats.addRows(routed);
+        } catch (IOException | RuntimeException e) {
+            for (var aggregator : acc) {
+                try {
+                    aggregator.close();
+                } catch (IOException ce) {
+                    e.addSuppressed(ce);
+                }
+            }
+            throw e;
+        }
+        return r;
+    }
+
+    /**
+     * Finds the field a row belongs to, same rules as {@link FlagFilter}.
+     *
+     * @param values the row cells.
+     * @return the index of the field, or -1 if the row is ignored.
+     */
+    private int targetOf(List<CellData> values) {
+        //Blank rows are ignored.
+        if (values == null || values.isEmpty()) return -1;
+        var first = values.getFirst().getFormattedValue();
+        if (first == null || first.isBlank()) return -1;
+        //No flag column, every row goes to the first field.
+        if (flagIndex < 0) return flags.isEmpty() ? -1 : 0;
+        if (values.size() <= flagIndex || values.get(flagIndex) == null) return -1;
+        var flag = values.get(flagIndex).getFormattedValue();
+        return flag == null ? -1 : flags.indexOf(flag.strip());
+    }
+}
@@ -17,11 +17,16 @@
 
 package org.yupay.alexios.api.impl.pdt710;
 
-import com.google.api.services.sheets.v4.model.RowData;
 import com.google.api.services.sheets.v4.model.Sheet;
 import com.google.api.services.sheets.v4.model.Spreadsheet;
+import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.yupay.alexios.api.BookProcessor;
+import org.yupay.alexios.api.BookValidationException;
+import org.yupay.alexios.api.Money;
+import org.yupay.alexios.api.pcge.AccountTrie;
+import org.yupay.alexios.vault.PadronIndex;
 
 import java.io.IOException;
 import java.io.PrintStream;
@@ -30,6 +35,12 @@ import java.math.RoundingMode;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.yupay.alexios.google.GoogleUtils.*;
 
@@ -37,16 +48,51 @@ import static org.yupay.alexios.google.GoogleUtils.*;
  * Book processor for PDT710 data importation.To see the full spec visit
  * <a href="https://renta.sunat.gob.pe/empresas/herramientas-para-la-declaracion-formulario-virtual-710">
  * SUNAT PDT 710 microsite</a>.
+ * Worksheets are exported concurrently, each one read only once.
  *
  * @author InfoYupay SACS
  * @version 1.0
  */
 public final class PDTProcessor implements BookProcessor {
+    /**
+     * The SUNAT padrón to look up legal names, null if not available.
+     */
+    private final PadronIndex padron;
+
+    /**
+     * Max counterparties of a field held in memory, before spilling to disk.
+     */
+    private final int spillBudget;
 
     /**
      * Creates an empty PDT processor object.
      */
     public PDTProcessor() {
+        this(null);
+    }
+
+    /**
+     * Creates a PDT processor that takes legal names from the SUNAT padrón.
+     * The spill budget is derived from the max heap.
+     *
+     * @param padron the padrón index, must stay open while processing; or null to
+     *               keep the names found in worksheets.
+     */
+    public PDTProcessor(@Nullable PadronIndex padron) {
+        this(padron, PDTFieldAggregator.defaultBudget());
+    }
+
+    /**
+     * Creates a PDT processor with an explicit memory budget. Fields with more counterparties
+     * than the budget are aggregated in temporary files; results are the same.
+     *
+     * @param padron      the padrón index, must stay open while processing; or null to
+     *                    keep the names found in worksheets.
+     * @param spillBudget max counterparties of a field held in memory.
+     */
+    public PDTProcessor(@Nullable PadronIndex padron, int spillBudget) {
+        this.padron = padron;
+        this.spillBudget = spillBudget;
     }
 
     @Override
@@ -55,14 +101,38 @@ public final class PDTProcessor implements BookProcessor {
         var params = new PDTParams(
                 stringAt(data, 4, 1),
                 stringAt(data, 5, 1),
-                decimalAt(data, 19, 1));
+                decimalAt(data, 19, 1),
+                new PDTRunStats());
 
-        do030300(firstSheetByName("030300", spreadsheet), params, target);
-        do030500(firstSheetByName("030500", spreadsheet), params, target);
-        do030600(firstSheetByName("030600", spreadsheet), params, target);
-        do031200(firstSheetByName("031200", spreadsheet), params, target);
-        do031300(firstSheetByName("031300", spreadsheet), params, target);
-        doTrial031700(firstSheetByName("031700", spreadsheet), params, target);
+        //Each worksheet is scanned once, and all of them at the same time.
+        var tasks = List.<Map.Entry<String, SheetTask>>of(
+                Map.entry("030300", this::do030300),
+                Map.entry("030500", this::do030500),
+                Map.entry("030600", this::do030600),
+                Map.entry("031200", this::do031200),
+                Map.entry("031300", this::do031300),
+                Map.entry("031700", this::doTrial031700));
+        var futures = new ArrayList<Future<?>>(tasks.size());
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var task : tasks) {
+                var aSheet = firstSheetByName(task.getKey(), spreadsheet);
+                futures.add(executor.submit(() -> {
+                    task.getValue().run(aSheet, params, target);
+                    return null;
+                }));
+            }
+        }
+        //Report the first failure, in worksheet order.
+        for (var f : futures) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception ex) throw ex;
+                throw e;
+            }
+        }
+        System.getLogger(PDTProcessor.class.getName())
+                .log(System.Logger.Level.INFO, params.stats()::toString);
     }
 
     /**
@@ -75,6 +145,27 @@ public final class PDTProcessor implements BookProcessor {
         return uit.multiply(new BigDecimal(2)).setScale(2, RoundingMode.HALF_UP);
     }
 
+    /**
+     * Creates a router for a worksheet.
+     *
+     * @param params         parameters to perform duty.
+     * @param checkAbs       flag to indicate wether should check for amount absolute value,
+     *                       or check for amount read value when comparing with UIT limits.
+     * @param flagIndex      column index where flag is located, -1 if there's none.
+     * @param fieldProcessor the field processor to use (look for static factories).
+     * @return a new router without fields.
+     */
+    @Contract("_, _, _, _ -> new")
+    private @NotNull PDTFieldRouter router(@NotNull PDTParams params,
+                                           boolean checkAbs,
+                                           int flagIndex,
+                                           @NotNull PDTFieldProcessor fieldProcessor) {
+        return new PDTFieldRouter(flagIndex,
+                fieldProcessor.withNames(padron, params.stats().names()),
+                new PDTFieldCollector(Money.of(getLimit(params.uit())), checkAbs),
+                spillBudget);
+    }
+
     /**
      * Executes the receivable accounts (12 and 13) from LE0303 book.
      *
@@ -85,23 +176,10 @@ public final class PDTProcessor implements BookProcessor {
      */
     private void do030300(Sheet aSheet, PDTParams params, Path target) throws IOException {
         if (!readInfoFlag(aSheet)) return;
-
-        writeToFile(aSheet,
-                params,
-                361,
-                7,
-                "12",
-                PDTFieldProcessor.receivable(),
-                target
-        );
-        writeToFile(aSheet,
-                params,
-                362,
-                7,
-                "13",
-                PDTFieldProcessor.receivable(),
-                target
-        );
+        writeToFile(aSheet, params, target,
+                router(params, false, 7, PDTFieldProcessor.receivable())
+                        .withField("12", 361)
+                        .withField("13", 362));
     }
 
     /**
@@ -114,24 +192,10 @@ public final class PDTProcessor implements BookProcessor {
      */
     private void do030500(Sheet aSheet, PDTParams params, Path target) throws IOException {
         if (!readInfoFlag(aSheet)) return;
-
-        writeToFile(aSheet,
-                params,
-                364,
-                7,
-                "16",
-                PDTFieldProcessor.receivable(),
-                target
-        );
-
-        writeToFile(aSheet,
-                params,
-                365,
-                7,
-                "17",
-                PDTFieldProcessor.receivable(),
-                target
-        );
+        writeToFile(aSheet, params, target,
+                router(params, false, 7, PDTFieldProcessor.receivable())
+                        .withField("16", 364)
+                        .withField("17", 365));
     }
 
     /**
@@ -144,15 +208,9 @@ public final class PDTProcessor implements BookProcessor {
      */
     private void do030600(Sheet aSheet, PDTParams params, Path target) throws IOException {
         if (!readInfoFlag(aSheet)) return;
-        writeToFile(aSheet,
-                params,
-                true,
-                367,
-                -1,
-                null,
-                PDTFieldProcessor.doubtful(),
-                target
-        );
+        writeToFile(aSheet, params, target,
+                router(params, true, -1, PDTFieldProcessor.doubtful())
+                        .withField(null, 367));
     }
 
     /**
@@ -165,22 +223,10 @@ public final class PDTProcessor implements BookProcessor {
      */
     private void do031200(Sheet aSheet, PDTParams params, Path target) throws IOException {
         if (!readInfoFlag(aSheet)) return;
-        writeToFile(aSheet,
-                params,
-                404,
-                7,
-                "42",
-                PDTFieldProcessor.payableTrade(),
-                target
-        );
-        writeToFile(aSheet,
-                params,
-                405,
-                7,
-                "43",
-                PDTFieldProcessor.payableTrade(),
-                target
-        );
+        writeToFile(aSheet, params, target,
+                router(params, false, 7, PDTFieldProcessor.payableTrade())
+                        .withField("42", 404)
+                        .withField("43", 405));
     }
 
     /**
@@ -192,88 +238,49 @@ public final class PDTProcessor implements BookProcessor {
      * @throws IOException if unable to write.
      */
     private void do031300(Sheet aSheet, PDTParams params, Path target) throws IOException {
-        writeToFile(aSheet,
-                params,
-                407,
-                8,
-                "46",
-                PDTFieldProcessor.payableOthers(),
-                target);
-        writeToFile(aSheet,
-                params,
-                408,
-                8,
-                "47",
-                PDTFieldProcessor.payableOthers(),
-                target);
+        writeToFile(aSheet, params, target,
+                router(params, false, 8, PDTFieldProcessor.payableOthers())
+                        .withField("46", 407)
+                        .withField("47", 408));
     }
 
     /**
-     * Executes the trial balance from LE0317 book.
+     * Executes the trial balance from LE0317 book, rolled up by account in code order.
      *
      * @param aSheet the sheet objects.
      * @param params parameters to perform duty.
      * @param target the target output folder path.
-     * @throws IOException if unable to write.
+     * @throws IOException             if unable to write.
+     * @throws BookValidationException if some subtotal rows don't match their sub accounts
+     *                                 (see {@link AccountTrie#mismatches()}), after the file is written.
      */
-    private void doTrial031700(Sheet aSheet, PDTParams params, Path target) throws IOException {
+    private void doTrial031700(Sheet aSheet, PDTParams params, Path target)
+            throws IOException, BookValidationException {
         if (!readInfoFlag(aSheet)) return;
         var output = target.resolve(new TrialNameCompiler(params).get());
         recreateFile(output);
+        var trial = AccountTrie.ofTrialBalance(aSheet);
+        var converter = new TrialConverter();
         try (var fos = Files.newOutputStream(output);
              var ps = new PrintStream(fos, true, StandardCharsets.UTF_8)) {
-            aSheet.getData().getFirst()
-                    .getRowData()
-                    .stream()
-                    .skip(3)
-                    .map(RowData::getValues)
-                    .filter(ignoreBlank())
-                    .filter(c -> !c.getFirst().getFormattedValue().strip().equals("89"))
-                    .map(new TrialConverter())
-                    .forEach(ps::print);
+            //PDT 710 takes accounts (2 digits), sub accounts are rolled up; but 89 (results).
+            trial.forEachAccount(2, (account, totals) -> {
+                if (!account.equals("89")) ps.print(converter.apply(account, totals));
+            });
         }
+        params.stats().addFile();
+        var mismatches = trial.mismatches();
+        if (!mismatches.isEmpty()) throw new BookValidationException("031700", mismatches, mismatches.size());
     }
 
     /**
-     * Writes data from a given sheet into a txt file.
-     *
-     * @param aSheet         given sheet.
-     * @param params         parameters for export.
-     * @param fieldNum       the field (casilla) number.
-     * @param flagIndex      column index where flag is located.
-     * @param flag           the flag to check.
-     * @param fieldProcessor the field processor to use (look for static factories).
-     * @param target         the target output directory.
-     * @throws IOException if writing operations fail.
-     * @implNote a parameter header skip was inlined because always was 5. But,
-     * in a future release, if changes in google sheetName templates are made,
-     * then the header skip parameter may be required. That paremeter was to state
-     * how many rows were header decorations and, thus, should be skipped from reading.
-     */
-    private void writeToFile(Sheet aSheet,
-                             PDTParams params,
-                             int fieldNum,
-                             int flagIndex,
-                             String flag,
-                             PDTFieldProcessor fieldProcessor,
-                             Path target
-    ) throws IOException {
-        writeToFile(aSheet, params, false, fieldNum, flagIndex, flag, fieldProcessor, target);
-    }
-
-
-    /**
-     * Writes data from a given sheet into a txt file.
+     * Writes data from a given sheet into a txt file for each field of the router.
+     * The sheet is read only once.
      *
-     * @param aSheet         given sheet.
-     * @param params         parameters for export.
-     * @param checkAbs       flag to indicate wether should check for amount absolute value,
-     *                       or check for amount read value when comparing with UIT limits.
-     * @param fieldNum       the field (casilla) number.
-     * @param flagIndex      column index where flag is located.
-     * @param flag           the flag to check.
-     * @param fieldProcessor the field processor to use (look for static factories).
-     * @param target         the target output directory.
+     * @param aSheet given sheet.
+     * @param params parameters for export.
+     * @param target the target output directory.
+     * @param router the router with the fields to write.
      * @throws IOException if writing operations fail.
      * @implNote a parameter header skip was inlined because always was 5. But,
      * in a future release, if changes in google sheetName templates are made,
@@ -282,48 +289,66 @@ public final class PDTProcessor implements BookProcessor {
      */
     private void writeToFile(@NotNull Sheet aSheet,
                              @NotNull PDTParams params,
-                             boolean checkAbs,
-                             int fieldNum,
-                             int flagIndex,
-                             String flag,
-                             PDTFieldProcessor fieldProcessor,
-                             Path target
+                             Path target,
+                             @NotNull PDTFieldRouter router
     ) throws IOException {
+        //1. Collect data from sheet by field.
+        var fields = router.scan(aSheet, params.stats());
+        try {
+            for (var field : fields.entrySet()) {
+                var buffer = field.getValue();
+                //1.a if no data was collected, then skip the field without creating file.
+                if (buffer.isEmpty()) continue;
 
-        //1. Collect data from sheet in buffer using .
-        var buffer = aSheet.getData().getFirst()
-                .getRowData().stream()
-                .skip(5)
-                .map(RowData::getValues)
-                .filter(new FlagFilter(flagIndex, flag))
-                .map(fieldProcessor)
-                .collect(new PDTFieldCollector(getLimit(params.uit()), checkAbs));
-        //1.a if no data was collected, then finish process without creating file.
-        if (buffer.isEmpty()) return;
+                //2. Check and delete output file.
+                var output = target.resolve(
+                        new PDT710NameCompiler(params.year(), params.ruc(), field.getKey()).get());
+                recreateFile(output);
 
-        //2. Check and delete output file.
-        var output = target.resolve(
-                new PDT710NameCompiler(params.year(), params.ruc(), fieldNum).get());
-        recreateFile(output);
-
-        //3. Open to write.
-        try (var fos = Files.newOutputStream(output);
-             var ps = new PrintStream(fos, true, StandardCharsets.UTF_8)) {
-            //4. For each item, print.
-            buffer.forEach(ps::print);
-        }//5. Close file (autoclose).
+                //3. Open to write.
+                try (var fos = Files.newOutputStream(output);
+                     var ps = new PrintStream(fos, true, StandardCharsets.UTF_8)) {
+                    //4. For each item, print.
+                    buffer.forEach(ps::print);
+                }//5. Close file (autoclose).
+                params.stats().addFile();
+            }
+        } finally {
+            //6. Drop spilled data, if any.
+            for (var buffer : fields.values()) buffer.close();
+        }
         //Algorythm end.
     }
 
+    /**
+     * The export of a single worksheet.
+     *
+     * @version 1.0
+     */
+    @FunctionalInterface
+    private interface SheetTask {
+        /**
+         * Exports a worksheet.
+         *
+         * @param aSheet the sheet objects.
+         * @param params parameters to perform duty.
+         * @param target the target output folder path.
+         * @throws IOException             if unable to write.
+         * @throws BookValidationException if the worksheet was written, but its data breaks a rule.
+         */
+        void run(Sheet aSheet, PDTParams params, Path target) throws IOException, BookValidationException;
+    }
+
     /**
      * Inner record to hold the required parameters to perform duties.
      *
-     * @param ruc  the tax payer ID.
-     * @param year taxable year of reports.
-     * @param uit  the uit rate value.
+     * @param ruc   the tax payer ID.
+     * @param year  taxable year of reports.
+     * @param uit   the uit rate value.
+     * @param stats the statistics of this run, with its names memo.
      * @author InfoYupay SACS
      * @version 1.0
      */
-    record PDTParams(String ruc, String year, BigDecimal uit) {
+    record PDTParams(String ruc, String year, BigDecimal uit, PDTRunStats stats) {
     }
 }
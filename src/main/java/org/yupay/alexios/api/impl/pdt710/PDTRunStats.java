@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.pdt710;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of a PDT710 run, logged by {@link PDTProcessor} when it finishes.
+ * Counters are safe to update from worksheets processed at the same time.
+ *
+ * @version 1.0
+ */
+final class PDTRunStats {
+    /**
+     * When the run started.
+     */
+    private final long start = System.nanoTime();
+    /**
+     * The names memo of the run.
+     */
+    private final NamesMemo names = new NamesMemo();
+    /**
+     * Rows routed to a field.
+     */
+    private final LongAdder rows = new LongAdder();
+    /**
+     * Files written.
+     */
+    private final LongAdder files = new LongAdder();
+
+    /**
+     * Creates stats for a run starting now.
+     */
+    PDTRunStats() {
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return the names memo of the run.
+     */
+    @NotNull NamesMemo names() {
+        return names;
+    }
+
+    /**
+     * Counts rows routed to a field.
+     *
+     * @param count the row count.
+     */
+    void addRows(long count) {
+        rows.add(count);
+    }
+
+    /**
+     * Counts a written file.
+     */
+    void addFile() {
+        files.increment();
+    }
+
+    @Override
+    public String toString() {
+        return "PDT710 run: %d rows, %d files in %d ms; names memo %d hits, %d misses (%.1f%%), %d ms"
+                .formatted(rows.sum(),
+                        files.sum(),
+                        (System.nanoTime() - start) / 1_000_000,
+                        names.hits(),
+                        names.misses(),
+                        names.hitRate() * 100,
+                        names.nanos() / 1_000_000);
+    }
+}
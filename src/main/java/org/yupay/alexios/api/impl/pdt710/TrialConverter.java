@@ -17,37 +17,46 @@
 
 package org.yupay.alexios.api.impl.pdt710;
 
-import com.google.api.services.sheets.v4.model.CellData;
 import org.jetbrains.annotations.NotNull;
+import org.yupay.alexios.api.Money;
+import org.yupay.alexios.api.pcge.TrialColumn;
 
-import java.util.List;
+import java.math.RoundingMode;
 import java.util.StringJoiner;
-import java.util.function.Function;
-
-import static org.yupay.alexios.google.GoogleUtils.intFromCell;
+import java.util.function.BiFunction;
 
 /**
- * Converter to read data from a google sheetName row into
- * a String as specified by SUNAT PDT710, Trial Balance.
+ * Converter to format the rollup of an account from the trial balance into
+ * a String as specified by SUNAT PDT710, Trial Balance. Amounts are truncated to units.
  *
  * @implNote used reverse engenieering to know the data format since
  * a specification was not provided, but a helper excel file with macros
  * gave hints on the structure and file naming.
  */
-final class TrialConverter implements Function<List<CellData>, String> {
+final class TrialConverter implements BiFunction<String, Money[], String> {
     @Override
-    public String apply(@NotNull List<CellData> cellData) {
+    public String apply(@NotNull String account, Money @NotNull [] totals) {
         return new StringJoiner("|")
-                .add(cellData.get(0).getFormattedValue())
-                .add("%d".formatted(intFromCell(cellData.get(2))))
-                .add("%d".formatted(intFromCell(cellData.get(3))))
-                .add("%d".formatted(intFromCell(cellData.get(4))))
-                .add("%d".formatted(intFromCell(cellData.get(5))))
-                .add("%d".formatted(intFromCell(cellData.get(10))))
-                .add("%d".formatted(intFromCell(cellData.get(11))))
+                .add(account)
+                .add(units(totals[TrialColumn.INITIAL_DEBIT.ordinal()]))
+                .add(units(totals[TrialColumn.INITIAL_CREDIT.ordinal()]))
+                .add(units(totals[TrialColumn.MOVEMENT_DEBIT.ordinal()]))
+                .add(units(totals[TrialColumn.MOVEMENT_CREDIT.ordinal()]))
+                .add(units(totals[TrialColumn.TRANSFER_DEBIT.ordinal()]))
+                .add(units(totals[TrialColumn.TRANSFER_CREDIT.ordinal()]))
                 .add("0")
                 .add("0")
                 .add("\r\n")
                 .toString();
     }
+
+    /**
+     * Truncates an amount to units.
+     *
+     * @param amount the amount.
+     * @return the units as text.
+     */
+    private static @NotNull String units(@NotNull Money amount) {
+        return amount.toBigDecimal().setScale(0, RoundingMode.DOWN).toPlainString();
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.registers;
+
+import org.jetbrains.annotations.NotNull;
+import org.yupay.alexios.api.BookValidationException;
+import org.yupay.alexios.tools.DoiChallenger;
+import org.yupay.alexios.tools.DoiValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the DOI of the counterparty of each invoice, while the register is written.
+ * Rows without DOI type nor number are skipped (ie: sales tickets under the threshold).
+ * The same counterparty appears on many invoices, so use a caching validator
+ * (see {@link org.yupay.alexios.tools.DoiVerdictCache}). Not thread safe.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+final class CounterpartyCheck {
+    /**
+     * Maximum count of failures kept to report.
+     */
+    static final int MAX_ISSUES = 100;
+    /**
+     * The rules to check DOI numbers.
+     */
+    private final DoiValidator validator;
+    /**
+     * The first failures.
+     */
+    private final List<BookValidationException.Issue> issues = new ArrayList<>();
+    /**
+     * Count of failures.
+     */
+    private long count;
+    /**
+     * The PLE book ID of the register.
+     */
+    private final String book;
+
+    /**
+     * Creates the check.
+     *
+     * @param book      the PLE book ID of the register, ie: 080100.
+     * @param validator the rules to check DOI numbers.
+     */
+    CounterpartyCheck(@NotNull String book, @NotNull DoiValidator validator) {
+        this.book = book;
+        this.validator = validator;
+    }
+
+    /**
+     * Checks a counterparty.
+     *
+     * @param doiType   the DOI type.
+     * @param doiNumber the DOI number.
+     * @param row       the worksheet row.
+     */
+    void accept(@NotNull String doiType, @NotNull String doiNumber, int row) {
+        if (doiType.isEmpty() && doiNumber.isEmpty()) return;
+        var challenger = new DoiChallenger(doiType, doiNumber, row);
+        if (challenger.challenge(validator)) return;
+        if (count++ < MAX_ISSUES) {
+            issues.add(new BookValidationException.Issue(row, doiType + "-" + doiNumber, "Invalid DOI number"));
+        }
+    }
+
+    /**
+     * Ends the check, throwing if some counterparties failed.
+     *
+     * @throws BookValidationException with the first {@value #MAX_ISSUES} failures.
+     */
+    void throwIfInvalid() throws BookValidationException {
+        if (count > 0) throw new BookValidationException(book, issues, count);
+    }
+}
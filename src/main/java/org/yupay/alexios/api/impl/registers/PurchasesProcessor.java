@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.registers;
+
+import com.google.api.services.sheets.v4.model.Spreadsheet;
+import org.jetbrains.annotations.Nullable;
+import org.yupay.alexios.api.BookProcessor;
+import org.yupay.alexios.api.BookValidationException;
+import org.yupay.alexios.api.MonthlyParams;
+import org.yupay.alexios.tools.DoiVerdictCache;
+import org.yupay.alexios.vault.ExchangeRates;
+
+import java.nio.file.Path;
+
+import static org.yupay.alexios.google.GoogleUtils.exportFile;
+
+/**
+ * Implementation for LE080000 - Purchases register.
+ * See PLE specifications 080100 (domiciled suppliers) and 080200 (non domiciled suppliers).
+ * Supplier DOIs of 080100 are checked while the register is written.
+ * This processor holds no mutable state, so a single instance may be shared among concurrent jobs.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public class PurchasesProcessor implements BookProcessor {
+    /**
+     * Columns of 080100, fields 2 to 42.
+     */
+    static final String SPEC_0801 = "tcdDttttt" + "ttt" + "n".repeat(11) + "tr" + "Dtttt" + "Dt" + "ttt" + "tttt" + "t" + "e";
+    /**
+     * Columns of 080200, fields 2 to 36.
+     */
+    static final String SPEC_0802 = "tcdttt" + "nnn" + "tttt" + "n" + "tr" + "tttttttt" + "nnnnn" + "ttttt" + "e";
+
+    /**
+     * The SUNAT exchange rates, or null to load the imported ones on each run.
+     */
+    private final ExchangeRates rates;
+
+    /**
+     * Creates an empty purchases register processor. Documents in foreign currency without
+     * exchange rate take the SUNAT rate, if imported (see {@link ExchangeRates#loadDefault()}).
+     */
+    public PurchasesProcessor() {
+        this(null);
+    }
+
+    /**
+     * Creates a purchases register processor with the given exchange rates.
+     *
+     * @param rates the SUNAT exchange rates; or null to load the imported ones on each run.
+     */
+    public PurchasesProcessor(@Nullable ExchangeRates rates) {
+        this.rates = rates;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws BookValidationException if some supplier DOIs are invalid, after the TXT files are written.
+     */
+    @Override
+    public void processSheet(Spreadsheet spreadsheet, Path target) throws Exception {
+        //Retrieve parameters from the 080000 worksheet.
+        var params = MonthlyParams.fromSpreadsheet(spreadsheet, "080000");
+        var rates = this.rates == null ? ExchangeRates.loadDefault() : this.rates;
+        var check = new CounterpartyCheck("080100", new DoiVerdictCache());
+        for (var worksheet : spreadsheet.getSheets()) {
+            switch (worksheet.getProperties().getTitle()) {
+                //0801 book: domiciled suppliers, DOI type and number are fields 11 and 12.
+                case "080100" -> exportFile(worksheet, 3,
+                        params.compileFile("080100", readInfoFlag(worksheet)),
+                        target,
+                        new RegisterConverter(params, SPEC_0801, worksheet, 3, check, 9, 10, rates));
+                //0802 book: non domiciled suppliers, foreign IDs aren't PLE DOIs.
+                case "080200" -> exportFile(worksheet, 3,
+                        params.compileFile("080200", readInfoFlag(worksheet)),
+                        target,
+                        new RegisterConverter(params, SPEC_0802, worksheet, 3, null, -1, -1, rates));
+            }
+        }
+        check.throwIfInvalid();
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.registers;
+
+import com.google.api.services.sheets.v4.model.CellData;
+import com.google.api.services.sheets.v4.model.ExtendedValue;
+import com.google.api.services.sheets.v4.model.Sheet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yupay.alexios.api.Money;
+import org.yupay.alexios.api.MonthlyParams;
+import org.yupay.alexios.vault.ExchangeRates;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import static org.yupay.alexios.google.GoogleUtils.cellAt;
+import static org.yupay.alexios.google.GoogleUtils.cellText;
+import static org.yupay.alexios.google.GoogleUtils.dateKey;
+import static org.yupay.alexios.google.GoogleUtils.sheetRows;
+import static org.yupay.alexios.google.GoogleUtils.textAt;
+
+/**
+ * Function to format the CellData of a row into a String as specified by PLE
+ * registers (080100, 080200 and 140100). It'll contain windows end of line (\r\n)
+ * since PLE system only accepts said end of line.
+ * <br/>
+ * Registers have a row per invoice and dozens of columns, so the line is appended
+ * into a single buffer, column by column, as told by a specification where each char
+ * is a column of the worksheet and a field of the line, after the period field:
+ * <ul>
+ *     <li><b>t:</b> text.</li>
+ *     <li><b>c:</b> correlative, if blank M000000000 with the row count.</li>
+ *     <li><b>d:</b> date, see {@link org.yupay.alexios.google.GoogleUtils#fromDateCell(CellData)}.</li>
+ *     <li><b>D:</b> optional date, if blank 01/01/0001.</li>
+ *     <li><b>n:</b> amount with 2 decimals, see {@link Money#appendPleText(StringBuilder)}.</li>
+ *     <li><b>r:</b> exchange rate with 3 decimals, it shall follow the currency column. If blank,
+ *     1.000 for PEN, or the SUNAT sell rate of the first <b>d</b> date (the issue date).</li>
+ *     <li><b>e:</b> state of the operation, if blank 1.</li>
+ * </ul>
+ * Each instance keeps its own row count, so create one per exportation and apply it in row order.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+final class RegisterConverter implements Function<List<CellData>, String> {
+    /**
+     * Parameters of the book.
+     */
+    private final MonthlyParams params;
+    /**
+     * The column specification.
+     */
+    private final String spec;
+    /**
+     * The counterparty check, null if the register has no counterparty DOI.
+     */
+    private final CounterpartyCheck check;
+    /**
+     * The DOI type column index.
+     */
+    private final int doiTypeIndex;
+    /**
+     * The DOI number column index.
+     */
+    private final int doiNumberIndex;
+    /**
+     * The SUNAT exchange rates, for documents in foreign currency without rate.
+     */
+    private final ExchangeRates rates;
+    /**
+     * The issue date column index, the first date of the specification.
+     */
+    private final int dateIndex;
+    /**
+     * The buffer of the line, reused for every row.
+     */
+    private final StringBuilder sb = new StringBuilder(512);
+    /**
+     * The worksheet row of each converted row, to report issues.
+     */
+    private final ToIntFunction<List<CellData>> rows;
+    /**
+     * The non blank row count, starting after the header, to generate correlatives.
+     */
+    private int row;
+
+    /**
+     * Creates the converter.
+     *
+     * @param params         parameters of the book.
+     * @param spec           the column specification.
+     * @param worksheet      the worksheet being exported, so issues tell its rows.
+     * @param headerSize     the header rows count.
+     * @param check          the counterparty check, or null if none.
+     * @param doiTypeIndex   the DOI type column index, ignored if check is null.
+     * @param doiNumberIndex the DOI number column index, ignored if check is null.
+     * @param rates          the SUNAT exchange rates, {@link ExchangeRates#EMPTY} if not imported.
+     */
+    RegisterConverter(@NotNull MonthlyParams params,
+                      @NotNull String spec,
+                      @NotNull Sheet worksheet,
+                      int headerSize,
+                      @Nullable CounterpartyCheck check,
+                      int doiTypeIndex,
+                      int doiNumberIndex,
+                      @NotNull ExchangeRates rates) {
+        this.params = params;
+        this.spec = spec;
+        this.rates = rates;
+        this.dateIndex = spec.indexOf('d');
+        this.rows = sheetRows(worksheet);
+        this.row = headerSize;
+        this.check = check;
+        this.doiTypeIndex = doiTypeIndex;
+        this.doiNumberIndex = doiNumberIndex;
+    }
+
+    @Override
+    public @NotNull String apply(@NotNull List<CellData> cellData) {
+        row++;
+        if (check != null) check.accept(textAt(cellData, doiTypeIndex), textAt(cellData, doiNumberIndex), rows.applyAsInt(cellData));
+        sb.setLength(0);
+        sb.append(params.period());
+        for (var i = 0; i < spec.length(); i++) {
+            sb.append('|');
+            var cell = cellAt(cellData, i);
+            switch (spec.charAt(i)) {
+                case 'c' -> {
+                    var v = cellText(cell);
+                    sb.append(v.isEmpty() ? "M%09d".formatted(row) : v);
+                }
+                case 'd' -> appendDate(cell, "00/00/0000");
+                case 'D' -> appendDate(cell, "01/01/0001");
+                case 'n' -> appendAmount(cell);
+                case 'r' -> appendRate(cell, cellData, i);
+                case 'e' -> {
+                    var v = cellText(cell);
+                    sb.append(v.isEmpty() ? "1" : v);
+                }
+                default -> sb.append(cellText(cell));
+            }
+        }
+        return sb.append("|\r\n").toString();
+    }
+
+    /**
+     * Appends a date formatted dd-MM-uuuu as dd/MM/uuuu.
+     *
+     * @param cell  the date cell.
+     * @param blank the text if the cell is blank.
+     */
+    private void appendDate(@NotNull CellData cell, String blank) {
+        var dt = cell.getFormattedValue();
+        if (dt == null || dt.isBlank()) {
+            sb.append(blank);
+        } else {
+            sb.append(dt, 0, 2).append('/').append(dt, 3, 5).append('/').append(dt, 6, dt.length());
+        }
+    }
+
+    /**
+     * Appends an amount, the same text of {@link org.yupay.alexios.google.GoogleUtils#decimalText(CellData)}.
+     *
+     * @param cell the amount cell.
+     */
+    private void appendAmount(@NotNull CellData cell) {
+        var value = number(cell);
+        if (value == null) {
+            sb.append("0.00");
+        } else {
+            Money.of(value).appendPleText(sb);
+        }
+    }
+
+    /**
+     * Appends an exchange rate with 3 decimals, rounded with {@link RoundingMode#HALF_EVEN}.
+     * Blank rates are looked up, see class documentation.
+     *
+     * @param cell     the rate cell.
+     * @param cellData the row.
+     * @param column   the rate column index.
+     */
+    private void appendRate(@NotNull CellData cell, @NotNull List<CellData> cellData, int column) {
+        var value = number(cell);
+        if (value == null) {
+            var currency = textAt(cellData, column - 1);
+            var rate = currency.isEmpty() || "PEN".equals(currency)
+                    ? -1
+                    : rates.sell(ExchangeRates.epochDay(dateKey(cellAt(cellData, dateIndex))));
+            if (rate > 0) {
+                ExchangeRates.appendRate(sb, rate);
+            } else {
+                sb.append("1.000");
+            }
+            return;
+        }
+        var thousandths = Math.round(value * 1000);
+        //Rates with 3 decimals or less are exact, others are rounded as BigDecimal.
+        if (value >= 0 && value < 1e6 && thousandths / 1000.0 == value) {
+            ExchangeRates.appendRate(sb, (int) thousandths);
+        } else {
+            sb.append(BigDecimal.valueOf(value).setScale(3, RoundingMode.HALF_EVEN).toPlainString());
+        }
+    }
+
+    /**
+     * Reads the number value of a cell.
+     *
+     * @param cell the cell.
+     * @return the number, or null if none.
+     */
+    private static @Nullable Double number(@NotNull CellData cell) {
+        ExtendedValue value = cell.getEffectiveValue();
+        return value == null ? null : value.getNumberValue();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.registers;
+
+import com.google.api.services.sheets.v4.model.Spreadsheet;
+import org.jetbrains.annotations.Nullable;
+import org.yupay.alexios.api.BookProcessor;
+import org.yupay.alexios.api.BookValidationException;
+import org.yupay.alexios.api.MonthlyParams;
+import org.yupay.alexios.tools.DoiVerdictCache;
+import org.yupay.alexios.vault.ExchangeRates;
+
+import java.nio.file.Path;
+
+import static org.yupay.alexios.google.GoogleUtils.exportFile;
+import static org.yupay.alexios.google.GoogleUtils.firstSheetByName;
+
+/**
+ * Implementation for LE140100 - Sales register.
+ * See PLE specification 140100.
+ * Customer DOIs are checked while the register is written, tickets without customer DOI are skipped.
+ * This processor holds no mutable state, so a single instance may be shared among concurrent jobs.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public class SalesProcessor implements BookProcessor {
+    /**
+     * Columns of 140100, fields 2 to 35.
+     */
+    static final String SPEC_1401 = "tcdDttttttt" + "n".repeat(13) + "tr" + "Dttt" + "ttt" + "e";
+
+    /**
+     * The SUNAT exchange rates, or null to load the imported ones on each run.
+     */
+    private final ExchangeRates rates;
+
+    /**
+     * Creates an empty sales register processor. Documents in foreign currency without
+     * exchange rate take the SUNAT rate, if imported (see {@link ExchangeRates#loadDefault()}).
+     */
+    public SalesProcessor() {
+        this(null);
+    }
+
+    /**
+     * Creates a sales register processor with the given exchange rates.
+     *
+     * @param rates the SUNAT exchange rates; or null to load the imported ones on each run.
+     */
+    public SalesProcessor(@Nullable ExchangeRates rates) {
+        this.rates = rates;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws BookValidationException if some customer DOIs are invalid, after the TXT is written.
+     */
+    @Override
+    public void processSheet(Spreadsheet spreadsheet, Path target) throws Exception {
+        //Retrieve parameters from the 140000 worksheet.
+        var params = MonthlyParams.fromSpreadsheet(spreadsheet, "140000");
+        var rates = this.rates == null ? ExchangeRates.loadDefault() : this.rates;
+        var worksheet = firstSheetByName("140100", spreadsheet);
+        var check = new CounterpartyCheck("140100", new DoiVerdictCache());
+        //DOI type and number are fields 10 and 11.
+        exportFile(worksheet, 3,
+                params.compileFile("140100", readInfoFlag(worksheet)),
+                target,
+                new RegisterConverter(params, SPEC_1401, worksheet, 3, check, 8, 9, rates));
+        check.throwIfInvalid();
+    }
+}
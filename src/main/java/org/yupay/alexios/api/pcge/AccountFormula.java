@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.pcge;
+
+import org.jetbrains.annotations.NotNull;
+import org.yupay.alexios.api.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A sum of account prefixes, as written in a financial statement row; ie: "10+12-19".
+ * Terms may be separated by +, -, comma, semicolon or spaces; a minus negates the next term.
+ *
+ * @param terms the account prefixes to sum.
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public record AccountFormula(@NotNull List<Term> terms) {
+
+    /**
+     * Parses a formula.
+     *
+     * @param text the formula text.
+     * @return the formula.
+     * @throws IllegalArgumentException if it isn't a formula of account prefixes.
+     */
+    public static @NotNull AccountFormula parse(@NotNull String text) {
+        var terms = new ArrayList<Term>();
+        var prefix = new StringBuilder(8);
+        var negative = false;
+        for (var i = 0; i <= text.length(); i++) {
+            var ch = i < text.length() ? text.charAt(i) : '+';
+            if (ch >= '0' && ch <= '9') {
+                prefix.append(ch);
+                continue;
+            }
+            if (ch == '.' && !prefix.isEmpty()) continue;
+            if (ch != '+' && ch != '-' && ch != ',' && ch != ';' && !Character.isWhitespace(ch)) {
+                throw new IllegalArgumentException("Not an account formula: " + text);
+            }
+            if (!prefix.isEmpty()) {
+                terms.add(new Term(prefix.toString(), negative));
+                prefix.setLength(0);
+                negative = false;
+            }
+            if (ch == '-') negative = !negative;
+        }
+        if (terms.isEmpty()) throw new IllegalArgumentException("Not an account formula: " + text);
+        return new AccountFormula(List.copyOf(terms));
+    }
+
+    /**
+     * Sums the net balance (debit - credit) of every term.
+     *
+     * @param trie   the accounts rollups.
+     * @param debit  the debit amount index.
+     * @param credit the credit amount index.
+     * @return the sum.
+     */
+    public @NotNull Money evaluate(@NotNull AccountTrie trie, int debit, int credit) {
+        var r = Money.ZERO;
+        for (var t : terms) {
+            var net = trie.total(t.prefix(), debit).minus(trie.total(t.prefix(), credit));
+            r = t.negative() ? r.minus(net) : r.plus(net);
+        }
+        return r;
+    }
+
+    @Override
+    public String toString() {
+        var sb = new StringBuilder();
+        for (var t : terms) {
+            if (t.negative()) sb.append('-');
+            else if (!sb.isEmpty()) sb.append('+');
+            sb.append(t.prefix());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A term of the formula.
+     *
+     * @param prefix   the account prefix, digits only.
+     * @param negative true to subtract.
+     * @author InfoYupay SACS
+     * @version 1.0
+     */
+    public record Term(@NotNull String prefix, boolean negative) {
+    }
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.pcge;
+
+import com.google.api.services.sheets.v4.model.Sheet;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.yupay.alexios.api.BookValidationException;
+import org.yupay.alexios.api.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.yupay.alexios.google.GoogleUtils.doubleFromCell;
+import static org.yupay.alexios.google.GoogleUtils.ignoreBlank;
+
+/**
+ * A trie of PCGE account codes, one digit per level, that rolls up the amounts
+ * of each account into every prefix: element (1 digit), account (2 digits),
+ * sub account (3 digits) and so on. Rollups are computed in a single pass on
+ * the first lookup after adding accounts.
+ * <br/>
+ * Trial balances may list a subtotal row (ie: 10) along with its sub accounts
+ * (ie: 101, 104); so an account with sub accounts takes the sum of them, and
+ * its own amounts are taken as a subtotal. When they don't match the sum of the
+ * sub accounts, some money would be left out silently, so {@link #mismatches()}
+ * reports them.
+ * <br/>
+ * All methods are synchronized, a single instance may be shared among threads.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public final class AccountTrie {
+    /**
+     * The header rows of the trial balance worksheet.
+     */
+    private static final int TRIAL_HEADER = 3;
+    /**
+     * Amounts per account.
+     */
+    private final int width;
+    /**
+     * The root node, without digits.
+     */
+    private final Node root = new Node();
+    /**
+     * Count of accounts added.
+     */
+    private int accounts;
+    /**
+     * Flag to tell whether rollups are up to date.
+     */
+    private boolean rolledUp;
+
+    /**
+     * Creates an empty trie.
+     *
+     * @param width amounts per account.
+     */
+    public AccountTrie(int width) {
+        if (width < 1) throw new IllegalArgumentException("Width must be positive: " + width);
+        this.width = width;
+    }
+
+    /**
+     * Reads a trial balance worksheet (031700), with the amounts of {@link TrialColumn}.
+     * Rows whose first column isn't an account code (titles, totals) are skipped.
+     *
+     * @param sheet the trial balance worksheet.
+     * @return the trie.
+     */
+    public static @NotNull AccountTrie ofTrialBalance(@NotNull Sheet sheet) {
+        var columns = TrialColumn.values();
+        var r = new AccountTrie(columns.length);
+        var rows = sheet.getData().getFirst().getRowData();
+        if (rows == null) return r;
+        var notBlank = ignoreBlank();
+        for (var i = TRIAL_HEADER; i < rows.size(); i++) {
+            var cells = rows.get(i).getValues();
+            if (!notBlank.test(cells)) continue;
+            var account = cells.getFirst().getFormattedValue();
+            if (!isAccountCode(account)) continue;
+            var amounts = new Money[columns.length];
+            for (var c : columns) {
+                amounts[c.ordinal()] = c.column() < cells.size()
+                        ? Money.of(doubleFromCell(cells.get(c.column())))
+                        : Money.ZERO;
+            }
+            r.add(account, amounts, i + 1);
+        }
+        return r;
+    }
+
+    /**
+     * Checks an account code: digits, maybe separated by dots or spaces.
+     *
+     * @param text the text to check.
+     * @return true if it has digits and nothing else than separators.
+     */
+    @Contract(pure = true)
+    public static boolean isAccountCode(@NotNull String text) {
+        var digits = 0;
+        for (var i = 0; i < text.length(); i++) {
+            var ch = text.charAt(i);
+            if (ch >= '0' && ch <= '9') digits++;
+            else if (ch != '.' && !Character.isWhitespace(ch)) return false;
+        }
+        return digits > 0;
+    }
+
+    /**
+     * Adds the amounts of an account. Repeated accounts are summed.
+     *
+     * @param account the account code, see {@link #isAccountCode(String)}.
+     * @param amounts the amounts, as many as the width.
+     * @throws IllegalArgumentException if the account isn't a code or the amounts don't fit the width.
+     */
+    public void add(@NotNull String account, @NotNull Money @NotNull [] amounts) {
+        add(account, amounts, 0);
+    }
+
+    /**
+     * Adds the amounts of an account read from a worksheet row.
+     *
+     * @param account the account code, see {@link #isAccountCode(String)}.
+     * @param amounts the amounts, as many as the width.
+     * @param row     the worksheet row, 0 if unknown.
+     * @throws IllegalArgumentException if the account isn't a code or the amounts don't fit the width.
+     */
+    private synchronized void add(@NotNull String account, @NotNull Money @NotNull [] amounts, long row) {
+        if (!isAccountCode(account)) throw new IllegalArgumentException("Not an account code: " + account);
+        if (amounts.length != width) {
+            throw new IllegalArgumentException("Expected %d amounts, got %d.".formatted(width, amounts.length));
+        }
+        var node = root;
+        for (var i = 0; i < account.length(); i++) {
+            var ch = account.charAt(i);
+            if (ch >= '0' && ch <= '9') node = node.child(ch - '0');
+        }
+        if (node.own == null) {
+            node.own = zeros();
+            node.row = row;
+            accounts++;
+        }
+        for (var j = 0; j < width; j++) node.own[j] = node.own[j].plus(amounts[j]);
+        rolledUp = false;
+    }
+
+    /**
+     * Looks up the rollup of an account prefix.
+     *
+     * @param prefix the account prefix, see {@link #isAccountCode(String)}.
+     * @param column the amount index.
+     * @return the sum of every account starting with prefix, or zero if there's none.
+     */
+    public synchronized @NotNull Money total(@NotNull String prefix, int column) {
+        rollUp();
+        var node = root;
+        for (var i = 0; i < prefix.length() && node != null; i++) {
+            var ch = prefix.charAt(i);
+            if (ch >= '0' && ch <= '9') node = node.children == null ? null : node.children[ch - '0'];
+        }
+        return node == null ? Money.ZERO : node.total[column];
+    }
+
+    /**
+     * Visits the rollups at a level, in account code order. Accounts with fewer digits
+     * and without sub accounts are visited too, so nothing is left out.
+     *
+     * @param digits the level, as account code length (ie: 2 for accounts).
+     * @param action receives the account code and a copy of its rollup.
+     */
+    public synchronized void forEachAccount(int digits, @NotNull BiConsumer<String, Money[]> action) {
+        if (digits < 1) throw new IllegalArgumentException("Digits must be positive: " + digits);
+        rollUp();
+        visit(root, new StringBuilder(digits), digits, action);
+    }
+
+    /**
+     * Lists the accounts with sub accounts whose own amounts don't match the sum
+     * of the sub accounts once rounded to cents, in account code order. Their own amounts are left out
+     * of every rollup.
+     *
+     * @return the issues, keyed by account code, with the worksheet row if known.
+     */
+    public synchronized @NotNull List<BookValidationException.Issue> mismatches() {
+        rollUp();
+        var r = new ArrayList<BookValidationException.Issue>();
+        mismatches(root, new StringBuilder(), r);
+        return r;
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return count of accounts added, repeated ones counted once.
+     */
+    public synchronized int size() {
+        return accounts;
+    }
+
+    /**
+     * Visits a node, in pre order.
+     *
+     * @param node   the node.
+     * @param path   the account code of the node.
+     * @param digits the level to visit.
+     * @param action the visitor.
+     */
+    private void visit(@NotNull Node node, @NotNull StringBuilder path, int digits,
+                       @NotNull BiConsumer<String, Money[]> action) {
+        if (!path.isEmpty() && (path.length() == digits || node.children == null)) {
+            action.accept(path.toString(), node.total.clone());
+            return;
+        }
+        if (node.children == null) return;
+        for (var d = 0; d < node.children.length; d++) {
+            if (node.children[d] == null) continue;
+            path.append((char) ('0' + d));
+            visit(node.children[d], path, digits, action);
+            path.setLength(path.length() - 1);
+        }
+    }
+
+    /**
+     * Collects the mismatches of a node and its descendants, in pre order.
+     *
+     * @param node the node.
+     * @param path the account code of the node.
+     * @param r    receives the issues.
+     */
+    private void mismatches(@NotNull Node node, @NotNull StringBuilder path,
+                            @NotNull List<BookValidationException.Issue> r) {
+        if (node.children == null) return;
+        if (node.own != null && !sameCents(node.own, node.total)) {
+            r.add(new BookValidationException.Issue(node.row, path.toString(),
+                    "Amounts %s don't match the sum of sub accounts %s"
+                            .formatted(Arrays.toString(node.own), Arrays.toString(node.total))));
+        }
+        for (var d = 0; d < node.children.length; d++) {
+            if (node.children[d] == null) continue;
+            path.append((char) ('0' + d));
+            mismatches(node.children[d], path, r);
+            path.setLength(path.length() - 1);
+        }
+    }
+
+    /**
+     * Compares amounts rounded to cents (HALF_EVEN), as PLE writes them. Subtotal rows
+     * are usually SUM() formulas, whose doubles carry float noise (ie: 0.30000000000000004).
+     *
+     * @param a some amounts.
+     * @param b other amounts, as many.
+     * @return true if every amount takes the same cents.
+     */
+    @Contract(pure = true)
+    private static boolean sameCents(Money @NotNull [] a, Money @NotNull [] b) {
+        for (var i = 0; i < a.length; i++) {
+            if (a[i].isCents() && b[i].isCents()) {
+                if (a[i].cents() != b[i].cents()) return false;
+            } else if (cents(a[i]).compareTo(cents(b[i])) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rounds an amount to cents (HALF_EVEN).
+     *
+     * @param amount the amount.
+     * @return the rounded amount.
+     */
+    @Contract(pure = true)
+    private static @NotNull BigDecimal cents(@NotNull Money amount) {
+        return amount.toBigDecimal().setScale(2, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Computes the rollups, if accounts were added since the last time.
+     */
+    private void rollUp() {
+        if (rolledUp) return;
+        root.rollUp();
+        rolledUp = true;
+    }
+
+    /**
+     * Creates zero amounts.
+     *
+     * @return an array of zeros, as long as the width.
+     */
+    private Money @NotNull [] zeros() {
+        var r = new Money[width];
+        Arrays.fill(r, Money.ZERO);
+        return r;
+    }
+
+    /**
+     * A digit of an account code.
+     *
+     * @version 1.0
+     */
+    private final class Node {
+        /**
+         * Nodes of the next digit, null if there's none.
+         */
+        private Node[] children;
+        /**
+         * The amounts added to this exact account, null if none.
+         */
+        private Money[] own;
+        /**
+         * The rollup, valid after {@link #rollUp()}.
+         */
+        private Money[] total;
+        /**
+         * The worksheet row of the amounts added to this exact account, 0 if unknown.
+         */
+        private long row;
+
+        /**
+         * Gets or creates the node of the next digit.
+         *
+         * @param digit the digit.
+         * @return the node.
+         */
+        private @NotNull Node child(int digit) {
+            if (children == null) children = new Node[10];
+            if (children[digit] == null) children[digit] = new Node();
+            return children[digit];
+        }
+
+        /**
+         * Computes the rollup of this node and its descendants, in post order.
+         *
+         * @return the rollup of this node.
+         */
+        private Money @NotNull [] rollUp() {
+            if (children == null) {
+                total = own == null ? zeros() : own.clone();
+                return total;
+            }
+            total = zeros();
+            for (var child : children) {
+                if (child == null) continue;
+                var sub = child.rollUp();
+                for (var j = 0; j < width; j++) total[j] = total[j].plus(sub[j]);
+            }
+            return total;
+        }
+    }
+}
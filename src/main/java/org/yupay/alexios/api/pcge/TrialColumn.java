@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.pcge;
+
+import org.jetbrains.annotations.Contract;
+
+/**
+ * The amount columns of the trial balance worksheet (031700), in PLE order.
+ * The account code is the first column and its name the second one, so amounts start at C.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public enum TrialColumn {
+    /**
+     * Opening balance, debit.
+     */
+    INITIAL_DEBIT,
+    /**
+     * Opening balance, credit.
+     */
+    INITIAL_CREDIT,
+    /**
+     * Movements of the period, debit.
+     */
+    MOVEMENT_DEBIT,
+    /**
+     * Movements of the period, credit.
+     */
+    MOVEMENT_CREDIT,
+    /**
+     * Ledger sums, debit.
+     */
+    SUM_DEBIT,
+    /**
+     * Ledger sums, credit.
+     */
+    SUM_CREDIT,
+    /**
+     * Closing balance, debit.
+     */
+    BALANCE_DEBIT,
+    /**
+     * Closing balance, credit.
+     */
+    BALANCE_CREDIT,
+    /**
+     * Transfers and cancellations, debit.
+     */
+    TRANSFER_DEBIT,
+    /**
+     * Transfers and cancellations, credit.
+     */
+    TRANSFER_CREDIT,
+    /**
+     * Balance sheet, assets.
+     */
+    ASSETS,
+    /**
+     * Balance sheet, liabilities and equity.
+     */
+    LIABILITIES,
+    /**
+     * Income statement by nature, losses.
+     */
+    NATURE_LOSS,
+    /**
+     * Income statement by nature, gains.
+     */
+    NATURE_GAIN,
+    /**
+     * Additions.
+     */
+    ADDITIONS,
+    /**
+     * Deductions.
+     */
+    DEDUCTIONS;
+
+    /**
+     * Accessor.
+     *
+     * @return the column index in the trial balance worksheet.
+     */
+    @Contract(pure = true)
+    public int column() {
+        return ordinal() + 2;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.tables;
+
+import com.google.api.services.sheets.v4.model.CellData;
+import com.google.api.services.sheets.v4.model.Sheet;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yupay.alexios.api.BookValidationException;
+import org.yupay.alexios.google.GoogleUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Checks the coded fields of a book against the SUNAT tables, cell by cell,
+ * while the book is exported. Blank cells are left alone, issues are aggregated
+ * by book and reported once the book is written (see {@link #throwIfInvalid()}).
+ * Not thread safe, rows must arrive in row order.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public final class CodeCheck {
+    /**
+     * Maximum count of issues kept to report.
+     */
+    public static final int MAX_ISSUES = 100;
+    /**
+     * The PLE book ID, ie: 030600.
+     */
+    private final String book;
+    /**
+     * The checked columns.
+     */
+    private final List<Column> columns = new ArrayList<>(4);
+    /**
+     * The first issues found.
+     */
+    private final List<BookValidationException.Issue> issues = new ArrayList<>();
+    /**
+     * The count of issues found.
+     */
+    private long count;
+
+    /**
+     * Creates a check without columns.
+     *
+     * @param book the PLE book ID, ie: 030600.
+     */
+    public CodeCheck(@NotNull String book) {
+        this.book = book;
+    }
+
+    /**
+     * Fluent setter - with.
+     *
+     * @param index the index of a column to check.
+     * @param table the table the column codes belong to.
+     * @return this instance.
+     */
+    @Contract("_, _ -> this")
+    public CodeCheck withColumn(int index, @NotNull SunatTable table) {
+        columns.add(new Column(index, table));
+        return this;
+    }
+
+    /**
+     * Checks the columns of a row.
+     *
+     * @param cells the row cells.
+     * @param row   the worksheet row, to report issues.
+     */
+    public void accept(@NotNull List<CellData> cells, long row) {
+        for (var c : columns) {
+            if (c.index() < cells.size()) accept(c.table(), cells.get(c.index()), row);
+        }
+    }
+
+    /**
+     * Checks a single cell.
+     *
+     * @param table the table the code belongs to.
+     * @param cell  the cell holding the code, may be null.
+     * @param row   the worksheet row, to report issues.
+     */
+    public void accept(@NotNull SunatTable table, @Nullable CellData cell, long row) {
+        if (cell == null) return;
+        var code = cell.getFormattedValue();
+        if (code == null || code.isBlank() || table.contains(code)) return;
+        if (issues.size() < MAX_ISSUES) {
+            issues.add(new BookValidationException.Issue(row, code, "Not in SUNAT table " + table.getNumber()));
+        }
+        count++;
+    }
+
+    /**
+     * Wraps a converter, so each row is checked before it's converted.
+     * Issues tell the worksheet row, as found by {@link GoogleUtils#sheetRows(Sheet)},
+     * so the converter must be given the rows of the worksheet in order, as
+     * {@link GoogleUtils#exportFile(Sheet, long, String, java.nio.file.Path, Function)} does.
+     *
+     * @param converter the converter.
+     * @param worksheet the worksheet being exported.
+     * @return the checking converter.
+     */
+    public @NotNull Function<List<CellData>, String> wrap(@NotNull Function<List<CellData>, String> converter,
+                                                         @NotNull Sheet worksheet) {
+        var rows = GoogleUtils.sheetRows(worksheet);
+        return cells -> {
+            accept(cells, rows.applyAsInt(cells));
+            return converter.apply(cells);
+        };
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return the first issues found.
+     */
+    public @NotNull List<BookValidationException.Issue> getIssues() {
+        return issues;
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return the count of issues found.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Reports the issues found, if any.
+     *
+     * @throws BookValidationException with the first {@value #MAX_ISSUES} codes not in their tables.
+     */
+    public void throwIfInvalid() throws BookValidationException {
+        if (count > 0) throw new BookValidationException(book, issues, count);
+    }
+
+    /**
+     * Reports the issues found by many checks, ie: every worksheet of a book.
+     * The first failing check is thrown, the others are added to it as suppressed.
+     *
+     * @param checks the checks, in book order.
+     * @throws BookValidationException if any check found issues.
+     */
+    public static void throwIfInvalid(@NotNull Iterable<CodeCheck> checks) throws BookValidationException {
+        BookValidationException first = null;
+        for (var check : checks) {
+            try {
+                check.throwIfInvalid();
+            } catch (BookValidationException e) {
+                if (first == null) first = e;
+                else first.addSuppressed(e);
+            }
+        }
+        if (first != null) throw first;
+    }
+
+    /**
+     * A checked column.
+     *
+     * @param index the column index.
+     * @param table the table its codes belong to.
+     */
+    private record Column(int index, SunatTable table) {
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.tables;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable table of codes and their descriptions, looked up with a minimal
+ * perfect hash: every code has its own slot, so a lookup hashes the code twice
+ * and compares it with a single key, without allocating anything.
+ * <br/>
+ * Codes are spread into buckets by a first hash, then each bucket (largest first)
+ * takes the first seed of a second hash that sends all of its codes to free slots
+ * (hash and displace). Tables have a few hundred codes at most, so building takes
+ * microseconds.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public final class CodeTable {
+    /**
+     * Maximum seeds to try per bucket before giving up.
+     */
+    private static final int MAX_SEED = 1 << 20;
+    /**
+     * Seed of the second hash of each bucket.
+     */
+    private final int[] seeds;
+    /**
+     * The codes, by slot.
+     */
+    private final String[] codes;
+    /**
+     * The descriptions, by slot.
+     */
+    private final String[] descriptions;
+
+    /**
+     * Private constructor, use static factories.
+     *
+     * @param seeds        seed of the second hash of each bucket.
+     * @param codes        the codes, by slot.
+     * @param descriptions the descriptions, by slot.
+     */
+    private CodeTable(int[] seeds, String[] codes, String[] descriptions) {
+        this.seeds = seeds;
+        this.codes = codes;
+        this.descriptions = descriptions;
+    }
+
+    /**
+     * Reads a table, one code per line as code|description. Blank lines and lines
+     * starting with # are skipped.
+     *
+     * @param reader the source.
+     * @return the table.
+     * @throws IOException              if unable to read.
+     * @throws IllegalArgumentException if a code is repeated.
+     */
+    public static @NotNull CodeTable read(@NotNull BufferedReader reader) throws IOException {
+        var entries = new LinkedHashMap<String, String>();
+        String ln;
+        while ((ln = reader.readLine()) != null) {
+            if (ln.isBlank() || ln.startsWith("#")) continue;
+            var sep = ln.indexOf('|');
+            var code = (sep < 0 ? ln : ln.substring(0, sep)).strip();
+            var description = sep < 0 ? "" : ln.substring(sep + 1).strip();
+            if (entries.putIfAbsent(code, description) != null) {
+                throw new IllegalArgumentException("Repeated code: " + code);
+            }
+        }
+        return of(entries);
+    }
+
+    /**
+     * Builds a table.
+     *
+     * @param entries the descriptions by code.
+     * @return the table.
+     */
+    public static @NotNull CodeTable of(@NotNull Map<String, String> entries) {
+        var n = entries.size();
+        var keys = entries.keySet().toArray(String[]::new);
+        var seeds = new int[Math.max(1, n)];
+        var codes = new String[n];
+        var descriptions = new String[n];
+        if (n == 0) return new CodeTable(seeds, codes, descriptions);
+        //1. Spread codes into buckets.
+        var buckets = new ArrayList<List<String>>(n);
+        for (var i = 0; i < n; i++) buckets.add(new ArrayList<>(2));
+        for (var k : keys) buckets.get(Math.floorMod(hash(k, 0), n)).add(k);
+        //2. Place the largest buckets first, while there are many free slots.
+        var order = new Integer[n];
+        for (var i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(buckets.get(b).size(), buckets.get(a).size()));
+        //The largest bucket is the first one, so it tells how many slots to track.
+        var slots = new int[buckets.get(order[0]).size()];
+        for (var b : order) {
+            var bucket = buckets.get(b);
+            if (bucket.isEmpty()) break;
+            var seed = 1;
+            while (!fits(bucket, seed, codes, slots)) {
+                if (++seed > MAX_SEED) throw new IllegalStateException("Unable to build a perfect hash.");
+            }
+            seeds[b] = seed;
+            for (var i = 0; i < bucket.size(); i++) {
+                codes[slots[i]] = bucket.get(i);
+                descriptions[slots[i]] = entries.get(bucket.get(i));
+            }
+        }
+        return new CodeTable(seeds, codes, descriptions);
+    }
+
+    /**
+     * Tries a seed for a bucket.
+     *
+     * @param bucket the codes of the bucket.
+     * @param seed   the seed.
+     * @param codes  the codes already placed, by slot.
+     * @param slots  receives the slot of each code of the bucket.
+     * @return true if every code of the bucket takes a free and distinct slot.
+     */
+    private static boolean fits(@NotNull List<String> bucket, int seed, String @NotNull [] codes, int @NotNull [] slots) {
+        for (var i = 0; i < bucket.size(); i++) {
+            var slot = Math.floorMod(hash(bucket.get(i), seed), codes.length);
+            if (codes[slot] != null) return false;
+            for (var j = 0; j < i; j++) if (slots[j] == slot) return false;
+            slots[i] = slot;
+        }
+        return true;
+    }
+
+    /**
+     * Hashes a code (FNV-1a with a final mix).
+     *
+     * @param code the code.
+     * @param seed the seed.
+     * @return the hash.
+     */
+    @Contract(pure = true)
+    private static int hash(@NotNull CharSequence code, int seed) {
+        var h = 0x811C9DC5 ^ seed * 0x9E3779B9;
+        for (var i = 0; i < code.length(); i++) {
+            h = (h ^ code.charAt(i)) * 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        return h ^ h >>> 13;
+    }
+
+    /**
+     * Finds the slot of a code.
+     *
+     * @param code the code.
+     * @return the slot, or -1 if it isn't in the table.
+     */
+    private int slot(@NotNull CharSequence code) {
+        if (codes.length == 0) return -1;
+        var slot = Math.floorMod(hash(code, seeds[Math.floorMod(hash(code, 0), codes.length)]), codes.length);
+        return codes[slot].contentEquals(code) ? slot : -1;
+    }
+
+    /**
+     * Checks a code.
+     *
+     * @param code the code.
+     * @return true if it's in the table.
+     */
+    public boolean contains(@Nullable CharSequence code) {
+        return code != null && slot(code) >= 0;
+    }
+
+    /**
+     * Looks up the description of a code.
+     *
+     * @param code the code.
+     * @return the description, or null if it isn't in the table.
+     */
+    public @Nullable String description(@Nullable CharSequence code) {
+        if (code == null) return null;
+        var slot = slot(code);
+        return slot < 0 ? null : descriptions[slot];
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return count of codes.
+     */
+    public int size() {
+        return codes.length;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.tables;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * The SUNAT PLE tables bundled with Alexios. Each one is compiled into a
+ * {@link CodeTable} when this enum is first used.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public enum SunatTable {
+    /**
+     * Tabla 2 - DOI types.
+     */
+    DOI_TYPE(2),
+    /**
+     * Tabla 4 - Currencies (ISO 4217).
+     */
+    CURRENCY(4),
+    /**
+     * Tabla 5 - Stock types.
+     */
+    STOCK_TYPE(5),
+    /**
+     * Tabla 10 - Payment voucher types.
+     */
+    VOUCHER_TYPE(10),
+    /**
+     * Tabla 13 - Stock catalogs.
+     */
+    CATALOG(13);
+
+    /**
+     * The number of the table in SUNAT PLE annexes.
+     */
+    private final int number;
+    /**
+     * The codes.
+     */
+    private final CodeTable table;
+
+    /**
+     * Enum constructor, loads the table from its resource (ie: tabla02.txt).
+     *
+     * @param number the number of the table in SUNAT PLE annexes.
+     */
+    SunatTable(int number) {
+        this.number = number;
+        var resource = "tabla%02d.txt".formatted(number);
+        try (var is = Objects.requireNonNull(SunatTable.class.getResourceAsStream(resource), resource);
+             var reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+            this.table = CodeTable.read(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load " + resource, e);
+        }
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return the number of the table in SUNAT PLE annexes.
+     */
+    @Contract(pure = true)
+    public int getNumber() {
+        return number;
+    }
+
+    /**
+     * Checks a code.
+     *
+     * @param code the code.
+     * @return true if it's in the table.
+     */
+    public boolean contains(@Nullable CharSequence code) {
+        return table.contains(code);
+    }
+
+    /**
+     * Looks up the description of a code.
+     *
+     * @param code the code.
+     * @return the description, or null if it isn't in the table.
+     */
+    public @Nullable String description(@Nullable CharSequence code) {
+        return table.description(code);
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return the codes.
+     */
+    public @NotNull CodeTable getTable() {
+        return table;
+    }
+}
@@ -35,8 +35,11 @@ import com.google.api.services.sheets.v4.SheetsScopes;
 import com.google.api.services.sheets.v4.model.*;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yupay.alexios.api.Money;
 import org.yupay.alexios.vault.LocalPaths;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
@@ -47,11 +50,17 @@ import java.nio.file.Path;
 import java.security.GeneralSecurityException;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
+import java.util.ArrayDeque;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -82,12 +91,33 @@ public class GoogleUtils {
     };
     /**
      * General decimal format for PLE specs.
+     * DecimalFormat is not thread-safe, so don't share it among threads;
+     * use {@link #decimalText(CellData)} instead, which relies on a per-thread copy.
      */
     public static final DecimalFormat PLE_FMT = new DecimalFormat("###0.00", PLE_SYM);
     /**
      * Decimal format to use in LE 1602, field 7 specs.
+     * Not thread-safe either, see {@link #decimalText1602(CellData)}.
      */
     public static final DecimalFormat PLE_1602_7_FMT = new DecimalFormat("###0.00000000", PLE_SYM);
+    /**
+     * Positions of the digits of a dd-MM-uuuu date, in uuuuMMdd order.
+     */
+    private static final int[] DATE_DIGITS = {6, 7, 8, 9, 3, 4, 0, 1};
+    /**
+     * The cell read beyond the last one sent for a row, never modify it.
+     */
+    private static final CellData BLANK = new CellData();
+    /**
+     * Per-thread copy of {@link #PLE_FMT}, so processors may run concurrently.
+     */
+    private static final ThreadLocal<DecimalFormat> LOCAL_PLE_FMT =
+            ThreadLocal.withInitial(() -> (DecimalFormat) PLE_FMT.clone());
+    /**
+     * Per-thread copy of {@link #PLE_1602_7_FMT}, so processors may run concurrently.
+     */
+    private static final ThreadLocal<DecimalFormat> LOCAL_PLE_1602_7_FMT =
+            ThreadLocal.withInitial(() -> (DecimalFormat) PLE_1602_7_FMT.clone());
     /**
      * The application name, which is alexios.
      */
@@ -167,6 +197,36 @@ public class GoogleUtils {
     }
 
 
+    /**
+     * Reads a spreadsheet previously saved as JSON (ie: with {@link #writeSpreadsheet(Spreadsheet, Path)}).
+     * The JSON must follow the google sheets API representation, the same one
+     * returned by {@link #getSpreadsheet(String)}.
+     *
+     * @param source the JSON file.
+     * @return the spreadsheet object.
+     * @throws IOException if unable to read or parse the file.
+     */
+    public static Spreadsheet readSpreadsheet(@NotNull Path source) throws IOException {
+        try (var is = Files.newInputStream(source)) {
+            return JSON_FACTORY.fromInputStream(is, StandardCharsets.UTF_8, Spreadsheet.class);
+        }
+    }
+
+    /**
+     * Writes a spreadsheet as JSON, following the google sheets API representation.
+     * Useful to keep offline fixtures of workbooks.
+     *
+     * @param spreadsheet the spreadsheet object.
+     * @param target      the output JSON file.
+     * @throws IOException if unable to write.
+     */
+    public static void writeSpreadsheet(@NotNull Spreadsheet spreadsheet, @NotNull Path target) throws IOException {
+        try (var os = Files.newOutputStream(target);
+             var generator = JSON_FACTORY.createJsonGenerator(os, StandardCharsets.UTF_8)) {
+            generator.serialize(spreadsheet);
+        }
+    }
+
     /**
      * Retrieves a Spreadsheet using the spreadSheet ID value.
      *
@@ -176,12 +236,33 @@ public class GoogleUtils {
      * @throws GeneralSecurityException if thrown by GoogleNetHttpTransport.newTrustedTransport.
      */
     public static Spreadsheet getSpreadsheet(final String spreadSheetID) throws IOException, GeneralSecurityException {
+        return getSpreadsheet(spreadSheetID, null);
+    }
+
+    /**
+     * Retrieves a Spreadsheet using the spreadSheet ID value, with the grid data
+     * of some worksheets only. Fetching less worksheets makes google recalculate
+     * and send less data.
+     *
+     * @param spreadSheetID the sheetName ID value.
+     * @param worksheets    the names of the worksheets to fetch, or null to fetch all of them.
+     * @return requested sheetName.
+     * @throws IOException              if thrown by getCredentials.
+     * @throws GeneralSecurityException if thrown by GoogleNetHttpTransport.newTrustedTransport.
+     */
+    public static Spreadsheet getSpreadsheet(final String spreadSheetID, final @Nullable List<String> worksheets)
+            throws IOException, GeneralSecurityException {
         final var transport = GoogleNetHttpTransport.newTrustedTransport();
         final var service = new Sheets
                 .Builder(transport, JSON_FACTORY, getCredentialsSheets(transport))
                 .setApplicationName(APP_NAME)
                 .build();
-        return service.spreadsheets().get(spreadSheetID).setIncludeGridData(true).execute();
+        var request = service.spreadsheets().get(spreadSheetID).setIncludeGridData(true);
+        if (worksheets != null) {
+            //Quoted, so numeric names (ie: 031700) are not taken as A1 references.
+            request.setRanges(worksheets.stream().map(w -> "'" + w.replace("'", "''") + "'").toList());
+        }
+        return request.execute();
     }
 
     /**
@@ -256,29 +337,36 @@ public class GoogleUtils {
      * If the cell is null, or empty at some point, 0 will be returned.
      * Otherwise, will extract the number value and build a BigDecimal from it
      * using {@link BigDecimal#valueOf(double)}, then will format to String
-     * using the constant {@link #PLE_FMT}. If the cell doesn't contain
+     * using a per-thread copy of {@link #PLE_FMT} (or {@link Money#toPleText()} if
+     * it has 2 decimals or less, same text). If the cell doesn't contain
      * a number value, "0.00" will be returned as well.
      *
      * @param cell the cell object.
      * @return text from cell value as PLE specs or empty String.
      */
     public static String decimalText(CellData cell) {
-        return decimalIn(cell)
-                .map(PLE_FMT::format)
-                .orElse("0.00");
+        var value = Optional.ofNullable(cell)
+                .map(CellData::getEffectiveValue)
+                .map(ExtendedValue::getNumberValue);
+        if (value.isEmpty()) return "0.00";
+        //Amounts with 2 decimals or less are formatted from cents, without BigDecimal nor DecimalFormat.
+        var money = Money.of(value.get());
+        return money.isCents()
+                ? money.toPleText()
+                : LOCAL_PLE_FMT.get().format(money.toBigDecimal());
     }
 
     /**
      * Convenient method to format decimals for LE1602, field 7 specs.
      * Extracts data from a CellData object representing a cell, if it contains decimal data,
-     * will format using the {@link #PLE_1602_7_FMT} decimal format.
+     * will format using a per-thread copy of the {@link #PLE_1602_7_FMT} decimal format.
      *
      * @param cell the cell object.
      * @return formatted decimal value, if no value is present "0.00000000"
      */
     public static String decimalText1602(CellData cell) {
         return decimalIn(cell)
-                .map(PLE_1602_7_FMT::format)
+                .map(LOCAL_PLE_1602_7_FMT.get()::format)
                 .orElse("0.00000000");
     }
 
@@ -312,6 +400,25 @@ public class GoogleUtils {
         }
     }
 
+    /**
+     * Utility method to turn a date cell formatted dd-MM-uuuu into a sortable number uuuuMMdd,
+     * without parsing a date object.
+     *
+     * @param cell the date cell.
+     * @return the number, or 0 if the cell isn't such a date.
+     */
+    public static int dateKey(@NotNull CellData cell) {
+        var v = cell.getFormattedValue();
+        if (v == null || v.length() != 10) return 0;
+        var r = 0;
+        for (var i : DATE_DIGITS) {
+            var c = v.charAt(i);
+            if (c < '0' || c > '9') return 0;
+            r = r * 10 + (c - '0');
+        }
+        return r;
+    }
+
     /**
      * Utility method to create a filter in order to ignore all
      * rows starting with an empty cell.
@@ -329,6 +436,41 @@ public class GoogleUtils {
         };
     }
 
+    /**
+     * Reads a cell of a row, even beyond the last one sent for the row:
+     * Google API omits trailing blank cells, and sends null for some blank ones.
+     *
+     * @param row    the row.
+     * @param column the column index.
+     * @return the cell, or a blank one if there's no such cell.
+     */
+    public static @NotNull CellData cellAt(@NotNull List<CellData> row, int column) {
+        var r = column >= 0 && column < row.size() ? row.get(column) : null;
+        return r == null ? BLANK : r;
+    }
+
+    /**
+     * Reads the formatted value of a cell.
+     *
+     * @param cell the cell.
+     * @return the stripped text, or "" if no value.
+     */
+    public static @NotNull String cellText(@NotNull CellData cell) {
+        var v = cell.getFormattedValue();
+        return v == null ? "" : v.strip();
+    }
+
+    /**
+     * Reads the formatted value of a cell of a row, even beyond the last one sent for the row.
+     *
+     * @param row    the row.
+     * @param column the column index.
+     * @return the stripped text, or "" if no value.
+     */
+    public static @NotNull String textAt(@NotNull List<CellData> row, int column) {
+        return cellText(cellAt(row, column));
+    }
+
     /**
      * Utility method to solve a code pattern in which I have to
      * read doubles from sucessive columns and put them into
@@ -385,7 +527,8 @@ public class GoogleUtils {
 
     /**
      * Utility method to write the data from a worksheet and mapped
-     * to PLE tuples, into a plain txt file.
+     * to PLE tuples, into a plain txt file. Lines are buffered,
+     * so long books don't flush the file on every line.
      *
      * @param worksheet  the worksheet.
      * @param skipHeader the header rows count to skip.
@@ -411,7 +554,7 @@ public class GoogleUtils {
         if (fileName.charAt(30) != '0') {
             //Exports using the provided converter.
             try (var os = Files.newOutputStream(output);
-                 var ps = new PrintStream(os, true, StandardCharsets.UTF_8)) {
+                 var ps = new PrintStream(new BufferedOutputStream(os, 1 << 16), false, StandardCharsets.UTF_8)) {
                 worksheet.getData().getFirst().getRowData()
                         .stream()
                         .skip(skipHeader)
@@ -419,6 +562,8 @@ public class GoogleUtils {
                         .filter(rowFilter)
                         .map(converter)
                         .forEachOrdered(ps::print);
+                //PrintStream swallows write failures, checkError flushes and tells.
+                if (ps.checkError()) throw new IOException("Cannot write file: " + output);
             }
         }
     }
@@ -443,6 +588,89 @@ public class GoogleUtils {
         exportFile(worksheet, skipHeader, fileName, path, converter, ignoreBlank());
     }
 
+    /**
+     * Utility method to tell the worksheet row (1 based) of the rows given to a converter
+     * by {@link #exportFile}, since filtered rows aren't given. The rows must be looked up
+     * in worksheet order, as they're exported, so create one function per exportation.
+     *
+     * @param worksheet the worksheet being exported.
+     * @return a function from the row values to their worksheet row, or 0 if not found.
+     */
+    public static @NotNull ToIntFunction<List<CellData>> sheetRows(@NotNull Sheet worksheet) {
+        var rows = worksheet.getData().getFirst().getRowData();
+        var next = new int[1];
+        return values -> {
+            //Rows come in order, so the search resumes after the last one found.
+            for (var i = next[0]; i < rows.size(); i++) {
+                if (rows.get(i).getValues() == values) {
+                    next[0] = i + 1;
+                    return i + 1;
+                }
+            }
+            return 0;
+        };
+    }
+
+    /**
+     * Utility method to write a plain txt file made of parts computed concurrently
+     * (ie: the lines of each account of a ledger). Each part runs in a virtual thread,
+     * parts are written in the given order, and only a few of them are computed
+     * ahead of the one being written, so the whole file is never held in memory.
+     * On failure the parts ahead are cancelled and the file is deleted.
+     *
+     * @param output the file where to write, it's recreated.
+     * @param parts  the tasks returning the text of each part, in file order.
+     * @throws Exception if output fails, or the first failure of a part.
+     */
+    public static void exportParts(@NotNull Path output,
+                                   @NotNull Iterable<? extends Callable<String>> parts) throws Exception {
+        var parent = output.toAbsolutePath().getParent();
+        if (!Files.exists(parent)) Files.createDirectories(parent);
+        recreateFile(output);
+        var window = 2 * Runtime.getRuntime().availableProcessors();
+        var executor = Executors.newVirtualThreadPerTaskExecutor();
+        var pending = new ArrayDeque<Future<String>>(window);
+        try (var os = Files.newOutputStream(output);
+             var ps = new PrintStream(new BufferedOutputStream(os, 1 << 16), false, StandardCharsets.UTF_8)) {
+            for (var part : parts) {
+                //Write the oldest part before taking a new one, if the window is full.
+                if (pending.size() == window) ps.print(await(pending.poll()));
+                pending.add(executor.submit(part));
+            }
+            while (!pending.isEmpty()) ps.print(await(pending.poll()));
+            //PrintStream swallows write failures, checkError flushes and tells.
+            if (ps.checkError()) throw new IOException("Cannot write file: " + output);
+        } catch (Exception e) {
+            //Nobody will write the parts ahead, and a partial file would pass for a whole book.
+            pending.forEach(f -> f.cancel(true));
+            try {
+                Files.deleteIfExists(output);
+            } catch (IOException ex) {
+                e.addSuppressed(ex);
+            }
+            throw e;
+        } finally {
+            //Unlike close(), this doesn't wait for cancelled parts to end.
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits for a part of a file, rethrowing its failure.
+     *
+     * @param future the future text of the part.
+     * @return the text of the part.
+     * @throws Exception the failure of the task, or if interrupted.
+     */
+    private static String await(@NotNull Future<String> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception ex) throw ex;
+            throw e;
+        }
+    }
+
     /**
      * Utility method to check if a file exists and delete.
      * The, even if file didn't exist, will "touch" (create) it.
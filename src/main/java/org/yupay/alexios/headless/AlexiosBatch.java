@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.headless;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Headless entry point to process a batch manifest (see {@link BatchJob}).
+ * Usage: <code>AlexiosBatch manifest.txt [concurrency]</code>, concurrency defaults to 4.
+ * Exit codes are 0 if every job succeeded, 1 if any job failed and 2 if the
+ * manifest or arguments are invalid.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public class AlexiosBatch {
+
+    /**
+     * Default maximum jobs running at the same time.
+     */
+    public static final int DEFAULT_CONCURRENCY = 4;
+
+    /**
+     * Creates the batch entry point.
+     */
+    public AlexiosBatch() {
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args the manifest path and, optionally, the concurrency.
+     * @throws InterruptedException if interrupted while waiting the jobs.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: AlexiosBatch <manifest> [concurrency]");
+            System.exit(2);
+        }
+        List<BatchJob> jobs;
+        int concurrency;
+        try {
+            jobs = BatchJob.readManifest(Path.of(args[0]));
+            concurrency = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CONCURRENCY;
+        } catch (Exception e) {
+            System.err.println("Invalid batch: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        var results = new BatchRunner(concurrency).run(jobs);
+        var failed = 0;
+        for (var r : results) {
+            System.out.printf("[%s] line %d %s %s -> %s (%d ms)%s%n",
+                    r.ok() ? "OK" : "FAILED",
+                    r.job().line(),
+                    r.job().book().getCode(),
+                    r.job().source(),
+                    r.job().output(),
+                    r.elapsedMillis(),
+                    r.ok() ? "" : ": " + r.error());
+            if (!r.ok()) failed++;
+        }
+        System.out.printf("%d jobs, %d failed.%n", results.size(), failed);
+        System.exit(failed == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.headless;
+
+import com.google.api.services.sheets.v4.model.Spreadsheet;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yupay.alexios.api.BookValidationException;
+import org.yupay.alexios.google.GoogleUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Headless HTTP service to produce books on demand. Each request is handled
+ * on its own virtual thread. Endpoints:
+ * <ul>
+ *     <li><b>GET /health:</b> answers OK.</li>
+ *     <li><b>POST /books/{book}?driveId={id}:</b> processes the google drive workbook.</li>
+ *     <li><b>POST /books/{book}:</b> processes the workbook sent in the body as JSON
+ *     (the google sheets API representation).</li>
+ * </ul>
+ * Where book is a {@link BookKind} code or name. The response is a zip with the generated
+ * TXT files. When the concurrency cap is reached, new requests are rejected with 503,
+ * and jobs taking longer than the timeout are answered with 504. XLSX uploads are rejected with 415,
+ * and JSON bodies larger than {@link #MAX_BODY_SIZE} with 413. A book that fails validation
+ * (see {@link BookValidationException}) is answered with 422, the zip still has its TXT files
+ * plus an issues.txt entry.
+ * <br/>
+ * Books are fetched with the google credentials of the operator, so every /books request must carry
+ * the shared token as <code>Authorization: Bearer {token}</code>, or it's rejected with 401. The token is
+ * read from the {@value #TOKEN_ENV} environment variable, and the server listens on the loopback
+ * address unless another bind address is given.
+ * <br/>
+ * Usage: <code>AlexiosServer [port] [concurrency] [timeoutSeconds] [bindAddress]</code>.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public class AlexiosServer implements AutoCloseable {
+    /**
+     * Default port.
+     */
+    public static final int DEFAULT_PORT = 8710;
+    /**
+     * Default bind address, only local clients.
+     */
+    public static final String DEFAULT_BIND = "127.0.0.1";
+    /**
+     * The environment variable with the shared token.
+     */
+    public static final String TOKEN_ENV = "ALEXIOS_TOKEN";
+    /**
+     * Default maximum jobs running at the same time.
+     */
+    public static final int DEFAULT_CONCURRENCY = 4;
+    /**
+     * Default timeout of a job.
+     */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofMinutes(5);
+    /**
+     * The content type of XLSX files.
+     */
+    private static final String XLSX_MIME = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    /**
+     * Maximum size of a JSON workbook sent in the body.
+     */
+    public static final int MAX_BODY_SIZE = 64 << 20;
+    /**
+     * Name of the zip entry with the issues of a book that failed validation.
+     */
+    private static final String ISSUES_FILE = "issues.txt";
+
+    /**
+     * The underlying http server.
+     */
+    private final HttpServer server;
+    /**
+     * Executor for requests and jobs, one virtual thread each.
+     */
+    private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+    /**
+     * Permits of jobs running at the same time.
+     */
+    private final Semaphore permits;
+    /**
+     * Maximum time to wait for a job.
+     */
+    private final Duration timeout;
+    /**
+     * The expected Authorization header.
+     */
+    private final byte[] authorization;
+
+    /**
+     * Creates the server, not started yet.
+     *
+     * @param address     the address and port to listen.
+     * @param token       the shared token clients must send.
+     * @param concurrency maximum jobs running at the same time.
+     * @param timeout     maximum time to wait for a job.
+     * @throws IOException              if unable to bind the port.
+     * @throws IllegalArgumentException if the token is blank.
+     */
+    public AlexiosServer(@NotNull InetSocketAddress address,
+                         @NotNull String token,
+                         int concurrency,
+                         @NotNull Duration timeout) throws IOException {
+        if (token.isBlank()) throw new IllegalArgumentException("The shared token can't be blank.");
+        this.authorization = ("Bearer " + token).getBytes(StandardCharsets.UTF_8);
+        this.permits = new Semaphore(concurrency);
+        this.timeout = timeout;
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(threads);
+        server.createContext("/health", ex -> respond(ex, 200, "OK"));
+        server.createContext("/books/", this::handleBook);
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args optionally, port, concurrency, timeout in seconds and bind address.
+     * @throws IOException if unable to bind the port.
+     */
+    public static void main(String[] args) throws IOException {
+        var token = System.getenv(TOKEN_ENV);
+        if (token == null || token.isBlank()) {
+            System.err.printf("Set the shared token in the %s environment variable.%n", TOKEN_ENV);
+            System.exit(1);
+        }
+        var port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        var concurrency = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CONCURRENCY;
+        var timeout = args.length > 2 ? Duration.ofSeconds(Long.parseLong(args[2])) : DEFAULT_TIMEOUT;
+        var bind = args.length > 3 ? args[3] : DEFAULT_BIND;
+        var address = new InetSocketAddress(InetAddress.getByName(bind), port);
+        var srv = new AlexiosServer(address, token, concurrency, timeout);
+        Runtime.getRuntime().addShutdownHook(new Thread(srv::close));
+        srv.start();
+        System.out.printf("Alexios server listening on %s:%d (concurrency %d, timeout %s).%n",
+                bind, port, concurrency, timeout);
+    }
+
+    /**
+     * Starts listening.
+     */
+    public void start() {
+        server.start();
+    }
+
+    @Override
+    public void close() {
+        server.stop(1);
+        threads.shutdownNow();
+    }
+
+    /**
+     * Handles a book request.
+     *
+     * @param ex the http exchange.
+     * @throws IOException if unable to answer.
+     */
+    private void handleBook(@NotNull HttpExchange ex) throws IOException {
+        try {
+            if (!authorized(ex)) {
+                ex.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+                respond(ex, 401, "Send the shared token as Authorization: Bearer {token}.");
+                return;
+            }
+            if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) {
+                respond(ex, 405, "Use POST.");
+                return;
+            }
+            BookKind book;
+            try {
+                book = BookKind.of(ex.getRequestURI().getPath().substring("/books/".length()));
+            } catch (IllegalArgumentException e) {
+                respond(ex, 404, e.getMessage());
+                return;
+            }
+            var contentType = Objects.requireNonNullElse(ex.getRequestHeaders().getFirst("Content-Type"), "");
+            if (contentType.toLowerCase(Locale.ROOT).startsWith(XLSX_MIME)) {
+                respond(ex, 415, "XLSX workbooks are not supported, upload to google drive or send JSON.");
+                return;
+            }
+            var driveId = query(ex).get("driveId");
+            //The body is read before taking a permit, so slow uploads don't hold job slots.
+            var body = driveId == null ? readBody(ex) : null;
+            if (driveId == null && body == null) {
+                respond(ex, 413, "The workbook is larger than %d MB.".formatted(MAX_BODY_SIZE >> 20));
+                return;
+            }
+            if (!permits.tryAcquire()) {
+                respond(ex, 503, "Too many jobs running, try later.");
+                return;
+            }
+            //Completes when the job really finishes, even after a timeout.
+            var finished = new CompletableFuture<Void>();
+            Path dir = null;
+            Future<?> job = null;
+            try {
+                dir = Files.createTempDirectory("alexios-");
+                var target = dir;
+                job = threads.submit(() -> {
+                    try {
+                        var processor = book.newProcessor();
+                        Spreadsheet spreadsheet = driveId != null
+                                ? GoogleUtils.getSpreadsheet(driveId, processor.worksheets())
+                                : GoogleUtils.JSON_FACTORY.fromInputStream(
+                                new ByteArrayInputStream(body), StandardCharsets.UTF_8, Spreadsheet.class);
+                        processor.processSheet(spreadsheet, target);
+                        return null;
+                    } finally {
+                        permits.release();
+                        finished.complete(null);
+                    }
+                });
+            } finally {
+                //The job never started, so it won't release the permit.
+                if (job == null) {
+                    permits.release();
+                    if (dir != null) deleteTree(dir);
+                }
+            }
+            try {
+                job.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+                respondZip(ex, 200, book, dir, null);
+            } catch (TimeoutException e) {
+                job.cancel(true);
+                respond(ex, 504, "The job took longer than " + timeout);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof BookValidationException bve) {
+                    //The files were written, the client gets them along with the issues.
+                    respondZip(ex, 422, book, dir, bve);
+                } else {
+                    System.getLogger(AlexiosServer.class.getName())
+                            .log(System.Logger.Level.ERROR, "Unable to process " + book, e.getCause());
+                    respond(ex, 500, "Unable to process the workbook, see the server log.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respond(ex, 503, "Interrupted.");
+            } finally {
+                var target = dir;
+                finished.whenComplete((_, _) -> deleteTree(target));
+            }
+        } finally {
+            ex.close();
+        }
+    }
+
+    /**
+     * Checks the shared token of a request, in constant time.
+     *
+     * @param ex the http exchange.
+     * @return true if the Authorization header carries the token.
+     */
+    private boolean authorized(@NotNull HttpExchange ex) {
+        var header = ex.getRequestHeaders().getFirst("Authorization");
+        return header != null && MessageDigest.isEqual(authorization, header.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Streams the files of a directory as a zip.
+     *
+     * @param ex     the http exchange.
+     * @param status the http status.
+     * @param book   the book processed.
+     * @param dir    the directory with generated files.
+     * @param issues the validation failure of the book, written as issues.txt; or null.
+     * @throws IOException if unable to answer.
+     */
+    private static void respondZip(@NotNull HttpExchange ex,
+                                   int status,
+                                   @NotNull BookKind book,
+                                   Path dir,
+                                   @Nullable BookValidationException issues) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", "application/zip");
+        ex.getResponseHeaders().set("Content-Disposition",
+                "attachment; filename=\"alexios-%s.zip\"".formatted(book.getCode()));
+        //Length 0 means chunked, so files are streamed as they are zipped.
+        ex.sendResponseHeaders(status, 0);
+        try (var zip = new ZipOutputStream(ex.getResponseBody());
+             var files = Files.list(dir)) {
+            for (var it = files.sorted().iterator(); it.hasNext(); ) {
+                var f = it.next();
+                zip.putNextEntry(new ZipEntry(f.getFileName().toString()));
+                Files.copy(f, zip);
+                zip.closeEntry();
+            }
+            if (issues != null) {
+                zip.putNextEntry(new ZipEntry(ISSUES_FILE));
+                zip.write(describe(issues).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Describes a validation failure, one line per issue, including the suppressed
+     * failures of other worksheets.
+     *
+     * @param e the validation failure.
+     * @return the text.
+     */
+    private static @NotNull String describe(@NotNull BookValidationException e) {
+        var sb = new StringBuilder();
+        var failures = new ArrayList<Throwable>();
+        failures.add(e);
+        failures.addAll(List.of(e.getSuppressed()));
+        for (var f : failures) {
+            if (!(f instanceof BookValidationException bve)) continue;
+            sb.append(bve.getMessage()).append("\r\n");
+            for (var issue : bve.getIssues()) sb.append(issue).append("\r\n");
+            if (bve.getCount() > bve.getIssues().size()) {
+                sb.append("... and %d more.".formatted(bve.getCount() - bve.getIssues().size())).append("\r\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reads the request body, up to {@link #MAX_BODY_SIZE} bytes.
+     *
+     * @param ex the http exchange.
+     * @return the body; or null if it's larger than allowed.
+     * @throws IOException if unable to read.
+     */
+    private static byte @Nullable [] readBody(@NotNull HttpExchange ex) throws IOException {
+        var is = ex.getRequestBody();
+        var r = is.readNBytes(MAX_BODY_SIZE + 1);
+        if (r.length <= MAX_BODY_SIZE) return r;
+        //The rest is discarded, not kept, so the client gets to read the answer.
+        is.transferTo(OutputStream.nullOutputStream());
+        return null;
+    }
+
+    /**
+     * Answers with a plain text message.
+     *
+     * @param ex      the http exchange.
+     * @param status  the http status.
+     * @param message the message.
+     * @throws IOException if unable to answer.
+     */
+    private static void respond(@NotNull HttpExchange ex, int status, @NotNull String message) throws IOException {
+        var body = message.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        ex.sendResponseHeaders(status, body.length);
+        try (var os = ex.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    /**
+     * Parses the query parameters of the request.
+     *
+     * @param ex the http exchange.
+     * @return the parameters by name.
+     */
+    private static @NotNull Map<String, String> query(@NotNull HttpExchange ex) {
+        var r = new HashMap<String, String>();
+        var raw = ex.getRequestURI().getRawQuery();
+        if (raw == null) return r;
+        for (var pair : raw.split("&")) {
+            var kv = pair.split("=", 2);
+            if (kv.length == 2) {
+                r.put(URLDecoder.decode(kv[0], StandardCharsets.UTF_8),
+                        URLDecoder.decode(kv[1], StandardCharsets.UTF_8));
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Deletes a directory and its contents, failures are only logged.
+     *
+     * @param dir the directory.
+     */
+    private static void deleteTree(Path dir) {
+        try (var files = Files.walk(dir)) {
+            for (var it = files.sorted(Comparator.reverseOrder()).iterator(); it.hasNext(); ) {
+                Files.deleteIfExists(it.next());
+            }
+        } catch (IOException e) {
+            System.getLogger(AlexiosServer.class.getName())
+                    .log(System.Logger.Level.WARNING, "Unable to delete " + dir, e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.headless;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single job of a batch manifest. A manifest is a plain text file, where
+ * each line is a job with the pipe (|) separated values:
+ * <code>source|book|output</code>. Where source is a local JSON workbook or a google drive
+ * file ID, book is a {@link BookKind} code or name, and output is the target directory.
+ * Blank lines and lines starting with # are ignored. Relative paths are resolved against the
+ * manifest directory.
+ * <br/>
+ * Example: <code>clients/20100070970.json|0300|out/20100070970</code>
+ *
+ * @param line   the line number in the manifest.
+ * @param source the local workbook or google drive file ID.
+ * @param book   the book to produce.
+ * @param output the target directory.
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public record BatchJob(int line, String source, BookKind book, Path output) {
+
+    /**
+     * Reads every job in a manifest file.
+     *
+     * @param manifest the manifest file.
+     * @return the jobs, in the same order of the manifest.
+     * @throws IOException              if unable to read the manifest.
+     * @throws IllegalArgumentException if a line is malformed.
+     */
+    public static @NotNull List<BatchJob> readManifest(@NotNull Path manifest) throws IOException {
+        var base = manifest.toAbsolutePath().getParent();
+        var lines = Files.readAllLines(manifest, StandardCharsets.UTF_8);
+        var r = new ArrayList<BatchJob>(lines.size());
+        for (var i = 0; i < lines.size(); i++) {
+            var ln = lines.get(i).strip();
+            if (ln.isEmpty() || ln.startsWith("#")) continue;
+            r.add(parse(i + 1, ln, base));
+        }
+        return r;
+    }
+
+    /**
+     * Parses a single manifest line.
+     *
+     * @param line the line number.
+     * @param text the line text.
+     * @param base the directory to resolve relative output paths.
+     * @return the job.
+     * @throws IllegalArgumentException if the line is malformed.
+     */
+    @Contract("_, _, _ -> new")
+    public static @NotNull BatchJob parse(int line, @NotNull String text, @NotNull Path base) {
+        var parts = text.split("\\|");
+        if (parts.length != 3 || parts[0].isBlank() || parts[2].isBlank()) {
+            throw new IllegalArgumentException(
+                    "Line %d: expected source|book|output but found %s".formatted(line, text));
+        }
+        //Local sources are resolved against the manifest directory.
+        var source = parts[0].strip();
+        try {
+            var local = base.resolve(source);
+            if (Files.isRegularFile(local)) source = local.toString();
+        } catch (InvalidPathException _) {
+            //Not a local file, so it's a google drive ID.
+        }
+        try {
+            return new BatchJob(line,
+                    source,
+                    BookKind.of(parts[1]),
+                    base.resolve(parts[2].strip()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Line %d: %s".formatted(line, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Compiles the name of the status file of this job,
+     * placed in the output directory.
+     *
+     * @return the status file.
+     */
+    public @NotNull Path statusFile() {
+        return output.resolve("alexios-job-%04d-%s.status".formatted(line, book.getCode()));
+    }
+}
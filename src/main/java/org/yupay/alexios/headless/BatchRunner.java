@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.headless;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the jobs of a batch with bounded concurrency. Each job loads its workbook,
+ * runs the processor of its book and writes a status file in its output directory.
+ * A failed job doesn't stop the other ones.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public class BatchRunner {
+    /**
+     * Maximum jobs running at the same time.
+     */
+    private final int concurrency;
+
+    /**
+     * Creates a runner.
+     *
+     * @param concurrency maximum jobs running at the same time.
+     */
+    public BatchRunner(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be positive: " + concurrency);
+        }
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Runs every job and waits until all of them are done.
+     *
+     * @param jobs the jobs to run.
+     * @return the results, in the same order of jobs.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public @NotNull List<Result> run(@NotNull List<BatchJob> jobs) throws InterruptedException {
+        var futures = new ArrayList<Future<Result>>(jobs.size());
+        try (var executor = Executors.newFixedThreadPool(concurrency)) {
+            for (var job : jobs) {
+                futures.add(executor.submit(() -> runJob(job)));
+            }
+            var r = new ArrayList<Result>(jobs.size());
+            for (var f : futures) {
+                try {
+                    r.add(f.get());
+                } catch (ExecutionException e) {
+                    //runJob catches every Throwable, so this should never happen.
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+            return r;
+        }
+    }
+
+    /**
+     * Runs a single job, never throws: any Throwable of the job, errors included, is its failure
+     * cause and goes to its status file, so the other jobs of the batch keep running.
+     *
+     * @param job the job.
+     * @return the result of the job.
+     */
+    private @NotNull Result runJob(@NotNull BatchJob job) {
+        var start = Instant.now();
+        Throwable error = null;
+        try {
+            Files.createDirectories(job.output());
+            var processor = job.book().newProcessor();
+            var spreadsheet = WorkbookSource.load(job.source(), Path.of(""), processor.worksheets());
+            processor.processSheet(spreadsheet, job.output());
+        } catch (Throwable e) {
+            error = e;
+        }
+        var r = new Result(job, start, Instant.now().toEpochMilli() - start.toEpochMilli(), error);
+        try {
+            writeStatus(r);
+        } catch (Throwable e) {
+            System.getLogger(BatchRunner.class.getName()).log(System.Logger.Level.WARNING,
+                    "Unable to write status file " + job.statusFile(), e);
+        }
+        return r;
+    }
+
+    /**
+     * Writes the status file of a job as key=value lines.
+     *
+     * @param result the result of the job.
+     * @throws IOException if unable to write.
+     */
+    private void writeStatus(@NotNull Result result) throws IOException {
+        var sw = new StringWriter();
+        try (var pw = new PrintWriter(sw)) {
+            pw.println("source=" + result.job().source());
+            pw.println("book=" + result.job().book().getCode());
+            pw.println("status=" + (result.ok() ? "OK" : "FAILED"));
+            pw.println("started=" + result.started());
+            pw.println("elapsedMillis=" + result.elapsedMillis());
+            if (!result.ok()) {
+                pw.println("error=" + result.error());
+                result.error().printStackTrace(pw);
+            }
+        }
+        Files.writeString(result.job().statusFile(), sw.toString(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The result of a job.
+     *
+     * @param job           the job.
+     * @param started       when the job started.
+     * @param elapsedMillis how long it took.
+     * @param error         the failure cause, null if succeeded.
+     */
+    public record Result(BatchJob job, Instant started, long elapsedMillis, Throwable error) {
+        /**
+         * Checks if the job succeeded.
+         *
+         * @return true if there's no error.
+         */
+        public boolean ok() {
+            return error == null;
+        }
+    }
+}
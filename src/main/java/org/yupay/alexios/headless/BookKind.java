@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.headless;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.yupay.alexios.api.BookProcessor;
+import org.yupay.alexios.api.impl.assets.AssetsProcessor;
+import org.yupay.alexios.api.impl.balances.BalanceProcessor;
+import org.yupay.alexios.api.impl.costs.CostsProcessor;
+import org.yupay.alexios.api.impl.costs.KardexProcessor;
+import org.yupay.alexios.api.impl.journal.DiarioProcessor;
+import org.yupay.alexios.api.impl.journal.MayorProcessor;
+import org.yupay.alexios.api.impl.pdt710.PDTProcessor;
+import org.yupay.alexios.api.impl.registers.PurchasesProcessor;
+import org.yupay.alexios.api.impl.registers.SalesProcessor;
+
+import java.util.function.Supplier;
+
+/**
+ * The kinds of book that Alexios may produce, each one with the
+ * processor responsible for it. The codes are the same used
+ * by the main scene export buttons.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public enum BookKind {
+    /**
+     * LE030000 - Inventory and balances.
+     */
+    LE0300("0300", BalanceProcessor::new),
+    /**
+     * PDT 710 - Annual income tax detail, read from the LE030000 workbook.
+     */
+    PDT710("710", PDTProcessor::new),
+    /**
+     * LE030000 - Financial statements only, computed from the trial balance and the
+     * MAPEO worksheet, without fetching the other worksheets.
+     */
+    LE0300T("0300T", () -> new BalanceProcessor(true)),
+    /**
+     * LE050100 - Journal, monthly.
+     */
+    LE0500("0500", DiarioProcessor::new),
+    /**
+     * LE060100 - General ledger, monthly, read from the LE050100 journal workbook.
+     */
+    LE0600("0600", MayorProcessor::new),
+    /**
+     * LE070000 - Fixed assets.
+     */
+    LE0700("0700", AssetsProcessor::new),
+    /**
+     * LE080100 and LE080200 - Purchases registers, monthly.
+     */
+    LE0800("0800", PurchasesProcessor::new),
+    /**
+     * LE100000 - Costs.
+     */
+    LE1000("1000", CostsProcessor::new),
+    /**
+     * LE130100 - Permanent valued inventory, monthly, valued from the movements of the year.
+     */
+    LE1300("1300", KardexProcessor::new),
+    /**
+     * LE140100 - Sales register, monthly.
+     */
+    LE1400("1400", SalesProcessor::new);
+
+    /**
+     * The code of the book.
+     */
+    private final String code;
+    /**
+     * Factory of the processor for the book.
+     */
+    private final Supplier<BookProcessor> factory;
+
+    /**
+     * Enum constructor.
+     *
+     * @param code    the code of the book.
+     * @param factory the factory of the processor for the book.
+     */
+    BookKind(String code, Supplier<BookProcessor> factory) {
+        this.code = code;
+        this.factory = factory;
+    }
+
+    /**
+     * Finds the book kind by its code (ie: 0300) or by its name (ie: LE0300).
+     *
+     * @param value the code or name.
+     * @return the book kind.
+     * @throws IllegalArgumentException if no book kind matches the value.
+     */
+    @Contract("null -> fail")
+    public static @NotNull BookKind of(String value) {
+        if (value != null) {
+            var v = value.strip();
+            for (var kind : values()) {
+                if (kind.code.equals(v) || kind.name().equalsIgnoreCase(v)) {
+                    return kind;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown book kind: " + value);
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return the code of the book.
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Creates a new processor for this book.
+     *
+     * @return the processor.
+     */
+    public @NotNull BookProcessor newProcessor() {
+        return factory.get();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.headless;
+
+import com.google.api.services.sheets.v4.model.Spreadsheet;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yupay.alexios.google.GoogleUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Where a workbook comes from: a local JSON file (the google sheets API
+ * representation, see {@link GoogleUtils#writeSpreadsheet(Spreadsheet, Path)})
+ * or a google drive file ID.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public final class WorkbookSource {
+
+    /**
+     * Private constructor that always fail, avoiding instanciation of this class.
+     *
+     * @throws IllegalAccessException always.
+     */
+    @Contract("->fail")
+    private WorkbookSource() throws IllegalAccessException {
+        throw new IllegalAccessException("Utility classes shall not be instantiated.");
+    }
+
+    /**
+     * Loads a workbook. If the source is an existing local file, it's read as JSON,
+     * otherwise the source is taken as a google drive file ID.
+     * XLSX files are not supported since processors rely on the formatted values
+     * computed by google sheets; upload them to google drive first.
+     *
+     * @param source the local file or google drive file ID.
+     * @param base   the directory to resolve relative local files.
+     * @return the spreadsheet object.
+     * @throws IOException              if unable to read the source.
+     * @throws GeneralSecurityException if thrown by google API.
+     * @throws IllegalArgumentException if the source is an XLSX file.
+     */
+    public static Spreadsheet load(@NotNull String source, @NotNull Path base)
+            throws IOException, GeneralSecurityException {
+        return load(source, base, null);
+    }
+
+    /**
+     * Loads a workbook, see {@link #load(String, Path)}. Google drive workbooks are
+     * fetched with the grid data of the given worksheets only; local files are read whole.
+     *
+     * @param source     the local file or google drive file ID.
+     * @param base       the directory to resolve relative local files.
+     * @param worksheets the worksheets to fetch, or null to fetch all of them.
+     * @return the spreadsheet object.
+     * @throws IOException              if unable to read the source.
+     * @throws GeneralSecurityException if thrown by google API.
+     * @throws IllegalArgumentException if the source is an XLSX file.
+     */
+    public static Spreadsheet load(@NotNull String source, @NotNull Path base, @Nullable List<String> worksheets)
+            throws IOException, GeneralSecurityException {
+        if (source.toLowerCase(Locale.ROOT).endsWith(".xlsx")) {
+            throw new IllegalArgumentException(
+                    "XLSX workbooks are not supported, upload to google drive or export as JSON: " + source);
+        }
+        var local = localFile(source, base);
+        return local != null
+                ? GoogleUtils.readSpreadsheet(local)
+                : GoogleUtils.getSpreadsheet(source, worksheets);
+    }
+
+    /**
+     * Resolves the source as an existing local file.
+     *
+     * @param source the source.
+     * @param base   the directory to resolve relative paths.
+     * @return the local file, or null if the source is not a local file.
+     */
+    private static Path localFile(String source, Path base) {
+        try {
+            var p = base.resolve(source);
+            return Files.isRegularFile(p) ? p : null;
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+}
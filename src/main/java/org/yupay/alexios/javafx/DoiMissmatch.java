@@ -17,35 +17,24 @@
 
 package org.yupay.alexios.javafx;
 
-import javafx.beans.property.ReadOnlyIntegerProperty;
-import javafx.beans.property.ReadOnlyIntegerWrapper;
-import javafx.beans.property.ReadOnlyStringProperty;
-import javafx.beans.property.ReadOnlyStringWrapper;
+import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.yupay.alexios.tools.DoiChallenger;
 
-import java.util.Objects;
-
 /**
  * When using the tool DOI number check, this is the view model entity
- * which contains the missmatched checks result.
+ * which contains the missmatched checks result. It's a plain immutable row:
+ * the tree table only wraps the values of visible cells into observables,
+ * see {@link DoiMissmatchTreeViewFactories}.
  *
+ * @param doiType the type of DOI, null for title rows.
+ * @param doiNum  the number of DOI, or the title for title rows.
+ * @param row     the row in the book, or the children row count for title rows.
  * @author InfoYupay SACS
  * @version 1.0
  */
-public class DoiMissmatch {
-    private final ReadOnlyStringWrapper doiType =
-            new ReadOnlyStringWrapper(this, "doiType");
-    private final ReadOnlyStringWrapper doiNum =
-            new ReadOnlyStringWrapper(this, "doiNum");
-    private final ReadOnlyIntegerWrapper row =
-            new ReadOnlyIntegerWrapper(this, "row");
-
-    /**
-     * Empty, private constructor.
-     */
-    private DoiMissmatch() {
-    }
+public record DoiMissmatch(@Nullable String doiType, @Nullable String doiNum, int row) {
 
     /**
      * Mapping constructor to convert a challenge object into a missmatch.
@@ -53,9 +42,7 @@ public class DoiMissmatch {
      * @param challenge the challenge object.
      */
     DoiMissmatch(@NotNull DoiChallenger challenge) {
-        doiType.set(challenge.doiType());
-        doiNum.set(challenge.doiNumber());
-        row.set(challenge.rowIndex());
+        this(challenge.doiType(), challenge.doiNumber(), challenge.rowIndex());
     }
 
     /**
@@ -64,6 +51,7 @@ public class DoiMissmatch {
      * @param title the title to show. Will be set in the DoiNum column.
      * @return the title.
      */
+    @Contract("_ -> new")
     public static @NotNull DoiMissmatch title(String title) {
         return title(title, 0);
     }
@@ -75,87 +63,8 @@ public class DoiMissmatch {
      * @param rowCount the children row count.
      * @return the title.
      */
+    @Contract("_, _ -> new")
     public static @NotNull DoiMissmatch title(String title, int rowCount) {
-        var r = new DoiMissmatch();
-        r.doiType.set(null);
-        r.doiNum.set(title);
-        r.row.set(rowCount);
-        return r;
-    }
-
-    /**
-     * FX Accessor - getter.
-     *
-     * @return value of {@link #doiTypeProperty()}.get();
-     */
-    public final String getDoiType() {
-        return doiType.get();
-    }
-
-    /**
-     * The type of DOI.
-     *
-     * @return JavaFX Property.
-     */
-    @FxProperty
-    public final ReadOnlyStringProperty doiTypeProperty() {
-        return doiType.getReadOnlyProperty();
-    }
-
-    /**
-     * FX Accessor - getter.
-     *
-     * @return value of {@link #doiNumProperty()}.get();
-     */
-    public final String getDoiNum() {
-        return doiNum.get();
-    }
-
-    /**
-     * The number of DOI.
-     *
-     * @return JavaFX Property.
-     */
-    @FxProperty
-    public final ReadOnlyStringProperty doiNumProperty() {
-        return doiNum.getReadOnlyProperty();
-    }
-
-    /**
-     * FX Accessor - getter.
-     *
-     * @return value of {@link #rowProperty()}.get();
-     */
-    public final int getRow() {
-        return row.get();
-    }
-
-    /**
-     * The row in the book.
-     *
-     * @return JavaFX Property.
-     */
-    @FxProperty
-    public final ReadOnlyIntegerProperty rowProperty() {
-        return row.getReadOnlyProperty();
-    }
-
-    @Override
-    public final boolean equals(Object o) {
-        if (!(o instanceof DoiMissmatch that)) return false;
-
-        return Objects.equals(
-                getDoiType(), that.getDoiType())
-                && Objects.equals(
-                getDoiNum(), that.getDoiNum())
-                && getRow() == that.getRow();
-    }
-
-    @Override
-    public int hashCode() {
-        return 31 * Objects.hash(
-                getDoiType(),
-                getDoiNum(),
-                getRow());
+        return new DoiMissmatch(null, title, rowCount);
     }
 }
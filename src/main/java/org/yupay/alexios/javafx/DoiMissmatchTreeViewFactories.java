@@ -17,8 +17,7 @@
 
 package org.yupay.alexios.javafx;
 
-import javafx.beans.property.ReadOnlyIntegerProperty;
-import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.beans.value.ObservableValue;
 import javafx.scene.control.TreeItem;
@@ -31,6 +30,7 @@ import java.util.Optional;
 
 /**
  * Static factories for {@link DoiMissmatch} objects in a TreeView.
+ * Observables are created on demand, only for the cells being shown.
  *
  * @author InfoYupay SACS
  * @version 1.0
@@ -59,7 +59,8 @@ public class DoiMissmatchTreeViewFactories {
         return p -> Optional.of(p)
                 .map(CellDataFeatures::getValue)
                 .map(TreeItem::getValue)
-                .map(DoiMissmatch::doiTypeProperty)
+                .map(DoiMissmatch::doiType)
+                .map(v -> new ReadOnlyStringWrapper(v).getReadOnlyProperty())
                 .orElseGet(() -> new ReadOnlyStringWrapper("").getReadOnlyProperty());
     }
 
@@ -75,7 +76,8 @@ public class DoiMissmatchTreeViewFactories {
         return p -> Optional.of(p)
                 .map(CellDataFeatures::getValue)
                 .map(TreeItem::getValue)
-                .map(DoiMissmatch::doiNumProperty)
+                .map(DoiMissmatch::doiNum)
+                .map(v -> new ReadOnlyStringWrapper(v).getReadOnlyProperty())
                 .orElseGet(() -> new ReadOnlyStringWrapper("").getReadOnlyProperty());
     }
 
@@ -91,8 +93,8 @@ public class DoiMissmatchTreeViewFactories {
         return p -> Optional.of(p)
                 .map(CellDataFeatures::getValue)
                 .map(TreeItem::getValue)
-                .map(DoiMissmatch::rowProperty)
-                .map(ReadOnlyIntegerProperty::asObject)
-                .orElseGet(() -> new ReadOnlyIntegerWrapper(0).getReadOnlyProperty().asObject());
+                .map(DoiMissmatch::row)
+                .map(v -> new ReadOnlyObjectWrapper<>(v).getReadOnlyProperty())
+                .orElseGet(() -> new ReadOnlyObjectWrapper<>(0).getReadOnlyProperty());
     }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.javafx;
+
+import javafx.collections.ObservableList;
+import javafx.scene.control.TreeItem;
+import org.jetbrains.annotations.NotNull;
+import org.yupay.alexios.tools.DoiChallenger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tree item for a checked worksheet. Its children are created the first time
+ * the item is expanded, and only for the challenges matching the current filter,
+ * so worksheets with thousands of failed DOIs cost nothing until the user looks at them.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+final class DoiSheetTreeItem extends TreeItem<DoiMissmatch> {
+    /**
+     * The worksheet name.
+     */
+    private final String sheetName;
+    /**
+     * The failed challenges of the worksheet.
+     */
+    private final List<DoiChallenger> failed;
+    /**
+     * Indexes of failed challenges matching the filter.
+     */
+    private int[] matches;
+    /**
+     * Count of valid entries in {@link #matches}.
+     */
+    private int matchCount;
+    /**
+     * True if children must be created again from {@link #matches}.
+     */
+    private boolean dirty = true;
+
+    /**
+     * Creates a worksheet item without filter.
+     *
+     * @param sheetName the worksheet name.
+     * @param failed    the failed challenges of the worksheet.
+     */
+    DoiSheetTreeItem(String sheetName, @NotNull List<DoiChallenger> failed) {
+        this.sheetName = sheetName;
+        this.failed = failed;
+        filter("");
+    }
+
+    /**
+     * Sets the filter, only challenges whose type or number contains the text, or whose row
+     * is the text, are shown. Children are only rebuilt if they were already created.
+     *
+     * @param text the filter text, blank to show every challenge.
+     */
+    void filter(@NotNull String text) {
+        var needle = text.strip().toUpperCase(Locale.ROOT);
+        //step 1: find matching indexes, without creating any item.
+        if (matches == null) matches = new int[failed.size()];
+        matchCount = 0;
+        for (var i = 0; i < failed.size(); i++) {
+            if (needle.isEmpty() || matches(failed.get(i), needle)) matches[matchCount++] = i;
+        }
+        setValue(DoiMissmatch.title(sheetName, matchCount));
+        //step 2: children are rebuilt now only if they're being shown.
+        dirty = true;
+        if (isExpanded()) getChildren();
+    }
+
+    /**
+     * Checks a challenge against an upper case filter.
+     *
+     * @param challenger the challenge.
+     * @param needle     the filter text, in upper case.
+     * @return true if the challenge matches.
+     */
+    private static boolean matches(@NotNull DoiChallenger challenger, @NotNull String needle) {
+        return contains(challenger.doiNumber(), needle)
+                || contains(challenger.doiType(), needle)
+                || Integer.toString(challenger.rowIndex()).equals(needle);
+    }
+
+    /**
+     * Null safe, case insensitive contains.
+     *
+     * @param value  the value.
+     * @param needle the text to find, in upper case.
+     * @return true if value contains needle.
+     */
+    private static boolean contains(String value, @NotNull String needle) {
+        return value != null && value.toUpperCase(Locale.ROOT).contains(needle);
+    }
+
+    @Override
+    public boolean isLeaf() {
+        return matchCount == 0;
+    }
+
+    @Override
+    public ObservableList<TreeItem<DoiMissmatch>> getChildren() {
+        var r = super.getChildren();
+        if (dirty) {
+            dirty = false;
+            var ls = new ArrayList<TreeItem<DoiMissmatch>>(matchCount);
+            for (var i = 0; i < matchCount; i++) {
+                ls.add(new TreeItem<>(new DoiMissmatch(failed.get(matches[i]))));
+            }
+            r.setAll(ls);
+        }
+        return r;
+    }
+}
@@ -21,6 +21,7 @@ import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.Dialog;
 import javafx.scene.control.DialogPane;
+import javafx.scene.control.TextField;
 import javafx.scene.control.TreeItem;
 import javafx.scene.control.TreeTableView;
 import org.jetbrains.annotations.Contract;
@@ -30,7 +31,7 @@ import org.yupay.alexios.tools.DoiChallenger;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 
 /**
  * Creates a Diloag to show the DOI check results.
@@ -46,6 +47,8 @@ public class FxDoiCheckTool extends Dialog<Object> {
     private DialogPane top;
     @FXML
     private TreeTableView<DoiMissmatch> ttbResults;
+    @FXML
+    private TextField txtFilter;
 
     /**
      * Creates an empty controller instance.
@@ -77,61 +80,42 @@ public class FxDoiCheckTool extends Dialog<Object> {
         setDialogPane(top);
         setTitle("Verificación de Documentos de Identidad");
         setResultConverter(_ -> null);
+        txtFilter.textProperty().addListener((_, _, text) -> applyFilter(text));
     }
 
     /**
-     * Convenient method to accept a map of challenges and convert them into
-     * a root tree item. Only mismatched DOI numbers will be filtered.
-     *
-     * @param challenges the map of worksheets - challenges objects.
-     */
-    void checkDoiFromMap(@NotNull Map<String, List<DoiChallenger>> challenges) {
-        var ls = challenges.entrySet()
-                .stream()
-                .map(this::filterAndCollectMapEntry)
-                .toList();
-        var r = new TreeItem<>(DoiMissmatch.title("-"));
-        r.getChildren().setAll(ls);
-        ttbResults.setRoot(r);
-    }
-
-    /**
-     * Convenient method to convert an entry of String - Challenger into a tree item of
-     * DOI missmatches.
+     * Filters the failed challenges of every worksheet. Worksheet items are kept,
+     * only their already created children are rebuilt.
      *
-     * @param entry the entry item.
-     * @return a tree item containing only mismatched doi numbers.
+     * @param text the filter text.
      */
-    private @NotNull TreeItem<DoiMissmatch> filterAndCollectMapEntry(Map.@NotNull Entry<String, List<DoiChallenger>> entry) {
-        var ls = filterAndWrap(entry.getValue());
-        var r = new TreeItem<>(DoiMissmatch.title(entry.getKey(), ls.size()));
-        r.getChildren().setAll(ls);
-        return r;
+    private void applyFilter(String text) {
+        var root = ttbResults.getRoot();
+        if (root == null) return;
+        for (var item : root.getChildren()) {
+            if (item instanceof DoiSheetTreeItem sheet) sheet.filter(Objects.requireNonNullElse(text, ""));
+        }
     }
 
     /**
-     * Converts a list of challengers into a list of tree items containing only missmatched DOI numbers.
-     *
-     * @param challengers the challengers list.
-     * @return a tree item list.
+     * Clears the results, so worksheets may be added with {@link #addSheet(String, List)}
+     * as soon as they are checked.
      */
-    @Contract("_->new")
-    private List<TreeItem<DoiMissmatch>> filterAndWrap(@NotNull List<DoiChallenger> challengers) {
-        return challengers
-                .stream()
-                .filter(DoiChallenger::challengeFailed)
-                .map(this::createItem)
-                .toList();
+    void startCheck() {
+        ttbResults.setRoot(new TreeItem<>(DoiMissmatch.title("-")));
     }
 
     /**
-     * Converts a single DoiChallenger item into a DoiMissmatch object wrapped in a TreeItem.
+     * Adds the results of a checked worksheet. Must be called from the FX application thread.
+     * Rows of the worksheet are created when the user expands it.
      *
-     * @param item the item to convert.
-     * @return a tree item object.
+     * @param sheetName the worksheet name.
+     * @param failed    the failed challenges of the worksheet.
      */
-    @Contract("_ -> new")
-    private @NotNull TreeItem<DoiMissmatch> createItem(DoiChallenger item) {
-        return new TreeItem<>(new DoiMissmatch(item));
+    void addSheet(String sheetName, @NotNull List<DoiChallenger> failed) {
+        var r = new DoiSheetTreeItem(sheetName, failed);
+        var text = txtFilter.getText();
+        if (text != null && !text.isBlank()) r.filter(text);
+        ttbResults.getRoot().getChildren().add(r);
     }
 }
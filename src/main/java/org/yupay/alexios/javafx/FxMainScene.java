@@ -17,6 +17,7 @@
 
 package org.yupay.alexios.javafx;
 
+import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.event.ActionEvent;
@@ -40,7 +41,11 @@ import org.yupay.alexios.api.impl.costs.CostsProcessor;
 import org.yupay.alexios.api.impl.pdt710.PDTProcessor;
 import org.yupay.alexios.google.GoogleUtils;
 import org.yupay.alexios.tools.DoiNumberCheck;
+import org.yupay.alexios.tools.DoiValidator;
+import org.yupay.alexios.tools.DoiVerdictCache;
+import org.yupay.alexios.tools.PadronDoiValidator;
 import org.yupay.alexios.vault.LocalPaths;
+import org.yupay.alexios.vault.PadronIndex;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -48,6 +53,7 @@ import java.io.InputStreamReader;
 import java.io.UncheckedIOException;
 import java.security.GeneralSecurityException;
 import java.util.Objects;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 /**
@@ -304,9 +310,18 @@ public class FxMainScene {
                 .ifPresent(p -> {
                     try {
                         //retrieve  spreadsheet.
-                        var sheet = GoogleUtils.getSpreadsheet(input.getFileId());
-                        //procees spreadsheet.
-                        processor.processSheet(sheet, p);
+                        var sheet = GoogleUtils.getSpreadsheet(input.getFileId(), processor.worksheets());
+                        //procees spreadsheet, PDT takes legal names from the padrón if installed.
+                        if (processor instanceof PDTProcessor) {
+                            var padron = PadronIndex.openDefault();
+                            try {
+                                new PDTProcessor(padron.orElse(null)).processSheet(sheet, p);
+                            } finally {
+                                padron.ifPresent(PadronIndex::close);
+                            }
+                        } else {
+                            processor.processSheet(sheet, p);
+                        }
                         //Show confirmation that exportation has been completed.
                         AlertBuilder.informationBuilder()
                                 .withText("Se ha completado la generación del libro %s exitosamente."
@@ -476,14 +491,34 @@ public class FxMainScene {
             try {
                 //get spreadsheet object.
                 var sheet = GoogleUtils.getSpreadsheet(input.getFileId());
-                //build a map of doi numbers.
-                var map = new DoiNumberCheck().processLE03(sheet);
-                //create the dialog to show results.
+                //check RUCs against the padrón if installed, otherwise reuse verdicts from previous checks.
+                var padron = PadronIndex.openDefault();
+                var check = new DoiNumberCheck(padron.isPresent()
+                        ? new DoiVerdictCache(new PadronDoiValidator(padron.get()), 1024)
+                        : DoiVerdictCache.load(DoiValidator.ple(), LocalPaths.DOI_VERDICTS));
+                //create and show the dialog, results are added as each worksheet is checked.
                 var dlg = FxDoiCheckTool.create();
-                //process map of doi numbers checkers.
-                dlg.checkDoiFromMap(map);
-                //show dialog.
-                dlg.showAndWait();
+                dlg.startCheck();
+                dlg.show();
+                check.processLE03(sheet, (name, failed) -> Platform.runLater(() -> dlg.addSheet(name, failed)))
+                        .whenComplete((_, e) -> {
+                            //padrón verdicts go stale with each import, so they're not persisted.
+                            padron.ifPresent(PadronIndex::close);
+                            try {
+                                if (e == null && padron.isEmpty()) check.getCache().save(LocalPaths.DOI_VERDICTS);
+                            } catch (IOException ioe) {
+                                e = ioe;
+                            }
+                            if (e != null) {
+                                var cause = e instanceof CompletionException ce && ce.getCause() != null
+                                        ? ce.getCause()
+                                        : e;
+                                Platform.runLater(() -> AlertBuilder.errorBuilder()
+                                        .handleFailure(
+                                                "No se pudo completar la verificación de documentos de identificación.",
+                                                cause));
+                            }
+                        });
             } catch (GeneralSecurityException | IOException e) {
                 AlertBuilder.errorBuilder()
                         .handleFailure(
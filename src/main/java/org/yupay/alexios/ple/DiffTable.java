@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.ple;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Invertible bloom lookup table of records, to find the records that differ between two
+ * files in a streaming pass over each one, with memory proportional to the differences.
+ * Each record is an item (key hash, record hash): items of the old file are added and
+ * items of the new file are removed, so identical records cancel each other out.
+ * Each item goes to a cell of each of 3 sub tables; a cell holding a single item
+ * is pure, and peeling pure cells one after another lists the remaining items,
+ * if there are not too many of them for the size of the table.
+ * <br/>
+ * Cells sum hashes modulo the prime 2<sup>61</sup>-1 rather than xor them, so a record repeated
+ * more times in a file than in the other is still a single item (with its count),
+ * it can be divided out of a pure cell. Not thread safe.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+final class DiffTable {
+    /**
+     * The prime modulus of sums, 2^61 - 1.
+     */
+    private static final long P = (1L << 61) - 1;
+    /**
+     * Count of sub tables, each item goes to one cell of each.
+     */
+    private static final int HASHES = 3;
+    /**
+     * Odd multiplier of hashes (the golden ratio).
+     */
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    /**
+     * Cells per sub table.
+     */
+    private final int width;
+    /**
+     * Net count of items of each cell, added minus removed.
+     */
+    private final int[] counts;
+    /**
+     * Sum of the key hashes of each cell.
+     */
+    private final long[] keys;
+    /**
+     * Sum of the record hashes of each cell.
+     */
+    private final long[] values;
+    /**
+     * Sum of the checksums of each cell, to tell pure cells.
+     */
+    private final long[] checks;
+
+    /**
+     * Creates an empty table.
+     *
+     * @param width cells per sub table, about the count of differences expected.
+     */
+    DiffTable(int width) {
+        this.width = width;
+        counts = new int[HASHES * width];
+        keys = new long[HASHES * width];
+        values = new long[HASHES * width];
+        checks = new long[HASHES * width];
+    }
+
+    /**
+     * Turns a 64 bits hash into a number modulo {@link #P}, as items keep them.
+     *
+     * @param hash the hash.
+     * @return the number.
+     */
+    @Contract(pure = true)
+    static long field(long hash) {
+        return reduce(hash >>> 3);
+    }
+
+    /**
+     * Adds a record of the old file.
+     *
+     * @param key   the hash of the natural key, see {@link #field(long)}.
+     * @param value the hash of the record, see {@link #field(long)}.
+     */
+    void add(long key, long value) {
+        update(key, value, 1);
+    }
+
+    /**
+     * Removes a record of the new file.
+     *
+     * @param key   the hash of the natural key, see {@link #field(long)}.
+     * @param value the hash of the record, see {@link #field(long)}.
+     */
+    void remove(long key, long value) {
+        update(key, value, -1);
+    }
+
+    /**
+     * Adds an item to its cells, many times.
+     *
+     * @param key   the key hash.
+     * @param value the record hash.
+     * @param times how many times, negative to remove.
+     */
+    private void update(long key, long value, int times) {
+        var check = check(key, value);
+        var t = times < 0 ? P + times : times;
+        var k = mul(t, key);
+        var v = mul(t, value);
+        var c = mul(t, check);
+        for (var i = 0; i < HASHES; i++) {
+            var cell = cell(check, i);
+            counts[cell] += times;
+            keys[cell] = reduce(keys[cell] + k);
+            values[cell] = reduce(values[cell] + v);
+            checks[cell] = reduce(checks[cell] + c);
+        }
+    }
+
+    /**
+     * Lists the items left in the table, emptying it.
+     *
+     * @return the items, or null if the table is too small to list them.
+     */
+    @Nullable List<Item> decode() {
+        var r = new ArrayList<Item>();
+        var pending = new ArrayDeque<Integer>();
+        for (var i = 0; i < counts.length; i++) {
+            if (pure(i) != null) pending.add(i);
+        }
+        while (!pending.isEmpty()) {
+            //It may have been peeled by another item meanwhile.
+            var item = pure(pending.poll());
+            if (item == null) continue;
+            r.add(item);
+            update(item.key(), item.value(), -item.count());
+            var check = check(item.key(), item.value());
+            for (var i = 0; i < HASHES; i++) {
+                var cell = cell(check, i);
+                if (pure(cell) != null) pending.add(cell);
+            }
+        }
+        for (var i = 0; i < counts.length; i++) {
+            if (counts[i] != 0 || keys[i] != 0 || values[i] != 0 || checks[i] != 0) return null;
+        }
+        return r;
+    }
+
+    /**
+     * Reads the item of a pure cell, holding a single item (maybe many times).
+     *
+     * @param cell the cell index.
+     * @return the item, or null if the cell isn't pure.
+     */
+    private @Nullable Item pure(int cell) {
+        var count = counts[cell];
+        if (count == 0) return null;
+        var t = count < 0 ? P + count : count;
+        var inverse = count == 1 ? 1 : pow(t, P - 2);
+        var key = mul(keys[cell], inverse);
+        var value = mul(values[cell], inverse);
+        return checks[cell] == mul(t, check(key, value)) ? new Item(key, value, count) : null;
+    }
+
+    /**
+     * The cell of an item in a sub table.
+     *
+     * @param check the checksum of the item.
+     * @param table the sub table index.
+     * @return the cell index.
+     */
+    private int cell(long check, int table) {
+        var h = PleReader.mix(check + table * GOLDEN) >>> 32;
+        return table * width + (int) ((h * width) >>> 32);
+    }
+
+    /**
+     * The checksum of an item.
+     *
+     * @param key   the key hash.
+     * @param value the record hash.
+     * @return the checksum, modulo {@link #P}.
+     */
+    @Contract(pure = true)
+    private static long check(long key, long value) {
+        return field(PleReader.mix(key * GOLDEN + value));
+    }
+
+    /**
+     * Reduces a number below 2^63 modulo {@link #P}.
+     *
+     * @param x the number.
+     * @return the number modulo P.
+     */
+    @Contract(pure = true)
+    private static long reduce(long x) {
+        var r = (x & P) + (x >>> 61);
+        return r >= P ? r - P : r;
+    }
+
+    /**
+     * Multiplies modulo {@link #P}.
+     *
+     * @param a a number modulo P.
+     * @param b a number modulo P.
+     * @return a times b modulo P.
+     */
+    @Contract(pure = true)
+    private static long mul(long a, long b) {
+        var lo = a * b;
+        var hi = Math.multiplyHigh(a, b);
+        //2^64 is 8 modulo P.
+        return reduce((lo & P) + (lo >>> 61) + (hi << 3));
+    }
+
+    /**
+     * Raises to a power modulo {@link #P}.
+     *
+     * @param base     a number modulo P.
+     * @param exponent the exponent.
+     * @return base to the exponent modulo P.
+     */
+    @Contract(pure = true)
+    private static long pow(long base, long exponent) {
+        var r = 1L;
+        for (var b = base; exponent > 0; exponent >>>= 1, b = mul(b, b)) {
+            if ((exponent & 1) == 1) r = mul(r, b);
+        }
+        return r;
+    }
+
+    /**
+     * An item left in the table.
+     *
+     * @param key   the hash of the natural key.
+     * @param value the hash of the record.
+     * @param count how many more times the record is in the old file than in the new one,
+     *              negative if it's more times in the new file.
+     */
+    record Item(long key, long value, int count) {
+        /**
+         * Tells which file has the record.
+         *
+         * @return true if it's in the old file only, false if in the new file only.
+         */
+        boolean old() {
+            return count > 0;
+        }
+    }
+}
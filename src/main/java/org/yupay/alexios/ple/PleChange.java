@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.ple;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * A record that differs between two generations of a PLE book, see {@link PleDiff}.
+ *
+ * @param kind      whether the record was added, removed or changed.
+ * @param key       the natural key of the record, its key fields joined by |.
+ * @param oldLine   the line of the record in the old file, 0 if added.
+ * @param newLine   the line of the record in the new file, 0 if removed.
+ * @param oldFields the fields of the record in the old file, empty if added.
+ * @param newFields the fields of the record in the new file, empty if removed.
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public record PleChange(@NotNull Kind kind,
+                        @NotNull String key,
+                        long oldLine,
+                        long newLine,
+                        @NotNull List<String> oldFields,
+                        @NotNull List<String> newFields) {
+    /**
+     * Lists the fields that changed.
+     *
+     * @return the indexes of the fields that differ, from 0.
+     */
+    public @NotNull List<Integer> changedFields() {
+        return IntStream.range(0, Math.max(oldFields.size(), newFields.size()))
+                .filter(i -> !Objects.equals(field(oldFields, i), field(newFields, i)))
+                .boxed()
+                .toList();
+    }
+
+    /**
+     * Reads a field.
+     *
+     * @param fields the fields.
+     * @param index  the field index.
+     * @return the field, or null if there's no such field.
+     */
+    private static @Nullable String field(@NotNull List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index) : null;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return switch (kind) {
+            case ADDED -> "+ [%s] line %d: %s|".formatted(key, newLine, String.join("|", newFields));
+            case REMOVED -> "- [%s] line %d: %s|".formatted(key, oldLine, String.join("|", oldFields));
+            case CHANGED -> {
+                var changes = new ArrayList<String>();
+                for (var i : changedFields()) {
+                    changes.add("field %d '%s' -> '%s'".formatted(i + 1, field(oldFields, i), field(newFields, i)));
+                }
+                yield "~ [%s] lines %d/%d: %s".formatted(key, oldLine, newLine, String.join(", ", changes));
+            }
+        };
+    }
+
+    /**
+     * Kinds of changes.
+     */
+    public enum Kind {
+        /**
+         * Only in the new file.
+         */
+        ADDED,
+        /**
+         * Only in the old file.
+         */
+        REMOVED,
+        /**
+         * Same key in both files, different fields.
+         */
+        CHANGED
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.ple;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Diff of two generations of a PLE book, record by record, by the natural key of the
+ * book (see {@link PleLayout#keyFields()}, ie: CUO and correlative, or the account code).
+ * <br/>
+ * Both files are streamed into a {@link DiffTable}, so identical records cancel each other
+ * out and only the differences are left; if the table is too small to list them, it's
+ * made 4 times wider and both files are streamed again. Then a last pass over each file
+ * reads the fields of the differing records only. Memory depends on the count of
+ * differences, never on the size of the files. A record repeated in a file is counted,
+ * so each extra copy is listed as added or removed.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public final class PleDiff {
+    /**
+     * Cells per sub table of the first try.
+     */
+    private static final int MIN_WIDTH = 64;
+    /**
+     * Seed of key hashes, so they differ from record hashes.
+     */
+    private static final long KEY_SEED = 0x6A09E667F3BCC909L;
+
+    /**
+     * Private constructor that always fail, avoiding instanciation of this class.
+     *
+     * @throws IllegalAccessException always.
+     */
+    @Contract("->fail")
+    private PleDiff() throws IllegalAccessException {
+        throw new IllegalAccessException("Utility classes shall not be instantiated.");
+    }
+
+    /**
+     * Headless entry point: <code>PleDiff &lt;old file&gt; &lt;new file&gt;</code>.
+     * Exits with 1 if the files differ.
+     *
+     * @param args the old and the new file.
+     * @throws IOException if unable to read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: PleDiff <old file> <new file>");
+            System.exit(2);
+        }
+        var changes = diff(Path.of(args[0]), Path.of(args[1]));
+        var counts = new int[PleChange.Kind.values().length];
+        for (var c : changes) {
+            System.out.println(c);
+            counts[c.kind().ordinal()]++;
+        }
+        System.out.printf("%d added, %d removed, %d changed.%n",
+                counts[PleChange.Kind.ADDED.ordinal()],
+                counts[PleChange.Kind.REMOVED.ordinal()],
+                counts[PleChange.Kind.CHANGED.ordinal()]);
+        if (!changes.isEmpty()) System.exit(1);
+    }
+
+    /**
+     * Lists the records that differ between two generations of a PLE book.
+     *
+     * @param oldFile the old file.
+     * @param newFile the new file, of the same book.
+     * @return the changes, in key order.
+     * @throws IOException              if unable to read.
+     * @throws IllegalArgumentException if the files are not of the same known book.
+     * @throws IllegalStateException    if the differences can't be listed, almost impossible.
+     */
+    public static @NotNull List<PleChange> diff(@NotNull Path oldFile, @NotNull Path newFile) throws IOException {
+        var book = book(oldFile);
+        if (!book.equals(book(newFile))) {
+            throw new IllegalArgumentException("Files of different books: %s and %s".formatted(oldFile, newFile));
+        }
+        var keyFields = PleLayout.of(book)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown PLE book: " + book))
+                .keyFields();
+        //1. Find the differences, widening the table until they can be listed.
+        List<DiffTable.Item> items;
+        var width = MIN_WIDTH;
+        while (true) {
+            var table = new DiffTable(width);
+            var records = stream(oldFile, keyFields, table, true) + stream(newFile, keyFields, table, false);
+            items = table.decode();
+            if (items != null) break;
+            //There can't be more differences than records.
+            var limit = records + MIN_WIDTH;
+            if (width >= limit) throw new IllegalStateException("Unable to list the differences.");
+            width = (int) Math.min(4L * width, limit);
+        }
+        //2. Read the differing records.
+        var byKey = new HashMap<Long, List<DiffTable.Item>>();
+        for (var item : items) {
+            byKey.computeIfAbsent(item.key(), _ -> new ArrayList<>(2)).add(item);
+        }
+        var found = new HashMap<DiffTable.Item, List<Found>>();
+        collect(oldFile, keyFields, byKey, found, true);
+        collect(newFile, keyFields, byKey, found, false);
+        //3. A key with a single removed and a single added record is a change.
+        var r = new ArrayList<PleChange>(items.size());
+        for (var group : byKey.values()) {
+            var olds = new ArrayList<Found>();
+            var news = new ArrayList<Found>();
+            for (var item : group) {
+                (item.old() ? olds : news).addAll(found.getOrDefault(item, List.of()));
+            }
+            if (olds.size() == 1 && news.size() == 1) {
+                var o = olds.getFirst();
+                var n = news.getFirst();
+                r.add(new PleChange(PleChange.Kind.CHANGED, o.key(), o.line(), n.line(), o.fields(), n.fields()));
+                continue;
+            }
+            for (var o : olds) {
+                r.add(new PleChange(PleChange.Kind.REMOVED, o.key(), o.line(), 0, o.fields(), List.of()));
+            }
+            for (var n : news) {
+                r.add(new PleChange(PleChange.Kind.ADDED, n.key(), 0, n.line(), List.of(), n.fields()));
+            }
+        }
+        r.sort(Comparator.comparing(PleChange::key)
+                .thenComparingLong(PleChange::oldLine)
+                .thenComparingLong(PleChange::newLine));
+        return r;
+    }
+
+    /**
+     * Reads the book ID from a PLE file name.
+     *
+     * @param file the file.
+     * @return the book ID, ie: 030300.
+     * @throws IllegalArgumentException if it isn't a PLE file name.
+     */
+    private static @NotNull String book(@NotNull Path file) {
+        var name = file.getFileName().toString();
+        if (name.length() < 33 || !name.startsWith("LE")) {
+            throw new IllegalArgumentException("Not a PLE file name: " + name);
+        }
+        return name.substring(21, 27);
+    }
+
+    /**
+     * Streams the records of a file into the table.
+     *
+     * @param file      the file.
+     * @param keyFields the key fields.
+     * @param table     the table.
+     * @param old       true to add the records of the old file, false to remove those of the new one.
+     * @return the count of records.
+     * @throws IOException if unable to read.
+     */
+    private static long stream(@NotNull Path file,
+                               int @NotNull [] keyFields,
+                               @NotNull DiffTable table,
+                               boolean old) throws IOException {
+        var count = 0L;
+        try (var reader = PleReader.open(file)) {
+            while (reader.next()) {
+                count++;
+                if (old) table.add(keyHash(reader, keyFields), DiffTable.field(reader.recordHash()));
+                else table.remove(keyHash(reader, keyFields), DiffTable.field(reader.recordHash()));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reads the fields of the differing records of a file.
+     *
+     * @param file      the file.
+     * @param keyFields the key fields.
+     * @param byKey     the differing items, by key hash.
+     * @param found     receives the records of the items, as many as the count of each one.
+     * @param old       true if it's the old file.
+     * @throws IOException if unable to read.
+     */
+    private static void collect(@NotNull Path file,
+                                int @NotNull [] keyFields,
+                                @NotNull Map<Long, List<DiffTable.Item>> byKey,
+                                @NotNull Map<DiffTable.Item, List<Found>> found,
+                                boolean old) throws IOException {
+        try (var reader = PleReader.open(file)) {
+            while (reader.next()) {
+                var group = byKey.get(keyHash(reader, keyFields));
+                if (group == null) continue;
+                var value = DiffTable.field(reader.recordHash());
+                for (var item : group) {
+                    if (item.old() != old || item.value() != value) continue;
+                    var records = found.computeIfAbsent(item, _ -> new ArrayList<>(1));
+                    if (records.size() == Math.abs(item.count())) continue;
+                    var key = new StringJoiner("|");
+                    for (var k : keyFields) key.add(k < reader.fieldCount() ? reader.text(k) : "");
+                    var fields = new ArrayList<String>(reader.fieldCount());
+                    for (var i = 0; i < reader.fieldCount(); i++) fields.add(reader.text(i));
+                    records.add(new Found(key.toString(), reader.line(), List.copyOf(fields)));
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Hashes the natural key of the current record.
+     *
+     * @param reader    the reader.
+     * @param keyFields the key fields.
+     * @return the hash.
+     */
+    private static long keyHash(@NotNull PleReader reader, int @NotNull [] keyFields) {
+        var h = KEY_SEED;
+        for (var k : keyFields) h = reader.hash(k, h);
+        return DiffTable.field(PleReader.mix(h));
+    }
+
+    /**
+     * A differing record.
+     *
+     * @param key    the natural key.
+     * @param line   the line in its file.
+     * @param fields the fields.
+     */
+    private record Found(String key, long line, List<String> fields) {
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.ple;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * The fields of the records of a PLE book, as written by Alexios, told by a specification
+ * where each char is a field:
+ * <ul>
+ *     <li><b>p:</b> period uuuuMMdd, the same of the file name.</li>
+ *     <li><b>m:</b> month uuuuMM00 of the year of the file name.</li>
+ *     <li><b>x:</b> text, not checked.</li>
+ *     <li><b>d:</b> date dd/MM/uuuu, or 00/00/0000 if blank.</li>
+ *     <li><b>n:</b> amount with 2 decimals.</li>
+ *     <li><b>r:</b> rate, decimal of any scale.</li>
+ *     <li><b>e:</b> state of the operation, a single digit (0, 1, 2, 6, 7, 8 or 9).</li>
+ * </ul>
+ * Fields after the state are free to use. Upper case fields are checked the same, and they're
+ * also the natural key of the record (ie: CUO and correlative), see {@link #keyFields()}.
+ *
+ * @param book the PLE book ID, ie: 030200.
+ * @param spec the field specification.
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public record PleLayout(@NotNull String book, @NotNull String spec) {
+    /**
+     * The layouts of the books written by Alexios, by book ID.
+     */
+    private static final Map<String, PleLayout> LAYOUTS = Map.ofEntries(
+            layout("030100", "pXXne"),
+            layout("030200", "pXXXxnxex"),
+            layout("030300", "pXXxxxdnex"),
+            layout("030400", "pXXxxxdnex"),
+            layout("030500", "pXXxxxdnex"),
+            layout("030600", "pXXxxxxxxdne"),
+            layout("030700", "pXXXxxxxxrrne"),
+            layout("030800", "pXXxxxxnxnnex"),
+            layout("030900", "pXXdxxnne"),
+            layout("031100", "pXXxxxxxnex"),
+            layout("031200", "pXXxxdxnex"),
+            layout("031300", "pXXxxdxxne"),
+            layout("031500", "pXXxxxxxnnne"),
+            layout("031601", "Pnnnne"),
+            layout("031602", "pXXxxxre"),
+            layout("031700", "pX" + "n".repeat(16) + "e"),
+            layout("031800", "pXXne"),
+            layout("031900", "pXX" + "n".repeat(12) + "e"),
+            layout("032000", "pXXne"),
+            layout("032400", "pXXne"),
+            layout("032500", "pXXne"),
+            layout("050100", "pXXxxxxxxxxxdddxxnnxe"),
+            layout("060100", "pXXxxxxxxxxxdddxxnnxe"),
+            layout("070100", "pXX" + "x".repeat(11) + "n".repeat(9) + "ddxx" + "n".repeat(9) + "e"),
+            layout("070300", "pXXxxdnrnrnnnne"),
+            layout("070400", "pXXxxdxdxne"),
+            layout("080100", "pXXddxxxxxxxx" + "n".repeat(11) + "xrdxxxxdxxxxxxxxxe"),
+            layout("080200", "pXXdxxxnnnxxxxnxrxxxxxxxxnnnnnxxxxxe"),
+            layout("100100", "Pnnnne"),
+            layout("100200", "Mnnnnnne"),
+            layout("100300", "pXXnnnnnnnnxe"),
+            layout("100400", "pXxxxxe"),
+            layout("130100", "pXXxxxxxxdxxxxxxx" + "n".repeat(9) + "e"),
+            layout("140100", "pXXddxxxxxxx" + "n".repeat(13) + "xrdxxxxxxe"));
+
+    /**
+     * Finds the layout of a book.
+     *
+     * @param book the PLE book ID, ie: 030200.
+     * @return the layout, empty if Alexios doesn't write such book.
+     */
+    public static @NotNull Optional<PleLayout> of(@NotNull String book) {
+        return Optional.ofNullable(LAYOUTS.get(book));
+    }
+
+    /**
+     * Creates a layout entry.
+     *
+     * @param book the PLE book ID.
+     * @param spec the field specification.
+     * @return the entry.
+     */
+    private static @NotNull Map.Entry<String, PleLayout> layout(String book, String spec) {
+        return Map.entry(book, new PleLayout(book, spec));
+    }
+
+    /**
+     * Lists the natural key of the records, the upper case fields of the specification.
+     *
+     * @return the indexes of the key fields, in field order.
+     */
+    public int @NotNull [] keyFields() {
+        return IntStream.range(0, spec.length())
+                .filter(i -> Character.isUpperCase(spec.charAt(i)))
+                .toArray();
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return the count of fields of each record.
+     */
+    public int fieldCount() {
+        return spec.length();
+    }
+}
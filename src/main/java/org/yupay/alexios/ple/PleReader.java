@@ -0,0 +1,371 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.ple;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Reads the records of a PLE TXT file, memory mapped, so files of many GB are read
+ * straight from the page cache. Line breaks are found 8 bytes at a time, then each record
+ * is copied into a buffer and split on |; only the bounds of the fields are kept, in arrays
+ * reused record after record, so nothing is allocated per field unless its text is asked for.
+ * Neither | nor LF may be part of a multibyte UTF-8 char, so bytes are never decoded.
+ * <br/>
+ * PLE fields end with |, so a well formed record is <code>f1|f2|...|fn|\r\n</code>:
+ * {@link #fieldCount()} counts the fields ended by |, anything after the last |
+ * tells a malformed record (see {@link #endsWithPipe()} and {@link #endsWithCrLf()}).
+ * Not thread safe.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public final class PleReader implements AutoCloseable {
+    /**
+     * Words of the file are read little endian, so the first byte is the lowest.
+     */
+    private static final ValueLayout.OfLong WORD = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    /**
+     * The byte 0x01 at each byte of a word.
+     */
+    private static final long ONES = 0x0101010101010101L;
+    /**
+     * The byte 0x80 at each byte of a word.
+     */
+    private static final long HIGHS = 0x8080808080808080L;
+    /**
+     * The LF at each byte of a word.
+     */
+    private static final long LFS = '\n' * ONES;
+    /**
+     * Odd multiplier of hashes (the golden ratio).
+     */
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    /**
+     * Reads the buffer 8 bytes at a time, to hash it.
+     */
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    /**
+     * Owns the mapping.
+     */
+    private final Arena arena;
+    /**
+     * The file contents.
+     */
+    private final MemorySegment data;
+    /**
+     * Position of the next record.
+     */
+    private long position;
+    /**
+     * The line number of the current record.
+     */
+    private long line;
+    /**
+     * The bytes of the current record, before the line break.
+     */
+    private byte[] buffer = new byte[1 << 12];
+    /**
+     * Length of the current record, before the line break.
+     */
+    private int end;
+    /**
+     * Flag of a record ended by \r\n.
+     */
+    private boolean crlf;
+    /**
+     * Position of each field of the current record in the buffer, and of the trailing bytes.
+     */
+    private int[] offsets = new int[64];
+    /**
+     * Length of each field of the current record, and of the trailing bytes.
+     */
+    private int[] lengths = new int[64];
+    /**
+     * Count of fields ended by | in the current record.
+     */
+    private int count;
+
+    /**
+     * Private constructor, use {@link #open(Path)}.
+     *
+     * @param arena the arena owning the mapping.
+     * @param data  the file contents.
+     */
+    private PleReader(Arena arena, MemorySegment data) {
+        this.arena = arena;
+        this.data = data;
+    }
+
+    /**
+     * Maps a file to read.
+     *
+     * @param file the PLE TXT file.
+     * @return the reader, close it to unmap the file.
+     * @throws IOException if unable to map the file.
+     */
+    public static @NotNull PleReader open(@NotNull Path file) throws IOException {
+        var arena = Arena.ofConfined();
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new PleReader(arena, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Moves to the next record.
+     *
+     * @return false if there are no more records.
+     */
+    public boolean next() {
+        var size = data.byteSize();
+        if (position >= size) return false;
+        line++;
+        var lf = lineBreak(position, size);
+        var length = lf - position;
+        if (length > Integer.MAX_VALUE - 8) throw new IllegalStateException("Line %d is too long.".formatted(line));
+        if (length > buffer.length) buffer = new byte[Math.max((int) length, buffer.length * 2)];
+        MemorySegment.copy(data, ValueLayout.JAVA_BYTE, position, buffer, 0, (int) length);
+        crlf = lf < size && length > 0 && buffer[(int) length - 1] == '\r';
+        end = crlf ? (int) length - 1 : (int) length;
+        position = lf + 1;
+        //Split fields.
+        count = 0;
+        var fieldStart = 0;
+        for (var i = 0; i < end; i++) {
+            if (buffer[i] != '|') continue;
+            if (count + 1 == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                lengths = Arrays.copyOf(lengths, lengths.length * 2);
+            }
+            offsets[count] = fieldStart;
+            lengths[count] = i - fieldStart;
+            count++;
+            fieldStart = i + 1;
+        }
+        //Trailing bytes after the last |, they're not a field.
+        offsets[count] = fieldStart;
+        lengths[count] = end - fieldStart;
+        return true;
+    }
+
+    /**
+     * Finds the next line break, a word at a time.
+     *
+     * @param from the first byte to look at.
+     * @param size the size of the file.
+     * @return the position of the LF, or the size of the file if there's none.
+     */
+    private long lineBreak(long from, long size) {
+        var p = from;
+        for (; p + Long.BYTES <= size; p += Long.BYTES) {
+            var w = data.get(WORD, p) ^ LFS;
+            //Marks may be false above a true one, so the first one is always right.
+            var marks = (w - ONES) & ~w & HIGHS;
+            if (marks != 0) return p + (Long.numberOfTrailingZeros(marks) >>> 3);
+        }
+        for (; p < size; p++) {
+            if (data.get(ValueLayout.JAVA_BYTE, p) == '\n') return p;
+        }
+        return size;
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return the line number of the current record, from 1.
+     */
+    @Contract(pure = true)
+    public long line() {
+        return line;
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return count of fields of the current record, ended by |.
+     */
+    @Contract(pure = true)
+    public int fieldCount() {
+        return count;
+    }
+
+    /**
+     * Checks the end of the current record.
+     *
+     * @return true if nothing follows its last |.
+     */
+    public boolean endsWithPipe() {
+        return lengths[count] == 0;
+    }
+
+    /**
+     * Checks the line break of the current record.
+     *
+     * @return true if the record ends with \r\n, as PLE requires.
+     */
+    @Contract(pure = true)
+    public boolean endsWithCrLf() {
+        return crlf;
+    }
+
+    /**
+     * Accessor.
+     *
+     * @param field the field index, from 0.
+     * @return the length of the field in bytes.
+     */
+    public int length(int field) {
+        return lengths[Objects.checkIndex(field, count)];
+    }
+
+    /**
+     * Reads a byte of a field.
+     *
+     * @param field the field index, from 0.
+     * @param index the byte index within the field.
+     * @return the byte.
+     */
+    public byte byteAt(int field, int index) {
+        return buffer[offsets[Objects.checkIndex(field, count)] + Objects.checkIndex(index, lengths[field])];
+    }
+
+    /**
+     * Compares a field with some bytes, without allocating.
+     *
+     * @param field the field index, from 0.
+     * @param bytes the bytes.
+     * @return true if the field holds the same bytes.
+     */
+    public boolean contentEquals(int field, byte @NotNull [] bytes) {
+        var from = offsets[Objects.checkIndex(field, count)];
+        return Arrays.equals(buffer, from, from + lengths[field], bytes, 0, bytes.length);
+    }
+
+    /**
+     * Decodes a field, allocating its text.
+     *
+     * @param field the field index, from 0.
+     * @return the text of the field.
+     */
+    public @NotNull String text(int field) {
+        return new String(buffer, offsets[Objects.checkIndex(field, count)], lengths[field], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes the whole current record, allocating its text.
+     *
+     * @return the text of the record, without line break.
+     */
+    public @NotNull String record() {
+        return new String(buffer, 0, end, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Hashes a field, going on from the hash of the previous ones, so a key made of many
+     * fields is hashed without allocating. Missing fields hash as blank ones.
+     *
+     * @param field the field index, from 0.
+     * @param hash  the hash so far, or a seed.
+     * @return the hash.
+     */
+    public long hash(int field, long hash) {
+        return field < count
+                ? hash(offsets[field], lengths[field], hash)
+                : hash(0, 0, hash);
+    }
+
+    /**
+     * Hashes the whole current record, without line break.
+     *
+     * @return the hash.
+     */
+    public long recordHash() {
+        return mix(hash(0, end, 0L));
+    }
+
+    /**
+     * Hashes a range of the buffer, 8 bytes at a time; the length is hashed too,
+     * so consecutive fields don't run into each other.
+     *
+     * @param offset the first byte.
+     * @param length the count of bytes.
+     * @param hash   the hash so far.
+     * @return the hash.
+     */
+    private long hash(int offset, int length, long hash) {
+        var h = hash ^ length * GOLDEN;
+        var i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            h = Long.rotateLeft((h ^ (long) LONGS.get(buffer, offset + i)) * GOLDEN, 31);
+        }
+        var tail = 0L;
+        for (var j = length - 1; j >= i; j--) {
+            tail = tail << 8 | buffer[offset + j] & 0xFF;
+        }
+        return Long.rotateLeft((h ^ tail) * GOLDEN, 31);
+    }
+
+    /**
+     * Finishes a hash, so every bit of it depends on every byte hashed.
+     *
+     * @param h the hash.
+     * @return the mixed hash.
+     */
+    @Contract(pure = true)
+    public static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ h >>> 33;
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return the size of the file in bytes.
+     */
+    public long size() {
+        return data.byteSize();
+    }
+
+    /**
+     * Unmaps the file.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.ple;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yupay.alexios.api.BookValidationException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Checks the structure of PLE TXT files, as the SUNAT PLE validator would, but in a single
+ * pass over the memory mapped file (see {@link PleReader}): line breaks, field count of
+ * the book (see {@link PleLayout}), period, dates, decimal scales and state of each record.
+ * The info flag of the file name shall match its contents.
+ * Only the text of offending records is ever decoded.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public final class PleValidator {
+    /**
+     * Maximum count of issues kept to report.
+     */
+    public static final int MAX_ISSUES = 100;
+    /**
+     * Days of each month, leap years apart.
+     */
+    private static final int[] MONTH_DAYS = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    /**
+     * Private constructor that always fail, avoiding instanciation of this class.
+     *
+     * @throws IllegalAccessException always.
+     */
+    @Contract("->fail")
+    private PleValidator() throws IllegalAccessException {
+        throw new IllegalAccessException("Utility classes shall not be instantiated.");
+    }
+
+    /**
+     * Headless entry point: <code>PleValidator &lt;file or folder&gt;...</code>, folders are
+     * checked for PLE files (LE*.txt) at their first level. Exits with 1 if any file has issues.
+     *
+     * @param args the files or folders to check.
+     * @throws IOException if unable to read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: PleValidator <file or folder>...");
+            System.exit(2);
+        }
+        var failed = 0;
+        for (var file : files(args)) {
+            try {
+                var t0 = System.nanoTime();
+                var records = validate(file);
+                System.out.printf("OK %s: %d records in %d ms.%n",
+                        file.getFileName(), records, (System.nanoTime() - t0) / 1_000_000);
+            } catch (BookValidationException e) {
+                failed++;
+                System.out.printf("FAILED %s: %s%n", file.getFileName(), e.getMessage());
+                e.getIssues().forEach(x -> System.out.println("  " + x));
+            } catch (IllegalArgumentException e) {
+                failed++;
+                System.out.printf("FAILED %s: %s%n", file.getFileName(), e.getMessage());
+            }
+        }
+        if (failed > 0) System.exit(1);
+    }
+
+    /**
+     * Lists the files to check.
+     *
+     * @param args the files or folders.
+     * @return the files, those of each folder in name order.
+     * @throws IOException if unable to list a folder.
+     */
+    private static @NotNull List<Path> files(String @NotNull [] args) throws IOException {
+        var r = new ArrayList<Path>();
+        for (var arg : args) {
+            var path = Path.of(arg);
+            if (!Files.isDirectory(path)) {
+                r.add(path);
+                continue;
+            }
+            try (Stream<Path> ls = Files.list(path)) {
+                ls.filter(p -> {
+                    var name = p.getFileName().toString();
+                    return name.startsWith("LE") && name.toLowerCase(Locale.ROOT).endsWith(".txt");
+                }).sorted().forEach(r::add);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Checks a PLE TXT file.
+     *
+     * @param file the file, named as SUNAT-PLE requires (see {@link org.yupay.alexios.api.PLEBookNameBuilder}).
+     * @return the count of records.
+     * @throws IOException              if unable to read the file.
+     * @throws BookValidationException  with the first {@value #MAX_ISSUES} issues, by line.
+     * @throws IllegalArgumentException if the file name isn't a PLE one, or its book is unknown.
+     */
+    public static long validate(@NotNull Path file) throws IOException, BookValidationException {
+        var name = file.getFileName().toString();
+        if (name.length() < 33 || !name.startsWith("LE")) {
+            throw new IllegalArgumentException("Not a PLE file name: " + name);
+        }
+        var period = name.substring(13, 21).getBytes(StandardCharsets.US_ASCII);
+        var book = name.substring(21, 27);
+        var info = name.charAt(30) != '0';
+        var issues = new ArrayList<BookValidationException.Issue>();
+        var count = 0L;
+        var records = 0L;
+        try (var reader = PleReader.open(file)) {
+            //Files without info shall be empty, then the layout doesn't matter.
+            if (!info) {
+                if (reader.size() > 0) throw new BookValidationException(book,
+                        List.of(new BookValidationException.Issue(1, "-", "File flagged without info has contents")), 1);
+                return 0;
+            }
+            var layout = PleLayout.of(book)
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown PLE book: " + book));
+            var spec = layout.spec();
+            while (reader.next()) {
+                records++;
+                var message = check(reader, spec, period);
+                if (message == null) continue;
+                if (issues.size() < MAX_ISSUES) {
+                    issues.add(new BookValidationException.Issue(reader.line(),
+                            reader.fieldCount() > 1 ? reader.text(1) : "-",
+                            message));
+                }
+                count++;
+            }
+            if (records == 0) {
+                issues.add(new BookValidationException.Issue(0, "-", "File flagged with info is empty"));
+                count++;
+            }
+        }
+        if (count > 0) throw new BookValidationException(book, issues, count);
+        return records;
+    }
+
+    /**
+     * Checks the current record of a reader.
+     *
+     * @param reader the reader.
+     * @param spec   the layout specification.
+     * @param period the period of the file name.
+     * @return the first issue of the record, null if none.
+     */
+    private static @Nullable String check(@NotNull PleReader reader, @NotNull String spec, byte @NotNull [] period) {
+        if (!reader.endsWithCrLf()) return "Line break is not CRLF";
+        if (!reader.endsWithPipe()) return "Last field is not ended by |";
+        if (reader.fieldCount() != spec.length()) {
+            return "Expected %d fields, found %d".formatted(spec.length(), reader.fieldCount());
+        }
+        for (var i = 0; i < spec.length(); i++) {
+            var c = Character.toLowerCase(spec.charAt(i));
+            var valid = switch (c) {
+                case 'p' -> reader.contentEquals(i, period);
+                case 'm' -> isMonth(reader, i, period);
+                case 'd' -> isDate(reader, i);
+                case 'n' -> isDecimal(reader, i, 2, 2);
+                case 'r' -> isDecimal(reader, i, 1, Integer.MAX_VALUE);
+                case 'e' -> isState(reader, i);
+                default -> true;
+            };
+            if (!valid) return "Field %d is not %s: '%s'".formatted(i + 1, describe(c), reader.text(i));
+        }
+        return null;
+    }
+
+    /**
+     * Describes a field specification char, for issues.
+     *
+     * @param c the char.
+     * @return the description.
+     */
+    @Contract(pure = true)
+    private static @NotNull String describe(char c) {
+        return switch (c) {
+            case 'p' -> "the period of the file name";
+            case 'm' -> "a month of the year of the file name";
+            case 'd' -> "a date dd/MM/uuuu";
+            case 'n' -> "an amount with 2 decimals";
+            case 'r' -> "a decimal";
+            case 'e' -> "a valid state";
+            default -> "valid";
+        };
+    }
+
+    /**
+     * Checks a decimal field: optional minus sign, integer digits, point and decimals.
+     *
+     * @param reader   the reader.
+     * @param field    the field index.
+     * @param minScale minimum decimals.
+     * @param maxScale maximum decimals.
+     * @return true if valid.
+     */
+    private static boolean isDecimal(@NotNull PleReader reader, int field, int minScale, int maxScale) {
+        var length = reader.length(field);
+        var i = length > 0 && reader.byteAt(field, 0) == '-' ? 1 : 0;
+        var digits = 0;
+        while (i < length && isDigit(reader.byteAt(field, i))) {
+            i++;
+            digits++;
+        }
+        if (digits == 0 || i == length || reader.byteAt(field, i) != '.') return false;
+        var scale = length - i - 1;
+        if (scale < minScale || scale > maxScale) return false;
+        for (i++; i < length; i++) {
+            if (!isDigit(reader.byteAt(field, i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks a date field dd/MM/uuuu, a calendar date or the blank date 00/00/0000.
+     *
+     * @param reader the reader.
+     * @param field  the field index.
+     * @return true if valid.
+     */
+    private static boolean isDate(@NotNull PleReader reader, int field) {
+        if (reader.length(field) != 10
+                || reader.byteAt(field, 2) != '/'
+                || reader.byteAt(field, 5) != '/') return false;
+        var day = number(reader, field, 0, 2);
+        var month = number(reader, field, 3, 2);
+        var year = number(reader, field, 6, 4);
+        if (day < 0 || month < 0 || year < 0) return false;
+        if (day == 0 && month == 0 && year == 0) return true;
+        if (month < 1 || month > 12 || day < 1) return false;
+        return day <= (month == 2 && Year.isLeap(year) ? 29 : MONTH_DAYS[month - 1]);
+    }
+
+    /**
+     * Checks a month field uuuuMM00, of the year of the file name.
+     *
+     * @param reader the reader.
+     * @param field  the field index.
+     * @param period the period of the file name.
+     * @return true if valid.
+     */
+    private static boolean isMonth(@NotNull PleReader reader, int field, byte @NotNull [] period) {
+        if (reader.length(field) != 8) return false;
+        for (var i = 0; i < 4; i++) {
+            if (reader.byteAt(field, i) != period[i]) return false;
+        }
+        var month = number(reader, field, 4, 2);
+        return month >= 1 && month <= 12 && number(reader, field, 6, 2) == 0;
+    }
+
+    /**
+     * Checks a state field: a single digit, as told by SUNAT-PLE.
+     *
+     * @param reader the reader.
+     * @param field  the field index.
+     * @return true if valid.
+     */
+    private static boolean isState(@NotNull PleReader reader, int field) {
+        if (reader.length(field) != 1) return false;
+        return switch (reader.byteAt(field, 0)) {
+            case '0', '1', '2', '6', '7', '8', '9' -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Parses the digits of a field range.
+     *
+     * @param reader the reader.
+     * @param field  the field index.
+     * @param from   the first byte.
+     * @param length the count of digits.
+     * @return the number, or -1 if not all digits.
+     */
+    private static int number(@NotNull PleReader reader, int field, int from, int length) {
+        var r = 0;
+        for (var i = from; i < from + length; i++) {
+            var b = reader.byteAt(field, i);
+            if (!isDigit(b)) return -1;
+            r = r * 10 + (b - '0');
+        }
+        return r;
+    }
+
+    /**
+     * Checks a digit.
+     *
+     * @param b the byte.
+     * @return true if 0 to 9.
+     */
+    @Contract(pure = true)
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
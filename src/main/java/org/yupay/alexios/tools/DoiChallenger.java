@@ -20,8 +20,6 @@ package org.yupay.alexios.tools;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.function.IntUnaryOperator;
-
 /**
  * This will challenge the doiNumber against the doiType.
  *
@@ -31,12 +29,7 @@ import java.util.function.IntUnaryOperator;
  * @author InfoYupay SACS
  * @version 1.0
  */
-public record DoiChallenger(@Nullable String doiType, @NotNull String doiNumber, int rowIndex) {
-    /**
-     * The factor to multiply the RUC digit at each position.
-     */
-    private static final int[] RUC_FACTORS = {5, 4, 3, 2, 7, 6, 5, 4, 3, 2, 0};
-
+public record DoiChallenger(@Nullable String doiType, @Nullable String doiNumber, int rowIndex) {
     /**
      * Challenges the doiNumber validity depending upon doiType.
      * The rules for doi number validity are set in SUNAT-PLE specifications
@@ -96,17 +89,22 @@ public record DoiChallenger(@Nullable String doiType, @NotNull String doiNumber,
      *     </tr>
      * </table>
      *
+     * The rules are checked by {@link PleDoiValidator}.
+     *
      * @return true if doiNumber is valid for doiType.
      */
     public boolean challenge() {
-        return switch (doiType) {
-            case "0" -> doiNumber.matches("\\p{Alnum}{1,15}");
-            case "1" -> doiNumber.matches("\\d{8}");
-            case "4", "7" -> doiNumber.matches("\\p{Alnum}{1,12}");
-            case "6" -> challengeRUC(doiNumber);
-            case "A" -> doiNumber.matches("\\d{15}");
-            case null, default -> false;
-        };
+        return challenge(DoiValidator.ple());
+    }
+
+    /**
+     * Challenges the doiNumber validity with the given rules.
+     *
+     * @param validator the rules to apply.
+     * @return true if doiNumber is valid for doiType.
+     */
+    public boolean challenge(@NotNull DoiValidator validator) {
+        return validator.isValid(doiType, doiNumber);
     }
 
     /**
@@ -119,27 +117,7 @@ public record DoiChallenger(@Nullable String doiType, @NotNull String doiNumber,
      * @return true if passes validation, false otherwise.
      */
     public boolean challengeRUC(String ruc) {
-        //If ruc is null, blank or doesn't contain 11 numeric digits, don't analyze.
-        if (ruc == null || ruc.isBlank() || !ruc.matches("\\d{11}")) {
-            return false;
-        }
-
-        //commpute check digit.
-        var cd = 11 - (ruc.chars()
-                .map(Character::getNumericValue)
-                .map(new IntUnaryOperator() {
-                    int i = 0;
-
-                    @Override
-                    public int applyAsInt(int operand) {
-                        return operand * RUC_FACTORS[i++];
-                    }
-                })
-                .sum() % 11);
-        //If check digit is >9, just take the last digit.
-        cd %= 10;
-        //Compare check digit at RUC and computed check digit.
-        return ruc.charAt(10) == Character.forDigit(cd, 10);
+        return PleDoiValidator.isRuc(ruc);
     }
 
     /**
@@ -17,16 +17,19 @@
 
 package org.yupay.alexios.tools;
 
-import com.google.api.services.sheets.v4.model.RowData;
 import com.google.api.services.sheets.v4.model.Sheet;
 import com.google.api.services.sheets.v4.model.Spreadsheet;
 import org.yupay.alexios.google.GoogleUtils;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
 
 /**
  * Process the check of doi numbers.
@@ -36,29 +39,71 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class DoiNumberCheck {
     /**
-     * Creates an empty DOI number check request.
+     * The verdicts shared by every worksheet checked by this instance.
+     */
+    private final DoiVerdictCache cache;
+
+    /**
+     * Creates an empty DOI number check request, with its own verdict cache.
      */
     public DoiNumberCheck() {
+        this(new DoiVerdictCache());
+    }
 
+    /**
+     * Creates a DOI number check request with the given verdict cache,
+     * ie: one loaded with {@link DoiVerdictCache#load(DoiValidator, java.nio.file.Path)}.
+     *
+     * @param cache the verdicts cache.
+     */
+    public DoiNumberCheck(@NotNull DoiVerdictCache cache) {
+        this.cache = cache;
     }
 
     /**
      * Checks doi numbers from LE0300 draft stored in a google sheetName.
+     * The same supplier appears along many worksheets, so all of them share the verdict cache.
      *
      * @param spreadsheet the sheetName object.
      * @return a map containing the failed checks by sheet.
      */
     public Map<String, List<DoiChallenger>> processLE03(Spreadsheet spreadsheet) {
+        return await(processLE03(spreadsheet, (_, _) -> {
+        }));
+    }
+
+    /**
+     * Checks doi numbers from LE0300 draft stored in a google sheetName, each worksheet in parallel.
+     * See {@link #processSpreadsheet(Spreadsheet, List, BiConsumer)}.
+     *
+     * @param spreadsheet the sheetName object.
+     * @param onSheet     receives each worksheet name and its failed checks as soon as it's done,
+     *                    from a worker thread.
+     * @return a future of the map containing the failed checks by sheet.
+     */
+    public CompletableFuture<Map<String, List<DoiChallenger>>> processLE03(
+            Spreadsheet spreadsheet,
+            @NotNull BiConsumer<String, List<DoiChallenger>> onSheet) {
         return processSpreadsheet(spreadsheet, List.of(
-                new DoiNumberCheckRequest("030300", 0, 2, 5),
-                new DoiNumberCheckRequest("030400", 0, 2, 5),
-                new DoiNumberCheckRequest("030500", 0, 2, 5),
-                new DoiNumberCheckRequest("030600", 0, 2, 5),
-                new DoiNumberCheckRequest("031100", 1, 3, 5),
-                new DoiNumberCheckRequest("031200", 0, 2, 5),
-                new DoiNumberCheckRequest("031300", 0, 2, 5),
-                new DoiNumberCheckRequest("031602", 0, 2, 5)
-        ));
+                new DoiNumberCheckRequest("030300", 0, 2, 5, cache),
+                new DoiNumberCheckRequest("030400", 0, 2, 5, cache),
+                new DoiNumberCheckRequest("030500", 0, 2, 5, cache),
+                new DoiNumberCheckRequest("030600", 0, 2, 5, cache),
+                new DoiNumberCheckRequest("031100", 1, 3, 5, cache),
+                new DoiNumberCheckRequest("031200", 0, 2, 5, cache),
+                new DoiNumberCheckRequest("031300", 0, 2, 5, cache),
+                new DoiNumberCheckRequest("031602", 0, 2, 5, cache)
+        ), onSheet).whenComplete((_, _) -> System.getLogger(DoiNumberCheck.class.getName())
+                .log(System.Logger.Level.DEBUG, cache::toString));
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return the verdicts cache, to read its statistics or persist it.
+     */
+    public DoiVerdictCache getCache() {
+        return cache;
     }
 
     /**
@@ -67,16 +112,52 @@ public class DoiNumberCheck {
      *
      * @param spreadsheet the sheetName object.
      * @param requests    the list of request objects.
-     * @return a map with all requests solved.
+     * @return a map with all requests solved, in the same order of requests.
      */
     public Map<String, List<DoiChallenger>> processSpreadsheet(
             Spreadsheet spreadsheet,
             @NotNull List<DoiNumberCheckRequest> requests) {
-        var r = new HashMap<String, List<DoiChallenger>>();
-        requests
-                .forEach(x
-                        -> r.put(x.sheetName(), processRequest(spreadsheet, x)));
-        return r;
+        return await(processSpreadsheet(spreadsheet, requests, (_, _) -> {
+        }));
+    }
+
+    /**
+     * Processes a sheetName for DOI check. Each request runs in its own virtual thread,
+     * and every DOI is challenged only once.
+     *
+     * @param spreadsheet the sheetName object.
+     * @param requests    the list of request objects.
+     * @param onSheet     receives each worksheet name and its failed checks as soon as it's done,
+     *                    from a worker thread.
+     * @return a future of the map with all requests solved, in the same order of requests.
+     */
+    public CompletableFuture<Map<String, List<DoiChallenger>>> processSpreadsheet(
+            Spreadsheet spreadsheet,
+            @NotNull List<DoiNumberCheckRequest> requests,
+            @NotNull BiConsumer<String, List<DoiChallenger>> onSheet) {
+        var futures = new ArrayList<CompletableFuture<List<DoiChallenger>>>(requests.size());
+        var executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (var x : requests) {
+                futures.add(CompletableFuture
+                        .supplyAsync(() -> processRequest(spreadsheet, x), executor)
+                        .thenApply(ls -> {
+                            onSheet.accept(x.sheetName(), ls);
+                            return ls;
+                        }));
+            }
+        } finally {
+            //Submitted tasks keep running, no new ones are accepted.
+            executor.shutdown();
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(_ -> {
+                    var r = new LinkedHashMap<String, List<DoiChallenger>>();
+                    for (var i = 0; i < requests.size(); i++) {
+                        r.put(requests.get(i).sheetName(), futures.get(i).join());
+                    }
+                    return r;
+                });
     }
 
     /**
@@ -91,11 +172,13 @@ public class DoiNumberCheck {
                 GoogleUtils.firstSheetByName(request.sheetName(), spreadsheet),
                 request.doiTypeIndex(),
                 request.doiNumberIndex(),
-                request.headerSize());
+                request.headerSize(),
+                request.validator());
     }
 
     /**
      * Processes a single sheet for DOI num check, without a request.
+     * SUNAT-PLE rules are applied through the verdicts cache of this instance.
      *
      * @param sheet          the sheet object.
      * @param doiTypeIndex   doi type column index.
@@ -108,19 +191,60 @@ public class DoiNumberCheck {
             int doiTypeIndex,
             int doiNumberIndex,
             int headerSize) {
+        return processSheet(sheet, doiTypeIndex, doiNumberIndex, headerSize, cache);
+    }
+
+    /**
+     * Processes a single sheet for DOI num check, without a request.
+     * Only failed rows become {@link DoiChallenger} objects.
+     *
+     * @param sheet          the sheet object.
+     * @param doiTypeIndex   doi type column index.
+     * @param doiNumberIndex doi number column index.
+     * @param headerSize     header size to skip rows.
+     * @param validator      the rules to check DOI numbers.
+     * @return list with failed challenges.
+     */
+    public List<DoiChallenger> processSheet(
+            Sheet sheet,
+            int doiTypeIndex,
+            int doiNumberIndex,
+            int headerSize,
+            @NotNull DoiValidator validator) {
         var info = GoogleUtils.infoFlag(sheet);
         if (!info) return List.of();
-        var count = new AtomicInteger(headerSize);
-        return sheet.getData().getFirst().getRowData()
-                .stream()
-                .skip(headerSize)
-                .map(RowData::getValues)
-                .filter(GoogleUtils.ignoreBlank())
-                .map(rw -> new DoiChallenger(
-                        rw.get(doiTypeIndex).getFormattedValue(),
-                        rw.get(doiNumberIndex).getFormattedValue(),
-                        count.incrementAndGet()))
-                .filter(DoiChallenger::challengeFailed)
-                .toList();
+        var rows = sheet.getData().getFirst().getRowData();
+        var notBlank = GoogleUtils.ignoreBlank();
+        var r = new ArrayList<DoiChallenger>();
+        //Row index counts non blank rows only, after the header.
+        var count = headerSize;
+        for (var i = headerSize; i < rows.size(); i++) {
+            var rw = rows.get(i).getValues();
+            if (!notBlank.test(rw)) continue;
+            count++;
+            var type = rw.get(doiTypeIndex).getFormattedValue();
+            var number = rw.get(doiNumberIndex).getFormattedValue();
+            if (!validator.isValid(type, number)) {
+                r.add(new DoiChallenger(type, number, count));
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Waits for a future, rethrowing unchecked failures as they were thrown by the worker.
+     *
+     * @param future the future.
+     * @param <T>    type of result.
+     * @return the result.
+     */
+    private static <T> T await(@NotNull CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error er) throw er;
+            throw e;
+        }
     }
 }
@@ -17,6 +17,8 @@
 
 package org.yupay.alexios.tools;
 
+import org.jetbrains.annotations.NotNull;
+
 /**
  * Record to hold requests information for a given worksheet.
  *
@@ -24,11 +26,24 @@ package org.yupay.alexios.tools;
  * @param doiTypeIndex   column index for doi type.
  * @param doiNumberIndex column index for doi number.
  * @param headerSize     header size to skip rows.
+ * @param validator      the rules to check DOI numbers.
  * @author InfoYupay SACS
  * @version 1.0
  */
 public record DoiNumberCheckRequest(String sheetName,
                                     int doiTypeIndex,
                                     int doiNumberIndex,
-                                    int headerSize) {
+                                    int headerSize,
+                                    @NotNull DoiValidator validator) {
+    /**
+     * Creates a request checked with SUNAT-PLE rules ({@link DoiValidator#ple()}).
+     *
+     * @param sheetName      the name of worksheet inside the spreadsheet.
+     * @param doiTypeIndex   column index for doi type.
+     * @param doiNumberIndex column index for doi number.
+     * @param headerSize     header size to skip rows.
+     */
+    public DoiNumberCheckRequest(String sheetName, int doiTypeIndex, int doiNumberIndex, int headerSize) {
+        this(sheetName, doiTypeIndex, doiNumberIndex, headerSize, DoiValidator.ple());
+    }
 }
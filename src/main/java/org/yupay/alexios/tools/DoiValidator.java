@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.tools;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Validates a DOI number against its DOI type. Implementations are plugged into
+ * {@link DoiNumberCheckRequest}, so each worksheet may be checked with its own rules.
+ * Implementations must be thread-safe.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface DoiValidator {
+
+    /**
+     * The default validator, following SUNAT-PLE rules (see {@link DoiChallenger#challenge()}).
+     *
+     * @return the shared instance of {@link PleDoiValidator}.
+     */
+    @Contract(pure = true)
+    static @NotNull DoiValidator ple() {
+        return PleDoiValidator.INSTANCE;
+    }
+
+    /**
+     * Checks if a DOI number is valid for the DOI type.
+     *
+     * @param doiType   the DOI type (PLE table 2), may be null.
+     * @param doiNumber the DOI number, may be null.
+     * @return true if valid, false otherwise, or if any value is null.
+     */
+    boolean isValid(@Nullable CharSequence doiType, @Nullable CharSequence doiNumber);
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.tools;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Memoizes the verdicts of a {@link DoiValidator}, so a DOI repeated along many
+ * rows and worksheets is validated once. It's an open addressing (linear probing)
+ * table keyed by DOI type + DOI number; lookups don't allocate, only new entries do.
+ * <br/>
+ * The cache may be shared among every {@link DoiNumberCheckRequest} of a run and
+ * it's thread-safe: lookups share a read lock, and the delegate is called without
+ * holding any lock, so a slow validator doesn't serialize the worksheets checked in
+ * parallel. Two threads may validate the same new DOI at once, only one verdict is kept.
+ * <br/>
+ * It may be persisted with {@link #save(Path)} and reloaded with
+ * {@link #load(DoiValidator, Path)}, as long as the rules (the validator class) don't change.
+ * Null values are never cached.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public class DoiVerdictCache implements DoiValidator {
+    /**
+     * Header of persisted files, followed by the validator class name.
+     */
+    private static final String FILE_HEADER = "#alexios-doi-verdicts-v1 ";
+    /**
+     * Verdict slot is empty.
+     */
+    private static final byte EMPTY = 0;
+    /**
+     * Verdict slot is valid.
+     */
+    private static final byte VALID = 1;
+    /**
+     * Verdict slot is invalid.
+     */
+    private static final byte INVALID = 2;
+
+    /**
+     * The validator whose verdicts are memoized.
+     */
+    private final DoiValidator delegate;
+    /**
+     * Guards the table, lookups take the read lock and new entries the write lock.
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * DOI types of each slot.
+     */
+    private String[] types;
+    /**
+     * DOI numbers of each slot.
+     */
+    private String[] numbers;
+    /**
+     * Verdicts of each slot, {@link #EMPTY} if the slot is free.
+     */
+    private byte[] verdicts;
+    /**
+     * Used slots.
+     */
+    private int size;
+    /**
+     * Lookups solved from cache.
+     */
+    private final LongAdder hits = new LongAdder();
+    /**
+     * Lookups solved by the delegate.
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates an empty cache of the SUNAT-PLE rules ({@link DoiValidator#ple()}).
+     */
+    public DoiVerdictCache() {
+        this(DoiValidator.ple(), 1024);
+    }
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param delegate        the validator whose verdicts are memoized.
+     * @param initialCapacity the expected distinct DOIs.
+     */
+    public DoiVerdictCache(@NotNull DoiValidator delegate, int initialCapacity) {
+        this.delegate = delegate;
+        //Power of 2 with load factor up to 0.5.
+        var capacity = Integer.highestOneBit(Math.max(16, initialCapacity) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Loads a cache persisted with {@link #save(Path)}. If the file doesn't exist,
+     * or it was saved for other rules, an empty cache is returned.
+     *
+     * @param delegate the validator whose verdicts are memoized.
+     * @param source   the persisted file.
+     * @return the cache.
+     * @throws IOException if unable to read the file.
+     */
+    public static @NotNull DoiVerdictCache load(@NotNull DoiValidator delegate, @NotNull Path source) throws IOException {
+        var r = new DoiVerdictCache(delegate, 1024);
+        if (!Files.isRegularFile(source)) return r;
+        try (var reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            var header = reader.readLine();
+            if (!(FILE_HEADER + delegate.getClass().getName()).equals(header)) return r;
+            String ln;
+            while ((ln = reader.readLine()) != null) {
+                //verdict|type|number
+                var first = ln.indexOf('|');
+                var second = ln.indexOf('|', first + 1);
+                if (first != 1 || second < 0) continue;
+                r.put(ln.substring(first + 1, second), ln.substring(second + 1), ln.charAt(0) == '1');
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Persists the verdicts.
+     *
+     * @param target the file to write.
+     * @throws IOException if unable to write.
+     */
+    public void save(@NotNull Path target) throws IOException {
+        var parent = target.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        lock.readLock().lock();
+        try (var writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            writer.write(FILE_HEADER + delegate.getClass().getName());
+            writer.newLine();
+            for (var i = 0; i < verdicts.length; i++) {
+                //Line breaks would corrupt the file.
+                if (verdicts[i] == EMPTY || numbers[i].indexOf('\n') >= 0 || numbers[i].indexOf('\r') >= 0
+                        || types[i].indexOf('|') >= 0) continue;
+                writer.write(verdicts[i] == VALID ? '1' : '0');
+                writer.write('|');
+                writer.write(types[i]);
+                writer.write('|');
+                writer.write(numbers[i]);
+                writer.newLine();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isValid(@Nullable CharSequence doiType, @Nullable CharSequence doiNumber) {
+        if (doiType == null || doiNumber == null) {
+            return delegate.isValid(doiType, doiNumber);
+        }
+        lock.readLock().lock();
+        try {
+            var cached = find(doiType, doiNumber);
+            if (cached != EMPTY) {
+                hits.increment();
+                return cached == VALID;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        misses.increment();
+        var verdict = delegate.isValid(doiType, doiNumber);
+        lock.writeLock().lock();
+        try {
+            //Another thread may have stored it meanwhile.
+            if (find(doiType, doiNumber) == EMPTY) put(doiType.toString(), doiNumber.toString(), verdict);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return verdict;
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return lookups solved from cache.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return lookups solved by the delegate validator.
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Computes the hit rate.
+     *
+     * @return hits / lookups, or 0 if no lookups yet.
+     */
+    public double hitRate() {
+        var h = hits();
+        var total = h + misses();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return distinct DOIs cached.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DoiVerdictCache{size=%d, hits=%d, misses=%d, hitRate=%.2f%%}"
+                .formatted(size(), hits(), misses(), hitRate() * 100);
+    }
+
+    /**
+     * Finds a verdict, the caller must hold a lock.
+     *
+     * @param type   the DOI type.
+     * @param number the DOI number.
+     * @return the verdict; or {@link #EMPTY} if not cached.
+     */
+    private byte find(@NotNull CharSequence type, @NotNull CharSequence number) {
+        var mask = verdicts.length - 1;
+        for (var i = hash(type, number) & mask; verdicts[i] != EMPTY; i = (i + 1) & mask) {
+            if (contentEquals(types[i], type) && contentEquals(numbers[i], number)) return verdicts[i];
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Stores a verdict, the key must not be in the table yet; the caller must hold
+     * the write lock, or own the cache alone (while loading).
+     *
+     * @param type    the DOI type.
+     * @param number  the DOI number.
+     * @param verdict the verdict.
+     */
+    private void put(String type, String number, boolean verdict) {
+        if ((size + 1) * 2 > verdicts.length) {
+            rehash();
+        }
+        var mask = verdicts.length - 1;
+        var i = hash(type, number) & mask;
+        while (verdicts[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        types[i] = type;
+        numbers[i] = number;
+        verdicts[i] = verdict ? VALID : INVALID;
+        size++;
+    }
+
+    /**
+     * Doubles the table.
+     */
+    private void rehash() {
+        var oldTypes = types;
+        var oldNumbers = numbers;
+        var oldVerdicts = verdicts;
+        allocate(oldVerdicts.length << 1);
+        size = 0;
+        for (var i = 0; i < oldVerdicts.length; i++) {
+            if (oldVerdicts[i] != EMPTY) {
+                put(oldTypes[i], oldNumbers[i], oldVerdicts[i] == VALID);
+            }
+        }
+    }
+
+    /**
+     * Allocates empty arrays.
+     *
+     * @param capacity the capacity (power of 2).
+     */
+    private void allocate(int capacity) {
+        types = new String[capacity];
+        numbers = new String[capacity];
+        verdicts = new byte[capacity];
+    }
+
+    /**
+     * Hashes the key chars, same as String.hashCode would do over type + "|" + number,
+     * then spreads the bits.
+     *
+     * @param type   the DOI type.
+     * @param number the DOI number.
+     * @return the hash.
+     */
+    private static int hash(@NotNull CharSequence type, @NotNull CharSequence number) {
+        var h = 0;
+        for (var i = 0; i < type.length(); i++) {
+            h = 31 * h + type.charAt(i);
+        }
+        h = 31 * h + '|';
+        for (var i = 0; i < number.length(); i++) {
+            h = 31 * h + number.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Compares chars without allocating.
+     *
+     * @param stored the stored key part.
+     * @param value  the looked up key part.
+     * @return true if same chars.
+     */
+    private static boolean contentEquals(@NotNull String stored, @NotNull CharSequence value) {
+        return value instanceof String s ? stored.equals(s) : stored.contentEquals(value);
+    }
+}
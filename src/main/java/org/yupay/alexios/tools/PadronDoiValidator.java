@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.tools;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yupay.alexios.vault.PadronIndex;
+
+/**
+ * SUNAT-PLE rules ({@link DoiValidator#ple()}) plus, for RUC numbers (type 6), a lookup
+ * in the offline SUNAT padrón: the RUC must exist and must not be deregistered (BAJA). So RUCs
+ * with a valid check digit that don't exist or were deregistered fail as well.
+ *
+ * @param padron the padrón index, must stay open while validating.
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public record PadronDoiValidator(@NotNull PadronIndex padron) implements DoiValidator {
+    @Override
+    public boolean isValid(@Nullable CharSequence doiType, @Nullable CharSequence doiNumber) {
+        if (!DoiValidator.ple().isValid(doiType, doiNumber)) return false;
+        if (doiType.charAt(0) != '6') return true;
+        var ix = padron.indexOf(doiNumber);
+        return ix >= 0 && !padron.statusAt(ix).startsWith("BAJA");
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.tools;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * SUNAT-PLE rules for DOI numbers (see {@link DoiChallenger#challenge()}), written as plain
+ * char loops over {@link CharSequence}: no regex, no streams and no allocation per call.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public final class PleDoiValidator implements DoiValidator {
+    /**
+     * The shared instance, it holds no state.
+     */
+    static final PleDoiValidator INSTANCE = new PleDoiValidator();
+    /**
+     * The factor to multiply the RUC digit at each position.
+     */
+    private static final int[] RUC_FACTORS = {5, 4, 3, 2, 7, 6, 5, 4, 3, 2};
+
+    /**
+     * Use {@link DoiValidator#ple()} instead.
+     */
+    private PleDoiValidator() {
+    }
+
+    @Override
+    public boolean isValid(@Nullable CharSequence doiType, @Nullable CharSequence doiNumber) {
+        if (doiType == null || doiNumber == null || doiType.length() != 1) return false;
+        return switch (doiType.charAt(0)) {
+            case '0' -> isAlnum(doiNumber, 15);
+            case '1' -> isDigits(doiNumber, 8);
+            case '4', '7' -> isAlnum(doiNumber, 12);
+            case '6' -> isRuc(doiNumber);
+            case 'A' -> isDigits(doiNumber, 15);
+            default -> false;
+        };
+    }
+
+    /**
+     * Checks the value has from 1 up to max ASCII letters or digits.
+     *
+     * @param value the value.
+     * @param max   the maximum length.
+     * @return true if valid.
+     */
+    @Contract(pure = true)
+    public static boolean isAlnum(CharSequence value, int max) {
+        var len = value.length();
+        if (len < 1 || len > max) return false;
+        for (var i = 0; i < len; i++) {
+            var c = value.charAt(i);
+            if (!(c >= '0' && c <= '9' || c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z')) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks the value has exactly length ASCII digits.
+     *
+     * @param value  the value.
+     * @param length the exact length.
+     * @return true if valid.
+     */
+    @Contract(pure = true)
+    public static boolean isDigits(CharSequence value, int length) {
+        if (value.length() != length) return false;
+        for (var i = 0; i < length; i++) {
+            var c = value.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks the value is an 11-digits RUC number and complies with module 11 algorithm:
+     * each of the first 10 digits is multiplied by its factor and summed, the check digit
+     * is (11 - sum % 11) % 10.
+     *
+     * @param value the value.
+     * @return true if valid.
+     */
+    @Contract(pure = true)
+    public static boolean isRuc(@Nullable CharSequence value) {
+        if (value == null || !isDigits(value, 11)) return false;
+        var sum = 0;
+        for (var i = 0; i < 10; i++) {
+            sum += (value.charAt(i) - '0') * RUC_FACTORS[i];
+        }
+        return value.charAt(10) - '0' == (11 - sum % 11) % 10;
+    }
+}
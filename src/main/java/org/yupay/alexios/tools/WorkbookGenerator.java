@@ -0,0 +1,783 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.tools;
+
+import com.google.api.services.sheets.v4.model.*;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic workbooks with the same layouts as our public templates
+ * (LE0300, LE0500, LE0700, LE0800, LE1000, LE1300 and LE1400), so processors may be load tested at any scale
+ * without real client data. Given the same settings and seed, the very same
+ * workbook is generated.
+ * <br/>
+ * Each data worksheet is described by a column specification where each char
+ * is a column. Lower case columns are always filled, upper case columns
+ * may be left blank depending on {@link #withNullDensity(double)}:
+ * <ul>
+ *     <li><b>k:</b> DOI type of the counterparty.</li>
+ *     <li><b>x:</b> DOI type description.</li>
+ *     <li><b>o:</b> DOI number of the counterparty.</li>
+ *     <li><b>p:</b> counterparty name.</li>
+ *     <li><b>t:</b> free text.</li>
+ *     <li><b>c:</b> short code.</li>
+ *     <li><b>v:</b> voucher type (SUNAT table 10).</li>
+ *     <li><b>y:</b> currency code (SUNAT table 4).</li>
+ *     <li><b>u:</b> catalog code (SUNAT table 13).</li>
+ *     <li><b>a:</b> account code (2 to 6 digits).</li>
+ *     <li><b>g:</b> account code (2 digits).</li>
+ *     <li><b>l:</b> financial statement line code.</li>
+ *     <li><b>n:</b> amount with 2 decimals.</li>
+ *     <li><b>r:</b> rate with 8 decimals.</li>
+ *     <li><b>i:</b> small integer.</li>
+ *     <li><b>m:</b> month number.</li>
+ *     <li><b>d:</b> date formatted dd-MM-uuuu.</li>
+ *     <li><b>f:</b> account flag of the worksheet (ie: 12 or 13 in 030300).</li>
+ * </ul>
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public class WorkbookGenerator {
+    /**
+     * The date format used by our templates.
+     */
+    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("dd-MM-uuuu");
+    /**
+     * The factor to multiply the RUC digit at each position.
+     */
+    private static final int[] RUC_FACTORS = {5, 4, 3, 2, 7, 6, 5, 4, 3, 2};
+    /**
+     * Voucher types to pick from (SUNAT table 10).
+     */
+    private static final String[] VOUCHER_TYPES = {"01", "03", "07", "08", "12"};
+    /**
+     * Currency codes to pick from (SUNAT table 4).
+     */
+    private static final String[] CURRENCIES = {"PEN", "USD", "EUR"};
+    /**
+     * Catalog codes to pick from (SUNAT table 13).
+     */
+    private static final String[] CATALOGS = {"1", "2", "9"};
+    /**
+     * Sample last names to build person names.
+     */
+    private static final String[] LAST_NAMES = {
+            "QUISPE", "FLORES", "SANCHEZ", "RODRIGUEZ", "GARCIA", "ROJAS",
+            "HUAMAN", "MENDOZA", "CHAVEZ", "TORRES", "VARGAS", "RAMIREZ"};
+    /**
+     * Sample first names to build person names.
+     */
+    private static final String[] FIRST_NAMES = {
+            "JUAN CARLOS", "MARIA", "JOSE LUIS", "ROSA", "LUIS", "ANA LUCIA",
+            "CARLOS", "CARMEN", "JORGE", "ELENA"};
+
+    /**
+     * The seed for the random generator.
+     */
+    private long seed = 1;
+    /**
+     * Data rows per worksheet.
+     */
+    private int rows = 1_000;
+    /**
+     * Distinct counterparties (DOI numbers), so they appear repeatedly
+     * among rows and worksheets like in real books.
+     */
+    private int counterparties = 100;
+    /**
+     * Probability of an optional cell to be blank.
+     */
+    private double nullDensity = 0.1;
+    /**
+     * Probability of a counterparty to have an invalid DOI number.
+     */
+    private double doiErrorRate = 0.02;
+    /**
+     * The RUC number of the taxpayer.
+     */
+    private String ruc = "20100070970";
+    /**
+     * The year of the tax period.
+     */
+    private String year = "2024";
+    /**
+     * The month of the tax period, for monthly books.
+     */
+    private int month = 12;
+
+    /**
+     * Creates a generator with default settings.
+     */
+    public WorkbookGenerator() {
+    }
+
+    /**
+     * Fluent setter - with.
+     *
+     * @param seed new value to set in {@link #seed}
+     * @return this instance.
+     */
+    public final WorkbookGenerator withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Fluent setter - with.
+     *
+     * @param rows new value to set in {@link #rows}
+     * @return this instance.
+     */
+    public final WorkbookGenerator withRows(int rows) {
+        this.rows = rows;
+        return this;
+    }
+
+    /**
+     * Fluent setter - with.
+     *
+     * @param counterparties new value to set in {@link #counterparties}
+     * @return this instance.
+     */
+    public final WorkbookGenerator withCounterparties(int counterparties) {
+        this.counterparties = Math.max(1, counterparties);
+        return this;
+    }
+
+    /**
+     * Fluent setter - with.
+     *
+     * @param nullDensity new value to set in {@link #nullDensity}
+     * @return this instance.
+     */
+    public final WorkbookGenerator withNullDensity(double nullDensity) {
+        this.nullDensity = nullDensity;
+        return this;
+    }
+
+    /**
+     * Fluent setter - with.
+     *
+     * @param doiErrorRate new value to set in {@link #doiErrorRate}
+     * @return this instance.
+     */
+    public final WorkbookGenerator withDoiErrorRate(double doiErrorRate) {
+        this.doiErrorRate = doiErrorRate;
+        return this;
+    }
+
+    /**
+     * Fluent setter - with.
+     *
+     * @param ruc new value to set in {@link #ruc}
+     * @return this instance.
+     */
+    public final WorkbookGenerator withRuc(String ruc) {
+        this.ruc = ruc;
+        return this;
+    }
+
+    /**
+     * Fluent setter - with.
+     *
+     * @param year new value to set in {@link #year}
+     * @return this instance.
+     */
+    public final WorkbookGenerator withYear(String year) {
+        this.year = year;
+        return this;
+    }
+
+    /**
+     * Fluent setter - with.
+     *
+     * @param month new value to set in {@link #month}
+     * @return this instance.
+     * @throws IllegalArgumentException if month isn't 1 to 12.
+     */
+    public final WorkbookGenerator withMonth(int month) {
+        if (month < 1 || month > 12) throw new IllegalArgumentException("Invalid month: " + month);
+        this.month = month;
+        return this;
+    }
+
+    /**
+     * Generates a LE0300 - Inventory and balances workbook, including
+     * the 030000 parameters grid and the MAPEO worksheet of the trial mode.
+     *
+     * @return the workbook.
+     */
+    public @NotNull Spreadsheet generateLE0300() {
+        var ctx = new Context(new Random(seed));
+        var sheets = new ArrayList<Sheet>();
+        var params = paramsRows(ctx);
+        params.set(6, row(text(""), text("12")));
+        params.set(7, row(text(""), text("31")));
+        params.set(8, row(text(""), text("01")));
+        params.set(15, row(text(""), text("1")));
+        params.set(19, row(text(""), number(5150)));
+        sheets.add(sheet("030000", params));
+        sheets.add(dataSheet(ctx, "030100", 2, "ttln"));
+        sheets.add(dataSheet(ctx, "030200", 4, "acttyncT"));
+        sheets.add(dataSheet(ctx, "030300", 5, "kxopDnTf", "12", "13"));
+        sheets.add(dataSheet(ctx, "030400", 5, "kxopDnTf", "14", "14"));
+        sheets.add(dataSheet(ctx, "030500", 5, "kxopDnTf", "16", "17"));
+        sheets.add(dataSheet(ctx, "030600", 5, "kxopVTTTDn"));
+        sheets.add(dataSheet(ctx, "030700", 5, "tttttTtTtTtrrn"));
+        sheets.add(dataSheet(ctx, "030800", 5, "kxopTtninnT"));
+        sheets.add(dataSheet(ctx, "030900", 2, "datnn"));
+        sheets.add(dataSheet(ctx, "031100", 5, "akxotpnT"));
+        sheets.add(dataSheet(ctx, "031200", 5, "kxoDpnTf", "42", "43"));
+        sheets.add(dataSheet(ctx, "031300", 5, "kxoDpanTf", "46", "47"));
+        sheets.add(sheet("031400", new ArrayList<>(List.of(row(bool(false))))));
+        sheets.add(dataSheet(ctx, "031500", 4, "tttTatnnn"));
+        var capital = headerRows(ctx, 3);
+        capital.add(row(number(100_000), number(1_000), number(100), number(100_000)));
+        sheets.add(sheet("031601", capital));
+        sheets.add(dataSheet(ctx, "031602", 5, "kxoctpir"));
+        sheets.add(dataSheet(ctx, "031700", 3, "gt" + "n".repeat(16)));
+        sheets.add(dataSheet(ctx, "031800", 2, "ttln"));
+        sheets.add(dataSheet(ctx, "031900", 2, "ttl" + "n".repeat(12)));
+        sheets.add(dataSheet(ctx, "032000", 2, "ttln"));
+        var notes = new ArrayList<>(List.of(row(bool(false)), row(text("")), row(text(""), text(""), text(""))));
+        sheets.add(sheet("032300", notes));
+        sheets.add(dataSheet(ctx, "032400", 2, "ttln"));
+        sheets.add(dataSheet(ctx, "032500", 2, "ttln"));
+        sheets.add(sheet("MAPEO", mappingRows(ctx)));
+        return workbook("LE0300", sheets);
+    }
+
+    /**
+     * Creates the MAPEO worksheet rows of LE0300: a header and then 40 lines for each
+     * financial statement, summing 1 to 3 accounts (2 digits) each one.
+     *
+     * @param ctx the generation context.
+     * @return the rows.
+     */
+    private @NotNull List<RowData> mappingRows(@NotNull Context ctx) {
+        var r = new ArrayList<RowData>();
+        r.add(row(text("LIBRO"), text("RUBRO"), text("CUENTAS")));
+        for (var book : List.of("030100", "031800", "032000", "032400", "032500")) {
+            for (var i = 0; i < 40; i++) {
+                var formula = new StringBuilder();
+                for (var j = 1 + ctx.random.nextInt(3); j > 0; j--) {
+                    if (ctx.random.nextInt(4) == 0) formula.append('-');
+                    else if (!formula.isEmpty()) formula.append('+');
+                    formula.append(10 + ctx.random.nextInt(90));
+                }
+                r.add(row(text(book), text("1D%02d%02d".formatted(i / 10, i % 10 * 10)), text(formula.toString())));
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Generates a LE0500 - Journal workbook, including the 050000 parameters grid
+     * (B8 month). Entries have 2 to 5 lines and always balance, the last line
+     * closes the entry on the opposite side.
+     *
+     * @return the workbook.
+     */
+    public @NotNull Spreadsheet generateLE0500() {
+        var ctx = new Context(new Random(seed));
+        var random = ctx.random;
+        var params = monthlyParamsRows(ctx);
+        var r = headerRows(ctx, 3);
+        var first = LocalDate.of(Integer.parseInt(year), month, 1);
+        var entry = 0;
+        while (r.size() - 3 < rows) {
+            entry++;
+            var party = ctx.party();
+            var day = first.plusDays(random.nextInt(first.lengthOfMonth()));
+            var lines = Math.min(2 + random.nextInt(4), rows - (r.size() - 3));
+            var debit = random.nextBoolean();
+            var total = 0L;
+            for (var i = 1; i <= lines; i++) {
+                var cents = i < lines ? 1 + random.nextInt(10_000_000) : total;
+                if (i < lines) total += cents;
+                //The last line goes to the other side, so the entry balances.
+                var side = (i < lines) == debit;
+                //Correlatives may be left blank, as the C column of the specification.
+                var blank = random.nextDouble() < nullDensity;
+                r.add(new RowData().setValues(new ArrayList<>(List.of(
+                        text("%06d".formatted(entry)),
+                        blank ? new CellData() : text("M%04d".formatted(i)),
+                        cell(ctx, 'a', party),
+                        new CellData(),
+                        new CellData(),
+                        text("PEN"),
+                        text(party.doiType()),
+                        text(party.doiNumber()),
+                        text("01"),
+                        text("F001"),
+                        text("%08d".formatted(entry)),
+                        date(day),
+                        new CellData(),
+                        date(day),
+                        cell(ctx, 't', party),
+                        new CellData(),
+                        number(side ? cents / 100.0 : 0),
+                        number(side ? 0 : cents / 100.0),
+                        new CellData(),
+                        text("1")))));
+            }
+        }
+        return workbook("LE0500", List.of(sheet("050000", params), sheet("050100", r)));
+    }
+
+    /**
+     * Generates a LE0700 - Assets workbook, including the 070000 parameters grid.
+     *
+     * @return the workbook.
+     */
+    public @NotNull Spreadsheet generateLE0700() {
+        var ctx = new Context(new Random(seed));
+        var sheets = new ArrayList<Sheet>();
+        sheets.add(sheet("070000", paramsRows(ctx)));
+        sheets.add(dataSheet(ctx, "070100", 4, "ctutctcttcttt" + "TTT" + "n".repeat(9) + "ddttt" + "n".repeat(9)));
+        sheets.add(dataSheet(ctx, "070300", 3, "tdnrnrnnnn"));
+        sheets.add(dataSheet(ctx, "070400", 3, "tdtTdin"));
+        return workbook("LE0700", sheets);
+    }
+
+    /**
+     * Generates a LE0800 - Purchases registers workbook, including the 080000 parameters grid
+     * (B8 month). The state column is left out, so it takes its default.
+     *
+     * @return the workbook.
+     */
+    public @NotNull Spreadsheet generateLE0800() {
+        var ctx = new Context(new Random(seed));
+        var sheets = new ArrayList<Sheet>();
+        sheets.add(sheet("080000", monthlyParamsRows(ctx)));
+        sheets.add(dataSheet(ctx, "080100", 3, "tCdDctTtT" + "kop" + "n".repeat(11) + "cr" + "DcTTT" + "DT" + "TTT" + "TTTT" + "T"));
+        sheets.add(dataSheet(ctx, "080200", 3, "tCdctt" + "nnn" + "TTTT" + "N" + "cr" + "tpttptct" + "nnnnn" + "TTTTT"));
+        return workbook("LE0800", sheets);
+    }
+
+    /**
+     * Generates a LE1000 - Costs workbook, including the LE100000 parameters grid.
+     *
+     * @return the workbook.
+     */
+    public @NotNull Spreadsheet generateLE1000() {
+        var ctx = new Context(new Random(seed));
+        var sheets = new ArrayList<Sheet>();
+        sheets.add(sheet("LE100000", paramsRows(ctx)));
+        sheets.add(dataSheet(ctx, "100100", 3, "nnnn"));
+        sheets.add(dataSheet(ctx, "100200", 3, "mtnnnnnn"));
+        sheets.add(dataSheet(ctx, "100300", 3, "ct" + "n".repeat(8) + "T"));
+        sheets.add(dataSheet(ctx, "100400", 3, "cttt"));
+        return workbook("LE1000", sheets);
+    }
+
+    /**
+     * Generates a LE1300 - Permanent valued inventory workbook, including the 130000 parameters
+     * grid (B8 month). Movements go from January to the month, in date order, a product
+     * per counterparty; exits never take more than the stock.
+     *
+     * @return the workbook.
+     */
+    public @NotNull Spreadsheet generateLE1300() {
+        var ctx = new Context(new Random(seed));
+        var random = ctx.random;
+        var r = headerRows(ctx, 3);
+        var first = LocalDate.of(Integer.parseInt(year), 1, 1);
+        var days = (int) first.until(first.withMonth(month).plusMonths(1), ChronoUnit.DAYS);
+        var dates = new int[rows];
+        for (var i = 0; i < rows; i++) {
+            dates[i] = random.nextInt(days);
+        }
+        Arrays.sort(dates);
+        var stock = new int[counterparties];
+        for (var i = 0; i < rows; i++) {
+            var product = random.nextInt(counterparties);
+            var exit = stock[product] > 0 && random.nextInt(100) < 55;
+            var qty = exit ? 1 + random.nextInt(Math.min(stock[product], 20)) : 1 + random.nextInt(100);
+            stock[product] += exit ? -qty : qty;
+            r.add(new RowData().setValues(new ArrayList<>(List.of(
+                    text("%07d".formatted(i + 1)),
+                    random.nextDouble() < nullDensity ? new CellData() : text("M%04d".formatted(i + 1)),
+                    text("0000"),
+                    text("9"),
+                    text("01"),
+                    text("P%05d".formatted(product)),
+                    new CellData(),
+                    new CellData(),
+                    date(first.plusDays(dates[i])),
+                    text(exit ? "01" : "03"),
+                    text(exit ? "F001" : "B001"),
+                    text("%08d".formatted(i + 1)),
+                    text(exit ? "01" : "02"),
+                    text("PRODUCTO %05d".formatted(product)),
+                    text("NIU"),
+                    exit ? new CellData() : number(qty),
+                    exit ? new CellData() : number(qty * (100 + random.nextInt(50_000)) / 100.0),
+                    exit ? number(qty) : new CellData()))));
+        }
+        return workbook("LE1300", List.of(sheet("130000", monthlyParamsRows(ctx)), sheet("130100", r)));
+    }
+
+    /**
+     * Generates a LE1400 - Sales register workbook, including the 140000 parameters grid
+     * (B8 month). The state column is left out, so it takes its default.
+     *
+     * @return the workbook.
+     */
+    public @NotNull Spreadsheet generateLE1400() {
+        var ctx = new Context(new Random(seed));
+        var sheets = new ArrayList<Sheet>();
+        sheets.add(sheet("140000", monthlyParamsRows(ctx)));
+        sheets.add(dataSheet(ctx, "140100", 3, "tCdDcttT" + "kop" + "n".repeat(13) + "cr" + "DcTT" + "TTT"));
+        return workbook("LE1400", sheets);
+    }
+
+    /**
+     * Generates data rows out of a column specification (see class documentation),
+     * the way data worksheets are filled, but without header nor worksheet. Useful to
+     * feed a single converter (ie: benchmarks).
+     *
+     * @param spec  the column specification.
+     * @param flags the account flags to alternate in the flag column, if any.
+     * @return the rows as google sheets API returns them.
+     */
+    public @NotNull List<List<CellData>> generateRows(@NotNull String spec, String... flags) {
+        var ctx = new Context(new Random(seed));
+        var r = new ArrayList<List<CellData>>(rows);
+        for (var i = 0; i < rows; i++) r.add(dataRow(ctx, spec, flags));
+        return r;
+    }
+
+    /**
+     * Creates the parameters grid rows shared by every template:
+     * A1 information flag, B5 RUC, B6 year and B7 operations flag.
+     * Some templates override B7 onwards.
+     *
+     * @param ctx the generation context.
+     * @return the mutable list of rows.
+     */
+    private @NotNull List<RowData> paramsRows(Context ctx) {
+        var r = headerRows(ctx, 20);
+        r.set(4, row(text("RUC"), text(ruc)));
+        r.set(5, row(text("AÑO"), text(year)));
+        r.set(6, row(text("OPERACIONES"), text("1")));
+        return r;
+    }
+
+    /**
+     * Creates the parameters grid rows of monthly templates, as {@link #paramsRows(Context)}
+     * plus B8 month.
+     *
+     * @param ctx the generation context.
+     * @return the mutable list of rows.
+     */
+    private @NotNull List<RowData> monthlyParamsRows(Context ctx) {
+        var r = paramsRows(ctx);
+        r.set(7, row(text("MES"), text("%02d".formatted(month))));
+        return r;
+    }
+
+    /**
+     * Creates the header rows of a worksheet. The first row contains the A1 information flag.
+     *
+     * @param ctx    the generation context.
+     * @param header how many header rows.
+     * @return the mutable list of rows.
+     */
+    private @NotNull List<RowData> headerRows(@NotNull Context ctx, int header) {
+        var r = new ArrayList<RowData>(header + rows);
+        r.add(row(bool(true), text("ALEXIOS SYNTHETIC %d".formatted(ctx.random.nextInt(1000)))));
+        for (var i = 1; i < header; i++) {
+            r.add(row(text("#"), text("ENCABEZADO %d".formatted(i))));
+        }
+        return r;
+    }
+
+    /**
+     * Creates a worksheet with header rows and then the data rows generated from
+     * the column specification (see class documentation).
+     *
+     * @param ctx    the generation context.
+     * @param title  the worksheet title.
+     * @param header how many header rows.
+     * @param spec   the column specification.
+     * @param flags  the account flags to alternate in the flag column, if any.
+     * @return the worksheet.
+     */
+    private @NotNull Sheet dataSheet(@NotNull Context ctx, String title, int header, @NotNull String spec, String... flags) {
+        var r = headerRows(ctx, header);
+        for (var i = 0; i < rows; i++) r.add(new RowData().setValues(dataRow(ctx, spec, flags)));
+        return sheet(title, r);
+    }
+
+    /**
+     * Generates a data row from the column specification (see class documentation).
+     *
+     * @param ctx   the generation context.
+     * @param spec  the column specification.
+     * @param flags the account flags to alternate in the flag column, if any.
+     * @return the mutable list of cells.
+     */
+    private @NotNull List<CellData> dataRow(@NotNull Context ctx, @NotNull String spec, String... flags) {
+        var party = ctx.party();
+        var cells = new ArrayList<CellData>(spec.length());
+        for (var j = 0; j < spec.length(); j++) {
+            var col = spec.charAt(j);
+            if (Character.isUpperCase(col) && ctx.random.nextDouble() < nullDensity) {
+                cells.add(new CellData());
+            } else {
+                cells.add(cell(ctx, Character.toLowerCase(col), party, flags));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Generates a single cell by its column specification.
+     *
+     * @param ctx   the generation context.
+     * @param col   the column specification char (lower case).
+     * @param party the counterparty of the row.
+     * @param flags the account flags of the worksheet.
+     * @return the cell.
+     */
+    private @NotNull CellData cell(@NotNull Context ctx, char col, Party party, String... flags) {
+        var random = ctx.random;
+        return switch (col) {
+            case 'k' -> text(party.doiType());
+            case 'x' -> text(switch (party.doiType()) {
+                case "1" -> "DNI";
+                case "4" -> "CARNET DE EXTRANJERIA";
+                case "6" -> "RUC";
+                case "7" -> "PASAPORTE";
+                case "A" -> "CEDULA DIPLOMATICA";
+                default -> "OTROS";
+            });
+            case 'o' -> text(party.doiNumber());
+            case 'p' -> text(party.name());
+            case 't' -> text("DETALLE %d".formatted(random.nextInt(100_000)));
+            case 'c' -> text("%02d".formatted(random.nextInt(10)));
+            //Codes take the same random calls of free text and short codes, so other columns don't change.
+            case 'v' -> text(VOUCHER_TYPES[random.nextInt(100_000) % VOUCHER_TYPES.length]);
+            case 'y' -> text(CURRENCIES[random.nextInt(100_000) % CURRENCIES.length]);
+            case 'u' -> text(CATALOGS[random.nextInt(10) % CATALOGS.length]);
+            case 'a' -> text(Integer.toString(10 + random.nextInt(90)) + "0".repeat(random.nextInt(5)));
+            case 'g' -> text(Integer.toString(10 + random.nextInt(90)));
+            case 'l' -> text("1D%02d%02d".formatted(random.nextInt(10), random.nextInt(100)));
+            case 'n' -> number(random.nextInt(10_000_000) / 100.0);
+            case 'r' -> number(random.nextInt(100_000_000) / 100_000_000.0);
+            case 'i' -> number(random.nextInt(1_000));
+            case 'm' -> number(1 + random.nextInt(12));
+            case 'd' -> date(LocalDate.of(Integer.parseInt(year), 1, 1).plusDays(random.nextInt(365)));
+            case 'f' -> text(flags.length == 0 ? "" : flags[random.nextInt(flags.length)]);
+            default -> throw new IllegalArgumentException("Unknown column specification: " + col);
+        };
+    }
+
+    /**
+     * Creates a text cell.
+     *
+     * @param value the formatted value.
+     * @return the cell object.
+     */
+    @Contract("_ -> new")
+    public static @NotNull CellData text(String value) {
+        return new CellData()
+                .setFormattedValue(value)
+                .setEffectiveValue(new ExtendedValue().setStringValue(value));
+    }
+
+    /**
+     * Creates a number cell formatted with 2 decimals.
+     *
+     * @param value the number value.
+     * @return the cell object.
+     */
+    @Contract("_ -> new")
+    public static @NotNull CellData number(double value) {
+        return new CellData()
+                .setFormattedValue("%.2f".formatted(value))
+                .setEffectiveValue(new ExtendedValue().setNumberValue(value));
+    }
+
+    /**
+     * Creates a date cell formatted as dd-MM-uuuu.
+     *
+     * @param value the date value.
+     * @return the cell object.
+     */
+    @Contract("_ -> new")
+    public static @NotNull CellData date(@NotNull LocalDate value) {
+        return new CellData()
+                .setFormattedValue(DATE_FMT.format(value))
+                .setEffectiveValue(new ExtendedValue().setNumberValue((double) value.toEpochDay()));
+    }
+
+    /**
+     * Creates a boolean cell, like the A1 information flag.
+     *
+     * @param value the boolean value.
+     * @return the cell object.
+     */
+    @Contract("_ -> new")
+    public static @NotNull CellData bool(boolean value) {
+        return new CellData()
+                .setFormattedValue(value ? "TRUE" : "FALSE")
+                .setEffectiveValue(new ExtendedValue().setBoolValue(value));
+    }
+
+    /**
+     * Convenient method to create a row out of its cells.
+     *
+     * @param cells the cells of the row.
+     * @return the row object.
+     */
+    private static @NotNull RowData row(CellData... cells) {
+        return new RowData().setValues(new ArrayList<>(List.of(cells)));
+    }
+
+    /**
+     * Convenient method to create a worksheet.
+     *
+     * @param title the worksheet title.
+     * @param rows  the worksheet rows.
+     * @return the worksheet object.
+     */
+    private static @NotNull Sheet sheet(String title, List<RowData> rows) {
+        return new Sheet()
+                .setProperties(new SheetProperties().setTitle(title))
+                .setData(List.of(new GridData().setRowData(rows)));
+    }
+
+    /**
+     * Convenient method to create the workbook object.
+     *
+     * @param book   the book name (ie: LE0300).
+     * @param sheets the worksheets.
+     * @return the workbook object.
+     */
+    private @NotNull Spreadsheet workbook(String book, List<Sheet> sheets) {
+        return new Spreadsheet()
+                .setSpreadsheetId("synthetic-%s-%d".formatted(book, seed))
+                .setProperties(new SpreadsheetProperties().setTitle("%s %s %s".formatted(book, ruc, year)))
+                .setSheets(sheets);
+    }
+
+    /**
+     * Computes a RUC check digit (module 11).
+     *
+     * @param body the first 10 digits.
+     * @return the check digit.
+     */
+    private static int rucCheckDigit(@NotNull String body) {
+        var sum = 0;
+        for (var i = 0; i < 10; i++) {
+            sum += (body.charAt(i) - '0') * RUC_FACTORS[i];
+        }
+        return (11 - sum % 11) % 10;
+    }
+
+    /**
+     * A counterparty of the taxpayer.
+     *
+     * @param doiType   the DOI type (PLE table 2).
+     * @param doiNumber the DOI number, may be invalid on purpose.
+     * @param name      the full name or business name.
+     */
+    private record Party(String doiType, String doiNumber, String name) {
+    }
+
+    /**
+     * The state of a single generation: the random source and the counterparties pool.
+     */
+    private final class Context {
+        /**
+         * The random source.
+         */
+        private final Random random;
+        /**
+         * The pool of counterparties, lazily filled.
+         */
+        private final Party[] parties = new Party[counterparties];
+
+        /**
+         * Creates the context.
+         *
+         * @param random the random source.
+         */
+        private Context(Random random) {
+            this.random = random;
+        }
+
+        /**
+         * Picks a counterparty from the pool, creating it on first use.
+         *
+         * @return the counterparty.
+         */
+        private @NotNull Party party() {
+            var ix = random.nextInt(parties.length);
+            if (parties[ix] == null) parties[ix] = newParty();
+            return parties[ix];
+        }
+
+        /**
+         * Creates a new counterparty. Most of them are companies (RUC 20) or people (DNI),
+         * a share of them will have an invalid DOI number as set by {@link #doiErrorRate}.
+         *
+         * @return the new counterparty.
+         */
+        private @NotNull Party newParty() {
+            var invalid = random.nextDouble() < doiErrorRate;
+            var kind = random.nextInt(20);
+            var person = "%s %s, %s".formatted(
+                    LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                    LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                    FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+            if (kind < 10) {
+                var body = "20%08d".formatted(random.nextInt(100_000_000));
+                var cd = rucCheckDigit(body);
+                return new Party("6",
+                        body + (invalid ? (cd + 1) % 10 : cd),
+                        "COMERCIAL %s S.A.C.".formatted(body.substring(5)));
+            } else if (kind < 12) {
+                var body = "10%08d".formatted(random.nextInt(100_000_000));
+                var cd = rucCheckDigit(body);
+                return new Party("6", body + (invalid ? (cd + 1) % 10 : cd), person);
+            } else if (kind < 17) {
+                var dni = "%08d".formatted(random.nextInt(100_000_000));
+                return new Party("1", invalid ? dni.substring(1) : dni, person);
+            } else if (kind == 17) {
+                return new Party("4", invalid ? "CE-%012d".formatted(random.nextInt(1_000_000)) : "%09d".formatted(random.nextInt(1_000_000_000)), person);
+            } else if (kind == 18) {
+                return new Party("7", invalid ? "" : "P%08d".formatted(random.nextInt(100_000_000)), person);
+            } else {
+                return new Party("0", invalid ? "TAX-ID %d".formatted(random.nextInt(1000)) : "TIN%09d".formatted(random.nextInt(1_000_000_000)), "FOREIGN SUPPLIER %d LLC".formatted(random.nextInt(1000)));
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.vault;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.TreeMap;
+
+/**
+ * Imports SUNAT published exchange rates into the local history read by {@link ExchangeRates}.
+ * SUNAT publishes the rate of the day, or the history of a month or a year; each import merges
+ * into the history, and rates of the same day are replaced. The history is plain text, one published
+ * day per line as <code>dd/MM/uuuu|buy|sell|</code>.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public final class ExchangeRateImporter {
+    /**
+     * Date format of the history.
+     */
+    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("dd/MM/uuuu");
+
+    /**
+     * Private constructor that always fail, avoiding instanciation of this class.
+     *
+     * @throws IllegalAccessException always.
+     */
+    @Contract("->fail")
+    private ExchangeRateImporter() throws IllegalAccessException {
+        throw new IllegalAccessException("Utility classes shall not be instantiated.");
+    }
+
+    /**
+     * Headless entry point: <code>ExchangeRateImporter rates.txt [target]</code>,
+     * the target defaults to {@link LocalPaths#EXCHANGE_RATES}.
+     *
+     * @param args the source file and optionally the target file.
+     * @throws IOException if unable to import.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: ExchangeRateImporter <rates.txt> [target]");
+            System.exit(2);
+        }
+        var target = args.length > 1 ? Path.of(args[1]) : LocalPaths.EXCHANGE_RATES;
+        var count = importFile(Path.of(args[0]), target);
+        System.out.printf("%d days imported into %s.%n", count, target);
+    }
+
+    /**
+     * Merges the rates of a file into the history.
+     *
+     * @param source the SUNAT rates file, see {@link ExchangeRates#read(java.io.BufferedReader)}.
+     * @param target the history file, created if it doesn't exist.
+     * @return how many days were imported from source.
+     * @throws IOException if unable to read or write, or if the source has no rates.
+     */
+    public static int importFile(@NotNull Path source, @NotNull Path target) throws IOException {
+        TreeMap<LocalDate, int[]> imported;
+        try (var reader = Files.newBufferedReader(source, StandardCharsets.ISO_8859_1)) {
+            imported = ExchangeRates.read(reader);
+        }
+        if (imported.isEmpty()) throw new IOException("No exchange rates found in " + source);
+        var history = Files.isRegularFile(target)
+                ? readHistory(target)
+                : new TreeMap<LocalDate, int[]>();
+        history.putAll(imported);
+        //Fail before replacing the history if it can't be loaded.
+        ExchangeRates.of(history);
+        var dir = target.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        var tmp = Files.createTempFile(dir, "exchange_rates", ".txt");
+        try {
+            try (var out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                var sb = new StringBuilder(32);
+                for (var e : history.entrySet()) {
+                    sb.setLength(0);
+                    sb.append(DATE_FMT.format(e.getKey())).append('|');
+                    ExchangeRates.appendRate(sb, e.getValue()[0]).append('|');
+                    ExchangeRates.appendRate(sb, e.getValue()[1]).append('|');
+                    out.append(sb).append('\n');
+                }
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return imported.size();
+    }
+
+    /**
+     * Reads the current history.
+     *
+     * @param target the history file.
+     * @return the published rates by date.
+     * @throws IOException if unable to read.
+     */
+    private static @NotNull TreeMap<LocalDate, int[]> readHistory(@NotNull Path target) throws IOException {
+        try (var reader = Files.newBufferedReader(target, StandardCharsets.UTF_8)) {
+            return ExchangeRates.read(reader);
+        }
+    }
+}
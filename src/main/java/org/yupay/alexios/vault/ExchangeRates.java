@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.vault;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ * SUNAT daily exchange rates (USD), as imported by {@link ExchangeRateImporter}.
+ * Rates are kept as thousandths (ie: 3.752 is 3752) in two dense arrays indexed by
+ * epoch day, so a lookup is a subtraction and an array read. Days without publication
+ * (weekends, holidays) take the last published rate, as SUNAT rules.
+ * Instances are immutable, so they may be shared among concurrent jobs.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public final class ExchangeRates {
+    /**
+     * No rates at all, every lookup fails.
+     */
+    public static final ExchangeRates EMPTY = new ExchangeRates(0, new int[0], new int[0]);
+    /**
+     * Maximum days between the first and the last rate.
+     */
+    private static final int MAX_DAYS = 200 * 366;
+    /**
+     * Epoch day of the first rate.
+     */
+    private final long firstDay;
+    /**
+     * Buy rates in thousandths, by day since {@link #firstDay}.
+     */
+    private final int[] buy;
+    /**
+     * Sell rates in thousandths, by day since {@link #firstDay}.
+     */
+    private final int[] sell;
+
+    /**
+     * Private constructor, use static factories.
+     *
+     * @param firstDay epoch day of the first rate.
+     * @param buy      buy rates in thousandths.
+     * @param sell     sell rates in thousandths.
+     */
+    private ExchangeRates(long firstDay, int[] buy, int[] sell) {
+        this.firstDay = firstDay;
+        this.buy = buy;
+        this.sell = sell;
+    }
+
+    /**
+     * Loads the rates at {@link LocalPaths#EXCHANGE_RATES}, if they were imported.
+     *
+     * @return the rates, or {@link #EMPTY} if not imported.
+     * @throws IOException if unable to read.
+     */
+    public static @NotNull ExchangeRates loadDefault() throws IOException {
+        return Files.isRegularFile(LocalPaths.EXCHANGE_RATES) ? load(LocalPaths.EXCHANGE_RATES) : EMPTY;
+    }
+
+    /**
+     * Loads rates from a file, see {@link #read(BufferedReader)}.
+     *
+     * @param source the file.
+     * @return the rates.
+     * @throws IOException if unable to read, or the rates span too many years.
+     */
+    public static @NotNull ExchangeRates load(@NotNull Path source) throws IOException {
+        try (var reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            return of(read(reader));
+        }
+    }
+
+    /**
+     * Reads the published rates, one day per line as date, buy and sell; separated by
+     * | , ; or tab. Dates may be dd/MM/uuuu, dd-MM-uuuu or uuuu-MM-dd. Other lines (ie: headers)
+     * are skipped, and a repeated day takes the last line.
+     *
+     * @param reader the source.
+     * @return the rates in thousandths (buy, sell) by date.
+     * @throws IOException if unable to read.
+     */
+    static @NotNull TreeMap<LocalDate, int[]> read(@NotNull BufferedReader reader) throws IOException {
+        var r = new TreeMap<LocalDate, int[]>();
+        String ln;
+        while ((ln = reader.readLine()) != null) {
+            var parts = ln.strip().split("[|,;\t]");
+            if (parts.length < 3) continue;
+            try {
+                r.put(parseDate(parts[0].strip()),
+                        new int[]{parseRate(parts[1].strip()), parseRate(parts[2].strip())});
+            } catch (DateTimeException | ArithmeticException | NumberFormatException e) {
+                //Header or malformed line.
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Creates the dense rates from the published ones.
+     *
+     * @param published the rates in thousandths (buy, sell) by date.
+     * @return the rates.
+     * @throws IOException if the rates span too many years.
+     */
+    static @NotNull ExchangeRates of(@NotNull TreeMap<LocalDate, int[]> published) throws IOException {
+        if (published.isEmpty()) return EMPTY;
+        var first = published.firstKey().toEpochDay();
+        var days = published.lastKey().toEpochDay() - first + 1;
+        if (days > MAX_DAYS) throw new IOException("Exchange rates span more than 200 years.");
+        var buy = new int[(int) days];
+        var sell = new int[(int) days];
+        var from = 0;
+        var last = new int[2];
+        for (var e : published.entrySet()) {
+            var ix = (int) (e.getKey().toEpochDay() - first);
+            //Days between publications take the last published rate.
+            Arrays.fill(buy, from, ix, last[0]);
+            Arrays.fill(sell, from, ix, last[1]);
+            last = e.getValue();
+            buy[ix] = last[0];
+            sell[ix] = last[1];
+            from = ix + 1;
+        }
+        return new ExchangeRates(first, buy, sell);
+    }
+
+    /**
+     * Converts a date formatted uuuuMMdd as a number (see
+     * {@link org.yupay.alexios.google.GoogleUtils#dateKey(com.google.api.services.sheets.v4.model.CellData)}) into epoch day.
+     *
+     * @param dateKey the date as uuuuMMdd.
+     * @return the epoch day, or {@link Long#MIN_VALUE} if it isn't a valid date.
+     */
+    @Contract(pure = true)
+    public static long epochDay(int dateKey) {
+        try {
+            return LocalDate.of(dateKey / 10000, dateKey / 100 % 100, dateKey % 100).toEpochDay();
+        } catch (DateTimeException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Looks up the buy rate of a day.
+     *
+     * @param epochDay the day.
+     * @return the rate in thousandths, or -1 if the day is out of the imported range.
+     */
+    public int buy(long epochDay) {
+        return at(buy, epochDay);
+    }
+
+    /**
+     * Looks up the sell rate of a day.
+     *
+     * @param epochDay the day.
+     * @return the rate in thousandths, or -1 if the day is out of the imported range.
+     */
+    public int sell(long epochDay) {
+        return at(sell, epochDay);
+    }
+
+    /**
+     * Reads a rate array.
+     *
+     * @param rates    the array.
+     * @param epochDay the day.
+     * @return the rate in thousandths, or -1 if the day is out of the array.
+     */
+    private int at(int @NotNull [] rates, long epochDay) {
+        var ix = epochDay - firstDay;
+        return ix >= 0 && ix < rates.length ? rates[(int) ix] : -1;
+    }
+
+    /**
+     * Checks if there's any rate.
+     *
+     * @return true if no rates were imported.
+     */
+    public boolean isEmpty() {
+        return buy.length == 0;
+    }
+
+    /**
+     * Appends a rate as text with 3 decimals (ie: 3.752).
+     *
+     * @param sb          the target.
+     * @param thousandths the rate in thousandths, not negative.
+     * @return the same target.
+     */
+    public static @NotNull StringBuilder appendRate(@NotNull StringBuilder sb, int thousandths) {
+        sb.append(thousandths / 1000).append('.');
+        var t = thousandths % 1000;
+        if (t < 100) sb.append('0');
+        if (t < 10) sb.append('0');
+        return sb.append(t);
+    }
+
+    /**
+     * Parses a date.
+     *
+     * @param text dd/MM/uuuu, dd-MM-uuuu or uuuu-MM-dd.
+     * @return the date.
+     * @throws DateTimeException if it isn't a date.
+     */
+    private static @NotNull LocalDate parseDate(@NotNull String text) {
+        if (text.length() != 10) throw new DateTimeException("Not a date: " + text);
+        if (text.charAt(4) == '-') return LocalDate.parse(text);
+        return LocalDate.of(
+                Integer.parseInt(text, 6, 10, 10),
+                Integer.parseInt(text, 3, 5, 10),
+                Integer.parseInt(text, 0, 2, 10));
+    }
+
+    /**
+     * Parses a rate into thousandths, rounded {@link RoundingMode#HALF_EVEN}.
+     *
+     * @param text the rate.
+     * @return the rate in thousandths.
+     * @throws NumberFormatException if it isn't a positive rate below 1000000.
+     */
+    private static int parseRate(@NotNull String text) {
+        var r = new BigDecimal(text).movePointRight(3).setScale(0, RoundingMode.HALF_EVEN);
+        if (r.signum() <= 0 || r.compareTo(BigDecimal.valueOf(1_000_000_000)) >= 0) {
+            throw new NumberFormatException("Not a rate: " + text);
+        }
+        return r.intValue();
+    }
+
+    @Override
+    public String toString() {
+        return isEmpty()
+                ? "ExchangeRates[]"
+                : "ExchangeRates[%s..%s]".formatted(LocalDate.ofEpochDay(firstDay), LocalDate.ofEpochDay(firstDay + buy.length - 1));
+    }
+}
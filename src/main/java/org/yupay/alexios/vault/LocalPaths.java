@@ -49,6 +49,18 @@ public final class LocalPaths {
      * Contains a path to ALEXIOS_HOME/gapi_tokens
      */
     public static final Path GOOGLE_TOKENS = ALEXIOS_HOME.resolve("gapi_tokens");
+    /**
+     * Contains a path to ALEXIOS_HOME/doi_verdicts.txt
+     */
+    public static final Path DOI_VERDICTS = ALEXIOS_HOME.resolve("doi_verdicts.txt");
+    /**
+     * Contains a path to ALEXIOS_HOME/padron.idx
+     */
+    public static final Path PADRON_INDEX = ALEXIOS_HOME.resolve("padron.idx");
+    /**
+     * Contains a path to ALEXIOS_HOME/exchange_rates.txt
+     */
+    public static final Path EXCHANGE_RATES = ALEXIOS_HOME.resolve("exchange_rates.txt");
 
     /**
      * Private constructor that always fail, avoiding instanciation of this class.
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.vault;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An entry of the SUNAT padrón reducido, as found by {@link PadronIndex}.
+ *
+ * @param ruc       the RUC number.
+ * @param legalName the name or business name (nombre o razón social).
+ * @param status    the taxpayer status (estado), ie: ACTIVO, BAJA DE OFICIO.
+ * @param condition the address condition (condición de domicilio), ie: HABIDO, NO HABIDO.
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public record PadronEntry(long ruc, String legalName, String status, String condition) {
+    /**
+     * Status of taxpayers that are operating.
+     */
+    public static final String ACTIVE = "ACTIVO";
+    /**
+     * Condition of taxpayers whose address was verified.
+     */
+    public static final String HABIDO = "HABIDO";
+
+    /**
+     * Checks the status.
+     *
+     * @return true if the taxpayer is operating (ACTIVO).
+     */
+    @Contract(pure = true)
+    public boolean isActive() {
+        return ACTIVE.equals(status);
+    }
+
+    /**
+     * Checks the condition.
+     *
+     * @return true if the taxpayer address was verified (HABIDO).
+     */
+    @Contract(pure = true)
+    public boolean isHabido() {
+        return HABIDO.equals(condition);
+    }
+
+    /**
+     * Formats the RUC number.
+     *
+     * @return RUC as 11 digits.
+     */
+    @Contract(pure = true)
+    public @NotNull String rucText() {
+        return "%011d".formatted(ruc);
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.vault;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Imports the SUNAT padrón reducido (padron_reducido_ruc.txt, pipe separated, ISO-8859-1)
+ * into a {@link PadronIndex} file. Only RUC, name, status and condition are kept.
+ * <br/>
+ * Each RUC is packed along its row number into a single long (ruc &lt;&lt; 26 | row), so ~10M rows
+ * are sorted as a primitive array; names are spooled to a temporary file meanwhile.
+ * If a RUC is repeated, the first row wins.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public final class PadronImporter {
+    /**
+     * Bits for the row number in packed values.
+     */
+    private static final int ROW_BITS = 26;
+    /**
+     * Maximum rows to import.
+     */
+    private static final int MAX_ROWS = 1 << ROW_BITS;
+    /**
+     * Charset of the SUNAT file.
+     */
+    private static final Charset SUNAT_CHARSET = StandardCharsets.ISO_8859_1;
+
+    /**
+     * Private constructor that always fail, avoiding instanciation of this class.
+     *
+     * @throws IllegalAccessException always.
+     */
+    @Contract("->fail")
+    private PadronImporter() throws IllegalAccessException {
+        throw new IllegalAccessException("Utility classes shall not be instantiated.");
+    }
+
+    /**
+     * Headless entry point: <code>PadronImporter padron_reducido_ruc.txt [target]</code>,
+     * the target defaults to {@link LocalPaths#PADRON_INDEX}.
+     *
+     * @param args the source file and optionally the target file.
+     * @throws IOException if unable to import.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: PadronImporter <padron_reducido_ruc.txt> [target]");
+            System.exit(2);
+        }
+        var target = args.length > 1 ? Path.of(args[1]) : LocalPaths.PADRON_INDEX;
+        var count = importFile(Path.of(args[0]), target);
+        System.out.printf("%d RUC imported into %s.%n", count, target);
+    }
+
+    /**
+     * Imports the padrón file, replacing the target index.
+     *
+     * @param source the SUNAT padrón reducido file.
+     * @param target the index file to write.
+     * @return how many RUCs were imported.
+     * @throws IOException if unable to read or write.
+     */
+    public static int importFile(@NotNull Path source, @NotNull Path target) throws IOException {
+        var dir = target.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        var names = Files.createTempFile(dir, "padron", ".names");
+        var tmp = Files.createTempFile(dir, "padron", ".idx");
+        try {
+            var rows = new Rows();
+            //1. Read rows, spooling names.
+            try (var reader = Files.newBufferedReader(source, SUNAT_CHARSET);
+                 var out = new BufferedOutputStream(Files.newOutputStream(names), 1 << 16)) {
+                var nameOffset = 0L;
+                String ln;
+                while ((ln = reader.readLine()) != null) {
+                    var p1 = ln.indexOf('|');
+                    if (p1 < 0) continue;
+                    var ruc = PadronIndex.parseRuc(ln.subSequence(0, p1));
+                    //Header or malformed line.
+                    if (ruc < 0) continue;
+                    var p2 = ln.indexOf('|', p1 + 1);
+                    var p3 = p2 < 0 ? -1 : ln.indexOf('|', p2 + 1);
+                    var p4 = p3 < 0 ? -1 : ln.indexOf('|', p3 + 1);
+                    if (p4 < 0) continue;
+                    var name = ln.substring(p1 + 1, p2).strip().getBytes(StandardCharsets.UTF_8);
+                    var length = Math.min(name.length, Character.MAX_VALUE);
+                    if (nameOffset + length > 0xFFFF_FFFFL) {
+                        throw new IOException("Names exceed 4GB, is this the padrón reducido?");
+                    }
+                    out.write(name, 0, length);
+                    rows.add(ruc,
+                            (int) nameOffset,
+                            (char) length,
+                            rows.code(rows.statuses, ln.substring(p2 + 1, p3).strip()),
+                            rows.code(rows.conditions, ln.substring(p3 + 1, p4).strip()));
+                    nameOffset += length;
+                }
+            }
+            //2. Sort by RUC, then by row, so the first row of a repeated RUC comes first.
+            var packed = Arrays.copyOf(rows.packed, rows.size);
+            Arrays.parallelSort(packed);
+            var unique = 0;
+            for (var i = 0; i < packed.length; i++) {
+                if (i == 0 || packed[i] >>> ROW_BITS != packed[i - 1] >>> ROW_BITS) unique++;
+            }
+            //3. Write header, records and names.
+            var dictionaries = new ByteArrayOutputStream();
+            try (var d = new DataOutputStream(dictionaries)) {
+                writeDictionary(d, rows.statusValues);
+                writeDictionary(d, rows.conditionValues);
+            }
+            var recordsOffset = 28L + dictionaries.size();
+            var namesOffset = recordsOffset + (long) unique * PadronIndex.RECORD_SIZE;
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.write(PadronIndex.fixedHeader(unique, recordsOffset, namesOffset));
+                dictionaries.writeTo(out);
+                var last = -1L;
+                for (var p : packed) {
+                    var ruc = p >>> ROW_BITS;
+                    if (ruc == last) continue;
+                    last = ruc;
+                    var row = (int) (p & (MAX_ROWS - 1));
+                    out.writeLong(ruc);
+                    out.writeInt(rows.nameOffsets[row]);
+                    out.writeChar(rows.nameLengths[row]);
+                    out.writeByte(rows.statusCodes[row]);
+                    out.writeByte(rows.conditionCodes[row]);
+                }
+                Files.copy(names, out);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return unique;
+        } finally {
+            Files.deleteIfExists(names);
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Writes a dictionary of values.
+     *
+     * @param out    the output.
+     * @param values the values by code.
+     * @throws IOException if unable to write.
+     */
+    private static void writeDictionary(@NotNull DataOutputStream out, @NotNull List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (var v : values) {
+            out.writeUTF(v);
+        }
+    }
+
+    /**
+     * Growable columns of the rows read.
+     */
+    private static final class Rows {
+        /**
+         * Packed RUC and row number.
+         */
+        private long[] packed = new long[1 << 20];
+        /**
+         * Name offset of each row.
+         */
+        private int[] nameOffsets = new int[1 << 20];
+        /**
+         * Name length of each row.
+         */
+        private char[] nameLengths = new char[1 << 20];
+        /**
+         * Status code of each row.
+         */
+        private byte[] statusCodes = new byte[1 << 20];
+        /**
+         * Condition code of each row.
+         */
+        private byte[] conditionCodes = new byte[1 << 20];
+        /**
+         * Rows read.
+         */
+        private int size;
+        /**
+         * Status codes by value.
+         */
+        private final Map<String, Integer> statuses = new HashMap<>();
+        /**
+         * Status values by code.
+         */
+        private final List<String> statusValues = new ArrayList<>();
+        /**
+         * Condition codes by value.
+         */
+        private final Map<String, Integer> conditions = new HashMap<>();
+        /**
+         * Condition values by code.
+         */
+        private final List<String> conditionValues = new ArrayList<>();
+
+        /**
+         * Adds a row.
+         *
+         * @param ruc        the RUC.
+         * @param nameOffset the name offset.
+         * @param nameLength the name length.
+         * @param status     the status code.
+         * @param condition  the condition code.
+         * @throws IOException if there are too many rows.
+         */
+        void add(long ruc, int nameOffset, char nameLength, byte status, byte condition) throws IOException {
+            if (size == MAX_ROWS) throw new IOException("Too many rows, up to %d supported.".formatted(MAX_ROWS));
+            if (size == packed.length) {
+                var capacity = Math.min(MAX_ROWS, size * 2);
+                packed = Arrays.copyOf(packed, capacity);
+                nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+                nameLengths = Arrays.copyOf(nameLengths, capacity);
+                statusCodes = Arrays.copyOf(statusCodes, capacity);
+                conditionCodes = Arrays.copyOf(conditionCodes, capacity);
+            }
+            packed[size] = ruc << ROW_BITS | size;
+            nameOffsets[size] = nameOffset;
+            nameLengths[size] = nameLength;
+            statusCodes[size] = status;
+            conditionCodes[size] = condition;
+            size++;
+        }
+
+        /**
+         * Encodes a value into its dictionary, up to 256 distinct values.
+         *
+         * @param codes the codes by value.
+         * @param value the value.
+         * @return the code.
+         * @throws IOException if there are too many distinct values.
+         */
+        byte code(@NotNull Map<String, Integer> codes, String value) throws IOException {
+            var values = codes == statuses ? statusValues : conditionValues;
+            var code = codes.get(value);
+            if (code == null) {
+                if (values.size() == 256) throw new IOException("Too many distinct values: " + value);
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return (byte) code.intValue();
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.vault;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Read only, memory-mapped index of the SUNAT padrón reducido, as built by {@link PadronImporter}.
+ * Records are sorted by RUC, so lookups are a binary search over the mapped file,
+ * without loading it into the heap.
+ * <br/>
+ * File layout (big endian):
+ * <ol>
+ *     <li><b>Header:</b> magic (8 bytes), record count (int), records offset (long),
+ *     names offset (long), status dictionary and condition dictionary
+ *     (int count, then each value as modified UTF-8).</li>
+ *     <li><b>Records:</b> 16 bytes each, RUC (long), name offset (int), name length
+ *     (unsigned short), status code (byte) and condition code (byte).</li>
+ *     <li><b>Names:</b> UTF-8 bytes of every name.</li>
+ * </ol>
+ * Instances are thread-safe until closed.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+public final class PadronIndex implements AutoCloseable {
+    /**
+     * The magic number at the beginning of the file, "ALXPDR01".
+     */
+    static final long MAGIC = 0x414C585044523031L;
+    /**
+     * Size of each record.
+     */
+    static final int RECORD_SIZE = 16;
+    /**
+     * Layout of longs in file.
+     */
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    /**
+     * Layout of ints in file.
+     */
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    /**
+     * Layout of unsigned shorts in file.
+     */
+    private static final ValueLayout.OfChar CHAR = ValueLayout.JAVA_CHAR_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    /**
+     * The arena owning the mapping.
+     */
+    private final Arena arena;
+    /**
+     * The whole mapped file.
+     */
+    private final MemorySegment segment;
+    /**
+     * Record count.
+     */
+    private final int count;
+    /**
+     * Where records begin.
+     */
+    private final long recordsOffset;
+    /**
+     * Where names begin.
+     */
+    private final long namesOffset;
+    /**
+     * Status values by code.
+     */
+    private final String[] statuses;
+    /**
+     * Condition values by code.
+     */
+    private final String[] conditions;
+
+    /**
+     * Opens the index.
+     *
+     * @param arena   the arena owning the mapping.
+     * @param segment the mapped file.
+     * @throws IOException if the file isn't a padrón index.
+     */
+    private PadronIndex(Arena arena, @NotNull MemorySegment segment) throws IOException {
+        this.arena = arena;
+        this.segment = segment;
+        if (segment.byteSize() < 28 || segment.get(LONG, 0) != MAGIC) {
+            throw new IOException("Not a padrón index file.");
+        }
+        count = segment.get(INT, 8);
+        recordsOffset = segment.get(LONG, 12);
+        namesOffset = segment.get(LONG, 20);
+        //Dictionaries are small, so they're read as a stream.
+        var header = segment.asSlice(28, recordsOffset - 28).toArray(ValueLayout.JAVA_BYTE);
+        try (var in = new DataInputStream(new ByteArrayInputStream(header))) {
+            statuses = readDictionary(in);
+            conditions = readDictionary(in);
+        }
+    }
+
+    /**
+     * Opens an index file.
+     *
+     * @param file the index file.
+     * @return the index, must be closed.
+     * @throws IOException if unable to map the file or it isn't a padrón index.
+     */
+    public static @NotNull PadronIndex open(@NotNull Path file) throws IOException {
+        var arena = Arena.ofShared();
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new PadronIndex(arena, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the index at {@link LocalPaths#PADRON_INDEX}, if it was imported.
+     *
+     * @return the index, must be closed; or empty if not imported.
+     * @throws IOException if unable to map the file or it isn't a padrón index.
+     */
+    public static @NotNull Optional<PadronIndex> openDefault() throws IOException {
+        return Files.isRegularFile(LocalPaths.PADRON_INDEX)
+                ? Optional.of(open(LocalPaths.PADRON_INDEX))
+                : Optional.empty();
+    }
+
+    /**
+     * Parses a RUC without allocating.
+     *
+     * @param ruc the RUC text.
+     * @return the RUC as a long, or -1 if it isn't 11 digits.
+     */
+    @Contract(pure = true)
+    public static long parseRuc(@Nullable CharSequence ruc) {
+        if (ruc == null || ruc.length() != 11) return -1;
+        var r = 0L;
+        for (var i = 0; i < 11; i++) {
+            var c = ruc.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            r = r * 10 + (c - '0');
+        }
+        return r;
+    }
+
+    /**
+     * Finds the position of a RUC, binary search over the mapped records.
+     *
+     * @param ruc the RUC number.
+     * @return the record position, or -1 if not found.
+     */
+    public int indexOf(long ruc) {
+        var lo = 0;
+        var hi = count - 1;
+        while (lo <= hi) {
+            var mid = (lo + hi) >>> 1;
+            var v = rucAt(mid);
+            if (v < ruc) lo = mid + 1;
+            else if (v > ruc) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the position of a RUC.
+     *
+     * @param ruc the RUC text.
+     * @return the record position, or -1 if not found or not a RUC.
+     */
+    public int indexOf(@Nullable CharSequence ruc) {
+        var v = parseRuc(ruc);
+        return v < 0 ? -1 : indexOf(v);
+    }
+
+    /**
+     * Finds an entry.
+     *
+     * @param ruc the RUC text.
+     * @return the entry, empty if not found.
+     */
+    public @NotNull Optional<PadronEntry> find(@Nullable CharSequence ruc) {
+        var ix = indexOf(ruc);
+        return ix < 0 ? Optional.empty() : Optional.of(entryAt(ix));
+    }
+
+    /**
+     * Reads the RUC of a record.
+     *
+     * @param index the record position.
+     * @return the RUC number.
+     */
+    public long rucAt(int index) {
+        return segment.get(LONG, recordsOffset + (long) index * RECORD_SIZE);
+    }
+
+    /**
+     * Reads the status of a record, without allocating.
+     *
+     * @param index the record position.
+     * @return the status.
+     */
+    public String statusAt(int index) {
+        return statuses[Byte.toUnsignedInt(segment.get(ValueLayout.JAVA_BYTE, recordsOffset + (long) index * RECORD_SIZE + 14))];
+    }
+
+    /**
+     * Reads the condition of a record, without allocating.
+     *
+     * @param index the record position.
+     * @return the condition.
+     */
+    public String conditionAt(int index) {
+        return conditions[Byte.toUnsignedInt(segment.get(ValueLayout.JAVA_BYTE, recordsOffset + (long) index * RECORD_SIZE + 15))];
+    }
+
+    /**
+     * Reads the legal name of a record.
+     *
+     * @param index the record position.
+     * @return the name.
+     */
+    public @NotNull String legalNameAt(int index) {
+        var at = recordsOffset + (long) index * RECORD_SIZE;
+        var offset = Integer.toUnsignedLong(segment.get(INT, at + 8));
+        int length = segment.get(CHAR, at + 12);
+        var bytes = new byte[length];
+        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, namesOffset + offset, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a whole record.
+     *
+     * @param index the record position.
+     * @return the entry.
+     */
+    public @NotNull PadronEntry entryAt(int index) {
+        return new PadronEntry(rucAt(index), legalNameAt(index), statusAt(index), conditionAt(index));
+    }
+
+    /**
+     * Accessor.
+     *
+     * @return how many RUCs are in the index.
+     */
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    /**
+     * Reads a dictionary of values.
+     *
+     * @param in the input.
+     * @return the values by code.
+     * @throws IOException if unable to read.
+     */
+    private static String @NotNull [] readDictionary(@NotNull DataInputStream in) throws IOException {
+        var r = new String[in.readInt()];
+        for (var i = 0; i < r.length; i++) {
+            r[i] = in.readUTF();
+        }
+        return r;
+    }
+
+    /**
+     * Convenient method for the importer to encode header numbers.
+     *
+     * @param count         record count.
+     * @param recordsOffset where records begin.
+     * @param namesOffset   where names begin.
+     * @return the fixed part of the header.
+     */
+    static byte @NotNull [] fixedHeader(int count, long recordsOffset, long namesOffset) {
+        return ByteBuffer.allocate(28)
+                .order(ByteOrder.BIG_ENDIAN)
+                .putLong(MAGIC)
+                .putInt(count)
+                .putLong(recordsOffset)
+                .putLong(namesOffset)
+                .array();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api;
+
+import com.google.api.services.sheets.v4.model.CellData;
+import com.google.api.services.sheets.v4.model.ExtendedValue;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.yupay.alexios.google.GoogleUtils;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Property checks of {@link Money} against the BigDecimal paths it replaced:
+ * {@link BigDecimal#valueOf(double)}, "%.0f" and {@link GoogleUtils#PLE_FMT}.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+class MoneyTest {
+    /**
+     * Random cases per seed.
+     */
+    private static final int CASES = 100_000;
+
+    @ParameterizedTest
+    @ValueSource(longs = {38, 1, 2, 3, 4, 5, 6, 7})
+    void randomDoubles(long seed) {
+        var random = new Random(seed);
+        for (var i = 0; i < CASES; i++) {
+            var x = random(random);
+            var y = random(random);
+            check(x);
+            //Sums keep the exact value, and go on in cents when both fit.
+            var sum = BigDecimal.valueOf(x).add(BigDecimal.valueOf(y));
+            var money = Money.of(x).plus(Money.of(y));
+            assertEquals(0, money.toBigDecimal().compareTo(sum), () -> x + " + " + y);
+            assertEquals(0, Money.of(x).minus(Money.of(y)).toBigDecimal()
+                    .compareTo(BigDecimal.valueOf(x).subtract(BigDecimal.valueOf(y))), () -> x + " - " + y);
+            assertEquals(Integer.signum(BigDecimal.valueOf(x).compareTo(BigDecimal.valueOf(y))),
+                    Integer.signum(Money.of(x).compareTo(Money.of(y))), () -> x + " <> " + y);
+            assertEquals("%.0f".formatted(sum), money.toWholeText(), () -> x + " + " + y);
+            assertEquals(pleFormat(sum), money.toPleText(), () -> x + " + " + y);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.0, -0.0, 0.001, -0.001, -0.004, -0.005, -0.006, 0.005, -0.01, 0.01,
+            0.125, -0.125, 0.135, -0.135, 1.005, -1.005, 2.675, -2.675, 1.115, 1234.565, -1234.565,
+            0.5, -0.5, 1.5, -1.5, 2.5, -2.5, 0.49, -0.49, 0.51, -0.51, -0.4999, 0.1 + 0.2, -(0.1 + 0.2),
+            9_999_999_999_999.99, -9_999_999_999_999.99, 1e13, -1e13, 1e13 + 0.5, 92_233_720_368_547_758.07,
+            -92_233_720_368_547_758.08, 1e300, -1e300, Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE})
+    void edgeDoubles(double x) {
+        check(x);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, -1, 49, 50, 51, -49, -50, -51, 149, 150, -150, Long.MAX_VALUE, Long.MIN_VALUE,
+            Long.MAX_VALUE - 1, Long.MIN_VALUE + 1})
+    void edgeCents(long cents) {
+        var money = Money.ofCents(cents);
+        var value = BigDecimal.valueOf(cents, 2);
+        assertEquals("%.0f".formatted(value), money.toWholeText());
+        assertEquals(pleFormat(value), money.toPleText());
+        assertEquals(0, money.abs().toBigDecimal().compareTo(value.abs()));
+        //Overflowing sums fall back to BigDecimal.
+        for (var other : new long[]{Long.MAX_VALUE, Long.MIN_VALUE, 1, -1}) {
+            var sum = money.plus(Money.ofCents(other));
+            var exact = value.add(BigDecimal.valueOf(other, 2));
+            assertEquals(0, sum.toBigDecimal().compareTo(exact), () -> cents + " + " + other);
+            assertEquals("%.0f".formatted(exact), sum.toWholeText(), () -> cents + " + " + other);
+            assertEquals(pleFormat(exact), sum.toPleText(), () -> cents + " + " + other);
+            assertEquals(Money.of(exact), sum);
+            assertEquals(Money.of(exact).hashCode(), sum.hashCode());
+        }
+        assertFalse(Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)).isCents());
+    }
+
+    /**
+     * Checks a double against the BigDecimal paths.
+     *
+     * @param x the double.
+     */
+    private static void check(double x) {
+        var value = BigDecimal.valueOf(x);
+        var money = Money.of(x);
+        assertEquals(0, money.toBigDecimal().compareTo(value), () -> "of " + x);
+        assertEquals(Money.of(value), money, () -> "of " + x);
+        assertEquals(Money.of(value).hashCode(), money.hashCode(), () -> "hash " + x);
+        assertEquals("%.0f".formatted(value), money.toWholeText(), () -> "whole " + x);
+        var ple = pleFormat(value);
+        assertEquals(ple, money.toPleText(), () -> "ple " + x);
+        assertEquals("x" + ple, money.appendPleText(new StringBuilder("x")).toString(), () -> "append " + x);
+        var cell = new CellData().setEffectiveValue(new ExtendedValue().setNumberValue(x));
+        assertEquals(ple, GoogleUtils.decimalText(cell), () -> "decimalText " + x);
+    }
+
+    /**
+     * Formats as decimalText did before {@link Money}.
+     *
+     * @param value the value.
+     * @return the PLE text.
+     */
+    private static String pleFormat(@NotNull BigDecimal value) {
+        return ((DecimalFormat) GoogleUtils.PLE_FMT.clone()).format(value);
+    }
+
+    /**
+     * A random double, mostly amounts with cents, but also long fractions, half cents,
+     * spreadsheet formula results and huge magnitudes.
+     *
+     * @param random the random source.
+     * @return the double.
+     */
+    private static double random(@NotNull Random random) {
+        return switch (random.nextInt(8)) {
+            case 0 -> random.nextInt(2_000_000_000) / 100.0 * (random.nextBoolean() ? 1 : -1);
+            case 1 -> random.nextDouble() * 1e6 - 5e5;
+            case 2 -> (random.nextInt(200) - 100) / 1000.0;
+            case 3 -> random.nextLong() / 100.0;
+            case 4 -> (random.nextInt(2000) - 1000) / 100.0 + 0.005;
+            case 5 -> 0.1 * random.nextInt(10) + 0.2 * random.nextInt(10);
+            case 6 -> Math.scalb(random.nextDouble(), random.nextInt(80) - 20) * (random.nextBoolean() ? 1 : -1);
+            default -> random.nextInt(100) - 50 + random.nextInt(4) * 0.25;
+        };
+    }
+}
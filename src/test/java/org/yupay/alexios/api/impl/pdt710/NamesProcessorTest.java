@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.yupay.alexios.api.impl.pdt710;
+
+import com.google.api.services.sheets.v4.model.CellData;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.yupay.alexios.tools.WorkbookGenerator.text;
+
+/**
+ * Checks that {@link NamesProcessor} gives the same names with and without a {@link NamesMemo}.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+class NamesProcessorTest {
+
+    @ParameterizedTest
+    @CsvSource({"06,20100070970", "00,TIN000000123", "06,10452345671", "01,45678912"})
+    void repeatedDoiWithBlankName(String doiType, String doiNum) {
+        var memo = new NamesMemo();
+        var row = List.of(text(doiType), new CellData());
+        for (var i = 0; i < 3; i++) {
+            var plain = field(doiType, doiNum);
+            new NamesProcessor(1).accept(row, plain);
+            var memoized = field(doiType, doiNum);
+            new NamesProcessor(1, null, memo).accept(row, memoized);
+            assertNames(plain, memoized);
+        }
+        assertEquals(2, memo.hits());
+        assertEquals(1, memo.misses());
+    }
+
+    @Test
+    void legalEntityWithBlankNameKeepsNull() {
+        var processor = new NamesProcessor(1, null, new NamesMemo());
+        var row = List.of(text("06"), new CellData());
+        processor.accept(row, field("06", "20100070970"));
+        var second = field("06", "20100070970");
+        processor.accept(row, second);
+        assertNull(second.legalName);
+        assertEquals("0", second.inputFlag);
+    }
+
+    @Test
+    void nameChangesAreNotReused() {
+        var memo = new NamesMemo();
+        var processor = new NamesProcessor(1, null, memo);
+        var blank = field("01", "45678912");
+        processor.accept(List.of(text("01"), new CellData()), blank);
+        var named = field("01", "45678912");
+        processor.accept(List.of(text("01"), text("QUISPE FLORES,ROSA")), named);
+        assertEquals("QUISPE", named.lastName1);
+        assertEquals("FLORES", named.lastName2);
+        assertEquals("ROSA", named.name);
+        assertEquals(0, memo.hits());
+    }
+
+    /**
+     * Creates a field with DOI data only.
+     *
+     * @param doiType the DOI type.
+     * @param doiNum  the DOI number.
+     * @return the field.
+     */
+    private static @NotNull PDTField field(String doiType, String doiNum) {
+        var r = new PDTField();
+        r.doiType = doiType;
+        r.doiNum = doiNum;
+        return r;
+    }
+
+    /**
+     * Asserts both fields got the same names.
+     *
+     * @param expected the field resolved without memo.
+     * @param actual   the field resolved with memo.
+     */
+    private static void assertNames(@NotNull PDTField expected, @NotNull PDTField actual) {
+        assertEquals(expected.inputFlag, actual.inputFlag);
+        assertEquals(expected.lastName1, actual.lastName1);
+        assertEquals(expected.lastName2, actual.lastName2);
+        assertEquals(expected.name, actual.name);
+        assertEquals(expected.legalName, actual.legalName);
+    }
+}
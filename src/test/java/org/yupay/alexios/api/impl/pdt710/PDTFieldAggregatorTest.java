@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.yupay.alexios.api.impl.pdt710;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.yupay.alexios.api.Money;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Direct tests of {@link PDTFieldAggregator}: spilled results equal those of the in memory
+ * {@link PDTFieldCollector} with counterparties across every partition, and the spill directory
+ * is deleted on close, whether the aggregation succeeded or not.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+class PDTFieldAggregatorTest {
+    /**
+     * The UIT limit of the tests.
+     */
+    private static final Money LIMIT = Money.ofCents(515_000);
+    /**
+     * Prefix of the spill directories, see {@link PDTFieldAggregator}.
+     */
+    private static final String SPILL_PREFIX = "alexios-pdt710-";
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, PDTFieldAggregator.PARTITIONS - 1, PDTFieldAggregator.PARTITIONS,
+            PDTFieldAggregator.PARTITIONS + 1, 500, 100_000})
+    void sameAsInMemory(int budget) throws IOException {
+        var items = random(2_000, 20_000);
+        //Every partition gets counterparties.
+        var partitions = items.stream()
+                .map(PDTFieldAggregator::partition)
+                .collect(Collectors.toSet());
+        assertEquals(PDTFieldAggregator.PARTITIONS, partitions.size());
+        for (var checkAbs : new boolean[]{true, false}) {
+            var expected = describe(copy(items).stream().collect(new PDTFieldCollector(LIMIT, checkAbs)));
+            var actual = new ArrayList<PDTField>();
+            try (var aggregator = new PDTFieldAggregator(new PDTFieldCollector(LIMIT, checkAbs), budget)) {
+                for (var item : copy(items)) aggregator.add(item);
+                aggregator.forEach(actual::add);
+            }
+            assertEquals(expected, describe(actual), "Budget %d, abs check %s".formatted(budget, checkAbs));
+        }
+    }
+
+    @Test
+    void sameAsInMemoryWithFewCounterparties() throws IOException {
+        //Fewer counterparties than partitions: most of them are empty.
+        var items = random(10, 500);
+        var expected = describe(copy(items).stream().collect(new PDTFieldCollector(LIMIT, true)));
+        var actual = new ArrayList<PDTField>();
+        try (var aggregator = new PDTFieldAggregator(new PDTFieldCollector(LIMIT, true), 1)) {
+            for (var item : copy(items)) aggregator.add(item);
+            aggregator.forEach(actual::add);
+        }
+        assertEquals(expected, describe(actual));
+    }
+
+    @Test
+    void spillDirectoryDeletedOnSuccess() throws IOException {
+        var before = spillDirs();
+        var spilled = new HashSet<Path>();
+        try (var aggregator = new PDTFieldAggregator(new PDTFieldCollector(LIMIT, true), 10)) {
+            for (var item : random(200, 1_000)) aggregator.add(item);
+            aggregator.forEach(_ -> spilled.addAll(newSpillDirs(before)));
+        }
+        assertEquals(1, spilled.size(), "The aggregator didn't spill");
+        assertFalse(Files.exists(spilled.iterator().next()));
+        assertEquals(Set.of(), newSpillDirs(before));
+    }
+
+    @Test
+    void spillDirectoryDeletedOnException() throws IOException {
+        var before = spillDirs();
+        var aggregator = new PDTFieldAggregator(new PDTFieldCollector(LIMIT, true), 10);
+        var e = assertThrows(IllegalStateException.class, () -> {
+            try (aggregator) {
+                for (var item : random(200, 1_000)) aggregator.add(item);
+                assertEquals(1, newSpillDirs(before).size(), "The aggregator didn't spill");
+                aggregator.forEach(_ -> {
+                    throw new IllegalStateException("Consumer failed.");
+                });
+            }
+        });
+        assertEquals("Consumer failed.", e.getMessage());
+        assertEquals(Set.of(), newSpillDirs(before));
+    }
+
+    @Test
+    void spillDirectoryDeletedIfNeverFinished() throws IOException {
+        var before = spillDirs();
+        try (var aggregator = new PDTFieldAggregator(new PDTFieldCollector(LIMIT, true), 10)) {
+            for (var item : random(200, 1_000)) aggregator.add(item);
+            assertEquals(1, newSpillDirs(before).size(), "The aggregator didn't spill");
+        }
+        assertEquals(Set.of(), newSpillDirs(before));
+    }
+
+    @Test
+    void nothingSpilledWithinBudget() throws IOException {
+        var before = spillDirs();
+        var actual = new ArrayList<PDTField>();
+        try (var aggregator = new PDTFieldAggregator(new PDTFieldCollector(LIMIT, true), 200)) {
+            assertTrue(aggregator.isEmpty());
+            for (var item : random(200, 1_000)) aggregator.add(item);
+            assertFalse(aggregator.isEmpty());
+            aggregator.forEach(x -> {
+                assertEquals(Set.of(), newSpillDirs(before));
+                actual.add(x);
+            });
+        }
+        assertFalse(actual.isEmpty());
+    }
+
+    /**
+     * Describes elements with every datum kept by spills, amounts by value.
+     *
+     * @param fields the elements.
+     * @return the descriptions.
+     */
+    private static @NotNull List<String> describe(@NotNull List<PDTField> fields) {
+        return fields.stream()
+                .map(f -> String.join("|", String.valueOf(f.row), f.doiType, f.doiNum, f.inputFlag,
+                        f.lastName1, f.lastName2, f.name, f.legalName,
+                        f.amount.toBigDecimal().stripTrailingZeros().toPlainString()))
+                .toList();
+    }
+
+    /**
+     * Creates seeded random elements, with amounts around the limit, amounts of more than
+     * 2 decimals, blank data and non ASCII names.
+     *
+     * @param parties the count of counterparties.
+     * @param count   the count of elements.
+     * @return the elements, in row order.
+     */
+    private static @NotNull List<PDTField> random(int parties, int count) {
+        var random = new Random(39);
+        var r = new ArrayList<PDTField>(count);
+        for (var i = 0; i < count; i++) {
+            var party = random.nextInt(parties);
+            var item = new PDTField();
+            item.row = i + 1;
+            item.doiType = party % 5 == 0 ? null : party % 3 == 0 ? "01" : "06";
+            item.doiNum = "%011d".formatted(20_100_000_000L + party);
+            item.lastName1 = party % 2 == 0 ? "PEÑA" : "";
+            item.name = "NOMBRE %d-%d".formatted(party, i);
+            item.legalName = party % 7 == 0 ? null : "RAZÓN %d".formatted(party);
+            item.amount = switch (random.nextInt(4)) {
+                case 0 -> Money.ZERO;
+                case 1 -> Money.of(new BigDecimal(random.nextInt(1_000_000)).movePointLeft(3));
+                default -> Money.ofCents(random.nextLong(-LIMIT.cents(), 3 * LIMIT.cents()));
+            };
+            r.add(item);
+        }
+        return r;
+    }
+
+    /**
+     * Copies elements, since collectors update them.
+     *
+     * @param items the elements.
+     * @return the copies.
+     */
+    private static @NotNull List<PDTField> copy(@NotNull List<PDTField> items) {
+        var r = new ArrayList<PDTField>(items.size());
+        for (var item : items) {
+            var c = new PDTField();
+            c.row = item.row;
+            c.doiType = item.doiType;
+            c.doiNum = item.doiNum;
+            c.inputFlag = item.inputFlag;
+            c.lastName1 = item.lastName1;
+            c.lastName2 = item.lastName2;
+            c.name = item.name;
+            c.legalName = item.legalName;
+            c.amount = item.amount;
+            r.add(c);
+        }
+        return r;
+    }
+
+    /**
+     * Lists the spill directories in the temporary folder.
+     *
+     * @return the directories.
+     */
+    private static @NotNull Set<Path> spillDirs() {
+        try (Stream<Path> ls = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return ls.filter(p -> p.getFileName().toString().startsWith(SPILL_PREFIX)).collect(Collectors.toSet());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Lists the spill directories created since a former listing.
+     *
+     * @param before the former listing.
+     * @return the new directories.
+     */
+    private static @NotNull Set<Path> newSpillDirs(@NotNull Set<Path> before) {
+        var r = spillDirs();
+        r.removeAll(before);
+        return r;
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.api.impl.pdt710;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.yupay.alexios.api.Money;
+import org.yupay.alexios.tools.WorkbookGenerator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Equivalence of {@link PDTFieldCollector} and {@link PDTFieldAggregator} with the
+ * list based collector they replaced, kept here as {@link ListCollector}.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+class PDTFieldCollectorTest {
+    /**
+     * The UIT limit of the tests.
+     */
+    private static final Money LIMIT = Money.ofCents(515_000);
+
+    /**
+     * Seeded inputs, with and without abs check.
+     *
+     * @return the arguments.
+     */
+    static @NotNull Stream<Arguments> seeds() {
+        return Stream.of(1L, 2L, 3L, 42L, 710L, 2024L).flatMap(seed -> Stream.of(
+                Arguments.of(seed, true), Arguments.of(seed, false)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("seeds")
+    void sameAsListCollector(long seed, boolean checkAbs) {
+        var expected = legacy(random(seed), checkAbs);
+        assertEquals(expected, collect(random(seed), checkAbs, false));
+        assertEquals(expected, collect(random(seed), checkAbs, true));
+    }
+
+    @ParameterizedTest
+    @MethodSource("seeds")
+    void sameAsListCollectorWhenSpilled(long seed, boolean checkAbs) throws IOException {
+        var expected = legacy(random(seed), checkAbs);
+        for (var budget : new int[]{1, 2, 7, 1_000}) {
+            assertEquals(expected, aggregate(random(seed), checkAbs, budget), "Budget " + budget);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void noneBelowLimit(boolean checkAbs) throws IOException {
+        checkEdge(List.of(
+                field("06", "20100000001", 600_000),
+                field("06", "20100000002", 515_000),
+                field("06", "20100000001", -10_000),
+                field("01", "40000001", 1_000_000)), checkAbs);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void oneBelowLimit(boolean checkAbs) throws IOException {
+        var r = checkEdge(List.of(
+                field("06", "20100000001", 600_000),
+                field("06", "20100000002", 100),
+                field("06", "20100000001", 700_000)), checkAbs);
+        //A single element below the limit keeps its own data.
+        assertFalse(r.getLast().startsWith("99|"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void manyBelowLimit(boolean checkAbs) throws IOException {
+        var r = checkEdge(List.of(
+                field("06", "20100000001", 600_000),
+                field("06", "20100000002", 100),
+                field("01", "40000001", 514_999),
+                field("06", "20100000003", -600_000),
+                field("06", "20100000002", 200),
+                field("06", "20100000004", 0)), checkAbs);
+        //Below the limit: 3.00, 5149.99 and 0.00; and also -6000.00 without the abs check.
+        assertEquals(checkAbs ? 3 : 2, r.size());
+        assertTrue(r.getLast().startsWith("99|"));
+        assertTrue(r.getLast().endsWith(checkAbs ? "|5153\r\n" : "|847\r\n"), r.getLast());
+    }
+
+    @Test
+    void tinyBudgetWritesSameFiles(@TempDir Path tmp) throws Exception {
+        var workbook = new WorkbookGenerator().withRows(600).withCounterparties(40).withSeed(39).generateLE0300();
+        var memory = Files.createDirectory(tmp.resolve("memory"));
+        var spilled = Files.createDirectory(tmp.resolve("spilled"));
+        new PDTProcessor(null, Integer.MAX_VALUE).processSheet(workbook, memory);
+        new PDTProcessor(null, 1).processSheet(workbook, spilled);
+        var expected = read(memory);
+        assertFalse(expected.isEmpty());
+        var actual = read(spilled);
+        assertEquals(expected.keySet(), actual.keySet());
+        for (var e : expected.entrySet()) assertArrayEquals(e.getValue(), actual.get(e.getKey()), e.getKey());
+    }
+
+    /**
+     * Checks a fixed input against the three implementations.
+     *
+     * @param items    the input.
+     * @param checkAbs the abs check flag.
+     * @return the expected lines.
+     * @throws IOException if unable to spill.
+     */
+    private static @NotNull List<String> checkEdge(@NotNull List<PDTField> items, boolean checkAbs) throws IOException {
+        var expected = legacy(copy(items), checkAbs);
+        assertEquals(expected, collect(copy(items), checkAbs, false));
+        assertEquals(expected, aggregate(copy(items), checkAbs, 1));
+        return expected;
+    }
+
+    /**
+     * Runs the list based collector.
+     *
+     * @param items    the input.
+     * @param checkAbs the abs check flag.
+     * @return the lines of the result.
+     */
+    private static @NotNull List<String> legacy(@NotNull List<PDTField> items, boolean checkAbs) {
+        return lines(items.stream().collect(new ListCollector(LIMIT.toBigDecimal(), checkAbs)));
+    }
+
+    /**
+     * Runs the hash collector.
+     *
+     * @param items    the input.
+     * @param checkAbs the abs check flag.
+     * @param parallel true to collect from a parallel stream.
+     * @return the lines of the result.
+     */
+    private static @NotNull List<String> collect(@NotNull List<PDTField> items, boolean checkAbs, boolean parallel) {
+        var stream = parallel ? items.parallelStream() : items.stream();
+        return lines(stream.collect(new PDTFieldCollector(LIMIT, checkAbs)));
+    }
+
+    /**
+     * Runs the aggregator.
+     *
+     * @param items    the input.
+     * @param checkAbs the abs check flag.
+     * @param budget   max counterparties held in memory.
+     * @return the lines of the result.
+     * @throws IOException if unable to spill.
+     */
+    private static @NotNull List<String> aggregate(@NotNull List<PDTField> items,
+                                                  boolean checkAbs,
+                                                  int budget) throws IOException {
+        var r = new ArrayList<String>();
+        try (var aggregator = new PDTFieldAggregator(new PDTFieldCollector(LIMIT, checkAbs), budget)) {
+            for (var item : items) aggregator.add(item);
+            aggregator.forEach(f -> r.add(f.toString()));
+        }
+        return r;
+    }
+
+    /**
+     * Formats the elements as written in PDT710 files.
+     *
+     * @param fields the elements.
+     * @return the lines.
+     */
+    private static @NotNull List<String> lines(@NotNull List<PDTField> fields) {
+        return fields.stream().map(PDTField::toString).toList();
+    }
+
+    /**
+     * Creates seeded random elements: a few counterparties appear many times with amounts
+     * around the limit, positive and negative, so some of them end up below it.
+     *
+     * @param seed the seed.
+     * @return the elements, in row order.
+     */
+    private static @NotNull List<PDTField> random(long seed) {
+        var random = new Random(seed);
+        var parties = 5 + random.nextInt(60);
+        var count = parties + random.nextInt(400);
+        var r = new ArrayList<PDTField>(count);
+        for (var i = 0; i < count; i++) {
+            var party = random.nextInt(parties);
+            var cents = switch (random.nextInt(4)) {
+                case 0 -> 0L;
+                case 1 -> LIMIT.cents() - 1 + random.nextInt(3);
+                default -> random.nextLong(-LIMIT.cents(), 3 * LIMIT.cents());
+            };
+            var item = field(party % 3 == 0 ? "01" : "06", "%011d".formatted(20_100_000_000L + party), cents);
+            item.name = "NAME %d-%d".formatted(party, i);
+            r.add(item);
+        }
+        return copy(r);
+    }
+
+    /**
+     * Creates an element.
+     *
+     * @param doiType the doi type.
+     * @param doiNum  the doi number.
+     * @param cents   the amount in cents.
+     * @return the element.
+     */
+    private static @NotNull PDTField field(String doiType, String doiNum, long cents) {
+        var r = new PDTField();
+        r.doiType = doiType;
+        r.doiNum = doiNum;
+        r.amount = Money.ofCents(cents);
+        return r;
+    }
+
+    /**
+     * Copies elements, since collectors update them, and numbers their rows.
+     *
+     * @param items the elements.
+     * @return the copies.
+     */
+    private static @NotNull List<PDTField> copy(@NotNull List<PDTField> items) {
+        var r = new ArrayList<PDTField>(items.size());
+        for (var item : items) {
+            var c = field(item.doiType, item.doiNum, 0);
+            c.inputFlag = item.inputFlag;
+            c.lastName1 = item.lastName1;
+            c.lastName2 = item.lastName2;
+            c.name = item.name;
+            c.legalName = item.legalName;
+            c.amount = item.amount;
+            c.row = r.size();
+            r.add(c);
+        }
+        return r;
+    }
+
+    /**
+     * Reads the files of a directory.
+     *
+     * @param dir the directory.
+     * @return the bytes by file name.
+     * @throws IOException if unable to read.
+     */
+    private static @NotNull TreeMap<String, byte[]> read(@NotNull Path dir) throws IOException {
+        var r = new TreeMap<String, byte[]>();
+        try (var files = Files.list(dir)) {
+            for (var f : files.toList()) r.put(f.getFileName().toString(), Files.readAllBytes(f));
+        }
+        return r;
+    }
+
+    /**
+     * The list based collector replaced by {@link PDTFieldCollector}, as it was:
+     * elements are found with {@link List#indexOf(Object)}, and amounts are summed
+     * and compared as {@link BigDecimal}, so {@link Money} arithmetic is checked too.
+     *
+     * @param uitLimit the uit limit threshold.
+     * @param checkAbs the check abs flag.
+     */
+    private record ListCollector(BigDecimal uitLimit, boolean checkAbs)
+            implements Collector<PDTField, ListCollector.Sums, List<PDTField>> {
+
+        @Override
+        public Supplier<Sums> supplier() {
+            return () -> new Sums(new ArrayList<>(), new ArrayList<>());
+        }
+
+        @Override
+        public BiConsumer<Sums, PDTField> accumulator() {
+            return (sums, item) -> accumulate(sums, item, item.toAmount().toBigDecimal());
+        }
+
+        private void accumulate(@NotNull Sums sums, PDTField item, BigDecimal amount) {
+            var ix = sums.fields().indexOf(item);
+            if (ix < 0) {
+                sums.fields().add(item);
+                sums.amounts().add(amount);
+            } else {
+                sums.amounts().set(ix, sums.amounts().get(ix).add(amount));
+            }
+        }
+
+        @Override
+        public BinaryOperator<Sums> combiner() {
+            return (a, b) -> {
+                for (var i = 0; i < b.fields().size(); i++) accumulate(a, b.fields().get(i), b.amounts().get(i));
+                return a;
+            };
+        }
+
+        @Override
+        public Function<Sums, List<PDTField>> finisher() {
+            return sums -> {
+                var ls = new ArrayList<PDTField>(sums.fields().size());
+                var count = 0;
+                var fold = BigDecimal.ZERO;
+                for (var i = 0; i < sums.fields().size(); i++) {
+                    var amount = sums.amounts().get(i);
+                    if (lessThanUIT(amount)) {
+                        fold = fold.add(amount);
+                        count++;
+                    }
+                }
+                for (var i = 0; i < sums.fields().size(); i++) {
+                    var amount = sums.amounts().get(i);
+                    if (count > 1 && lessThanUIT(amount)) continue;
+                    var item = sums.fields().get(i);
+                    item.amount = Money.of(amount.abs());
+                    ls.add(item);
+                }
+                if (count > 1) {
+                    var identity = PDTFieldCollector.identity();
+                    identity.amount = Money.of(fold.abs());
+                    ls.add(identity);
+                }
+                return ls;
+            };
+        }
+
+        private boolean lessThanUIT(BigDecimal amount) {
+            if (checkAbs) return amount.abs().compareTo(uitLimit) < 0;
+            else return amount.compareTo(uitLimit) < 0;
+        }
+
+        @Override
+        public Set<Characteristics> characteristics() {
+            return Set.of(Characteristics.UNORDERED);
+        }
+
+        /**
+         * The elements found so far, and the sum of the amounts of each one.
+         *
+         * @param fields  the elements, in first occurrence order.
+         * @param amounts the sums, by element index.
+         */
+        private record Sums(ArrayList<PDTField> fields, ArrayList<BigDecimal> amounts) {
+        }
+    }
+}
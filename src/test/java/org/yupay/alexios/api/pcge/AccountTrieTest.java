@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.yupay.alexios.api.pcge;
+
+import com.google.api.services.sheets.v4.model.GridData;
+import com.google.api.services.sheets.v4.model.RowData;
+import com.google.api.services.sheets.v4.model.Sheet;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.yupay.alexios.api.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.yupay.alexios.tools.WorkbookGenerator.number;
+import static org.yupay.alexios.tools.WorkbookGenerator.text;
+
+/**
+ * Checks of {@link AccountTrie} subtotal rows against the sum of their sub accounts.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+class AccountTrieTest {
+
+    @Test
+    void noisySumSubtotalMatches() {
+        //A SUM() of 0.1 and 0.2 comes back as 0.30000000000000004.
+        var trie = AccountTrie.ofTrialBalance(trialBalance(
+                new Object[]{"10", 0.1 + 0.2, 0.0},
+                new Object[]{"101", 0.1, 0.0},
+                new Object[]{"104", 0.2, 0.0}));
+        assertTrue(trie.mismatches().isEmpty(), () -> trie.mismatches().toString());
+        assertEquals(Money.ofCents(30), trie.total("10", 0));
+    }
+
+    @Test
+    void noisyChildrenMatch() {
+        var trie = AccountTrie.ofTrialBalance(trialBalance(
+                new Object[]{"12", 0.3, 1_000.7 - 0.7},
+                new Object[]{"121", 0.1 + 0.2, 1_000.7 - 0.7},
+                new Object[]{"122", 0.0, 0.0}));
+        assertTrue(trie.mismatches().isEmpty(), () -> trie.mismatches().toString());
+    }
+
+    @Test
+    void centDifferenceIsReported() {
+        var trie = AccountTrie.ofTrialBalance(trialBalance(
+                new Object[]{"10", 0.31, 0.0},
+                new Object[]{"101", 0.1, 0.0},
+                new Object[]{"104", 0.2, 0.0},
+                new Object[]{"40", 5.0, 2.0},
+                new Object[]{"401", 5.0, 2.0}));
+        var issues = trie.mismatches();
+        assertEquals(1, issues.size(), issues::toString);
+        assertEquals("10", issues.getFirst().key());
+        assertEquals(4, issues.getFirst().row());
+    }
+
+    @Test
+    void addedSubtotalsRoundHalfEven() {
+        var trie = new AccountTrie(1);
+        trie.add("20", new Money[]{Money.of(0.305)});
+        trie.add("201", new Money[]{Money.ofCents(30)});
+        trie.add("30", new Money[]{Money.of(0.315)});
+        trie.add("301", new Money[]{Money.ofCents(31)});
+        //0.305 rounds to 0.30 as PLE writes it, 0.315 rounds to 0.32.
+        var issues = trie.mismatches();
+        assertEquals(1, issues.size(), issues::toString);
+        assertEquals("30", issues.getFirst().key());
+    }
+
+    /**
+     * Creates a trial balance worksheet, with the 3 header rows.
+     *
+     * @param rows the account code and the first amounts of each row.
+     * @return the worksheet.
+     */
+    private static @NotNull Sheet trialBalance(Object @NotNull []... rows) {
+        var r = new ArrayList<RowData>();
+        for (var i = 0; i < 3; i++) r.add(new RowData().setValues(List.of(text("#"))));
+        for (var row : rows) {
+            var cells = new ArrayList<>(List.of(text((String) row[0]), text("CUENTA " + row[0])));
+            for (var i = 1; i < row.length; i++) cells.add(number((double) row[i]));
+            r.add(new RowData().setValues(cells));
+        }
+        return new Sheet().setData(List.of(new GridData().setRowData(r)));
+    }
+}
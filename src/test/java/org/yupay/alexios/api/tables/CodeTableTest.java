@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.yupay.alexios.api.tables;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link CodeTable} against a {@link java.util.HashMap} with the same entries:
+ * every code is found with its description, and no other code is.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+class CodeTableTest {
+    /**
+     * Chars of the random codes, SUNAT codes are alphanumeric.
+     */
+    private static final String CHARS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 3, 17, 300, 500, 999})
+    void randomCodes(int size) {
+        var random = new Random(48L + size);
+        var entries = new LinkedHashMap<String, String>();
+        while (entries.size() < size) entries.put(code(random), "Description " + entries.size());
+        var table = CodeTable.of(entries);
+        assertEquals(size, table.size());
+        for (var e : entries.entrySet()) {
+            assertTrue(table.contains(e.getKey()), e.getKey());
+            assertEquals(e.getValue(), table.description(e.getKey()), e.getKey());
+            //Any CharSequence, not only strings.
+            assertTrue(table.contains(new StringBuilder(e.getKey())), e.getKey());
+        }
+        //Absent codes: random ones, and near misses of those present.
+        var absent = new HashSet<String>();
+        while (absent.size() < 2_000) absent.add(code(random));
+        for (var code : entries.keySet()) {
+            absent.add(code + "0");
+            absent.add(code.substring(1));
+            absent.add(code.toLowerCase(Locale.ROOT));
+        }
+        absent.add("");
+        absent.removeAll(entries.keySet());
+        for (var code : absent) {
+            assertFalse(table.contains(code), code);
+            assertNull(table.description(code), code);
+        }
+        assertFalse(table.contains(null));
+        assertNull(table.description(null));
+    }
+
+    @Test
+    void blankCodeAndDescription() {
+        var table = CodeTable.of(Map.of("", "Blank", "00", ""));
+        assertEquals("Blank", table.description(""));
+        assertEquals("", table.description("00"));
+        assertNull(table.description("0"));
+    }
+
+    @Test
+    void read() throws IOException {
+        var table = CodeTable.read(new BufferedReader(new StringReader("""
+                # Tabla 2: tipo de documento de identidad
+                0 | DOC.TRIB.NO.DOM.SIN.RUC
+
+                1|DOCUMENTO NACIONAL DE IDENTIDAD
+                6|REGISTRO ÚNICO DE CONTRIBUYENTES|
+                A
+                """)));
+        assertEquals(4, table.size());
+        assertEquals("DOC.TRIB.NO.DOM.SIN.RUC", table.description("0"));
+        assertEquals("DOCUMENTO NACIONAL DE IDENTIDAD", table.description("1"));
+        //Only the first | separates.
+        assertEquals("REGISTRO ÚNICO DE CONTRIBUYENTES|", table.description("6"));
+        assertEquals("", table.description("A"));
+        assertFalse(table.contains("#"));
+    }
+
+    @Test
+    void readRepeatedCode() {
+        var reader = new BufferedReader(new StringReader("01|A\n02|B\n01|C\n"));
+        var e = assertThrows(IllegalArgumentException.class, () -> CodeTable.read(reader));
+        assertEquals("Repeated code: 01", e.getMessage());
+    }
+
+    @ParameterizedTest
+    @EnumSource(SunatTable.class)
+    void sunatTables(@NotNull SunatTable table) {
+        assertTrue(table.getTable().size() > 0, table.name());
+        assertFalse(table.contains("ZZZZZZ"));
+    }
+
+    /**
+     * Makes a random code of 1 to 6 chars.
+     *
+     * @param random the random source.
+     * @return the code.
+     */
+    private static @NotNull String code(@NotNull Random random) {
+        var sb = new StringBuilder();
+        for (var i = 1 + random.nextInt(6); i > 0; i--) sb.append(CHARS.charAt(random.nextInt(CHARS.length())));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.yupay.alexios.headless;
+
+import com.google.api.services.sheets.v4.model.Spreadsheet;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.yupay.alexios.api.BookProcessor;
+import org.yupay.alexios.api.BookValidationException;
+import org.yupay.alexios.tools.WorkbookGenerator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Stress test of processors shared across jobs: a single instance of each processor
+ * runs the same synthetic workbook on many threads at once, and every run must
+ * write the same files as a run alone.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+class SharedProcessorTest {
+    /**
+     * Runs at the same time.
+     */
+    private static final int THREADS = 8;
+    /**
+     * Random UUIDs are the ID of some records by design, they're the only bytes allowed to differ.
+     */
+    private static final Pattern UUID = Pattern.compile(
+            "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    @ParameterizedTest
+    @EnumSource(BookKind.class)
+    void sharedProcessorWritesTheSameFiles(@NotNull BookKind kind, @TempDir Path tmp) throws Exception {
+        var workbook = workbook(kind);
+        var processor = kind.newProcessor();
+        var expected = run(processor, workbook, Files.createDirectory(tmp.resolve("alone")));
+        assertFalse(expected.files().isEmpty(), "No files written by " + kind);
+        //Every thread waits for the others, so the runs overlap as much as possible.
+        var start = new CountDownLatch(1);
+        var futures = new ArrayList<CompletableFuture<Output>>(THREADS);
+        try (var executor = Executors.newFixedThreadPool(THREADS)) {
+            for (var i = 0; i < THREADS; i++) {
+                var dir = Files.createDirectory(tmp.resolve("run" + i));
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                        return run(processor, workbook, dir);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }, executor));
+            }
+            start.countDown();
+        }
+        for (var i = 0; i < THREADS; i++) {
+            assertEquals(expected, futures.get(i).join(), "Run %d of %s".formatted(i, kind));
+        }
+    }
+
+    /**
+     * Generates the workbook a book kind reads.
+     *
+     * @param kind the book kind.
+     * @return the workbook.
+     */
+    private static @NotNull Spreadsheet workbook(@NotNull BookKind kind) {
+        var gen = new WorkbookGenerator().withRows(400).withSeed(30);
+        return switch (kind) {
+            case LE0300, LE0300T, PDT710 -> gen.generateLE0300();
+            case LE0500, LE0600 -> gen.generateLE0500();
+            case LE0700 -> gen.generateLE0700();
+            case LE0800 -> gen.generateLE0800();
+            case LE1000 -> gen.generateLE1000();
+            case LE1300 -> gen.generateLE1300();
+            case LE1400 -> gen.generateLE1400();
+        };
+    }
+
+    /**
+     * Processes a workbook and reads back what was written.
+     * A validation failure is part of the output, the files are written anyway.
+     *
+     * @param processor the processor.
+     * @param workbook  the workbook.
+     * @param dir       the target directory.
+     * @return the output.
+     * @throws Exception if the processor fails other than by validation.
+     */
+    private static @NotNull Output run(@NotNull BookProcessor processor,
+                                       @NotNull Spreadsheet workbook,
+                                       @NotNull Path dir) throws Exception {
+        String failure = null;
+        try {
+            processor.processSheet(workbook, dir);
+        } catch (BookValidationException e) {
+            failure = e.getMessage();
+        }
+        return new Output(read(dir), failure);
+    }
+
+    /**
+     * Reads the files of a directory, byte by byte, with UUIDs masked.
+     *
+     * @param dir the directory.
+     * @return the contents by file name.
+     * @throws IOException if unable to read.
+     */
+    private static @NotNull TreeMap<String, String> read(@NotNull Path dir) throws IOException {
+        var r = new TreeMap<String, String>();
+        try (var files = Files.list(dir)) {
+            for (var it = files.iterator(); it.hasNext(); ) {
+                var f = it.next();
+                r.put(f.getFileName().toString(),
+                        UUID.matcher(Files.readString(f, StandardCharsets.ISO_8859_1)).replaceAll("<uuid>"));
+            }
+        }
+        return r;
+    }
+
+    /**
+     * What a run leaves.
+     *
+     * @param files   the contents of the files by name.
+     * @param failure the validation failure message; or null.
+     */
+    private record Output(TreeMap<String, String> files, String failure) {
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.yupay.alexios.ple;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link DiffTable}: items left after adding and removing are listed with their counts,
+ * or not at all if the table is too small for them.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+class DiffTableTest {
+    @Test
+    void emptyTable() {
+        assertEquals(List.of(), new DiffTable(1).decode());
+    }
+
+    @Test
+    void sameItemsCancelOut() {
+        var random = new Random(50);
+        var table = new DiffTable(8);
+        var items = new long[10_000][];
+        for (var i = 0; i < items.length; i++) {
+            items[i] = new long[]{DiffTable.field(random.nextLong()), DiffTable.field(random.nextLong())};
+            table.add(items[i][0], items[i][1]);
+        }
+        for (var i = items.length - 1; i >= 0; i--) table.remove(items[i][0], items[i][1]);
+        assertEquals(List.of(), table.decode());
+    }
+
+    @Test
+    void repeatedItemsAreCounted() {
+        var table = new DiffTable(4);
+        var key = DiffTable.field(PleReader.mix(1L));
+        var old = DiffTable.field(PleReader.mix(2L));
+        var fresh = DiffTable.field(PleReader.mix(3L));
+        for (var i = 0; i < 3; i++) table.add(key, old);
+        table.remove(key, old);
+        for (var i = 0; i < 5; i++) table.remove(key, fresh);
+        var items = table.decode();
+        assertNotNull(items);
+        assertEquals(Map.of(old, 2, fresh, -5), counts(items));
+        assertTrue(items.stream().allMatch(x -> x.key() == key));
+    }
+
+    @Test
+    void randomDifferences() {
+        var random = new Random(50);
+        for (var run = 0; run < 50; run++) {
+            var expected = new HashMap<Long, Integer>();
+            //A narrower table fails now and then to list that many items, then PleDiff widens it.
+            var table = new DiffTable(256);
+            //Common items, then about 60 differences, some of them repeated.
+            for (var i = 0; i < 2000; i++) {
+                var key = DiffTable.field(random.nextLong());
+                var value = DiffTable.field(random.nextLong());
+                table.add(key, value);
+                table.remove(key, value);
+            }
+            for (var i = 0; i < 60; i++) {
+                var key = DiffTable.field(random.nextLong());
+                var value = DiffTable.field(random.nextLong());
+                var times = random.nextInt(1, 4) * (random.nextBoolean() ? 1 : -1);
+                for (var t = 0; t < Math.abs(times); t++) {
+                    if (times > 0) table.add(key, value);
+                    else table.remove(key, value);
+                }
+                expected.put(value, times);
+            }
+            var items = table.decode();
+            assertNotNull(items, "Run " + run);
+            assertEquals(expected, counts(items), "Run " + run);
+        }
+    }
+
+    @Test
+    void tooSmallTable() {
+        var random = new Random(50);
+        var table = new DiffTable(8);
+        for (var i = 0; i < 1000; i++) table.add(DiffTable.field(random.nextLong()), DiffTable.field(random.nextLong()));
+        assertNull(table.decode());
+    }
+
+    /**
+     * Counts of items, by record hash.
+     *
+     * @param items the items.
+     * @return the counts.
+     */
+    private static @NotNull Map<Long, Integer> counts(@NotNull List<DiffTable.Item> items) {
+        var r = new HashMap<Long, Integer>();
+        for (var item : items) assertNull(r.put(item.value(), item.count()), "Item listed twice");
+        return r;
+    }
+}
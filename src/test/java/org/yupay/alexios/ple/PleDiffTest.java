@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.yupay.alexios.ple;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.yupay.alexios.api.PLEBookNameBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link PleDiff} on PLE files of the book 030100 (period, CUO, correlative, amount, state),
+ * against a plain diff in memory when there are many differences.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+class PleDiffTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void identicalFiles() throws IOException {
+        var lines = new ArrayList<String>();
+        for (var i = 0; i < 5000; i++) lines.add(line("M" + i, 1, i + ".00"));
+        lines.add(lines.getFirst());
+        assertEquals(List.of(), PleDiff.diff(file("old", "030100", lines), file("new", "030100", lines)));
+    }
+
+    @Test
+    void addedRemovedAndChanged() throws IOException {
+        var old = file("old", "030100", List.of(
+                line("M1", 1, "10.00"),
+                line("M2", 1, "20.00"),
+                line("M3", 1, "30.00"),
+                line("M3", 2, "30.00")));
+        var fresh = file("new", "030100", List.of(
+                line("M1", 1, "10.00"),
+                line("M3", 2, "35.00"),
+                line("M3", 1, "30.00"),
+                line("M4", 1, "40.00")));
+        assertEquals(List.of(
+                new PleChange(PleChange.Kind.REMOVED, "M2|1", 2, 0, fields("M2", 1, "20.00"), List.of()),
+                new PleChange(PleChange.Kind.CHANGED, "M3|2", 4, 2, fields("M3", 2, "30.00"), fields("M3", 2, "35.00")),
+                new PleChange(PleChange.Kind.ADDED, "M4|1", 0, 4, List.of(), fields("M4", 1, "40.00"))),
+                PleDiff.diff(old, fresh));
+        var changed = PleDiff.diff(old, fresh).get(1);
+        assertEquals(List.of(3), changed.changedFields());
+        assertEquals("~ [M3|2] lines 4/2: field 4 '30.00' -> '35.00'", changed.toString());
+    }
+
+    @Test
+    void duplicatedRecords() throws IOException {
+        var old = file("old", "030100", List.of(
+                line("M1", 1, "10.00"),
+                line("M2", 1, "20.00"),
+                line("M2", 1, "20.00"),
+                line("M2", 1, "20.00")));
+        var fresh = file("new", "030100", List.of(
+                line("M1", 1, "10.00"),
+                line("M2", 1, "20.00"),
+                line("M1", 1, "10.00"),
+                line("M1", 1, "10.00")));
+        //The records in excess are the first ones of their file.
+        assertEquals(List.of(
+                new PleChange(PleChange.Kind.ADDED, "M1|1", 0, 1, List.of(), fields("M1", 1, "10.00")),
+                new PleChange(PleChange.Kind.ADDED, "M1|1", 0, 3, List.of(), fields("M1", 1, "10.00")),
+                new PleChange(PleChange.Kind.REMOVED, "M2|1", 2, 0, fields("M2", 1, "20.00"), List.of()),
+                new PleChange(PleChange.Kind.REMOVED, "M2|1", 3, 0, fields("M2", 1, "20.00"), List.of())),
+                PleDiff.diff(old, fresh));
+    }
+
+    @Test
+    void duplicatedKeysAreNotChanges() throws IOException {
+        //Two records of a key became one, it can't be told which one changed.
+        var old = file("old", "030100", List.of(line("M1", 1, "10.00"), line("M1", 1, "11.00")));
+        var fresh = file("new", "030100", List.of(line("M1", 1, "12.00")));
+        assertEquals(List.of(
+                new PleChange(PleChange.Kind.ADDED, "M1|1", 0, 1, List.of(), fields("M1", 1, "12.00")),
+                new PleChange(PleChange.Kind.REMOVED, "M1|1", 1, 0, fields("M1", 1, "10.00"), List.of()),
+                new PleChange(PleChange.Kind.REMOVED, "M1|1", 2, 0, fields("M1", 1, "11.00"), List.of())),
+                PleDiff.diff(old, fresh));
+    }
+
+    @Test
+    void manyDifferencesWidenTheTable() throws IOException {
+        var random = new Random(50);
+        var old = new ArrayList<String>();
+        var fresh = new ArrayList<String>();
+        for (var i = 0; i < 20_000; i++) {
+            var record = line("M" + i, 1 + random.nextInt(3), random.nextInt(100_000) + ".00");
+            switch (random.nextInt(10)) {
+                case 0 -> old.add(record);
+                case 1 -> fresh.add(record);
+                case 2 -> {
+                    old.add(record);
+                    fresh.add(line("M" + i, 1, random.nextInt(100_000) + ".50"));
+                }
+                case 3 -> {
+                    old.add(record);
+                    fresh.add(record);
+                    fresh.add(record);
+                }
+                default -> {
+                    old.add(record);
+                    fresh.add(record);
+                }
+            }
+        }
+        //Thousands of differences, far beyond the first table.
+        var expected = plainDiff(old, fresh);
+        assertTrue(expected.size() > 5000, "Differences: " + expected.size());
+        assertEquals(expected, PleDiff.diff(file("old", "030100", old), file("new", "030100", fresh)));
+    }
+
+    @Test
+    void otherFiles() throws IOException {
+        var sales = file("old", "140100", List.of());
+        var purchases = file("new", "080100", List.of());
+        assertThrows(IllegalArgumentException.class, () -> PleDiff.diff(sales, purchases));
+        var unknown = file("old", "990100", List.of());
+        assertThrows(IllegalArgumentException.class, () -> PleDiff.diff(unknown, unknown));
+        var notPle = Files.writeString(dir.resolve("notes.txt"), "");
+        assertThrows(IllegalArgumentException.class, () -> PleDiff.diff(notPle, notPle));
+    }
+
+    /**
+     * Diffs in memory, record by record, as the reference: the records in a file more times
+     * than in the other are the first ones of that file.
+     *
+     * @param old   the old lines.
+     * @param fresh the new lines.
+     * @return the changes.
+     */
+    private static @NotNull List<PleChange> plainDiff(@NotNull List<String> old, @NotNull List<String> fresh) {
+        var counts = new HashMap<String, Integer>();
+        old.forEach(x -> counts.merge(x, 1, Integer::sum));
+        fresh.forEach(x -> counts.merge(x, -1, Integer::sum));
+        var olds = new LinkedHashMap<String, List<Integer>>();
+        var news = new LinkedHashMap<String, List<Integer>>();
+        var left = new HashMap<>(counts);
+        for (var i = 0; i < old.size(); i++) {
+            var record = old.get(i);
+            if (left.get(record) <= 0) continue;
+            left.merge(record, -1, Integer::sum);
+            olds.computeIfAbsent(key(record), _ -> new ArrayList<>()).add(i + 1);
+        }
+        left = new HashMap<>(counts);
+        for (var i = 0; i < fresh.size(); i++) {
+            var record = fresh.get(i);
+            if (left.get(record) >= 0) continue;
+            left.merge(record, 1, Integer::sum);
+            news.computeIfAbsent(key(record), _ -> new ArrayList<>()).add(i + 1);
+        }
+        var r = new ArrayList<PleChange>();
+        var keys = new LinkedHashMap<String, Boolean>();
+        olds.keySet().forEach(k -> keys.put(k, true));
+        news.keySet().forEach(k -> keys.put(k, true));
+        for (var key : keys.keySet()) {
+            var o = olds.getOrDefault(key, List.of());
+            var n = news.getOrDefault(key, List.of());
+            if (o.size() == 1 && n.size() == 1) {
+                r.add(new PleChange(PleChange.Kind.CHANGED, key, o.getFirst(), n.getFirst(),
+                        split(old.get(o.getFirst() - 1)), split(fresh.get(n.getFirst() - 1))));
+                continue;
+            }
+            for (var line : o) {
+                r.add(new PleChange(PleChange.Kind.REMOVED, key, line, 0, split(old.get(line - 1)), List.of()));
+            }
+            for (var line : n) {
+                r.add(new PleChange(PleChange.Kind.ADDED, key, 0, line, List.of(), split(fresh.get(line - 1))));
+            }
+        }
+        r.sort(Comparator.comparing(PleChange::key)
+                .thenComparingLong(PleChange::oldLine)
+                .thenComparingLong(PleChange::newLine));
+        return r;
+    }
+
+    /**
+     * The natural key of a record of 030100: CUO and correlative.
+     *
+     * @param line the record.
+     * @return the key.
+     */
+    private static @NotNull String key(@NotNull String line) {
+        var fields = split(line);
+        return fields.get(1) + "|" + fields.get(2);
+    }
+
+    /**
+     * Splits a record into fields.
+     *
+     * @param line the record, without line break.
+     * @return the fields.
+     */
+    private static @NotNull List<String> split(@NotNull String line) {
+        var fields = line.split("\\|", -1);
+        return List.of(Arrays.copyOf(fields, fields.length - 1));
+    }
+
+    /**
+     * Makes a record of 030100.
+     *
+     * @param cuo         the CUO.
+     * @param correlative the correlative.
+     * @param amount      the amount.
+     * @return the record, without line break.
+     */
+    private static @NotNull String line(@NotNull String cuo, int correlative, @NotNull String amount) {
+        return "20240100|%s|%d|%s|1|".formatted(cuo, correlative, amount);
+    }
+
+    /**
+     * Makes the fields of a record of 030100.
+     *
+     * @param cuo         the CUO.
+     * @param correlative the correlative.
+     * @param amount      the amount.
+     * @return the fields.
+     */
+    private static @NotNull List<String> fields(@NotNull String cuo, int correlative, @NotNull String amount) {
+        return split(line(cuo, correlative, amount));
+    }
+
+    /**
+     * Writes a PLE file of January 2024, in a folder of its own, since both generations have the same name.
+     *
+     * @param folder the folder name.
+     * @param book   the book ID.
+     * @param lines  the records, without line break.
+     * @return the file.
+     * @throws IOException if unable to write.
+     */
+    private @NotNull Path file(@NotNull String folder, @NotNull String book, @NotNull List<String> lines)
+            throws IOException {
+        var name = new PLEBookNameBuilder()
+                .withRuc("20100070970")
+                .withYear("2024")
+                .withMonth("01")
+                .withBookID(book)
+                .withOpsFlag("1")
+                .withEmpty(true)
+                .withExtension("txt")
+                .build();
+        var sb = new StringBuilder();
+        for (var line : lines) sb.append(line).append("\r\n");
+        return Files.writeString(Files.createDirectories(dir.resolve(folder)).resolve(name),
+                sb.toString(), StandardCharsets.UTF_8);
+    }
+}
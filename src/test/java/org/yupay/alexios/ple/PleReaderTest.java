@@ -0,0 +1,290 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.yupay.alexios.ple;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link PleReader}: the word at a time search of line breaks against a plain
+ * byte by byte split, and the fields, line break and trailing bytes of each record.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+class PleReaderTest {
+    /**
+     * Bytes that look like a LF to a careless word at a time search: LF + 1, LF with the high bit,
+     * and the bytes of UTF-8 non ASCII chars.
+     */
+    private static final byte[] NEAR_LF = {0x0B, 0x09, (byte) 0x8A, (byte) 0x8B, (byte) 0xC3, (byte) 0x91, 0x00, '|'};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void lineBreakAtEveryAlignment() throws IOException {
+        //A LF at each offset of the first word, the second word and the byte by byte tail.
+        for (var offset = 0; offset < 3 * Long.BYTES; offset++) {
+            for (var tail = 0; tail < 2 * Long.BYTES; tail++) {
+                var line = new byte[offset];
+                Arrays.fill(line, (byte) 'a');
+                var after = new byte[tail];
+                Arrays.fill(after, (byte) 'b');
+                var file = write(concat(line, new byte[]{'\n'}, after));
+                var expected = new ArrayList<byte[]>();
+                expected.add(line);
+                if (tail > 0) expected.add(after);
+                assertEquals(expected.stream().map(PleReaderTest::text).toList(), records(file),
+                        "LF at %d, %d bytes after".formatted(offset, tail));
+            }
+        }
+    }
+
+    @Test
+    void lineBreakStartingAtEveryAlignment() throws IOException {
+        //The first line shifts the start of the second one across a whole word.
+        for (var first = 0; first <= 2 * Long.BYTES; first++) {
+            for (var second = 0; second <= 2 * Long.BYTES; second++) {
+                var out = new ByteArrayOutputStream();
+                out.write('x');
+                out.write(NEAR_LF, 0, first % NEAR_LF.length);
+                out.write('\n');
+                for (var i = 0; i < second; i++) out.write(NEAR_LF[i % NEAR_LF.length]);
+                out.write('\n');
+                var bytes = out.toByteArray();
+                assertEquals(split(bytes), records(write(bytes)), "Lines of %d and %d".formatted(first, second));
+            }
+        }
+    }
+
+    @Test
+    void randomBytesMatchPlainSplit() throws IOException {
+        var random = new Random(49);
+        for (var run = 0; run < 200; run++) {
+            var bytes = new byte[random.nextInt(300)];
+            for (var i = 0; i < bytes.length; i++) {
+                bytes[i] = random.nextInt(6) == 0 ? (byte) '\n' : NEAR_LF[random.nextInt(NEAR_LF.length)];
+            }
+            assertEquals(split(bytes), records(write(bytes)), "Run " + run);
+        }
+    }
+
+    @Test
+    void lastLineWithoutLineBreak() throws IOException {
+        try (var reader = PleReader.open(write("a|b|\r\nc|d|".getBytes(StandardCharsets.US_ASCII)))) {
+            assertTrue(reader.next());
+            assertTrue(reader.endsWithCrLf());
+            assertTrue(reader.next());
+            assertEquals(2, reader.line());
+            assertEquals("c|d|", reader.record());
+            assertFalse(reader.endsWithCrLf());
+            assertTrue(reader.endsWithPipe());
+            assertFalse(reader.next());
+        }
+        //A CR without LF at the end of the file isn't a line break, but trailing bytes.
+        try (var reader = PleReader.open(write("a|b|\r".getBytes(StandardCharsets.US_ASCII)))) {
+            assertTrue(reader.next());
+            assertFalse(reader.endsWithCrLf());
+            assertFalse(reader.endsWithPipe());
+            assertEquals(2, reader.fieldCount());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void lineBreaksAndTrailingPipe() throws IOException {
+        var file = write("a|bb|\r\na|bb|\na|bb\r\n\r\n|\r\n".getBytes(StandardCharsets.US_ASCII));
+        try (var reader = PleReader.open(file)) {
+            assertTrue(reader.next());
+            assertTrue(reader.endsWithCrLf());
+            assertTrue(reader.endsWithPipe());
+            assertEquals(2, reader.fieldCount());
+            assertEquals("a|bb|", reader.record());
+
+            assertTrue(reader.next());
+            assertFalse(reader.endsWithCrLf());
+            assertTrue(reader.endsWithPipe());
+            assertEquals("a|bb|", reader.record());
+
+            assertTrue(reader.next());
+            assertTrue(reader.endsWithCrLf());
+            assertFalse(reader.endsWithPipe());
+            assertEquals(1, reader.fieldCount());
+            assertEquals("a|bb", reader.record());
+
+            assertTrue(reader.next());
+            assertTrue(reader.endsWithCrLf());
+            assertTrue(reader.endsWithPipe());
+            assertEquals(0, reader.fieldCount());
+
+            assertTrue(reader.next());
+            assertEquals(1, reader.fieldCount());
+            assertEquals(0, reader.length(0));
+            assertEquals("", reader.text(0));
+            assertEquals(5, reader.line());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void fields() throws IOException {
+        var file = write("202401|CUO-1|M1|PEÑA|12.50|\r\n".getBytes(StandardCharsets.UTF_8));
+        try (var reader = PleReader.open(file)) {
+            assertTrue(reader.next());
+            assertEquals(5, reader.fieldCount());
+            assertEquals("202401", reader.text(0));
+            assertEquals("PEÑA", reader.text(3));
+            assertEquals(5, reader.length(3));
+            assertEquals((byte) 'C', reader.byteAt(1, 0));
+            assertTrue(reader.contentEquals(4, "12.50".getBytes(StandardCharsets.US_ASCII)));
+            assertFalse(reader.contentEquals(4, "12.5".getBytes(StandardCharsets.US_ASCII)));
+            assertThrows(IndexOutOfBoundsException.class, () -> reader.text(5));
+            assertThrows(IndexOutOfBoundsException.class, () -> reader.byteAt(0, 6));
+        }
+    }
+
+    @Test
+    void longLinesAndManyFields() throws IOException {
+        //Longer than the initial buffer, and with more fields than the initial offsets.
+        var fields = new ArrayList<String>();
+        for (var i = 0; i < 1000; i++) fields.add("F" + i);
+        var line = String.join("|", fields) + "|";
+        var file = write((line + "\r\n" + "a|\r\n" + line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        try (var reader = PleReader.open(file)) {
+            assertTrue(reader.next());
+            assertEquals(1000, reader.fieldCount());
+            assertEquals("F999", reader.text(999));
+            assertEquals(line, reader.record());
+            assertTrue(reader.next());
+            assertEquals(1, reader.fieldCount());
+            assertEquals("a", reader.text(0));
+            assertTrue(reader.next());
+            assertEquals(line, reader.record());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void emptyFile() throws IOException {
+        try (var reader = PleReader.open(write(new byte[0]))) {
+            assertEquals(0, reader.size());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void hashesIgnoreThePosition() throws IOException {
+        var file = write("A-LONGER-KEY-VALUE|x|\r\nyy|A-LONGER-KEY-VALUE|\r\nA-LONGER-KEY-VALUF|x|\r\n"
+                .getBytes(StandardCharsets.US_ASCII));
+        try (var reader = PleReader.open(file)) {
+            reader.next();
+            var first = reader.hash(0, 0L);
+            var record = reader.recordHash();
+            reader.next();
+            assertEquals(first, reader.hash(1, 0L));
+            assertNotEquals(record, reader.recordHash());
+            reader.next();
+            assertNotEquals(first, reader.hash(0, 0L));
+            //Missing fields hash as blank ones.
+            assertEquals(reader.hash(2, 0L), reader.hash(5, 0L));
+        }
+    }
+
+    /**
+     * Reads all records of a file.
+     *
+     * @param file the file.
+     * @return the text of each record, with the CR if any.
+     * @throws IOException if unable to read.
+     */
+    private static @NotNull List<String> records(@NotNull Path file) throws IOException {
+        var r = new ArrayList<String>();
+        try (var reader = PleReader.open(file)) {
+            while (reader.next()) r.add(reader.record() + (reader.endsWithCrLf() ? "\r" : ""));
+        }
+        return r;
+    }
+
+    /**
+     * Splits bytes by LF, byte by byte, as the reference.
+     *
+     * @param bytes the bytes.
+     * @return the lines, the last one only if not empty.
+     */
+    private static @NotNull List<String> split(byte @NotNull [] bytes) {
+        var r = new ArrayList<String>();
+        var start = 0;
+        for (var i = 0; i < bytes.length; i++) {
+            if (bytes[i] != '\n') continue;
+            r.add(text(Arrays.copyOfRange(bytes, start, i)));
+            start = i + 1;
+        }
+        if (start < bytes.length) r.add(text(Arrays.copyOfRange(bytes, start, bytes.length)));
+        return r;
+    }
+
+    /**
+     * Decodes bytes as the reader does.
+     *
+     * @param bytes the bytes.
+     * @return the text.
+     */
+    private static @NotNull String text(byte @NotNull [] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Concatenates byte arrays.
+     *
+     * @param parts the arrays.
+     * @return the bytes.
+     */
+    private static byte @NotNull [] concat(byte @NotNull [] @NotNull ... parts) {
+        var out = new ByteArrayOutputStream();
+        for (var part : parts) out.writeBytes(part);
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes a new file to the temporary folder.
+     *
+     * @param bytes the contents.
+     * @return the file.
+     * @throws IOException if unable to write.
+     */
+    private @NotNull Path write(byte @NotNull [] bytes) throws IOException {
+        return Files.write(Files.createTempFile(dir, "ple", ".txt"), bytes);
+    }
+}
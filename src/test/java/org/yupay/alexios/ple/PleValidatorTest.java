@@ -0,0 +1,317 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.yupay.alexios.ple;
+
+import com.google.api.services.sheets.v4.model.Spreadsheet;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.yupay.alexios.api.BookValidationException;
+import org.yupay.alexios.api.PLEBookNameBuilder;
+import org.yupay.alexios.headless.BookKind;
+import org.yupay.alexios.tools.WorkbookGenerator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link PleValidator} on records made from the specification of each {@link PleLayout},
+ * and on the files written by the processors from synthetic workbooks, read back by {@link PleReader}.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+class PleValidatorTest {
+    /**
+     * The period of the files: January 2024.
+     */
+    private static final String PERIOD = "20240100";
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"030100", "030200", "030300", "030400", "030500", "030600", "030700", "030800",
+            "030900", "031100", "031200", "031300", "031500", "031601", "031602", "031700", "031800", "031900",
+            "032000", "032400", "032500", "050100", "060100", "070100", "070300", "070400", "080100", "080200",
+            "100100", "100200", "100300", "100400", "130100", "140100"})
+    void eachLayout(@NotNull String book) throws Exception {
+        var spec = PleLayout.of(book).orElseThrow().spec();
+        var valid = record(spec);
+        assertEquals(3, PleValidator.validate(write(book, List.of(valid, valid, valid))));
+        //A field less.
+        var missing = assertThrows(BookValidationException.class,
+                () -> PleValidator.validate(write(book, List.of(valid, valid.subList(0, valid.size() - 1)))));
+        assertEquals(1, missing.getCount());
+        assertEquals(new BookValidationException.Issue(2, valid.get(1),
+                        "Expected %d fields, found %d".formatted(spec.length(), spec.length() - 1)),
+                missing.getIssues().getFirst());
+        //Each checked field spoiled alone.
+        for (var i = 0; i < spec.length(); i++) {
+            if (Character.toLowerCase(spec.charAt(i)) == 'x') continue;
+            var spoiled = new ArrayList<>(valid);
+            spoiled.set(i, "?");
+            var e = assertThrows(BookValidationException.class,
+                    () -> PleValidator.validate(write(book, List.of(valid, spoiled, valid))), "Field " + (i + 1));
+            assertEquals(1, e.getCount());
+            var issue = e.getIssues().getFirst();
+            assertEquals(2, issue.row());
+            assertTrue(issue.message().startsWith("Field %d is not ".formatted(i + 1)), issue.message());
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"15/01/2024,true", "29/02/2024,true", "00/00/0000,true", "31/12/1999,true",
+            "29/02/2023,false", "31/04/2024,false", "00/01/2024,false", "01/13/2024,false",
+            "1/01/2024,false", "01-01-2024,false", "01/01/24,false", "0a/01/2024,false"})
+    void dates(@NotNull String date, boolean valid) throws Exception {
+        //030300: period, CUO, correlative, three texts, date, amount, state, text.
+        check("030300", valid, PERIOD, "M1", "1", "a", "b", "c", date, "1.00", "1", "d");
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0.00,true", "-1250.50,true", "1234567890123.99,true",
+            "1.5,false", "1.500,false", "1.,false", ".50,false", "-.50,false", "'1,50',false", "+1.50,false", "'',false"})
+    void amounts(@NotNull String amount, boolean valid) throws Exception {
+        check("030100", valid, PERIOD, "M1", "1", amount, "1");
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0.12345678,true", "-3.1,true", "10.00,true", "1,false", "1.,false", "1.2x,false"})
+    void decimals(@NotNull String decimal, boolean valid) throws Exception {
+        //031602: period, CUO, correlative, three texts, decimal, state.
+        check("031602", valid, PERIOD, "M1", "1", "a", "b", "c", decimal, "1");
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0,true", "1,true", "2,true", "6,true", "7,true", "8,true", "9,true",
+            "3,false", "4,false", "5,false", "10,false", "'',false", "a,false"})
+    void states(@NotNull String state, boolean valid) throws Exception {
+        check("030100", valid, PERIOD, "M1", "1", "1.00", state);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"20240100,true", "20241200,true", "20230100,false", "20241300,false",
+            "20240001,false", "20240101,false", "2024010,false"})
+    void months(@NotNull String month, boolean valid) throws Exception {
+        //100200 is the only layout with a month of the year, instead of the period.
+        check("100200", valid, month, "1.00", "1.00", "1.00", "1.00", "1.00", "1.00", "1");
+    }
+
+    @Test
+    void otherPeriod() {
+        assertThrows(BookValidationException.class,
+                () -> PleValidator.validate(write("030100", List.of(List.of("20240200", "M1", "1", "1.00", "1")))));
+    }
+
+    @Test
+    void lineBreaksAndTrailingPipe() throws Exception {
+        var book = "030100";
+        var lf = file(book, true, "20240100|M1|1|1.00|1|\r\n20240100|M1|2|1.00|1|\n");
+        var e = assertThrows(BookValidationException.class, () -> PleValidator.validate(lf));
+        assertEquals(new BookValidationException.Issue(2, "M1", "Line break is not CRLF"), e.getIssues().getFirst());
+        //The last line must end by CRLF too.
+        var last = file(book, true, "20240100|M1|1|1.00|1|");
+        e = assertThrows(BookValidationException.class, () -> PleValidator.validate(last));
+        assertEquals("Line break is not CRLF", e.getIssues().getFirst().message());
+        var pipe = file(book, true, "20240100|M1|1|1.00|1\r\n");
+        e = assertThrows(BookValidationException.class, () -> PleValidator.validate(pipe));
+        assertEquals(new BookValidationException.Issue(1, "M1", "Last field is not ended by |"),
+                e.getIssues().getFirst());
+    }
+
+    @Test
+    void infoFlag() throws Exception {
+        assertEquals(0, PleValidator.validate(file("030100", false, "")));
+        var contents = file("030100", false, "20240100|M1|1|1.00|1|\r\n");
+        var e = assertThrows(BookValidationException.class, () -> PleValidator.validate(contents));
+        assertEquals("File flagged without info has contents", e.getIssues().getFirst().message());
+        var empty = file("030100", true, "");
+        e = assertThrows(BookValidationException.class, () -> PleValidator.validate(empty));
+        assertEquals(new BookValidationException.Issue(0, "-", "File flagged with info is empty"),
+                e.getIssues().getFirst());
+    }
+
+    @Test
+    void issuesAreCapped() throws IOException {
+        var lines = new ArrayList<List<String>>();
+        for (var i = 0; i < 250; i++) {
+            lines.add(List.of(PERIOD, "M" + i, "1", i % 2 == 0 ? "1.00" : "1.0", "1"));
+        }
+        var file = write("030100", lines);
+        var e = assertThrows(BookValidationException.class, () -> PleValidator.validate(file));
+        assertEquals(125, e.getCount());
+        assertEquals(PleValidator.MAX_ISSUES, e.getIssues().size());
+        assertEquals(new BookValidationException.Issue(2, "M1", "Field 4 is not an amount with 2 decimals: '1.0'"),
+                e.getIssues().getFirst());
+    }
+
+    @Test
+    void fileNames() throws IOException {
+        var notPle = Files.writeString(dir.resolve("report.txt"), "");
+        assertThrows(IllegalArgumentException.class, () -> PleValidator.validate(notPle));
+        var unknown = file("990100", true, "20240100|M1|1|\r\n");
+        assertThrows(IllegalArgumentException.class, () -> PleValidator.validate(unknown));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = BookKind.class, names = "PDT710", mode = EnumSource.Mode.EXCLUDE)
+    void processorsWriteValidFiles(@NotNull BookKind kind) throws Exception {
+        try {
+            kind.newProcessor().processSheet(workbook(kind), dir);
+        } catch (BookValidationException ignored) {
+            //Synthetic workbooks break some business rules on purpose, the files are written anyway.
+        }
+        List<Path> files;
+        try (Stream<Path> ls = Files.list(dir)) {
+            files = ls.filter(p -> p.getFileName().toString().startsWith("LE")).sorted().toList();
+        }
+        assertFalse(files.isEmpty(), "No PLE files written by " + kind);
+        for (var file : files) {
+            var records = PleValidator.validate(file);
+            //Files without info are empty, maybe of books without layout.
+            if (records == 0) {
+                assertEquals(0, Files.size(file), file.getFileName().toString());
+                continue;
+            }
+            //The reader splits as a plain reading of the lines does.
+            var lines = Files.readString(file, StandardCharsets.UTF_8).split("\r\n");
+            var layout = PleLayout.of(file.getFileName().toString().substring(21, 27)).orElseThrow();
+            var read = new ArrayList<String>();
+            try (var reader = PleReader.open(file)) {
+                while (reader.next()) {
+                    assertEquals(layout.fieldCount(), reader.fieldCount(), file.getFileName() + ":" + reader.line());
+                    var fields = new ArrayList<String>();
+                    for (var i = 0; i < reader.fieldCount(); i++) fields.add(reader.text(i));
+                    read.add(String.join("|", fields) + "|");
+                }
+            }
+            assertEquals(records, read.size());
+            assertEquals(List.of(lines), read, file.getFileName().toString());
+        }
+    }
+
+    /**
+     * Validates a single record of a book.
+     *
+     * @param book   the book ID.
+     * @param valid  whether the record shall pass.
+     * @param fields the fields of the record.
+     * @throws Exception if not as expected.
+     */
+    private void check(@NotNull String book, boolean valid, String @NotNull ... fields) throws Exception {
+        var file = write(book, List.of(List.of(fields)));
+        if (valid) {
+            assertEquals(1, PleValidator.validate(file));
+        } else {
+            assertThrows(BookValidationException.class, () -> PleValidator.validate(file));
+        }
+    }
+
+    /**
+     * Makes a valid record from a layout specification.
+     *
+     * @param spec the specification.
+     * @return the fields.
+     */
+    private static @NotNull List<String> record(@NotNull String spec) {
+        var r = new ArrayList<String>(spec.length());
+        for (var i = 0; i < spec.length(); i++) {
+            r.add(switch (Character.toLowerCase(spec.charAt(i))) {
+                case 'p', 'm' -> PERIOD;
+                case 'd' -> i % 2 == 0 ? "31/01/2024" : "00/00/0000";
+                case 'n' -> i % 2 == 0 ? "1250.00" : "-0.50";
+                case 'r' -> "3.14159";
+                case 'e' -> "1";
+                default -> "T" + i;
+            });
+        }
+        return r;
+    }
+
+    /**
+     * Writes a PLE file of January 2024, flagged with info, with CRLF after each record.
+     *
+     * @param book    the book ID.
+     * @param records the fields of each record.
+     * @return the file.
+     * @throws IOException if unable to write.
+     */
+    private @NotNull Path write(@NotNull String book, @NotNull List<List<String>> records) throws IOException {
+        var sb = new StringBuilder();
+        for (var record : records) {
+            for (var field : record) sb.append(field).append('|');
+            sb.append("\r\n");
+        }
+        return file(book, true, sb.toString());
+    }
+
+    /**
+     * Writes a PLE file of January 2024.
+     *
+     * @param book     the book ID.
+     * @param info     the info flag of the name.
+     * @param contents the contents.
+     * @return the file.
+     * @throws IOException if unable to write.
+     */
+    private @NotNull Path file(@NotNull String book, boolean info, @NotNull String contents) throws IOException {
+        var name = new PLEBookNameBuilder()
+                .withRuc("20100070970")
+                .withYear("2024")
+                .withMonth("01")
+                .withBookID(book)
+                .withOpsFlag("1")
+                .withEmpty(info)
+                .withExtension("txt")
+                .build();
+        return Files.writeString(dir.resolve(name), contents, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Generates the workbook a book kind reads.
+     *
+     * @param kind the book kind.
+     * @return the workbook.
+     */
+    private static @NotNull Spreadsheet workbook(@NotNull BookKind kind) {
+        var gen = new WorkbookGenerator().withRows(200).withSeed(49);
+        return switch (kind) {
+            case LE0300, LE0300T, PDT710 -> gen.generateLE0300();
+            case LE0500, LE0600 -> gen.generateLE0500();
+            case LE0700 -> gen.generateLE0700();
+            case LE0800 -> gen.generateLE0800();
+            case LE1000 -> gen.generateLE1000();
+            case LE1300 -> gen.generateLE1300();
+            case LE1400 -> gen.generateLE1400();
+        };
+    }
+}
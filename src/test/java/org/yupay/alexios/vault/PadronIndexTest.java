@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2021 David Vidal Escudero - Free Open Source Software Consultancy
+ *
+ *       This program is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       This program is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU General Public License for more details.
+ *
+ *       You should have received a copy of the GNU General Public License
+ *       along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.yupay.alexios.vault;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round trip of the SUNAT padrón through {@link PadronImporter} and {@link PadronIndex}.
+ *
+ * @author InfoYupay SACS
+ * @version 1.0
+ */
+class PadronIndexTest {
+    /**
+     * The header line of the SUNAT file.
+     */
+    private static final String HEADER = "RUC|NOMBRE O RAZÓN SOCIAL|ESTADO DEL CONTRIBUYENTE|CONDICIÓN DE DOMICILIO|UBIGEO|";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void presentAbsentAndDuplicateRucs() throws IOException {
+        var source = write(List.of(HEADER,
+                "20100070970|SUPERMERCADOS PERUANOS SOCIEDAD ANONIMA|ACTIVO|HABIDO|150101|",
+                "10452345671|PEÑA MUÑOZ JOSÉ ÁNGEL|BAJA DE OFICIO|NO HABIDO|150101|",
+                "20100070970|SEGUNDA FILA S.A.C.|BAJA DEFINITIVA|NO HALLADO|150101|",
+                "20600000001|  EMPRESA CON ESPACIOS  |ACTIVO|HABIDO|-|"));
+        var target = dir.resolve("padron.idx");
+        assertEquals(3, PadronImporter.importFile(source, target));
+        try (var index = PadronIndex.open(target)) {
+            assertEquals(3, index.size());
+            //The first row of a repeated RUC wins.
+            var first = index.find("20100070970").orElseThrow();
+            assertEquals(new PadronEntry(20100070970L, "SUPERMERCADOS PERUANOS SOCIEDAD ANONIMA",
+                    "ACTIVO", "HABIDO"), first);
+            assertTrue(first.isActive());
+            assertTrue(first.isHabido());
+            var person = index.find("10452345671").orElseThrow();
+            assertEquals("PEÑA MUÑOZ JOSÉ ÁNGEL", person.legalName());
+            assertEquals("BAJA DE OFICIO", person.status());
+            assertEquals("NO HABIDO", person.condition());
+            assertFalse(person.isActive());
+            assertEquals("EMPRESA CON ESPACIOS", index.find("20600000001").orElseThrow().legalName());
+            //Absent, below, between and above the records.
+            for (var ruc : List.of("10000000001", "20100070971", "20999999999")) {
+                assertEquals(-1, index.indexOf(ruc), ruc);
+                assertTrue(index.find(ruc).isEmpty(), ruc);
+            }
+            //Not a RUC.
+            for (var text : new String[]{null, "", "2010007097", "201000709700", "2010007097X"}) {
+                assertEquals(-1, index.indexOf(text), text);
+            }
+        }
+    }
+
+    @Test
+    void headerAndMalformedLinesAreSkipped() throws IOException {
+        var source = write(List.of(HEADER,
+                "",
+                "not a padrón line",
+                "123|SHORT RUC|ACTIVO|HABIDO|-|",
+                "2010007097A|LETTER IN RUC|ACTIVO|HABIDO|-|",
+                "20100070970|MISSING FIELDS|ACTIVO",
+                "20100070970|NO CONDITION END|ACTIVO|HABIDO",
+                "20131312955|SUPERINTENDENCIA NACIONAL DE ADUANAS|ACTIVO|HABIDO|150101|"));
+        var target = dir.resolve("padron.idx");
+        assertEquals(1, PadronImporter.importFile(source, target));
+        try (var index = PadronIndex.open(target)) {
+            assertEquals(1, index.size());
+            assertEquals(20131312955L, index.rucAt(0));
+            assertEquals(-1, index.indexOf("20100070970"));
+        }
+        //Temporary files are deleted.
+        try (var files = Files.list(dir)) {
+            assertEquals(List.of("padron.idx", "padron.txt"), files.map(f -> f.getFileName().toString()).sorted().toList());
+        }
+    }
+
+    @Test
+    void emptyPadron() throws IOException {
+        var target = dir.resolve("padron.idx");
+        assertEquals(0, PadronImporter.importFile(write(List.of(HEADER)), target));
+        try (var index = PadronIndex.open(target)) {
+            assertEquals(0, index.size());
+            assertEquals(-1, index.indexOf("20100070970"));
+        }
+    }
+
+    @Test
+    void randomRucsMatchFirstRows() throws IOException {
+        var random = new Random(34);
+        var statuses = new String[]{"ACTIVO", "BAJA DE OFICIO", "SUSPENSION TEMPORAL"};
+        var conditions = new String[]{"HABIDO", "NO HABIDO", "NO HALLADO"};
+        var expected = new LinkedHashMap<Long, PadronEntry>();
+        var lines = new ArrayList<String>();
+        lines.add(HEADER);
+        for (var i = 0; i < 20_000; i++) {
+            //A small range, so many RUCs repeat.
+            var ruc = 20_000_000_000L + random.nextInt(15_000);
+            var entry = new PadronEntry(ruc, "RAZÓN SOCIAL Ñ %d".formatted(i),
+                    statuses[random.nextInt(statuses.length)], conditions[random.nextInt(conditions.length)]);
+            expected.putIfAbsent(ruc, entry);
+            lines.add("%d|%s|%s|%s|-|".formatted(ruc, entry.legalName(), entry.status(), entry.condition()));
+        }
+        var target = dir.resolve("padron.idx");
+        assertEquals(expected.size(), PadronImporter.importFile(write(lines), target));
+        try (var index = PadronIndex.open(target)) {
+            for (var e : expected.values()) {
+                assertEquals(e, index.find(e.rucText()).orElseThrow());
+            }
+            for (var i = 1; i < index.size(); i++) {
+                assertTrue(index.rucAt(i - 1) < index.rucAt(i));
+            }
+            for (var ruc = 20_000_000_000L; ruc < 20_000_015_000L; ruc++) {
+                assertEquals(expected.containsKey(ruc), index.indexOf(ruc) >= 0, Long.toString(ruc));
+            }
+        }
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        var other = write(List.of(HEADER));
+        assertThrows(IOException.class, () -> PadronIndex.open(other));
+    }
+
+    /**
+     * Writes a padrón file as SUNAT does, in ISO-8859-1.
+     *
+     * @param lines the lines.
+     * @return the file.
+     * @throws IOException if unable to write.
+     */
+    private @NotNull Path write(@NotNull List<String> lines) throws IOException {
+        return Files.write(dir.resolve("padron.txt"), lines, StandardCharsets.ISO_8859_1);
+    }
+}